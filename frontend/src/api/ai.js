@@ -25,6 +25,17 @@ export async function autoExtractEntities(documentId) {
     return handleResponse(res);
 }
 
+/**
+ * 为已标注的实体抽取关系并保存
+ * 返回 { candidatePairs, batches, failedBatches, extracted, inserted, elapsedMs }
+ */
+export async function autoExtractRelations(documentId) {
+    const res = await fetch(`${AI_BASE_URL}/extract-relations/${documentId}`, {
+        method: "POST",
+    });
+    return handleResponse(res);
+}
+
 // 新增：CSV 数据关联分析接口
 export async function analyzeCsvData(documentId) {
     const res = await fetch(`${AI_BASE_URL}/analyze-csv/${documentId}`, {
@@ -40,4 +51,18 @@ export async function getEnhancedBusinessReport(rawAnalysis) {
         body: JSON.stringify({ rawAnalysis }) // 后端记得用 Map 或 DTO 接收
     });
     return res.text();
-}
\ No newline at end of file
+}
+
+// 分析 + 报告流水线：服务端串联两阶段，返回 { rawAnalysis, businessReport, ... }
+export async function runAnalysisPipeline(documentId) {
+    const res = await fetch(`${AI_BASE_URL}/pipeline/${documentId}`, {
+        method: "POST",
+    });
+    return handleResponse(res);
+}
+
+// 最近一次持久化的分析 / 报告，analysisFresh / reportFresh 表示输入是否未变化
+export async function getLatestAnalysisResults(documentId) {
+    const res = await fetch(`${AI_BASE_URL}/results/${documentId}`);
+    return handleResponse(res);
+}
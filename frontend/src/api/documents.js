@@ -13,6 +13,15 @@ export async function getDocuments() {
     return handleResponse(res);
 }
 
+// 文档摘要分页（不含正文）：{ items: [{ id, title, length, entityCount, relationCount, createdAt }], nextCursor }
+export async function getDocumentSummaries({ title, cursor, limit = 20 } = {}) {
+    const params = new URLSearchParams({ limit });
+    if (title) params.set("title", title);
+    if (cursor) params.set("cursor", cursor);
+    const res = await fetch(`${BASE_URL}/summaries?${params}`);
+    return handleResponse(res);
+}
+
 export async function getDocument(id) {
     const res = await fetch(`${BASE_URL}/${id}`);
     return handleResponse(res);
@@ -48,3 +57,15 @@ export async function deleteDocument(id) {
     return true;
 }
 
+
+// 后台级联删除，立即返回进度 { status, currentTable, deleted, ... }
+export async function deleteDocumentAsync(id) {
+    const res = await fetch(`${BASE_URL}/${id}?async=true`, { method: "DELETE" });
+    return handleResponse(res);
+}
+
+// 查询删除进度，status 为 DONE / FAILED 时结束
+export async function getDeleteProgress(id) {
+    const res = await fetch(`${BASE_URL}/${id}/delete-progress`);
+    return handleResponse(res);
+}
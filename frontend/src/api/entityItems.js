@@ -37,6 +37,18 @@ export async function updateEntityItem(id, data) {
     return handleResponse(res);
 }
 
+// 实体词典（已有标注）匹配出的建议实体，不入库
+export async function getEntitySuggestions(docId) {
+    const res = await fetch(`${BASE_URL}/document/${docId}/suggestions`);
+    return handleResponse(res);
+}
+
+// 词典预标注并直接入库，返回新写入的实体
+export async function preAnnotateDocument(docId) {
+    const res = await fetch(`${BASE_URL}/document/${docId}/pre-annotate`, { method: "POST" });
+    return handleResponse(res);
+}
+
 // **关键更新：不解析 JSON**
 export async function deleteEntityItem(id) {
     const res = await fetch(`${BASE_URL}/${id}`, { method: "DELETE" });
@@ -43,3 +43,131 @@ export async function deleteNode(id) {
     }
     return true;
 }
+
+// 以节点为中心按需加载 k 跳邻域；options: { hops, direction, relationLabelIds, maxDegree, maxNodes }
+export async function getNeighbourhood(docId, nodeId, options = {}) {
+    const params = new URLSearchParams({ nodeId });
+    for (const [key, value] of Object.entries(options)) {
+        if (value === undefined || value === null) continue;
+        params.append(key, Array.isArray(value) ? value.join(",") : value);
+    }
+    const res = await fetch(`${BASE_URL}/graph/${docId}/neighbourhood?${params}`);
+    return handleResponse(res);
+}
+
+// 图谱分析：两节点最短路径；options: { weighted, directed }
+export async function getShortestPath(docId, from, to, options = {}) {
+    const params = new URLSearchParams({ from, to, ...options });
+    const res = await fetch(`${BASE_URL}/graph/${docId}/analytics/path?${params}`);
+    return handleResponse(res);
+}
+
+// 图谱分析：连通分量（按大小降序，最多返回 limit 个）
+export async function getComponents(docId, limit = 20) {
+    const res = await fetch(`${BASE_URL}/graph/${docId}/analytics/components?limit=${limit}`);
+    return handleResponse(res);
+}
+
+// 图谱分析：中心性排名；type: degree / pagerank / betweenness
+export async function getCentrality(docId, type = "pagerank", top = 50) {
+    const params = new URLSearchParams({ type, top });
+    const res = await fetch(`${BASE_URL}/graph/${docId}/analytics/centrality?${params}`);
+    return handleResponse(res);
+}
+
+// 按属性过滤节点 / 边；owner: nodes / edges，filter: { key, value } 或 { key, min, max }
+export async function findByProperty(docId, owner, filter, limit = 200) {
+    const params = new URLSearchParams({ key: filter.key, limit });
+    if (filter.value != null) params.set("value", filter.value);
+    if (filter.min != null) params.set("min", filter.min);
+    if (filter.max != null) params.set("max", filter.max);
+    const res = await fetch(`${BASE_URL}/graph/${docId}/properties/${owner}?${params}`);
+    return handleResponse(res);
+}
+
+export async function getPropertyKeys(docId) {
+    const res = await fetch(`${BASE_URL}/graph/${docId}/properties/keys`);
+    return handleResponse(res);
+}
+
+// 服务端计算的节点坐标：{ graphVersion, positions: [{ nodeId, x, y, pinned }] }
+export async function getGraphLayout(docId, recompute = false) {
+    const res = await fetch(`${BASE_URL}/graph/${docId}/layout?recompute=${recompute}`);
+    return handleResponse(res);
+}
+
+// 保存拖拽后的位置；positions: [{ nodeId, x, y, pinned }]
+export async function saveGraphLayout(docId, positions) {
+    const res = await fetch(`${BASE_URL}/graph/${docId}/layout`, {
+        method: "PUT",
+        headers: { "Content-Type": "application/json" },
+        body: JSON.stringify(positions),
+    });
+    if (!res.ok) {
+        const text = await res.text();
+        throw new Error(text || "保存失败");
+    }
+    return true;
+}
+
+// 由文档已标注的实体 / 关系一次性生成图谱节点 / 边（可重复执行，已存在的不会重复创建）
+export async function materializeGraph(docId) {
+    const res = await fetch(`${BASE_URL}/graph/${docId}/materialize`, { method: "POST" });
+    return handleResponse(res);
+}
+
+// 图谱导出下载地址；options: { format: graphml / jsonl / csv, documentIds, all, gzip }
+export function graphExportUrl(options = {}) {
+    const params = new URLSearchParams();
+    for (const [key, value] of Object.entries(options)) {
+        if (value === undefined || value === null) continue;
+        params.append(key, Array.isArray(value) ? value.join(",") : value);
+    }
+    return `${BASE_URL}/export?${params}`;
+}
+
+// 整图（节点 + 边 + 当前版本号 version）
+export async function getGraph(docId) {
+    const res = await fetch(`${BASE_URL}/graph/${docId}`);
+    return handleResponse(res);
+}
+
+// since 版本之后的增量变更
+export async function getGraphChanges(docId, since, limit = 500) {
+    const res = await fetch(`${BASE_URL}/graph/${docId}/changes?since=${since}&limit=${limit}`);
+    return handleResponse(res);
+}
+
+// 订阅变更推送（SSE）：onChange 收到单条变更，onReset 表示需要整图重新加载；返回 EventSource，用完调用 close()
+export function subscribeGraphChanges(docId, since, { onChange, onReset }) {
+    const source = new EventSource(`${BASE_URL}/graph/${docId}/changes/stream?since=${since}`);
+    source.addEventListener("change", (e) => onChange?.(JSON.parse(e.data)));
+    source.addEventListener("reset", (e) => onReset?.(JSON.parse(e.data)));
+    return source;
+}
+
+// 搜索参数：q 名称前缀，documentIds / labelIds / relationLabelIds 过滤，props: { key: value }，cursor 取上一页的 nextCursor
+function searchParams({ q = "", documentIds, labelIds, relationLabelIds, props, cursor, limit = 50 } = {}) {
+    const params = new URLSearchParams({ q, limit });
+    (documentIds || []).forEach((id) => params.append("documentIds", id));
+    (labelIds || []).forEach((id) => params.append("labelIds", id));
+    (relationLabelIds || []).forEach((id) => params.append("relationLabelIds", id));
+    Object.entries(props || {}).forEach(([k, v]) => params.append("prop", `${k}:${v}`));
+    if (cursor) params.set("cursor", cursor);
+    return params;
+}
+
+export async function suggestNodes(q, options = {}) {
+    const res = await fetch(`${BASE_URL}/search/suggest?${searchParams({ limit: 10, ...options, q })}`);
+    return handleResponse(res);
+}
+
+export async function searchNodes(options) {
+    const res = await fetch(`${BASE_URL}/search/nodes?${searchParams(options)}`);
+    return handleResponse(res);
+}
+
+export async function searchEdges(options) {
+    const res = await fetch(`${BASE_URL}/search/edges?${searchParams(options)}`);
+    return handleResponse(res);
+}
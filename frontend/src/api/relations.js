@@ -50,3 +50,27 @@ export async function deleteRelation(id) {
     const json = await handleResponse(res);
     return json.data;
 }
+
+// 实体参与的关系；options: { direction: out / in / both, labelId }
+export async function getRelationsByEntity(entityId, options = {}) {
+    const params = new URLSearchParams({ direction: options.direction || "both" });
+    if (options.labelId != null) params.set("labelId", options.labelId);
+    const res = await fetch(`${BASE_URL}/entity/${entityId}?${params}`);
+    const json = await handleResponse(res);
+    return json.data;
+}
+
+// 两个实体之间的关系；directed=true 时只返回 a → b
+export async function getRelationsBetween(a, b, directed = false) {
+    const res = await fetch(`${BASE_URL}/between?a=${a}&b=${b}&directed=${directed}`);
+    const json = await handleResponse(res);
+    return json.data;
+}
+
+// 关系标签计数（标签 id → 数量）；传 entityId 时只统计该实体
+export async function getRelationLabelCounts(documentId, entityId) {
+    const query = entityId != null ? `?entityId=${entityId}` : "";
+    const res = await fetch(`${BASE_URL}/document/${documentId}/label-counts${query}`);
+    const json = await handleResponse(res);
+    return json.data;
+}
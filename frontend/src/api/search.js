@@ -0,0 +1,30 @@
+// src/api/search.js
+
+const BASE_URL = "http://localhost:8080/api/search";
+
+async function handleResponse(res) {
+    if (!res.ok) {
+        const text = await res.text();
+        throw new Error(text || "请求失败");
+    }
+    return res.json();
+}
+
+// 全文检索：q 空白分隔的检索词（全部命中），"..." 为短语；type: document / entity
+// 返回 { items: [{ type, id, documentId, title, snippet, score }], total, tookMs }
+export async function fullTextSearch(q, { type = "document", offset = 0, limit = 20 } = {}) {
+    const params = new URLSearchParams({ q, type, offset, limit });
+    const res = await fetch(`${BASE_URL}?${params}`);
+    return handleResponse(res);
+}
+
+export async function getSearchStats() {
+    const res = await fetch(`${BASE_URL}/stats`);
+    return handleResponse(res);
+}
+
+// 从数据库全量重建索引
+export async function rebuildSearchIndex() {
+    const res = await fetch(`${BASE_URL}/rebuild`, { method: "POST" });
+    return handleResponse(res);
+}
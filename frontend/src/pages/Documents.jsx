@@ -1,6 +1,7 @@
 import { useEffect, useMemo, useState } from "react";
 import {
-  getDocuments,
+  getDocumentSummaries,
+  getDocument,
   createDocument,
   updateDocument,
   deleteDocument,
@@ -8,7 +9,6 @@ import {
 import { getDocumentTokensByDocument } from "../api/documentTokens.js";
 import { getEntityItemsByDocument, createEntityItem } from "../api/entityItems.js";
 import { createEntityLabel, getEntityLabels } from "../api/entityLabels.js";
-import { getRelationsByDocument } from "../api/relations.js";
 import { autoAlert, autoConfirm } from "../utils/autoDialog";
 import * as pdfjsLib from "pdfjs-dist";
 import pdfWorker from "pdfjs-dist/build/pdf.worker.min.mjs?url";
@@ -50,14 +50,17 @@ const LABEL_COLORS = [
 ];
 
 export default function Documents() {
-  const [docs, setDocs] = useState([]);
-  const [docTable, setDocTable] = useState([]);
+  const [docTable, setDocTable] = useState([]); // 当前页的文档摘要
   const [selectedDocId, setSelectedDocId] = useState(null);
+  const [selectedDoc, setSelectedDoc] = useState(null);
   const [docTokens, setDocTokens] = useState([]);
   const [entities, setEntities] = useState([]);
   const [labels, setLabels] = useState([]);
   const [textOffsets, setTextOffsets] = useState([]);
-  const [page, setPage] = useState(1);
+  // 游标翻页：cursors[i] 为第 i + 1 页的游标，nextCursor 为空表示没有下一页
+  const [cursors, setCursors] = useState([null]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const page = cursors.length;
   const pageSize = 6;
 
   // 弹窗
@@ -155,30 +158,31 @@ export default function Documents() {
     return LABEL_COLORS[(idx ?? getLabelColorIndex(entity.labelId)) % LABEL_COLORS.length];
   }
 
-  // 搜索过滤后的文档列表
-  const filteredDocs = docTable.filter(doc =>
-      doc.title.toLowerCase().includes(searchQuery.toLowerCase())
-  );
-
-  const totalPages = Math.max(1, Math.ceil(filteredDocs.length / pageSize));
-  const pageData = filteredDocs.slice((page - 1) * pageSize, page * pageSize);
-
   useEffect(() => {
-    fetchDocs();
     fetchLabels();
   }, []);
 
+  // 搜索条件或页码变化时按游标取当前页
+  useEffect(() => {
+    fetchDocs();
+  }, [searchQuery, cursors]);
+
   useEffect(() => {
     if (!selectedDocId) return;
     fetchTokensAndEntities(selectedDocId);
   }, [selectedDocId]);
 
-  // 页码修正
+  // 选中的文档翻出当前页后仍保留其摘要
   useEffect(() => {
-    if (page > totalPages) setPage(totalPages);
-  }, [totalPages, page]);
-
-  const selectedDoc = docTable.find((d) => d.id === selectedDocId);
+    const row = docTable.find((d) => d.id === selectedDocId);
+    if (row) setSelectedDoc(row);
+    else if (!selectedDocId) setSelectedDoc(null);
+  }, [docTable, selectedDocId]);
+
+  function searchDocs(query) {
+    setSearchQuery(query);
+    setCursors([null]);
+  }
 
   function formatDate(val) {
     if (!val) return "--";
@@ -194,32 +198,16 @@ export default function Documents() {
 
   async function fetchDocs() {
     try {
-      const data = await getDocuments();
-      const list = data || [];
-      setDocs(list);
-
-      // 计算表格所需的标注/关系数量
-      const enriched = await Promise.all(
-          list.map(async (doc) => {
-            const [entityList, relationList] = await Promise.all([
-              getEntityItemsByDocument(doc.id).catch(() => []),
-              getRelationsByDocument(doc.id).catch(() => []),
-            ]);
-            const entityCount = (entityList || []).length;
-            const relationCount = (relationList || []).length;
-            return {
-              ...doc,
-              entityCount,
-              relationCount,
-              annotated: entityCount > 0,
-            };
-          })
-      );
-
-      setDocTable(enriched);
-      setPage(1); // 重置分页
-      if (!selectedDocId && enriched.length > 0) {
-        setSelectedDocId(enriched[0].id);
+      const data = await getDocumentSummaries({
+        title: searchQuery,
+        cursor: cursors[cursors.length - 1],
+        limit: pageSize,
+      });
+      const list = data?.items || [];
+      setDocTable(list.map((doc) => ({ ...doc, annotated: doc.entityCount > 0 })));
+      setNextCursor(data?.nextCursor || null);
+      if (!selectedDocId && list.length > 0) {
+        setSelectedDocId(list[0].id);
       }
     } catch (err) {
       await autoAlert("获取文档列表失败：" + err.message);
@@ -276,13 +264,14 @@ export default function Documents() {
     const ok = await autoConfirm("确认删除该文档吗？");
     if (!ok) return;
     await deleteDocument(id);
-    await fetchDocs();
     setSelectedDocId(null);
+    await fetchDocs();
   }
 
-  function openEditDoc() {
+  async function openEditDoc() {
     if (!selectedDocId) return;
-    const doc = docs.find((d) => d.id === selectedDocId);
+    // 列表只有摘要，编辑时再取正文
+    const doc = await getDocument(selectedDocId).catch(() => null);
     if (!doc) return;
 
     setDocForm({
@@ -482,17 +471,13 @@ export default function Documents() {
                       onChange={(e) => setSearchText(e.target.value)}
                       onKeyDown={(e) => {
                         if (e.key === "Enter") {
-                          setSearchQuery(searchText);
-                          setPage(1);
+                          searchDocs(searchText);
                         }
                       }}
                   />
                   <button
                       className="btn btn-sm btn-primary"
-                      onClick={() => {
-                        setSearchQuery(searchText);
-                        setPage(1);
-                      }}
+                      onClick={() => searchDocs(searchText)}
                   >
                     搜索
                   </button>
@@ -500,8 +485,7 @@ export default function Documents() {
                       className="btn btn-sm btn-ghost"
                       onClick={() => {
                         setSearchText("");
-                        setSearchQuery("");
-                        setPage(1);
+                        searchDocs("");
                       }}
                   >
                     取消
@@ -520,7 +504,7 @@ export default function Documents() {
                 </tr>
                 </thead>
                 <tbody>
-                {filteredDocs.slice((page - 1) * pageSize, page * pageSize).map((doc) => (
+                {docTable.map((doc) => (
                     <tr
                         key={doc.id}
                         className={`cursor-pointer border-b ${
@@ -547,7 +531,7 @@ export default function Documents() {
                       <td className="px-2 py-2 text-center">{doc.relationCount}</td>
                     </tr>
                 ))}
-                {filteredDocs.length === 0 && (
+                {docTable.length === 0 && (
                     <tr>
                       <td colSpan={3} className="text-center text-gray-500 py-6">
                         暂无文档
@@ -558,23 +542,23 @@ export default function Documents() {
               </table>
             </div>
 
-            {filteredDocs.length > 0 && (
+            {(docTable.length > 0 || page > 1) && (
                 <div className="border-t p-3 flex justify-between items-center text-sm">
             <span className="text-gray-500">
-              {page} / {Math.max(1, Math.ceil(filteredDocs.length / pageSize))}
+              第 {page} 页
             </span>
                   <div className="flex gap-2">
                     <button
                         className="btn btn-ghost px-2 py-1"
                         disabled={page === 1}
-                        onClick={() => setPage((p) => Math.max(1, p - 1))}
+                        onClick={() => setCursors((c) => (c.length > 1 ? c.slice(0, -1) : c))}
                     >
                       上一页
                     </button>
                     <button
                         className="btn btn-ghost px-2 py-1"
-                        disabled={page === Math.ceil(filteredDocs.length / pageSize)}
-                        onClick={() => setPage((p) => Math.min(Math.ceil(filteredDocs.length / pageSize), p + 1))}
+                        disabled={!nextCursor}
+                        onClick={() => setCursors((c) => [...c, nextCursor])}
                     >
                       下一页
                     </button>
@@ -2,8 +2,7 @@
 
 import { useEffect, useRef, useState } from "react";
 import ForceGraph2D from "react-force-graph-2d";
-import { getNodesByDocument } from "../api/kgNodes";
-import { getEdgesByDocument } from "../api/kgEdges";
+import { getGraph, getGraphLayout, saveGraphLayout, subscribeGraphChanges } from "../api/kgNodes";
 import { getEntityLabels } from "../api/entityLabels";
 import { getRelationLabels } from "../api/relationLabels";
 import { getDocuments } from "../api/documents";
@@ -16,9 +15,12 @@ export default function KGViewer() {
     const [relationLabels, setRelationLabels] = useState([]);
     const [hoveredLink, setHoveredLink] = useState(null);
     const [mousePos, setMousePos] = useState({ x: 0, y: 0 });
+    const [serverLayout, setServerLayout] = useState(false);
 
     const fgRef = useRef();
     const containerRef = useRef();
+    const changeSourceRef = useRef(null);
+    const layoutTimerRef = useRef(null);
 
     // 初始化加载文档、实体标签和关系标签
     useEffect(() => {
@@ -36,42 +38,126 @@ export default function KGViewer() {
         loadInitialData();
     }, []);
 
-    // 加载知识图谱数据
+    function labelColor(labelId) {
+        const colors = ["#f94144", "#f3722c", "#f9c74f", "#90be6d", "#43aa8b", "#577590"];
+        const idx = entityLabels.findIndex((l) => l.id === labelId);
+        return idx >= 0 ? colors[idx % colors.length] : "#888";
+    }
+
+    // positions: nodeId → 服务端坐标；固定的节点同时设置 fx / fy
+    function toNode(n, positions = {}) {
+        const p = positions[n.id];
+        return {
+            id: n.id,
+            name: n.name,
+            labelId: n.labelId,
+            color: labelColor(n.labelId),
+            x: p?.x,
+            y: p?.y,
+            fx: p?.pinned ? p.x : null,
+            fy: p?.pinned ? p.y : null,
+        };
+    }
+
+    function positionMap(layout) {
+        const map = {};
+        (layout?.positions || []).forEach((p) => { map[p.nodeId] = p; });
+        return map;
+    }
+
+    function toLink(e) {
+        return {
+            id: e.id,
+            source: e.sourceNodeId,
+            target: e.targetNodeId,
+            relationLabelId: e.relationLabelId,
+            name: e.edgeName || relationLabels.find(r => r.id === e.relationLabelId)?.relationName || "",
+            properties: e.properties || {},
+        };
+    }
+
+    // 加载知识图谱数据，之后通过变更推送增量更新，不再整图重新拉取
     async function loadGraph(docId) {
         if (!docId) return;
+        changeSourceRef.current?.close();
 
-        const nodes = await getNodesByDocument(docId);
-        const edges = await getEdgesByDocument(docId);
+        // 坐标由服务端计算，拿到即可绘制；布局接口失败时退回浏览器内的力导模拟
+        const [graph, layout] = await Promise.all([getGraph(docId), getGraphLayout(docId).catch(() => null)]);
+        const positions = positionMap(layout);
+        setServerLayout(!!layout);
 
-        const savedLayout = JSON.parse(localStorage.getItem(`kg-layout-${docId}`) || "{}");
+        setGraphData({
+            nodes: (graph.nodes || []).map((n) => toNode(n, positions)),
+            links: (graph.edges || []).map(toLink),
+        });
 
-        const labelColorMap = {};
-        entityLabels.forEach((l, idx) => {
-            const colors = ["#f94144", "#f3722c", "#f9c74f", "#90be6d", "#43aa8b", "#577590"];
-            labelColorMap[l.id] = colors[idx % colors.length];
+        changeSourceRef.current = subscribeGraphChanges(docId, graph.version || 0, {
+            onChange: applyChange,
+            onReset: () => loadGraph(docId),
         });
+    }
 
-        setGraphData({
-            nodes: nodes.map((n) => ({
-                id: n.id,
-                name: n.name,
-                labelId: n.labelId,
-                color: labelColorMap[n.labelId] || "#888",
-                fx: savedLayout[n.id]?.fx ?? null,
-                fy: savedLayout[n.id]?.fy ?? null,
-            })),
-            links: edges.map((e) => ({
-                source: e.sourceNodeId,
-                target: e.targetNodeId,
-                relationLabelId: e.relationLabelId,
-                name: e.edgeName || relationLabels.find(r => r.id === e.relationLabelId)?.relationName || "",
-                properties: e.properties || {},
-            })),
+    // 节点 / 边变更后稍等片刻再取一次服务端布局（服务端以现有坐标为起点小幅调整），连续变更只取一次
+    function scheduleLayoutRefresh(docId) {
+        clearTimeout(layoutTimerRef.current);
+        layoutTimerRef.current = setTimeout(async () => {
+            const layout = await getGraphLayout(docId).catch(() => null);
+            if (!layout) return;
+            const positions = positionMap(layout);
+            setGraphData((prev) => {
+                prev.nodes.forEach((n) => {
+                    const p = positions[n.id];
+                    if (!p || n.fx != null) return;
+                    n.x = p.x;
+                    n.y = p.y;
+                });
+                return { nodes: [...prev.nodes], links: prev.links };
+            });
+        }, 1000);
+    }
+
+    // 应用一条变更；节点对象原样保留，已有节点的位置不受影响
+    function applyChange(change) {
+        scheduleLayoutRefresh(change.documentId);
+        const linkNodeId = (end) => (typeof end === "object" ? end.id : end);
+        setGraphData((prev) => {
+            let { nodes, links } = prev;
+            switch (change.op) {
+                case "NODE_UPSERTED": {
+                    const existing = nodes.find((n) => n.id === change.targetId);
+                    if (existing) {
+                        Object.assign(existing, { name: change.payload.name, labelId: change.payload.labelId,
+                            color: labelColor(change.payload.labelId) });
+                        nodes = [...nodes];
+                    } else {
+                        nodes = [...nodes, toNode(change.payload)];
+                    }
+                    break;
+                }
+                case "NODE_DELETED":
+                    nodes = nodes.filter((n) => n.id !== change.targetId);
+                    links = links.filter((l) => linkNodeId(l.source) !== change.targetId
+                        && linkNodeId(l.target) !== change.targetId);
+                    break;
+                case "EDGE_UPSERTED":
+                    links = [...links.filter((l) => l.id !== change.targetId), toLink(change.payload)];
+                    break;
+                case "EDGE_DELETED":
+                    links = links.filter((l) => l.id !== change.targetId);
+                    break;
+                default:
+                    return prev;
+            }
+            return { nodes, links };
         });
     }
 
     useEffect(() => {
         if (documentId) loadGraph(documentId);
+        return () => {
+            changeSourceRef.current?.close();
+            clearTimeout(layoutTimerRef.current);
+        };
     }, [documentId, entityLabels, relationLabels]);
 
     // 节点拖拽后固定位置
@@ -80,14 +166,17 @@ export default function KGViewer() {
         node.fy = node.y;
     };
 
-    // 保存布局按钮
-    const saveLayout = () => {
-        const layout = {};
-        graphData.nodes.forEach(n => {
-            layout[n.id] = { fx: n.fx, fy: n.fy };
-        });
-        localStorage.setItem(`kg-layout-${documentId}`, JSON.stringify(layout));
-        alert("布局已保存！");
+    // 保存布局按钮：拖拽固定过的节点保存到服务端，重新布局时保持不动
+    const saveLayout = async () => {
+        const positions = graphData.nodes
+            .filter((n) => n.fx != null && n.fy != null)
+            .map((n) => ({ nodeId: n.id, x: n.fx, y: n.fy, pinned: true }));
+        try {
+            await saveGraphLayout(documentId, positions);
+            alert("布局已保存！");
+        } catch (e) {
+            alert(e.message);
+        }
     };
 
     // 边点击显示属性
@@ -200,6 +289,7 @@ export default function KGViewer() {
                             linkDirectionalArrowRelPos={1}
                             linkWidth={1.5}
                             linkCurvature={0.2}
+                            cooldownTicks={serverLayout ? 0 : Infinity}
                             enableNodeDrag={true}
                             onNodeDragEnd={handleNodeDragEnd}
                             onLinkClick={handleLinkClick}
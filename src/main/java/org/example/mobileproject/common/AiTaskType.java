@@ -0,0 +1,22 @@
+package org.example.mobileproject.common;
+
+/**
+ * 大模型任务类型，code 与 prompt_template.task_type 保持一致
+ */
+public enum AiTaskType {
+    EXTRACTION("extraction"),           // 实体抽取
+    RELATION_EXTRACTION("relation_extraction"), // 关系抽取（批量候选实体对）
+    CSV_ANALYSIS("csv_analysis"),       // CSV 关联分析
+    BUSINESS_REPORT("business_report"), // 业务报告分节生成
+    REPORT_REVIEW("report_review");     // 报告一致性检查（轻量）
+
+    private final String code;
+
+    AiTaskType(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
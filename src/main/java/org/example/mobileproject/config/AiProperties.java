@@ -0,0 +1,50 @@
+package org.example.mobileproject.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 大模型调用相关配置（application.properties 中的 ai.*）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai")
+public class AiProperties {
+
+    /** 提供方配置，key 为提供方名称，如 deepseek */
+    private Map<String, Provider> providers = new HashMap<>();
+
+    /** 路由规则，key 为任务类型 code，如 extraction / csv_analysis / business_report */
+    private Map<String, Route> routes = new HashMap<>();
+
+    /** 健康度统计 */
+    private Routing routing = new Routing();
+
+    @Data
+    public static class Provider {
+        private String baseUrl;
+        private String apiKey;
+        private int connectTimeoutMs = 5000;
+        private int readTimeoutMs = 120000;     // 等待响应头、以及流式响应中两行之间的最长间隔
+        private int totalTimeoutMs = 600000;    // 单次调用从发出请求到读完响应的总时限
+        private int maxConcurrency = 8; // 同一提供方的最大并发请求数，超出部分排队
+    }
+
+    @Data
+    public static class Route {
+        private String primary;   // provider/model
+        private String fallback;  // provider/model，可为空
+        private long maxP95Ms = 0; // 主模型 p95 超过该值时优先走备用模型，0 表示不限制
+    }
+
+    @Data
+    public static class Routing {
+        private int windowSeconds = 300;     // 统计窗口：只看最近 N 秒的调用
+        private int minSamples = 5;          // 样本数不足时不做降级判断
+        private double maxErrorRate = 0.3;   // 错误率超过该值视为不健康
+    }
+}
@@ -16,6 +16,7 @@ public class WebConfig {
                 registry.addMapping("/**")   // 匹配所有接口
                         .allowedOrigins("http://localhost:5173")  // 允许前端地址
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        .exposedHeaders("ETag")   // 前端读取 ETag，配合 If-None-Match 做条件请求
                         .allowCredentials(true); // 如果前端需要发送 Cookie，可保留
             }
         };
@@ -1,10 +1,15 @@
 package org.example.mobileproject.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.entity.LlmUsageSummary;
 import org.example.mobileproject.service.AIService;
+import org.example.mobileproject.service.LlmUsageService;
+import org.example.mobileproject.service.ModelRouter;
+import org.example.mobileproject.service.RelationExtractionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -14,6 +19,9 @@ public class AIController {
 
     // 注入接口，Spring 会自动寻找实现了该接口的 @Service 丢进来
     private final AIService aiService;
+    private final ModelRouter modelRouter;
+    private final LlmUsageService usageService;
+    private final RelationExtractionService relationExtractionService;
 
     @PostMapping("/extract/{id}")
     public ResponseEntity<String> autoExtract(@PathVariable Long id) {
@@ -21,6 +29,12 @@ public class AIController {
         return ResponseEntity.ok("Success");
     }
 
+    // 为已标注的实体批量抽取关系并入库，返回候选对数 / 批次数 / 新增关系数
+    @PostMapping("/extract-relations/{documentId}")
+    public ResponseEntity<Map<String, Object>> extractRelations(@PathVariable Long documentId) {
+        return ResponseEntity.ok(relationExtractionService.extractAndSave(documentId));
+    }
+
 
     // 结合 CSV 数据进行关联分析
     @PostMapping("/analyze-csv/{documentId}")
@@ -39,8 +53,36 @@ public class AIController {
             return ResponseEntity.badRequest().body("原始分析数据不能为空");
         }
 
+        // 可选 documentId：传入时按指纹持久化 / 复用报告
+        String documentId = request.get("documentId");
+        Long docId = documentId == null || documentId.isEmpty() ? null : Long.valueOf(documentId);
+
         // 调用 Service 进行深度推理
-        String businessReport = aiService.generateBusinessReport(rawAnalysis);
+        String businessReport = aiService.generateBusinessReport(docId, rawAnalysis);
         return ResponseEntity.ok(businessReport);
     }
-}
\ No newline at end of file
+
+    // 分析 + 报告流水线：一次请求完成两阶段，无需回传 rawAnalysis
+    @PostMapping("/pipeline/{documentId}")
+    public ResponseEntity<Map<String, Object>> pipeline(@PathVariable Long documentId) {
+        return ResponseEntity.ok(aiService.runAnalysisPipeline(documentId));
+    }
+
+    // 最近一次持久化的分析 / 报告（看板重新打开文档时直接展示）
+    @GetMapping("/results/{documentId}")
+    public ResponseEntity<Map<String, Object>> latestResults(@PathVariable Long documentId) {
+        return ResponseEntity.ok(aiService.getLatestResults(documentId));
+    }
+
+    // 各模型最近窗口内的延迟 / 错误率统计（路由依据）
+    @GetMapping("/models/stats")
+    public ResponseEntity<Map<String, Object>> modelStats() {
+        return ResponseEntity.ok(modelRouter.stats());
+    }
+
+    // 按文档汇总的大模型用量（调用次数、token、耗时）
+    @GetMapping("/usage/document/{documentId}")
+    public ResponseEntity<List<LlmUsageSummary>> usageByDocument(@PathVariable Long documentId) {
+        return ResponseEntity.ok(usageService.summaryByDocument(documentId));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.mobileproject.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.dataset.CsvDataset;
+import org.example.mobileproject.dataset.DatasetSnapshot;
+import org.example.mobileproject.entity.AggregationQuery;
+import org.example.mobileproject.entity.AggregationResult;
+import org.example.mobileproject.entity.CsvIngestResult;
+import org.example.mobileproject.service.CsvAggregationService;
+import org.example.mobileproject.service.CsvDatasetService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/csv-data")
+@RequiredArgsConstructor
+public class CsvDataController {
+
+    private final CsvDatasetService datasetService;
+    private final CsvAggregationService aggregationService;
+
+    // 当前加载的数据集概览
+    @GetMapping("/datasets")
+    public ResponseEntity<Map<String, Object>> datasets() {
+        DatasetSnapshot snapshot = datasetService.snapshot();
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (CsvDataset ds : snapshot.getDatasets().values()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("name", ds.getName());
+            m.put("rows", ds.getRowCount());
+            m.put("schema", ds.schema());
+            m.put("version", ds.getVersion());
+            m.put("loadedAt", ds.getLoadedAt());
+            list.add(m);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", snapshot.getVersion());
+        result.put("datasets", list);
+        return ResponseEntity.ok(result);
+    }
+
+    // 立即重新扫描数据目录
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        boolean changed = datasetService.reload();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("changed", changed);
+        result.put("version", datasetService.snapshot().getVersion());
+        return ResponseEntity.ok(result);
+    }
+
+    // 上传导入：请求体即 CSV 原文（不走 multipart），边读边解析，不在内存或临时文件中缓存整份文件
+    // 例：curl -X POST --data-binary @detail.csv -H "Content-Type: text/csv" ".../upload/模拟数据_渠道八大业务明细?mode=append"
+    @PostMapping("/upload/{name}")
+    public ResponseEntity<CsvIngestResult> upload(@PathVariable String name,
+                                                  @RequestParam(defaultValue = "replace") String mode,
+                                                  HttpServletRequest request) throws IOException {
+        if (!"append".equalsIgnoreCase(mode) && !"replace".equalsIgnoreCase(mode)) {
+            throw new BizException("mode 只能是 replace 或 append");
+        }
+        boolean append = "append".equalsIgnoreCase(mode);
+        return ResponseEntity.ok(datasetService.ingest(name, request.getInputStream(), append));
+    }
+
+    // 聚合查询：分组、sum/avg/百分位、排名、环比、按 (grid, month) 连接
+    @PostMapping("/aggregate")
+    public ResponseEntity<AggregationResult> aggregate(@RequestBody AggregationQuery query) {
+        return ResponseEntity.ok(aggregationService.aggregate(query));
+    }
+
+    // 指定网格/月份的预计算事实（与 CSV 关联分析 prompt 中的内容一致）
+    @GetMapping("/facts")
+    public ResponseEntity<List<String>> facts(@RequestParam List<String> grids,
+                                              @RequestParam(required = false) List<String> months) {
+        return ResponseEntity.ok(aggregationService.facts(grids, months));
+    }
+}
@@ -2,6 +2,8 @@ package org.example.mobileproject.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.mobileproject.entity.Document;
+import org.example.mobileproject.entity.DocumentDeleteProgress;
+import org.example.mobileproject.entity.DocumentPage;
 import org.example.mobileproject.service.DocumentService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,6 +29,14 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.listAll());
     }
 
+    // 列表页：摘要分页（不含正文），cursor 取上一页的 nextCursor
+    @GetMapping("/summaries")
+    public ResponseEntity<DocumentPage> summaries(@RequestParam(required = false) String title,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(documentService.listSummaries(title, cursor, limit));
+    }
+
     @PostMapping
     public ResponseEntity<Document> create(@RequestBody Document doc) {
         Document created = documentService.create(doc);
@@ -40,9 +50,19 @@ public class DocumentController {
         return ResponseEntity.ok(updated);
     }
 
+    // async=true 时后台删除，返回 202 与进度，之后通过 delete-progress 查询
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    public ResponseEntity<DocumentDeleteProgress> delete(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            return ResponseEntity.accepted().body(documentService.deleteAsync(id));
+        }
         documentService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/{id}/delete-progress")
+    public ResponseEntity<DocumentDeleteProgress> deleteProgress(@PathVariable Long id) {
+        return ResponseEntity.ok(documentService.getDeleteProgress(id));
+    }
 }
@@ -1,24 +1,24 @@
 package org.example.mobileproject.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.example.mobileproject.entity.DocumentToken;
 import org.example.mobileproject.service.DocumentTokenService;
+import org.example.mobileproject.service.ResponseCacheService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-import java.util.List;
+import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/document-tokens")
 @RequiredArgsConstructor
 public class DocumentTokenController {
     private final DocumentTokenService tokenService;
+    private final ResponseCacheService responseCacheService;
 
     @GetMapping("/document/{docId}")
-    public ResponseEntity<List<DocumentToken>> listByDocument(@PathVariable Long docId) {
-        return ResponseEntity.ok(tokenService.getByDocumentId(docId));
+    public ResponseEntity<byte[]> listByDocument(@PathVariable Long docId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCacheService.serve(ResponseCacheService.Resource.TOKENS, docId, ifNoneMatch, acceptEncoding,
+                () -> tokenService.getByDocumentId(docId));
     }
 }
@@ -2,17 +2,23 @@ package org.example.mobileproject.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.mobileproject.entity.EntityItem;
+import org.example.mobileproject.service.EntityGazetteerService;
 import org.example.mobileproject.service.EntityItemService;
+import org.example.mobileproject.service.ResponseCacheService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/entity-items")
 @RequiredArgsConstructor
 public class EntityItemController {
     private final EntityItemService itemService;
+    private final ResponseCacheService responseCacheService;
+    private final EntityGazetteerService gazetteerService;
 
     @GetMapping("/{id}")
     public ResponseEntity<EntityItem> get(@PathVariable Long id) {
@@ -22,8 +28,28 @@ public class EntityItemController {
     }
 
     @GetMapping("/document/{docId}")
-    public ResponseEntity<List<EntityItem>> listByDocument(@PathVariable Long docId) {
-        return ResponseEntity.ok(itemService.listByDocumentId(docId));
+    public ResponseEntity<byte[]> listByDocument(@PathVariable Long docId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCacheService.serve(ResponseCacheService.Resource.ENTITIES, docId, ifNoneMatch, acceptEncoding,
+                () -> itemService.listByDocumentId(docId));
+    }
+
+    // 按已有标注构成的实体词典匹配正文，返回建议（不入库）
+    @GetMapping("/document/{docId}/suggestions")
+    public ResponseEntity<List<EntityItem>> suggestions(@PathVariable Long docId) {
+        return ResponseEntity.ok(gazetteerService.suggest(docId));
+    }
+
+    // 同上并直接入库，返回新写入的实体
+    @PostMapping("/document/{docId}/pre-annotate")
+    public ResponseEntity<List<EntityItem>> preAnnotate(@PathVariable Long docId) {
+        return ResponseEntity.ok(gazetteerService.preAnnotate(docId));
+    }
+
+    @GetMapping("/gazetteer/stats")
+    public ResponseEntity<Map<String, Object>> gazetteerStats() {
+        return ResponseEntity.ok(gazetteerService.stats());
     }
 
     @PostMapping
@@ -1,11 +1,34 @@
 package org.example.mobileproject.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.common.BizException;
 import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgLayout;
+import org.example.mobileproject.entity.KgMaterializeResult;
 import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgNodeLayout;
+import org.example.mobileproject.entity.KgPath;
+import org.example.mobileproject.entity.KgSubgraph;
+import org.example.mobileproject.graph.DocumentGraph;
+import org.example.mobileproject.graph.GraphExportWriter;
+import org.example.mobileproject.service.GraphAnalyticsService;
+import org.example.mobileproject.service.GraphChangeFeedService;
+import org.example.mobileproject.service.GraphExportService;
+import org.example.mobileproject.service.GraphIndexService;
+import org.example.mobileproject.service.GraphLayoutService;
 import org.example.mobileproject.service.KgService;
+import org.example.mobileproject.service.ResponseCacheService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/kg")
@@ -13,6 +36,12 @@ import org.springframework.web.bind.annotation.*;
 public class KgController {
 
     private final KgService kgService;
+    private final GraphIndexService graphIndexService;
+    private final GraphAnalyticsService graphAnalyticsService;
+    private final GraphExportService graphExportService;
+    private final GraphLayoutService graphLayoutService;
+    private final GraphChangeFeedService graphChangeFeedService;
+    private final ResponseCacheService responseCacheService;
 
     // ---------- Nodes ----------
 
@@ -68,8 +97,148 @@ public class KgController {
 
     // ---------- Graph ----------
 
+    // 整图：序列化结果按图谱变更失效，未变化时返回 304
     @GetMapping("/graph/{docId}")
-    public ResponseEntity<?> loadGraph(@PathVariable Long docId) {
-        return ResponseEntity.ok(kgService.loadFullGraph(docId));
+    public ResponseEntity<byte[]> loadGraph(@PathVariable Long docId,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCacheService.serve(ResponseCacheService.Resource.GRAPH, docId, ifNoneMatch, acceptEncoding,
+                () -> kgService.loadFullGraph(docId));
+    }
+
+    // 由文档的实体 / 关系一次性生成节点 / 边，可重复执行
+    @PostMapping("/graph/{docId}/materialize")
+    public ResponseEntity<KgMaterializeResult> materialize(@PathVariable Long docId) {
+        return ResponseEntity.ok(kgService.materialize(docId));
+    }
+
+    // 以某节点为中心按需展开：k 跳邻域，可按关系标签过滤、限制每个节点展开的边数
+    @GetMapping("/graph/{docId}/neighbourhood")
+    public ResponseEntity<KgSubgraph> neighbourhood(@PathVariable Long docId,
+                                                    @RequestParam Long nodeId,
+                                                    @RequestParam(defaultValue = "1") int hops,
+                                                    @RequestParam(defaultValue = "both") String direction,
+                                                    @RequestParam(required = false) List<Long> relationLabelIds,
+                                                    @RequestParam(defaultValue = "50") int maxDegree,
+                                                    @RequestParam(defaultValue = "500") int maxNodes) {
+        DocumentGraph.Direction dir;
+        try {
+            dir = DocumentGraph.Direction.valueOf(direction.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BizException("direction 只能是 out / in / both");
+        }
+        return ResponseEntity.ok(graphIndexService.neighbourhood(docId, nodeId, hops, dir,
+                relationLabelIds == null ? null : new HashSet<>(relationLabelIds), maxDegree, maxNodes));
+    }
+
+    // 按 properties 过滤：value 精确匹配（数字按数值比较），或 min / max 数值范围
+    @GetMapping("/graph/{docId}/properties/nodes")
+    public ResponseEntity<List<KgNode>> nodesByProperty(@PathVariable Long docId,
+                                                        @RequestParam String key,
+                                                        @RequestParam(required = false) String value,
+                                                        @RequestParam(required = false) Double min,
+                                                        @RequestParam(required = false) Double max,
+                                                        @RequestParam(defaultValue = "200") int limit) {
+        return ResponseEntity.ok(graphIndexService.nodesByProperty(docId, key, value, min, max, limit));
+    }
+
+    @GetMapping("/graph/{docId}/properties/edges")
+    public ResponseEntity<List<KgEdge>> edgesByProperty(@PathVariable Long docId,
+                                                        @RequestParam String key,
+                                                        @RequestParam(required = false) String value,
+                                                        @RequestParam(required = false) Double min,
+                                                        @RequestParam(required = false) Double max,
+                                                        @RequestParam(defaultValue = "200") int limit) {
+        return ResponseEntity.ok(graphIndexService.edgesByProperty(docId, key, value, min, max, limit));
+    }
+
+    // 属性键概况，供前端生成过滤条件
+    @GetMapping("/graph/{docId}/properties/keys")
+    public ResponseEntity<Map<String, Object>> propertyKeys(@PathVariable Long docId) {
+        return ResponseEntity.ok(graphIndexService.propertySchema(docId));
+    }
+
+    // 服务端计算的节点坐标，前端直接绘制；recompute=true 时重新计算（保留固定的位置）
+    @GetMapping("/graph/{docId}/layout")
+    public ResponseEntity<KgLayout> layout(@PathVariable Long docId,
+                                           @RequestParam(defaultValue = "false") boolean recompute) {
+        return ResponseEntity.ok(graphLayoutService.layout(docId, recompute));
+    }
+
+    // 保存拖拽后的位置，pinned=true 的节点重新布局时不动
+    @PutMapping("/graph/{docId}/layout")
+    public ResponseEntity<Void> saveLayout(@PathVariable Long docId, @RequestBody List<KgNodeLayout> positions) {
+        graphLayoutService.savePositions(docId, positions);
+        return ResponseEntity.ok().build();
+    }
+
+    // 增量同步：since 之后的节点 / 边变更；整图接口返回的 version 作为首次的 since
+    @GetMapping("/graph/{docId}/changes")
+    public ResponseEntity<Map<String, Object>> changes(@PathVariable Long docId,
+                                                       @RequestParam(defaultValue = "0") long since,
+                                                       @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(graphChangeFeedService.changes(docId, since, limit));
+    }
+
+    // 变更推送（SSE）；EventSource 断线重连时带 Last-Event-ID，从该版本继续
+    @GetMapping(value = "/graph/{docId}/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changeStream(@PathVariable Long docId,
+                                   @RequestParam(defaultValue = "0") long since,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return graphChangeFeedService.subscribe(docId, lastEventId != null ? lastEventId : since);
+    }
+
+    // ---------- Analytics ----------
+
+    @GetMapping("/graph/{docId}/analytics/path")
+    public ResponseEntity<KgPath> shortestPath(@PathVariable Long docId,
+                                               @RequestParam Long from,
+                                               @RequestParam Long to,
+                                               @RequestParam(defaultValue = "false") boolean weighted,
+                                               @RequestParam(defaultValue = "false") boolean directed) {
+        return ResponseEntity.ok(graphAnalyticsService.shortestPath(docId, from, to, weighted, directed));
+    }
+
+    @GetMapping("/graph/{docId}/analytics/components")
+    public ResponseEntity<Map<String, Object>> components(@PathVariable Long docId,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(graphAnalyticsService.components(docId, limit));
+    }
+
+    @GetMapping("/graph/{docId}/analytics/centrality")
+    public ResponseEntity<Map<String, Object>> centrality(@PathVariable Long docId,
+                                                          @RequestParam(defaultValue = "pagerank") String type,
+                                                          @RequestParam(defaultValue = "50") int top) {
+        return ResponseEntity.ok(graphAnalyticsService.centrality(docId, type, top));
+    }
+
+    // ---------- Export ----------
+
+    // 流式导出：documentIds 指定文档，all=true 导出全部；gzip=true 时压缩传输
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "graphml") String format,
+                                                        @RequestParam(required = false) List<Long> documentIds,
+                                                        @RequestParam(defaultValue = "false") boolean all,
+                                                        @RequestParam(defaultValue = "false") boolean gzip) {
+        GraphExportWriter.Format f = GraphExportWriter.Format.of(format);
+        if (!all && (documentIds == null || documentIds.isEmpty())) {
+            throw new BizException("请指定 documentIds，或使用 all=true 导出全部文档");
+        }
+        List<Long> ids = all ? null : documentIds;
+        String filename = "kg-export." + f.getExtension() + (gzip ? ".gz" : "");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gz = new GZIPOutputStream(out, 64 * 1024);
+                graphExportService.export(f, ids, gz);
+                gz.finish();
+            } else {
+                graphExportService.export(f, ids, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : f.getContentType() + ";charset=UTF-8"))
+                .body(body);
     }
 }
@@ -0,0 +1,43 @@
+package org.example.mobileproject.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.entity.KgGlobalNode;
+import org.example.mobileproject.entity.KgGlobalNodeLink;
+import org.example.mobileproject.service.GlobalGraphService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/kg/global")
+@RequiredArgsConstructor
+public class KgGlobalController {
+
+    private final GlobalGraphService globalGraphService;
+
+    @GetMapping("/nodes")
+    public ResponseEntity<List<KgGlobalNode>> listNodes(@RequestParam(required = false) Long labelId,
+                                                        @RequestParam(defaultValue = "2") int minMembers,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(globalGraphService.listNodes(labelId, minMembers, limit));
+    }
+
+    @GetMapping("/nodes/{id}")
+    public ResponseEntity<Map<String, Object>> getNode(@PathVariable Long id) {
+        return ResponseEntity.ok(globalGraphService.getNode(id));
+    }
+
+    // 文档节点 → 所属全局节点
+    @GetMapping("/links/node/{nodeId}")
+    public ResponseEntity<KgGlobalNodeLink> linkOf(@PathVariable Long nodeId) {
+        KgGlobalNodeLink link = globalGraphService.linkOf(nodeId);
+        return link == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(link);
+    }
+
+    @PostMapping("/resync/{docId}")
+    public ResponseEntity<Map<String, Object>> resync(@PathVariable Long docId) {
+        return ResponseEntity.ok(Map.of("documentId", docId, "nodes", globalGraphService.resyncDocument(docId)));
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.mobileproject.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgSearchPage;
+import org.example.mobileproject.service.GraphSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/kg/search")
+@RequiredArgsConstructor
+public class KgSearchController {
+
+    private final GraphSearchService graphSearchService;
+
+    // 名称自动补全，documentIds 为空时跨全部文档
+    @GetMapping("/suggest")
+    public ResponseEntity<List<KgNode>> suggest(@RequestParam(defaultValue = "") String q,
+                                                @RequestParam(required = false) List<Long> documentIds,
+                                                @RequestParam(required = false) List<Long> labelIds,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(graphSearchService.suggest(q, documentIds, labelIds, limit));
+    }
+
+    // prop 可重复，格式 key:value；cursor 取上一页返回的 nextCursor
+    @GetMapping("/nodes")
+    public ResponseEntity<KgSearchPage<KgNode>> searchNodes(@RequestParam(defaultValue = "") String q,
+                                                            @RequestParam(required = false) List<Long> documentIds,
+                                                            @RequestParam(required = false) List<Long> labelIds,
+                                                            @RequestParam(required = false) List<String> prop,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(graphSearchService.searchNodes(q, documentIds, labelIds, parseProps(prop), cursor, limit));
+    }
+
+    @GetMapping("/edges")
+    public ResponseEntity<KgSearchPage<KgEdge>> searchEdges(@RequestParam(defaultValue = "") String q,
+                                                            @RequestParam(required = false) List<Long> documentIds,
+                                                            @RequestParam(required = false) List<Long> relationLabelIds,
+                                                            @RequestParam(required = false) List<String> prop,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(graphSearchService.searchEdges(q, documentIds, relationLabelIds, parseProps(prop), cursor, limit));
+    }
+
+    private static Map<String, String> parseProps(List<String> props) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (props == null) return result;
+        for (String p : props) {
+            int i = p.indexOf(':');
+            if (i <= 0) {
+                throw new BizException("属性条件格式应为 key:value: " + p);
+            }
+            result.put(p.substring(0, i), p.substring(i + 1));
+        }
+        return result;
+    }
+}
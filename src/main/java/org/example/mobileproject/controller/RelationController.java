@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/relations")
@@ -44,4 +45,27 @@ public class RelationController {
         int result = relationService.delete(id);
         return ApiResponse.success(result);
     }
+
+    // 实体参与的关系：direction = out / in / both，可按关系标签过滤
+    @GetMapping("/entity/{entityId}")
+    public ApiResponse<List<Relation>> listByEntity(@PathVariable Long entityId,
+                                                    @RequestParam(defaultValue = "both") String direction,
+                                                    @RequestParam(required = false) Long labelId) {
+        return ApiResponse.success(relationService.getByEntity(entityId, direction, labelId));
+    }
+
+    // 两个实体之间的关系；directed=true 时只返回 a → b
+    @GetMapping("/between")
+    public ApiResponse<List<Relation>> between(@RequestParam Long a,
+                                               @RequestParam Long b,
+                                               @RequestParam(defaultValue = "false") boolean directed) {
+        return ApiResponse.success(relationService.getBetween(a, b, directed));
+    }
+
+    // 按关系标签计数；给出 entityId 时只统计该实体参与的关系
+    @GetMapping("/document/{documentId}/label-counts")
+    public ApiResponse<Map<Long, Integer>> labelCounts(@PathVariable Long documentId,
+                                                       @RequestParam(required = false) Long entityId) {
+        return ApiResponse.success(relationService.countByLabel(documentId, entityId));
+    }
 }
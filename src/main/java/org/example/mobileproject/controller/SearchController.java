@@ -0,0 +1,38 @@
+package org.example.mobileproject.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.entity.SearchResult;
+import org.example.mobileproject.service.FullTextSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final FullTextSearchService fullTextSearchService;
+
+    // 全文检索：type=document 检索文档标题与正文，type=entity 检索实体文本
+    @GetMapping
+    public ResponseEntity<SearchResult> search(@RequestParam String q,
+                                               @RequestParam(defaultValue = "document") String type,
+                                               @RequestParam(defaultValue = "0") int offset,
+                                               @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(fullTextSearchService.search(q, type, offset, limit));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(fullTextSearchService.stats());
+    }
+
+    // 从数据库全量重建，完成后返回
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        fullTextSearchService.rebuild();
+        return ResponseEntity.ok(fullTextSearchService.stats());
+    }
+}
@@ -0,0 +1,443 @@
+package org.example.mobileproject.dataset;
+
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.AggregationQuery;
+import org.example.mobileproject.entity.AggregationResult;
+
+import java.util.*;
+
+/**
+ * 列式数据集上的进程内聚合：过滤 → (grid, month) 连接 → 分组聚合 → 环比 → 排名。
+ * 连接表先在 (grid, month) 粒度上汇总（数值列求和，文本列取首个值），再左连接到主表，
+ * 因此明细表（如渠道明细）连接后不会放大主表行数。
+ */
+public final class AggregationEngine {
+
+    public static final String GRID = "grid";
+    public static final String MONTH = "month";
+
+    private AggregationEngine() {
+    }
+
+    public static AggregationResult execute(DatasetSnapshot snapshot, AggregationQuery query) {
+        long start = System.currentTimeMillis();
+        CsvDataset base = require(snapshot, query.getDataset());
+        if (query.getMetrics() == null || query.getMetrics().isEmpty()) {
+            throw new BizException("至少需要一个聚合指标");
+        }
+
+        // 1. 字段解析（主表列 + 连接表列）
+        Map<String, String> versions = new LinkedHashMap<>();
+        versions.put(base.getName(), base.getVersion());
+        List<JoinedTable> joins = new ArrayList<>();
+        for (String name : query.getJoin()) {
+            CsvDataset ds = require(snapshot, name);
+            versions.put(ds.getName(), ds.getVersion());
+            joins.add(new JoinedTable(base, ds));
+        }
+        FieldResolver resolver = new FieldResolver(base, joins);
+
+        List<Field> groupFields = new ArrayList<>();
+        for (String g : query.getGroupBy()) groupFields.add(resolver.resolve(g));
+        List<Field> metricFields = new ArrayList<>();
+        List<String> metricNames = new ArrayList<>();
+        boolean needValues = false;
+        for (AggregationQuery.Metric m : query.getMetrics()) {
+            String func = func(m);
+            Field f = "count".equals(func) && m.getColumn() == null ? null : resolver.resolve(m.getColumn());
+            if (f != null && !f.numeric() && !"count".equals(func)) {
+                throw new BizException("列 " + m.getColumn() + " 不是数值列，不能做 " + func);
+            }
+            metricFields.add(f);
+            metricNames.add(m.name());
+            needValues |= "median".equals(func) || "percentile".equals(func);
+        }
+        List<Field> filterFields = new ArrayList<>();
+        List<Set<String>> filterValues = new ArrayList<>();
+        for (Map.Entry<String, String> e : query.getFilters().entrySet()) {
+            filterFields.add(resolver.resolve(e.getKey()));
+            Set<String> values = new HashSet<>();
+            for (String v : e.getValue().split(",")) values.add(v.trim());
+            filterValues.add(values);
+        }
+
+        // 2. 扫描分组
+        Map<List<String>, Acc[]> groups = new LinkedHashMap<>();
+        rows:
+        for (int row = 0; row < base.getRowCount(); row++) {
+            for (int i = 0; i < filterFields.size(); i++) {
+                if (!filterValues.get(i).contains(filterFields.get(i).str(row))) continue rows;
+            }
+            List<String> key = new ArrayList<>(groupFields.size());
+            for (Field f : groupFields) key.add(f.str(row));
+            Acc[] accs = groups.get(key);
+            if (accs == null) {
+                accs = new Acc[metricFields.size()];
+                for (int i = 0; i < accs.length; i++) accs[i] = new Acc(needValues);
+                groups.put(key, accs);
+            }
+            for (int i = 0; i < accs.length; i++) {
+                Field f = metricFields.get(i);
+                accs[i].add(f == null ? 0 : f.num(row), f == null || !f.numeric());
+            }
+        }
+
+        // 3. 输出行，按分组键排序（月份 yyyy-MM 字典序即时间序）
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<List<String>> keys = new ArrayList<>(groups.keySet());
+        keys.sort(AggregationEngine::compareKeys);
+        for (List<String> key : keys) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            for (int i = 0; i < groupFields.size(); i++) out.put(query.getGroupBy().get(i), key.get(i));
+            Acc[] accs = groups.get(key);
+            for (int i = 0; i < accs.length; i++) {
+                AggregationQuery.Metric m = query.getMetrics().get(i);
+                out.put(metricNames.get(i), accs[i].result(func(m), m.getP()));
+            }
+            rows.add(out);
+        }
+        List<String> columns = new ArrayList<>(query.getGroupBy());
+        columns.addAll(metricNames);
+
+        // 4. 环比：同一分区（除 month 外的分组键）内与上一个月比较
+        if (query.isMom()) {
+            if (!query.getGroupBy().contains(MONTH)) {
+                throw new BizException("计算环比需要按 month 分组");
+            }
+            applyMom(rows, query.getGroupBy(), metricNames);
+            for (String name : metricNames) {
+                columns.add(name + "_mom");
+                columns.add(name + "_mom_pct");
+            }
+        }
+
+        // 5. 排名（并列同名次）
+        if (query.getRankBy() != null && !query.getRankBy().isBlank()) {
+            if (!columns.contains(query.getRankBy())) {
+                throw new BizException("排名字段不存在: " + query.getRankBy());
+            }
+            applyRank(rows, query.getRankBy(), query.getRankPartitionBy(), query.isRankAsc());
+            columns.add("rank");
+            columns.add("rankOf");
+        }
+
+        if (query.getLimit() != null && query.getLimit() >= 0 && rows.size() > query.getLimit()) {
+            rows = new ArrayList<>(rows.subList(0, query.getLimit()));
+        }
+
+        AggregationResult result = new AggregationResult();
+        result.setDataset(base.getName());
+        result.setVersions(versions);
+        result.setColumns(columns);
+        result.setRows(rows);
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private static void applyMom(List<Map<String, Object>> rows, List<String> groupBy, List<String> metrics) {
+        Map<List<Object>, Map<String, Object>> lastInPartition = new HashMap<>();
+        // rows 已按分组键排序，但 month 不一定是最后一个键，这里按 (分区, month) 重新遍历
+        List<Map<String, Object>> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparing((Map<String, Object> r) -> partitionKey(r, groupBy, MONTH).toString())
+                .thenComparing(r -> String.valueOf(r.get(MONTH))));
+        for (Map<String, Object> row : ordered) {
+            List<Object> partition = partitionKey(row, groupBy, MONTH);
+            Map<String, Object> prev = lastInPartition.put(partition, row);
+            for (String m : metrics) {
+                Double cur = toDouble(row.get(m));
+                Double before = prev == null ? null : toDouble(prev.get(m));
+                if (cur == null || before == null) {
+                    row.put(m + "_mom", null);
+                    row.put(m + "_mom_pct", null);
+                } else {
+                    row.put(m + "_mom", cur - before);
+                    row.put(m + "_mom_pct", before == 0 ? null : (cur - before) / Math.abs(before));
+                }
+            }
+        }
+    }
+
+    private static void applyRank(List<Map<String, Object>> rows, String rankBy, List<String> partitionBy, boolean asc) {
+        Map<List<Object>, List<Map<String, Object>>> partitions = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            List<Object> key = new ArrayList<>();
+            for (String p : partitionBy) key.add(row.get(p));
+            partitions.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+        }
+        Comparator<Map<String, Object>> byValue = Comparator.comparing(
+                (Map<String, Object> r) -> toDouble(r.get(rankBy)), Comparator.nullsLast(Comparator.naturalOrder()));
+        if (!asc) {
+            byValue = Comparator.comparing((Map<String, Object> r) -> toDouble(r.get(rankBy)),
+                    Comparator.nullsLast(Comparator.reverseOrder()));
+        }
+        List<Map<String, Object>> ranked = new ArrayList<>(rows.size());
+        for (List<Map<String, Object>> part : partitions.values()) {
+            part.sort(byValue);
+            int rank = 0;
+            Double last = null;
+            for (int i = 0; i < part.size(); i++) {
+                Double v = toDouble(part.get(i).get(rankBy));
+                if (i == 0 || !Objects.equals(v, last)) rank = i + 1;
+                last = v;
+                part.get(i).put("rank", rank);
+                part.get(i).put("rankOf", part.size());
+            }
+            ranked.addAll(part);
+        }
+        rows.clear();
+        rows.addAll(ranked);
+    }
+
+    private static List<Object> partitionKey(Map<String, Object> row, List<String> groupBy, String exclude) {
+        List<Object> key = new ArrayList<>();
+        for (String g : groupBy) {
+            if (!g.equals(exclude)) key.add(row.get(g));
+        }
+        return key;
+    }
+
+    private static Double toDouble(Object v) {
+        if (v instanceof Number) {
+            double d = ((Number) v).doubleValue();
+            return Double.isNaN(d) ? null : d;
+        }
+        return null;
+    }
+
+    private static int compareKeys(List<String> a, List<String> b) {
+        for (int i = 0; i < a.size(); i++) {
+            int c = a.get(i).compareTo(b.get(i));
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private static String func(AggregationQuery.Metric m) {
+        String f = m.getFunc() == null ? "sum" : m.getFunc().toLowerCase();
+        switch (f) {
+            case "sum":
+            case "avg":
+            case "min":
+            case "max":
+            case "count":
+            case "median":
+            case "percentile":
+                return f;
+            default:
+                throw new BizException("不支持的聚合函数: " + m.getFunc());
+        }
+    }
+
+    private static CsvDataset require(DatasetSnapshot snapshot, String name) {
+        CsvDataset ds = name == null ? null : snapshot.get(name);
+        if (ds == null) {
+            throw new BizException("数据集不存在: " + name);
+        }
+        return ds;
+    }
+
+    /**
+     * 单个分组上单个指标的累加器；只有中位数/百分位才保留原始值
+     */
+    private static class Acc {
+        double sum;
+        long count;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double[] values;
+        int size;
+
+        Acc(boolean keepValues) {
+            if (keepValues) values = new double[8];
+        }
+
+        void add(double v, boolean countOnly) {
+            if (countOnly) {
+                count++;
+                return;
+            }
+            if (Double.isNaN(v)) return;
+            sum += v;
+            count++;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+            if (values != null) {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                values[size++] = v;
+            }
+        }
+
+        Object result(String func, Double p) {
+            if ("count".equals(func)) return count;
+            if (count == 0) return null;
+            switch (func) {
+                case "sum":
+                    return sum;
+                case "avg":
+                    return sum / count;
+                case "min":
+                    return min;
+                case "max":
+                    return max;
+                case "median":
+                    return percentile(50);
+                default:
+                    return percentile(p == null ? 50 : p);
+            }
+        }
+
+        // 线性插值百分位
+        private double percentile(double p) {
+            double[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            double pos = Math.max(0, Math.min(100, p)) / 100 * (sorted.length - 1);
+            int lo = (int) Math.floor(pos);
+            int hi = (int) Math.ceil(pos);
+            return sorted[lo] + (sorted[hi] - sorted[lo]) * (pos - lo);
+        }
+    }
+
+    /**
+     * 查询中引用的一个字段：按主表行号取值
+     */
+    private interface Field {
+        String str(int row);
+
+        double num(int row);
+
+        boolean numeric();
+    }
+
+    private static class FieldResolver {
+        private final CsvDataset base;
+        private final List<JoinedTable> joins;
+
+        FieldResolver(CsvDataset base, List<JoinedTable> joins) {
+            this.base = base;
+            this.joins = joins;
+        }
+
+        Field resolve(String name) {
+            if (name == null || name.isBlank()) throw new BizException("列名不能为空");
+            int dot = name.indexOf('.');
+            if (dot > 0) {
+                String ds = name.substring(0, dot);
+                String col = name.substring(dot + 1);
+                if (ds.equals(base.getName())) return baseField(col, name);
+                for (JoinedTable j : joins) {
+                    if (j.dataset.getName().equals(ds)) return j.field(col, name);
+                }
+                throw new BizException("数据集未参与查询: " + ds);
+            }
+            if (base.hasColumn(name)) return baseField(name, name);
+            Field found = null;
+            for (JoinedTable j : joins) {
+                if (j.dataset.hasColumn(name)) {
+                    if (found != null) throw new BizException("列名 " + name + " 有歧义，请写作 数据集名." + name);
+                    found = j.field(name, name);
+                }
+            }
+            if (found == null) throw new BizException("列不存在: " + name);
+            return found;
+        }
+
+        private Field baseField(String col, String ref) {
+            CsvColumn c = base.column(col);
+            if (c == null) throw new BizException("列不存在: " + ref);
+            return new Field() {
+                public String str(int row) {
+                    return c.stringValue(row);
+                }
+
+                public double num(int row) {
+                    return c.doubleValue(row);
+                }
+
+                public boolean numeric() {
+                    return c.isNumeric();
+                }
+            };
+        }
+    }
+
+    /**
+     * 按 (grid, month) 汇总后的连接表，及主表每行对应的汇总组
+     */
+    private static class JoinedTable {
+        final CsvDataset dataset;
+        final int[] groupOfBaseRow;    // -1 表示连接表中没有对应 (grid, month)
+        final int[] firstRowOfGroup;
+        final Map<String, double[]> sums = new HashMap<>();
+
+        JoinedTable(CsvDataset base, CsvDataset dataset) {
+            this.dataset = dataset;
+            CsvColumn bg = requireKey(base, GRID), bm = requireKey(base, MONTH);
+            CsvColumn jg = requireKey(dataset, GRID), jm = requireKey(dataset, MONTH);
+
+            Map<String, Integer> groupIndex = new HashMap<>();
+            int[] groupOfRow = new int[dataset.getRowCount()];
+            List<Integer> firstRows = new ArrayList<>();
+            for (int row = 0; row < dataset.getRowCount(); row++) {
+                String key = jg.stringValue(row) + '\u0001' + jm.stringValue(row);
+                Integer g = groupIndex.get(key);
+                if (g == null) {
+                    g = groupIndex.size();
+                    groupIndex.put(key, g);
+                    firstRows.add(row);
+                }
+                groupOfRow[row] = g;
+            }
+            firstRowOfGroup = firstRows.stream().mapToInt(Integer::intValue).toArray();
+            for (CsvColumn c : dataset.getColumns()) {
+                if (!c.isNumeric()) continue;
+                double[] s = new double[groupIndex.size()];
+                boolean[] seen = new boolean[s.length];
+                for (int row = 0; row < dataset.getRowCount(); row++) {
+                    double v = c.doubleValue(row);
+                    if (Double.isNaN(v)) continue;
+                    s[groupOfRow[row]] += v;
+                    seen[groupOfRow[row]] = true;
+                }
+                for (int g = 0; g < s.length; g++) {
+                    if (!seen[g]) s[g] = Double.NaN;
+                }
+                sums.put(c.getName(), s);
+            }
+
+            groupOfBaseRow = new int[base.getRowCount()];
+            for (int row = 0; row < base.getRowCount(); row++) {
+                Integer g = groupIndex.get(bg.stringValue(row) + '\u0001' + bm.stringValue(row));
+                groupOfBaseRow[row] = g == null ? -1 : g;
+            }
+        }
+
+        Field field(String col, String ref) {
+            CsvColumn c = dataset.column(col);
+            if (c == null) throw new BizException("列不存在: " + ref);
+            double[] s = sums.get(col);
+            return new Field() {
+                public String str(int row) {
+                    int g = groupOfBaseRow[row];
+                    if (g < 0) return "";
+                    if (s == null) return c.stringValue(firstRowOfGroup[g]);
+                    return Double.isNaN(s[g]) ? "" : CsvColumn.formatDouble(s[g]);
+                }
+
+                public double num(int row) {
+                    int g = groupOfBaseRow[row];
+                    return g < 0 || s == null ? Double.NaN : s[g];
+                }
+
+                public boolean numeric() {
+                    return s != null;
+                }
+            };
+        }
+
+        private static CsvColumn requireKey(CsvDataset ds, String col) {
+            CsvColumn c = ds.column(col);
+            if (c == null) throw new BizException("数据集 " + ds.getName() + " 缺少连接列 " + col);
+            return c;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.mobileproject.dataset;
+
+/**
+ * 列式存储的一列。数值列存为 long[] / double[]，文本列做字典编码（int[] codes + String[] dictionary）
+ */
+public class CsvColumn {
+
+    public enum Type { LONG, DOUBLE, STRING }
+
+    private final String name;
+    private final Type type;
+    private final int size;
+    private final long[] longs;
+    private final double[] doubles;
+    private final int[] codes;
+    private final String[] dictionary;
+
+    CsvColumn(String name, Type type, int size, long[] longs, double[] doubles, int[] codes, String[] dictionary) {
+        this.name = name;
+        this.type = type;
+        this.size = size;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNumeric() {
+        return type != Type.STRING;
+    }
+
+    /**
+     * 数值读取；文本列返回 NaN，数值列的空单元格为 NaN
+     */
+    public double doubleValue(int row) {
+        switch (type) {
+            case LONG:
+                return longs[row];
+            case DOUBLE:
+                return doubles[row];
+            default:
+                return Double.NaN;
+        }
+    }
+
+    public String stringValue(int row) {
+        switch (type) {
+            case LONG:
+                return Long.toString(longs[row]);
+            case DOUBLE:
+                double d = doubles[row];
+                return Double.isNaN(d) ? "" : formatDouble(d);
+            default:
+                return dictionary[codes[row]];
+        }
+    }
+
+    /**
+     * 文本列的字典编码
+     */
+    public int code(int row) {
+        return codes[row];
+    }
+
+    public String[] dictionary() {
+        return dictionary;
+    }
+
+    // 供 CsvColumnBuilder 在已有列上继续追加
+    long[] longs() {
+        return longs;
+    }
+
+    double[] doubles() {
+        return doubles;
+    }
+
+    int[] codes() {
+        return codes;
+    }
+
+    public static String formatDouble(double d) {
+        if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 1e15) {
+            return Long.toString((long) d);
+        }
+        return Double.toString(d);
+    }
+}
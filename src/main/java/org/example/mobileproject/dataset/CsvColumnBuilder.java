@@ -0,0 +1,185 @@
+package org.example.mobileproject.dataset;
+
+import java.util.*;
+
+/**
+ * 逐值追加构建一列。
+ * 非严格模式下类型按数据自动放宽：LONG → DOUBLE → STRING；
+ * 严格模式下类型固定，不符合的值直接报错（用于按已有表结构校验上传数据）；
+ * 空值表示缺失，两种模式下都会把 LONG 列放宽为 DOUBLE（缺失记为 NaN），与重新解析整个文件的结果一致。
+ */
+public class CsvColumnBuilder {
+
+    private final String name;
+    private final boolean strict;
+    private CsvColumn.Type type;
+    private int size = 0;
+
+    private long[] longs;
+    private double[] doubles;
+    private int[] codes;
+    private Map<String, Integer> dictIndex;
+    private List<String> dictionary;
+
+    /**
+     * @param type 初始类型；非严格模式一般从 LONG 开始
+     */
+    public CsvColumnBuilder(String name, CsvColumn.Type type, boolean strict) {
+        this.name = name;
+        this.type = type;
+        this.strict = strict;
+        switch (type) {
+            case LONG:
+                longs = new long[64];
+                break;
+            case DOUBLE:
+                doubles = new double[64];
+                break;
+            default:
+                initStrings(64);
+        }
+    }
+
+    /**
+     * 以已有列为起点继续追加：复制其数据（不修改原列），类型沿用原列
+     */
+    public static CsvColumnBuilder continueFrom(CsvColumn column, boolean strict) {
+        CsvColumnBuilder b = new CsvColumnBuilder(column.getName(), column.getType(), strict);
+        int n = column.size();
+        int capacity = Math.max(64, n + (n >> 1));
+        switch (column.getType()) {
+            case LONG:
+                b.longs = Arrays.copyOf(column.longs(), capacity);
+                break;
+            case DOUBLE:
+                b.doubles = Arrays.copyOf(column.doubles(), capacity);
+                break;
+            default:
+                b.codes = Arrays.copyOf(column.codes(), capacity);
+                for (String v : column.dictionary()) b.dictCode(v);
+        }
+        b.size = n;
+        return b;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CsvColumn.Type getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void append(String raw) {
+        String v = raw == null ? "" : raw.trim();
+        switch (type) {
+            case LONG:
+                Long l = parseLong(v);
+                if (l != null) {
+                    longs = grow(longs);
+                    longs[size++] = l;
+                    return;
+                }
+                // 空值或非整数：放宽为 DOUBLE 后重试；严格模式只允许空值
+                if (strict && !v.isEmpty()) throw mismatch(v);
+                widenToDouble();
+                append(v);
+                return;
+            case DOUBLE:
+                double d;
+                if (v.isEmpty()) {
+                    d = Double.NaN;
+                } else {
+                    try {
+                        d = Double.parseDouble(v);
+                    } catch (NumberFormatException e) {
+                        if (strict) throw mismatch(v);
+                        widenToString();
+                        append(v);
+                        return;
+                    }
+                }
+                doubles = grow(doubles);
+                doubles[size++] = d;
+                return;
+            default:
+                codes = grow(codes);
+                codes[size++] = dictCode(v);
+        }
+    }
+
+    public CsvColumn build() {
+        switch (type) {
+            case LONG:
+                return new CsvColumn(name, type, size, Arrays.copyOf(longs, size), null, null, null);
+            case DOUBLE:
+                return new CsvColumn(name, type, size, null, Arrays.copyOf(doubles, size), null, null);
+            default:
+                return new CsvColumn(name, type, size, null, null, Arrays.copyOf(codes, size),
+                        dictionary.toArray(new String[0]));
+        }
+    }
+
+    private static Long parseLong(String v) {
+        if (v.isEmpty()) return null;
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void widenToDouble() {
+        double[] d = new double[Math.max(64, longs.length)];
+        for (int i = 0; i < size; i++) d[i] = longs[i];
+        doubles = d;
+        longs = null;
+        type = CsvColumn.Type.DOUBLE;
+    }
+
+    private void widenToString() {
+        initStrings(Math.max(64, doubles.length));
+        for (int i = 0; i < size; i++) {
+            double d = doubles[i];
+            codes[i] = dictCode(Double.isNaN(d) ? "" : CsvColumn.formatDouble(d));
+        }
+        doubles = null;
+        type = CsvColumn.Type.STRING;
+    }
+
+    private void initStrings(int capacity) {
+        codes = new int[capacity];
+        dictIndex = new HashMap<>();
+        dictionary = new ArrayList<>();
+    }
+
+    private int dictCode(String v) {
+        Integer code = dictIndex.get(v);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(v);
+            dictIndex.put(v, code);
+        }
+        return code;
+    }
+
+    private IllegalArgumentException mismatch(String v) {
+        return new IllegalArgumentException("列 " + name + " 类型为 " + type + "，值不合法: '" + v + "'");
+    }
+
+    private long[] grow(long[] a) {
+        return size < a.length ? a : Arrays.copyOf(a, a.length * 2);
+    }
+
+    private double[] grow(double[] a) {
+        return size < a.length ? a : Arrays.copyOf(a, a.length * 2);
+    }
+
+    private int[] grow(int[] a) {
+        return size < a.length ? a : Arrays.copyOf(a, a.length * 2);
+    }
+}
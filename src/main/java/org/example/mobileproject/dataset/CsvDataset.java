@@ -0,0 +1,110 @@
+package org.example.mobileproject.dataset;
+
+import org.example.mobileproject.util.CsvParser;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 一个 CSV 数据集（一张表）的列式只读快照
+ */
+public class CsvDataset {
+
+    /** 建二级索引的维度列 */
+    public static final List<String> DIMENSION_COLUMNS = List.of("grid", "month", "county", "channel");
+
+    private final String name;
+    private final String source;     // 来源文件 / classpath 路径
+    private final String version;    // 内容哈希
+    private final List<CsvColumn> columns;
+    private final Map<String, CsvColumn> columnMap = new LinkedHashMap<>();
+    private final Map<String, DimensionIndex> dimensions = new LinkedHashMap<>();
+    private final int rowCount;
+    private final LocalDateTime loadedAt = LocalDateTime.now();
+
+    public CsvDataset(String name, String source, String version, List<CsvColumn> columns) {
+        this.name = name;
+        this.source = source;
+        this.version = version;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        for (CsvColumn c : columns) {
+            columnMap.put(c.getName(), c);
+        }
+        this.rowCount = columns.isEmpty() ? 0 : columns.get(0).size();
+        for (String dim : DIMENSION_COLUMNS) {
+            CsvColumn c = columnMap.get(dim);
+            if (c != null && c.getType() == CsvColumn.Type.STRING) {
+                dimensions.put(dim, new DimensionIndex(c));
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public List<CsvColumn> getColumns() {
+        return columns;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public CsvColumn column(String columnName) {
+        return columnMap.get(columnName);
+    }
+
+    /**
+     * 维度列的二级索引；该列不存在或不是文本列时为 null
+     */
+    public DimensionIndex dimension(String columnName) {
+        return dimensions.get(columnName);
+    }
+
+    public Collection<DimensionIndex> dimensions() {
+        return dimensions.values();
+    }
+
+    public boolean hasColumn(String columnName) {
+        return columnMap.containsKey(columnName);
+    }
+
+    public String header() {
+        StringJoiner sj = new StringJoiner(",");
+        for (CsvColumn c : columns) sj.add(c.getName());
+        return sj.toString();
+    }
+
+    /**
+     * 以 CSV 文本追加一行
+     */
+    public void appendRow(StringBuilder sb, int row) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(CsvParser.escape(columns.get(i).stringValue(row)));
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * 列名 → 类型，便于接口展示
+     */
+    public Map<String, String> schema() {
+        Map<String, String> schema = new LinkedHashMap<>();
+        for (CsvColumn c : columns) schema.put(c.getName(), c.getType().name());
+        return schema;
+    }
+}
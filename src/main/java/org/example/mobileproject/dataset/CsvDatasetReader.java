@@ -0,0 +1,140 @@
+package org.example.mobileproject.dataset;
+
+import org.example.mobileproject.util.CsvParser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式读取 CSV 为列式数据集：逐行解析、逐值追加，不保留原始文本。
+ * 首行为表头，自动去除 UTF-8 BOM；列类型按数据自动推断。
+ */
+public class CsvDatasetReader {
+
+    // 每解析这么多行回调一次进度
+    private static final int PROGRESS_EVERY = 100_000;
+
+    /**
+     * 解析进度回调
+     */
+    public interface ProgressListener {
+        void onProgress(long rows, long bytes);
+    }
+
+    public static CsvDataset read(String name, String source, InputStream in) throws IOException {
+        return read(name, source, in, null, false, null);
+    }
+
+    /**
+     * @param base     非空时按其表结构校验：表头必须一致，列类型沿用 base 并严格校验
+     * @param append   为 true 时在 base 的数据之后追加，否则只沿用其表结构
+     * @param progress 进度回调，可为空
+     * @throws IllegalArgumentException 表头不一致或值与列类型不符
+     */
+    public static CsvDataset read(String name, String source, InputStream in, CsvDataset base,
+                                  boolean append, ProgressListener progress) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        CountingInputStream counting = new CountingInputStream(in);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new DigestInputStream(counting, md), StandardCharsets.UTF_8))) {
+            String headerLine = CsvParser.stripBom(reader.readLine());
+            if (headerLine == null || headerLine.isBlank()) {
+                throw new IOException("CSV 缺少表头: " + source);
+            }
+            List<String> header = CsvParser.parseLine(headerLine);
+            List<CsvColumnBuilder> builders = new ArrayList<>();
+            if (base != null) {
+                List<String> expected = base.getColumns().stream().map(CsvColumn::getName).toList();
+                List<String> actual = header.stream().map(String::trim).toList();
+                if (!expected.equals(actual)) {
+                    throw new IllegalArgumentException("表头与已有数据集 " + base.getName() + " 不一致，期望 " + expected + "，实际 " + actual);
+                }
+                for (CsvColumn c : base.getColumns()) {
+                    builders.add(append ? CsvColumnBuilder.continueFrom(c, true)
+                            : new CsvColumnBuilder(c.getName(), c.getType(), true));
+                }
+            } else {
+                for (String h : header) {
+                    builders.add(new CsvColumnBuilder(h.trim(), CsvColumn.Type.LONG, false));
+                }
+            }
+
+            String line;
+            long lineNo = 1;
+            long rows = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                List<String> fields = CsvParser.parseLine(line);
+                try {
+                    for (int i = 0; i < builders.size(); i++) {
+                        builders.get(i).append(i < fields.size() ? fields.get(i) : "");
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("第 " + lineNo + " 行: " + e.getMessage(), e);
+                }
+                rows++;
+                if (progress != null && rows % PROGRESS_EVERY == 0) {
+                    progress.onProgress(rows, counting.count);
+                }
+            }
+            if (progress != null) progress.onProgress(rows, counting.count);
+
+            List<CsvColumn> columns = new ArrayList<>();
+            for (CsvColumnBuilder b : builders) columns.add(b.build());
+            String version = hex(md.digest());
+            if (base != null && append) {
+                // 追加后的版本由原版本和新增内容共同决定
+                version = hex(sha256(base.getVersion() + ":" + version));
+            }
+            return new CsvDataset(name, source, version, columns);
+        }
+    }
+
+    static String hex(byte[] digest) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private static byte[] sha256(String s) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.mobileproject.dataset;
+
+import org.example.mobileproject.util.HashUtil;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 所有 CSV 数据集的不可变快照，重载时整体替换
+ */
+public class DatasetSnapshot {
+
+    private final Map<String, CsvDataset> datasets;
+    private final String version;
+
+    public DatasetSnapshot(Map<String, CsvDataset> datasets) {
+        this.datasets = Collections.unmodifiableMap(new TreeMap<>(datasets));
+        StringBuilder sb = new StringBuilder();
+        this.datasets.forEach((name, ds) -> sb.append(name).append(':').append(ds.getVersion()).append(';'));
+        this.version = HashUtil.sha256Hex(sb.toString());
+    }
+
+    public Map<String, CsvDataset> getDatasets() {
+        return datasets;
+    }
+
+    public CsvDataset get(String name) {
+        return datasets.get(name);
+    }
+
+    /**
+     * 快照版本：由各数据集内容哈希决定，内容不变则重启后版本也不变
+     */
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.mobileproject.dataset;
+
+import java.util.*;
+
+/**
+ * 文本维度列（grid / month / county / channel）的二级索引：
+ * - 字典编码 → 行号倒排（精确取行）
+ * - 归一化取值 → 编码（精确匹配）
+ * - 字符二元组 → 编码（模糊匹配、最近邻候选）
+ */
+public class DimensionIndex {
+
+    private static final double FUZZY_DICE = 0.6;
+
+    private final CsvColumn column;
+    private final int[][] rowsByCode;
+    private final String[] normValues;
+    private final int[] bigramCounts;
+    private final Map<String, List<Integer>> exact = new HashMap<>();
+    private final Map<String, int[]> bigramToCodes = new HashMap<>();
+
+    public DimensionIndex(CsvColumn column) {
+        this.column = column;
+        String[] dict = column.dictionary();
+
+        // 1. 行号倒排：先计数再填充
+        int[] counts = new int[dict.length];
+        for (int row = 0; row < column.size(); row++) counts[column.code(row)]++;
+        rowsByCode = new int[dict.length][];
+        for (int c = 0; c < dict.length; c++) rowsByCode[c] = new int[counts[c]];
+        int[] fill = new int[dict.length];
+        for (int row = 0; row < column.size(); row++) {
+            int c = column.code(row);
+            rowsByCode[c][fill[c]++] = row;
+        }
+
+        // 2. 归一化取值与二元组
+        normValues = new String[dict.length];
+        bigramCounts = new int[dict.length];
+        Map<String, List<Integer>> grams = new HashMap<>();
+        for (int c = 0; c < dict.length; c++) {
+            normValues[c] = normalize(dict[c]);
+            exact.computeIfAbsent(normValues[c], k -> new ArrayList<>()).add(c);
+            Set<String> bg = bigrams(normValues[c]);
+            bigramCounts[c] = bg.size();
+            for (String g : bg) grams.computeIfAbsent(g, k -> new ArrayList<>()).add(c);
+        }
+        grams.forEach((g, codes) -> bigramToCodes.put(g, codes.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public String getColumnName() {
+        return column.getName();
+    }
+
+    /** 不同取值个数 */
+    public int cardinality() {
+        return normValues.length;
+    }
+
+    /** 归一化后的取值（见 {@link #normalize(String)}） */
+    public String normalizedValue(int code) {
+        return normValues[code];
+    }
+
+    public String value(int code) {
+        return column.dictionary()[code];
+    }
+
+    public int[] rows(int code) {
+        return rowsByCode[code];
+    }
+
+    /**
+     * 精确（归一化后相等）匹配
+     */
+    public List<Integer> matchExact(String mention) {
+        return exact.getOrDefault(normalize(mention), Collections.emptyList());
+    }
+
+    /**
+     * 模糊匹配：互相包含，或二元组 Dice 相似度足够高。
+     * 长文本（如整篇文档）只做“文本包含取值”的判断
+     * @return 编码 → 相似度（包含关系记为 1.0）
+     */
+    public Map<Integer, Double> matchFuzzy(String mention) {
+        String m = normalize(mention);
+        Map<Integer, Double> result = new HashMap<>();
+        if (m.isEmpty()) return result;
+
+        Set<String> mGrams = bigrams(m);
+        for (Map.Entry<Integer, Integer> e : candidateHits(mGrams).entrySet()) {
+            int code = e.getKey();
+            String v = normValues[code];
+            if ((v.length() >= 2 && m.contains(v)) || (m.length() >= 2 && v.contains(m))) {
+                result.put(code, 1.0);
+                continue;
+            }
+            if (m.length() > 4 * Math.max(1, v.length())) continue;
+            double dice = 2.0 * e.getValue() / (mGrams.size() + bigramCounts[code]);
+            if (dice >= FUZZY_DICE) result.put(code, dice);
+        }
+        return result;
+    }
+
+    /**
+     * 最近邻：按二元组相似度取前 k 个取值
+     */
+    public List<Integer> nearest(String mention, int k) {
+        Set<String> mGrams = bigrams(normalize(mention));
+        List<Map.Entry<Integer, Double>> scored = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : candidateHits(mGrams).entrySet()) {
+            double dice = 2.0 * e.getValue() / (mGrams.size() + bigramCounts[e.getKey()]);
+            scored.add(Map.entry(e.getKey(), dice));
+        }
+        scored.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        List<Integer> codes = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, scored.size()); i++) codes.add(scored.get(i).getKey());
+        return codes;
+    }
+
+    private Map<Integer, Integer> candidateHits(Set<String> mGrams) {
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (String g : mGrams) {
+            int[] codes = bigramToCodes.get(g);
+            if (codes == null) continue;
+            for (int c : codes) hits.merge(c, 1, Integer::sum);
+        }
+        return hits;
+    }
+
+    /**
+     * 去空白与常见分隔符、转小写，使“东城-一网格”与“东城一网格”等价
+     */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c) || "-_·.,，、。()（）[]【】\"'“”".indexOf(c) >= 0) continue;
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    static Set<String> bigrams(String s) {
+        Set<String> grams = new HashSet<>();
+        if (s.length() == 1) {
+            grams.add(s);
+            return grams;
+        }
+        for (int i = 0; i + 1 < s.length(); i++) grams.add(s.substring(i, i + 2));
+        return grams;
+    }
+}
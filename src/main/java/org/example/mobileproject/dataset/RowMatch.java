@@ -0,0 +1,61 @@
+package org.example.mobileproject.dataset;
+
+import java.util.List;
+
+/**
+ * 一个数据集中与文档提及相关的行
+ */
+public class RowMatch {
+
+    public enum Type {
+        EXACT("精确匹配"),
+        FUZZY("模糊匹配"),
+        PARTIAL("部分维度匹配"),
+        NEAREST("无匹配，最近邻"),
+        SAMPLE("无匹配，样例行");
+
+        private final String desc;
+
+        Type(String desc) {
+            this.desc = desc;
+        }
+
+        public String getDesc() {
+            return desc;
+        }
+    }
+
+    private final CsvDataset dataset;
+    private final int[] rows;          // 升序行号，已按上限截断
+    private final int matchedCount;    // 截断前命中行数
+    private final Type type;
+    private final List<String> matchedValues;
+
+    public RowMatch(CsvDataset dataset, int[] rows, int matchedCount, Type type, List<String> matchedValues) {
+        this.dataset = dataset;
+        this.rows = rows;
+        this.matchedCount = matchedCount;
+        this.type = type;
+        this.matchedValues = matchedValues;
+    }
+
+    public CsvDataset getDataset() {
+        return dataset;
+    }
+
+    public int[] getRows() {
+        return rows;
+    }
+
+    public int getMatchedCount() {
+        return matchedCount;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<String> getMatchedValues() {
+        return matchedValues;
+    }
+}
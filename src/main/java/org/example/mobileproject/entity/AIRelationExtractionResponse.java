@@ -0,0 +1,16 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class AIRelationExtractionResponse {
+    private List<RelationDetail> relations;
+
+    @Data
+    public static class RelationDetail {
+        private Integer pair;   // 候选实体对序号（prompt 中从 1 开始）
+        private String head;    // "A" 或 "B"：哪一个实体是关系的头实体
+        private String label;   // 关系标签名
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV 数据集上的聚合查询
+ */
+@Data
+public class AggregationQuery {
+    private String dataset;                          // 主表（数据集名）
+    private List<String> join = new ArrayList<>();   // 按 (grid, month) 左连接的其他数据集
+    private List<String> groupBy = new ArrayList<>();
+    private List<Metric> metrics = new ArrayList<>();
+    private Map<String, String> filters = new LinkedHashMap<>(); // 列 → 取值，多个取值用逗号分隔
+    private String rankBy;                           // 按哪个指标排名（指标别名）
+    private List<String> rankPartitionBy = new ArrayList<>(); // 排名分区，如 ["month"] 表示每月内排名
+    private boolean rankAsc;                         // 默认从大到小排名
+    private boolean mom;                             // 计算环比，要求 groupBy 含 month
+    private Integer limit;
+
+    @Data
+    public static class Metric {
+        private String column;   // 列名；连接表的列可写作 数据集名.列名；count 可不填
+        private String func;     // sum / avg / min / max / count / median / percentile
+        private Double p;        // percentile 的百分位，0-100
+        private String alias;
+
+        public String name() {
+            if (alias != null && !alias.isBlank()) return alias;
+            String f = func == null ? "sum" : func.toLowerCase();
+            if (column == null) return f;
+            return "percentile".equals(f) ? "p" + (p == null ? 50 : p.intValue()) + "_" + column : f + "_" + column;
+        }
+    }
+}
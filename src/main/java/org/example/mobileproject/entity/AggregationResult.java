@@ -0,0 +1,18 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聚合查询结果；versions 为参与计算的各数据集版本
+ */
+@Data
+public class AggregationResult {
+    private String dataset;
+    private Map<String, String> versions;
+    private List<String> columns;
+    private List<Map<String, Object>> rows;
+    private long elapsedMs;
+}
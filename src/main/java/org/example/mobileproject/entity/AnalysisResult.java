@@ -0,0 +1,21 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 持久化的分析产物：CSV 关联分析结论 / 业务报告
+ */
+@Data
+public class AnalysisResult {
+    public static final String KIND_CSV_ANALYSIS = "csv_analysis";
+    public static final String KIND_BUSINESS_REPORT = "business_report";
+
+    private Long id;
+    private Long documentId;
+    private String kind;      // csv_analysis / business_report
+    private String fingerprint; // 输入版本指纹：文档内容 / 实体集合 / CSV 数据集 / 模板版本
+    private String content;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 分章节生成的业务报告；有章节或摘要生成失败时以占位文字代替，complete 为 false，不应持久化
+ */
+@Data
+public class BusinessReport {
+    private String content;
+    private boolean complete;
+
+    public BusinessReport(String content, boolean complete) {
+        this.content = content;
+        this.complete = complete;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 一次 CSV 上传导入的结果与吞吐
+ */
+@Data
+public class CsvIngestResult {
+    private String dataset;
+    private String mode;          // replace / append
+    private String version;       // 导入后的数据集版本
+    private long rows;            // 本次导入行数
+    private long totalRows;       // 导入后数据集总行数
+    private long bytes;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private double bytesPerSecond;
+    private boolean persisted;    // 是否已写入 csv.data-dir
+}
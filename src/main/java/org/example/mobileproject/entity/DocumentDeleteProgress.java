@@ -0,0 +1,25 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 文档级联删除进度
+ */
+@Data
+public class DocumentDeleteProgress {
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private Long documentId;
+    private String status;
+    private String currentTable;                       // 正在清理的表
+    private Map<String, Long> deleted = new LinkedHashMap<>(); // 表名 → 已删除行数
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,15 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文档列表的一页；nextCursor 原样传回即可取下一页，为空表示没有更多
+ */
+@Data
+public class DocumentPage {
+    private List<DocumentSummary> items = new ArrayList<>();
+    private String nextCursor;
+}
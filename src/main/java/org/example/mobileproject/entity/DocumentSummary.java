@@ -0,0 +1,18 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文档列表的摘要投影，不含正文
+ */
+@Data
+public class DocumentSummary {
+    private Long id;
+    private String title;
+    private Integer length;         // 正文字符数
+    private Integer entityCount;
+    private Integer relationCount;
+    private LocalDateTime createdAt;
+}
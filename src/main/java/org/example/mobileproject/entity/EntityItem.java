@@ -6,11 +6,15 @@ import java.time.LocalDateTime;
 
 @Data
 public class EntityItem {
+    public static final String SOURCE_MANUAL = "manual";
+    public static final String SOURCE_GAZETTEER = "gazetteer";
+
     private Long id;
     private Long documentId;
     private Long labelId;
     private String text;
     private Integer tokenStart; // inclusive
     private Integer tokenEnd;   // inclusive
+    private String source;      // manual / gazetteer：词典预标注生成、尚未人工修改过的为 gazetteer
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,23 @@
+package org.example.mobileproject.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 图谱变更日志的一条记录
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KgChange {
+    private Long id;
+    private Long documentId;
+    private Long version;
+    private String op;                     // KgGraphChangedEvent.Type；GRAPH_RESET 表示需要整图重新加载
+    private Long targetId;                 // 节点或边的 id
+    private Map<String, Object> payload;   // *_UPSERTED 时为最新的节点 / 边
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 全局边：把各文档中的边按 (源全局节点, 目标全局节点, 关系标签) 汇总
+ */
+@Data
+public class KgGlobalEdge {
+    private Long sourceGlobalNodeId;
+    private Long targetGlobalNodeId;
+    private Long relationLabelId;
+    private String edgeName;
+    private Integer edgeCount;
+    private Integer documentCount;
+}
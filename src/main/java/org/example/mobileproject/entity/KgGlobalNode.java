@@ -0,0 +1,22 @@
+package org.example.mobileproject.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 跨文档全局节点：同标签、名称相同或相近的文档节点合并为一个
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KgGlobalNode {
+    private Long id;
+    private Long labelId;
+    private String name;         // 首个成员节点的名称
+    private String normName;     // 规范化名称，精确分块键
+    private Integer memberCount;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package org.example.mobileproject.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文档节点 → 全局节点的归属（溯源）
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KgGlobalNodeLink {
+
+    public static final String MATCH_NEW = "NEW";      // 无匹配，新建全局节点
+    public static final String MATCH_EXACT = "EXACT";  // 规范化名称一致
+    public static final String MATCH_FUZZY = "FUZZY";  // n-gram 相似度达到阈值
+
+    private Long nodeId;
+    private Long globalNodeId;
+    private Long documentId;
+    private String nodeName;     // 查询时关联 kg_nodes 带出
+    private String matchType;
+    private Double score;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文档图谱的布局结果，前端直接按坐标绘制
+ */
+@Data
+public class KgLayout {
+    private Long documentId;
+    private long graphVersion;
+    private boolean computed;       // 本次请求是否重新计算（否则为复用已保存的坐标）
+    private boolean warmStart;      // 重新计算时是否以已有坐标为起点
+    private int iterations;
+    private long elapsedMs;
+    private List<KgNodeLayout> positions = new ArrayList<>();
+}
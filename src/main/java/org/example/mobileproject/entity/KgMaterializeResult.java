@@ -0,0 +1,18 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 实体 / 关系批量物化为图谱节点 / 边的结果；重复执行时已存在的部分计入 existing
+ */
+@Data
+public class KgMaterializeResult {
+    private Long documentId;
+    private int nodesCreated;
+    private int nodesExisting;
+    private int edgesCreated;
+    private int edgesExisting;
+    private int entitiesSkipped;    // 无标签的实体
+    private int relationsSkipped;   // 头 / 尾实体不在本文档或关系标签不存在
+    private long elapsedMs;
+}
@@ -0,0 +1,16 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 节点布局坐标（kg_node_layout）
+ */
+@Data
+public class KgNodeLayout {
+    private Long nodeId;
+    private Long documentId;
+    private double x;
+    private double y;
+    private boolean pinned;       // 用户固定的位置，重新布局时不移动
+    private long graphVersion;
+}
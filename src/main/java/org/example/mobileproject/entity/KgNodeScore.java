@@ -0,0 +1,18 @@
+package org.example.mobileproject.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 节点的某项指标得分（中心性等）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KgNodeScore {
+    private Long nodeId;
+    private String name;
+    private Long labelId;
+    private double score;
+}
@@ -0,0 +1,22 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 两节点间的最短路径
+ */
+@Data
+public class KgPath {
+    private Long documentId;
+    private Long fromNodeId;
+    private Long toNodeId;
+    private long graphVersion;
+    private boolean found;
+    private int hops;
+    private Double cost;       // 带权时为边权之和，无权时等于 hops
+    private List<KgNode> nodes = new ArrayList<>();
+    private List<KgEdge> edges = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 图谱搜索的一页结果；nextCursor 原样传回即可取下一页，为空表示没有更多
+ */
+@Data
+public class KgSearchPage<T> {
+    private List<T> items = new ArrayList<>();
+    private String nextCursor;
+    private int scanned;        // 本次检查的索引条目数
+}
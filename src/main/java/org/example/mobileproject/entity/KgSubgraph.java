@@ -0,0 +1,19 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.*;
+
+/**
+ * 图谱局部查询（k 跳邻域等）的结果
+ */
+@Data
+public class KgSubgraph {
+    private Long documentId;
+    private Long centerId;
+    private long graphVersion;                          // 查询时索引的版本
+    private List<KgNode> nodes = new ArrayList<>();
+    private List<KgEdge> edges = new ArrayList<>();
+    private Map<Long, Integer> depth = new LinkedHashMap<>(); // 节点 → 距中心的跳数
+    private Set<Long> truncated = new LinkedHashSet<>();     // 因度数/节点数上限未完全展开的节点
+}
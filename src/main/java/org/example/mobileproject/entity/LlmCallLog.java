@@ -0,0 +1,27 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 单次大模型调用记录（llm_call_log）
+ */
+@Data
+public class LlmCallLog {
+    private Long id;
+    private Long documentId;
+    private String taskType;
+    private String provider;
+    private String model;
+    private Boolean success;
+    private Integer retryCount;       // 本次请求在该次尝试之前已失败的次数
+    private Long queueWaitMs;         // 等待并发许可
+    private Long connectMs;           // 发出请求到收到响应头（含建连 / TLS）
+    private Long ttftMs;              // 首个 token 到达
+    private Long totalMs;
+    private Integer promptTokens;
+    private Integer completionTokens;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+}
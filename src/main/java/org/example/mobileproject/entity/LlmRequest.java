@@ -0,0 +1,25 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.service.LlmClient;
+
+/**
+ * 一次大模型调用请求
+ */
+@Data
+public class LlmRequest {
+    private AiTaskType taskType;
+    private Long documentId;   // 关联文档，用于按文档统计用量，可为空
+    private String prompt;
+    private boolean jsonMode;  // 是否要求返回 JSON 对象
+    private LlmClient.StreamListener streamListener; // 流式输出监听，可为空
+
+    public static LlmRequest of(AiTaskType taskType, Long documentId, String prompt) {
+        LlmRequest req = new LlmRequest();
+        req.setTaskType(taskType);
+        req.setDocumentId(documentId);
+        req.setPrompt(prompt);
+        return req;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 按文档 + 任务类型 + 模型汇总的大模型用量
+ */
+@Data
+public class LlmUsageSummary {
+    private Long documentId;
+    private String taskType;
+    private String model;
+    private Long calls;
+    private Long failures;
+    private Long promptTokens;
+    private Long completionTokens;
+    private Double avgTotalMs;
+    private Long maxTotalMs;
+    private Double avgTtftMs;
+}
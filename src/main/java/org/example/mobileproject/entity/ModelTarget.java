@@ -0,0 +1,32 @@
+package org.example.mobileproject.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一次大模型调用的目标：提供方 + 模型名
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModelTarget {
+    private String provider; // 对应 ai.providers.* 的 key
+    private String model;    // 如 deepseek-chat
+
+    /**
+     * 解析 "provider/model" 格式的配置值
+     */
+    public static ModelTarget parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        int idx = value.indexOf('/');
+        if (idx <= 0 || idx == value.length() - 1) {
+            throw new IllegalArgumentException("模型配置格式应为 provider/model: " + value);
+        }
+        return new ModelTarget(value.substring(0, idx).trim(), value.substring(idx + 1).trim());
+    }
+
+    public String key() {
+        return provider + "/" + model;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 关系标签与头 / 尾实体标签的组合，用于判断候选实体对是否可能存在某种关系
+ */
+@Data
+public class RelationSignature {
+    private Long relationLabelId;
+    private Long headLabelId;   // entity_labels.id
+    private Long tailLabelId;   // entity_labels.id
+}
@@ -0,0 +1,16 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+/**
+ * 全文检索的一条结果：type 为 document 时 id 即文档 id，为 entity 时 id 为实体 id
+ */
+@Data
+public class SearchHit {
+    private String type;
+    private Long id;
+    private Long documentId;
+    private String title;       // 文档标题
+    private String snippet;     // 命中位置附近的原文；实体为实体文本
+    private double score;
+}
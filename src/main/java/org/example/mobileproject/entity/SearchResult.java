@@ -0,0 +1,16 @@
+package org.example.mobileproject.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全文检索的一页结果，按相关度降序
+ */
+@Data
+public class SearchResult {
+    private List<SearchHit> items = new ArrayList<>();
+    private int total;          // 命中总数
+    private long tookMs;
+}
@@ -0,0 +1,29 @@
+package org.example.mobileproject.event;
+
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 文档的分词 / 实体标注发生变更，由相关 Service 在写入后发布。
+ * 监听方应使用 @TransactionalEventListener，只在事务提交后处理
+ */
+@Getter
+public class DocumentDataChangedEvent {
+
+    public enum Kind {
+        TOKENS,
+        ENTITIES,
+        CONTENT,    // 文档正文新建、修改或删除（分词变更也可能只是重新分词，不伴随正文变化）
+        CREATED     // 文档新建，与 CONTENT 一起发布
+    }
+
+    private final Long documentId;
+    private final Set<Kind> kinds;
+
+    public DocumentDataChangedEvent(Long documentId, Kind first, Kind... rest) {
+        this.documentId = documentId;
+        this.kinds = EnumSet.of(first, rest);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.mobileproject.event;
+
+import lombok.Getter;
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+
+/**
+ * 知识图谱变更事件，由 KgServiceImpl 在节点/边增删改后发布。
+ * 监听方（内存索引、缓存等）应使用 @TransactionalEventListener，只在事务提交后处理
+ */
+@Getter
+public class KgGraphChangedEvent {
+
+    public enum Type {
+        NODE_UPSERTED,
+        NODE_DELETED,
+        EDGE_UPSERTED,
+        EDGE_DELETED,
+        GRAPH_RESET   // 批量变更，监听方应整体丢弃该文档的派生数据
+    }
+
+    private final Type type;
+    private final Long documentId;
+    private final Long id;        // 节点或边的 id；GRAPH_RESET 时为空
+    private final KgNode node;    // NODE_UPSERTED 时为最新节点
+    private final KgEdge edge;    // EDGE_UPSERTED 时为最新边
+
+    private KgGraphChangedEvent(Type type, Long documentId, Long id, KgNode node, KgEdge edge) {
+        this.type = type;
+        this.documentId = documentId;
+        this.id = id;
+        this.node = node;
+        this.edge = edge;
+    }
+
+    public static KgGraphChangedEvent nodeUpserted(KgNode node) {
+        return new KgGraphChangedEvent(Type.NODE_UPSERTED, node.getDocumentId(), node.getId(), node, null);
+    }
+
+    public static KgGraphChangedEvent nodeDeleted(Long documentId, Long nodeId) {
+        return new KgGraphChangedEvent(Type.NODE_DELETED, documentId, nodeId, null, null);
+    }
+
+    public static KgGraphChangedEvent edgeUpserted(KgEdge edge) {
+        return new KgGraphChangedEvent(Type.EDGE_UPSERTED, edge.getDocumentId(), edge.getId(), null, edge);
+    }
+
+    public static KgGraphChangedEvent edgeDeleted(Long documentId, Long edgeId) {
+        return new KgGraphChangedEvent(Type.EDGE_DELETED, documentId, edgeId, null, null);
+    }
+
+    public static KgGraphChangedEvent graphReset(Long documentId) {
+        return new KgGraphChangedEvent(Type.GRAPH_RESET, documentId, null, null, null);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.mobileproject.graph;
+
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+
+import java.util.*;
+
+/**
+ * 一个文档图谱的不可变 CSR（压缩稀疏行）邻接表。
+ * 节点按下标 0..n-1 编号；out/in 两组 offsets + 边下标数组，分别按起点、终点聚集。
+ * 端点不在节点集合中的边会被忽略。
+ */
+final class CsrGraph {
+
+    final KgNode[] nodes;
+    final Map<Long, Integer> nodeIndex;
+    final KgEdge[] edges;
+    final int[] edgeSrc;
+    final int[] edgeTgt;
+    final int[] outOffsets;
+    final int[] outEdges;
+    final int[] inOffsets;
+    final int[] inEdges;
+
+    CsrGraph(Collection<KgNode> nodeList, Collection<KgEdge> edgeList) {
+        nodes = nodeList.toArray(new KgNode[0]);
+        nodeIndex = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) nodeIndex.put(nodes[i].getId(), i);
+
+        List<KgEdge> valid = new ArrayList<>(edgeList.size());
+        for (KgEdge e : edgeList) {
+            if (nodeIndex.containsKey(e.getSourceNodeId()) && nodeIndex.containsKey(e.getTargetNodeId())) {
+                valid.add(e);
+            }
+        }
+        edges = valid.toArray(new KgEdge[0]);
+        edgeSrc = new int[edges.length];
+        edgeTgt = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            edgeSrc[i] = nodeIndex.get(edges[i].getSourceNodeId());
+            edgeTgt[i] = nodeIndex.get(edges[i].getTargetNodeId());
+        }
+        outOffsets = new int[nodes.length + 1];
+        outEdges = new int[edges.length];
+        bucket(edgeSrc, outOffsets, outEdges);
+        inOffsets = new int[nodes.length + 1];
+        inEdges = new int[edges.length];
+        bucket(edgeTgt, inOffsets, inEdges);
+    }
+
+    int nodeCount() {
+        return nodes.length;
+    }
+
+    int edgeCount() {
+        return edges.length;
+    }
+
+    // 计数排序：offsets[v]..offsets[v+1] 为以 v 为端点的边下标
+    private static void bucket(int[] endpoint, int[] offsets, int[] target) {
+        for (int v : endpoint) offsets[v + 1]++;
+        for (int i = 0; i + 1 < offsets.length; i++) offsets[i + 1] += offsets[i];
+        int[] fill = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int e = 0; e < endpoint.length; e++) target[fill[endpoint[e]]++] = e;
+    }
+}
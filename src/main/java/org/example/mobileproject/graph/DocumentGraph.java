@@ -0,0 +1,361 @@
+package org.example.mobileproject.graph;
+
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgSubgraph;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 一个文档图谱的内存邻接索引：不可变 CSR 基底 + 增量覆盖层。
+ * 节点/边的增删改只写覆盖层，覆盖层累积到一定规模后在内存中重建 CSR（不回查数据库）。
+ * 读写通过读写锁隔离，读操作可并发。
+ */
+public class DocumentGraph {
+
+    public enum Direction { OUT, IN, BOTH }
+
+    // 覆盖层变更数超过 max(该值, 基底边数 / 8) 时重建 CSR
+    private static final int MIN_COMPACT_THRESHOLD = 1024;
+
+    // 全局递增的版本号：索引被丢弃重建后版本也不会与旧值重复，可直接作为派生结果的缓存键
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final Long documentId;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CsrGraph base;
+    private final Map<Long, KgNode> nodeOverrides = new HashMap<>();  // 新增或修改过的节点
+    private final Set<Long> removedNodes = new HashSet<>();
+    private final Map<Long, KgEdge> addedEdges = new HashMap<>();     // 新增或修改过的边
+    private final Set<Long> removedEdges = new HashSet<>();           // 被删除或被覆盖的基底边
+    private final Map<Long, List<KgEdge>> overlayAdjacency = new HashMap<>();
+    private int overlayOps;
+    private long version = VERSIONS.incrementAndGet();
+
+    public DocumentGraph(Long documentId, Collection<KgNode> nodes, Collection<KgEdge> edges) {
+        this.documentId = documentId;
+        this.base = new CsrGraph(nodes, edges);
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    /**
+     * 每次变更递增，可用于派生数据（统计、布局等）判断是否过期
+     */
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- 变更 ----------
+
+    public void upsertNode(KgNode node) {
+        lock.writeLock().lock();
+        try {
+            removedNodes.remove(node.getId());
+            nodeOverrides.put(node.getId(), node);
+            changed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除节点，同时删除其关联边（与数据库外键级联一致）
+     */
+    public void removeNode(Long nodeId) {
+        lock.writeLock().lock();
+        try {
+            nodeOverrides.remove(nodeId);
+            removedNodes.add(nodeId);
+            List<KgEdge> incident = overlayAdjacency.remove(nodeId);
+            if (incident != null) {
+                for (KgEdge e : incident) removeOverlayEdge(e.getId());
+            }
+            Integer idx = base.nodeIndex.get(nodeId);
+            if (idx != null) {
+                for (int i = base.outOffsets[idx]; i < base.outOffsets[idx + 1]; i++) {
+                    removedEdges.add(base.edges[base.outEdges[i]].getId());
+                }
+                for (int i = base.inOffsets[idx]; i < base.inOffsets[idx + 1]; i++) {
+                    removedEdges.add(base.edges[base.inEdges[i]].getId());
+                }
+            }
+            changed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertEdge(KgEdge edge) {
+        lock.writeLock().lock();
+        try {
+            removeOverlayEdge(edge.getId());
+            removedEdges.add(edge.getId());  // 若基底中有旧版本，屏蔽之
+            addedEdges.put(edge.getId(), edge);
+            overlayAdjacency.computeIfAbsent(edge.getSourceNodeId(), k -> new ArrayList<>()).add(edge);
+            if (!Objects.equals(edge.getSourceNodeId(), edge.getTargetNodeId())) {
+                overlayAdjacency.computeIfAbsent(edge.getTargetNodeId(), k -> new ArrayList<>()).add(edge);
+            }
+            changed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeEdge(Long edgeId) {
+        lock.writeLock().lock();
+        try {
+            removeOverlayEdge(edgeId);
+            removedEdges.add(edgeId);
+            changed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeOverlayEdge(Long edgeId) {
+        KgEdge old = addedEdges.remove(edgeId);
+        if (old == null) return;
+        for (Long endpoint : List.of(old.getSourceNodeId(), old.getTargetNodeId())) {
+            List<KgEdge> list = overlayAdjacency.get(endpoint);
+            if (list != null) {
+                list.removeIf(e -> e.getId().equals(edgeId));
+                if (list.isEmpty()) overlayAdjacency.remove(endpoint);
+            }
+        }
+    }
+
+    private void changed() {
+        version = VERSIONS.incrementAndGet();
+        if (++overlayOps > Math.max(MIN_COMPACT_THRESHOLD, base.edgeCount() / 8)) {
+            compact();
+        }
+    }
+
+    // 把覆盖层合并进新的 CSR
+    private void compact() {
+        base = new CsrGraph(collectNodes(), collectEdges());
+        nodeOverrides.clear();
+        removedNodes.clear();
+        addedEdges.clear();
+        removedEdges.clear();
+        overlayAdjacency.clear();
+        overlayOps = 0;
+    }
+
+    // ---------- 读取 ----------
+
+    public KgNode node(Long nodeId) {
+        lock.readLock().lock();
+        try {
+            return nodeUnlocked(nodeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return collectNodes().size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前全部节点与边（合并覆盖层后的视图）
+     */
+    public List<KgNode> nodes() {
+        lock.readLock().lock();
+        try {
+            return collectNodes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<KgEdge> edges() {
+        lock.readLock().lock();
+        try {
+            return collectEdges();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前图的原始数组快照（节点下标化、带版本），供整图算法使用
+     */
+    public GraphArrays arrays() {
+        lock.readLock().lock();
+        try {
+            return new GraphArrays(version, collectNodes(), collectEdges());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 节点的关联边
+     * @param labelIds 只保留这些关系标签的边，为空表示不过滤
+     */
+    public List<KgEdge> incidentEdges(Long nodeId, Direction direction, Set<Long> labelIds) {
+        lock.readLock().lock();
+        try {
+            return incidentUnlocked(nodeId, direction, labelIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * k 跳邻域（BFS）。
+     * @param maxDegree 每个节点最多展开的边数，超出的节点记入 truncated，前端可按需继续展开；<=0 不限
+     * @param maxNodes  结果节点数上限；<=0 不限
+     */
+    public KgSubgraph neighbourhood(Long centerId, int hops, Direction direction, Set<Long> labelIds,
+                                    int maxDegree, int maxNodes) {
+        lock.readLock().lock();
+        try {
+            KgSubgraph result = new KgSubgraph();
+            result.setDocumentId(documentId);
+            result.setCenterId(centerId);
+            result.setGraphVersion(version);
+            if (nodeUnlocked(centerId) == null) return result;
+
+            Map<Long, Integer> depth = new LinkedHashMap<>();
+            depth.put(centerId, 0);
+            ArrayDeque<Long> queue = new ArrayDeque<>();
+            queue.add(centerId);
+            Map<Long, KgEdge> edges = new LinkedHashMap<>();
+            boolean full = false;
+
+            while (!queue.isEmpty()) {
+                Long u = queue.poll();
+                int d = depth.get(u);
+                if (d >= hops) continue;
+                List<KgEdge> incident = incidentUnlocked(u, direction, labelIds);
+                if (maxDegree > 0 && incident.size() > maxDegree) {
+                    result.getTruncated().add(u);
+                    incident = incident.subList(0, maxDegree);
+                }
+                for (KgEdge e : incident) {
+                    Long v = other(e, u);
+                    if (!depth.containsKey(v)) {
+                        if (full || (maxNodes > 0 && depth.size() >= maxNodes)) {
+                            full = true;
+                            result.getTruncated().add(u);
+                            continue;
+                        }
+                        depth.put(v, d + 1);
+                        queue.add(v);
+                    }
+                    edges.put(e.getId(), e);
+                }
+            }
+
+            // 补上结果节点之间、未经遍历的边（满足过滤条件）
+            for (Long u : depth.keySet()) {
+                for (KgEdge e : incidentUnlocked(u, Direction.BOTH, labelIds)) {
+                    if (depth.containsKey(e.getSourceNodeId()) && depth.containsKey(e.getTargetNodeId())) {
+                        edges.putIfAbsent(e.getId(), e);
+                    }
+                }
+            }
+
+            for (Long id : depth.keySet()) result.getNodes().add(nodeUnlocked(id));
+            result.getEdges().addAll(edges.values());
+            result.getDepth().putAll(depth);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Long other(KgEdge e, Long u) {
+        return Objects.equals(e.getSourceNodeId(), u) ? e.getTargetNodeId() : e.getSourceNodeId();
+    }
+
+    private KgNode nodeUnlocked(Long nodeId) {
+        if (removedNodes.contains(nodeId)) return null;
+        KgNode n = nodeOverrides.get(nodeId);
+        if (n != null) return n;
+        Integer idx = base.nodeIndex.get(nodeId);
+        return idx == null ? null : base.nodes[idx];
+    }
+
+    private List<KgEdge> incidentUnlocked(Long nodeId, Direction direction, Set<Long> labelIds) {
+        List<KgEdge> result = new ArrayList<>();
+        if (removedNodes.contains(nodeId)) return result;
+        Integer idx = base.nodeIndex.get(nodeId);
+        if (idx != null) {
+            if (direction != Direction.IN) {
+                collectBase(base.outOffsets, base.outEdges, idx, labelIds, result);
+            }
+            if (direction != Direction.OUT) {
+                collectBase(base.inOffsets, base.inEdges, idx, labelIds, result);
+            }
+        }
+        List<KgEdge> overlay = overlayAdjacency.get(nodeId);
+        if (overlay != null) {
+            for (KgEdge e : overlay) {
+                boolean out = Objects.equals(e.getSourceNodeId(), nodeId);
+                boolean in = Objects.equals(e.getTargetNodeId(), nodeId);
+                boolean dirOk = direction == Direction.BOTH || (direction == Direction.OUT ? out : in);
+                if (dirOk && accept(e, labelIds) && nodeUnlocked(other(e, nodeId)) != null) result.add(e);
+            }
+        }
+        return result;
+    }
+
+    private void collectBase(int[] offsets, int[] edgeIdx, int idx, Set<Long> labelIds, List<KgEdge> out) {
+        for (int i = offsets[idx]; i < offsets[idx + 1]; i++) {
+            int e = edgeIdx[i];
+            KgEdge edge = base.edges[e];
+            if (removedEdges.contains(edge.getId()) || !accept(edge, labelIds)) continue;
+            // 自环在 out/in 中各出现一次，BOTH 时只取一次
+            if (edgeIdx == base.inEdges && base.edgeSrc[e] == base.edgeTgt[e] && out.contains(edge)) continue;
+            if (removedNodes.contains(base.nodes[base.edgeSrc[e]].getId())
+                    || removedNodes.contains(base.nodes[base.edgeTgt[e]].getId())) continue;
+            out.add(edge);
+        }
+    }
+
+    private static boolean accept(KgEdge e, Set<Long> labelIds) {
+        return labelIds == null || labelIds.isEmpty() || labelIds.contains(e.getRelationLabelId());
+    }
+
+    private List<KgNode> collectNodes() {
+        List<KgNode> list = new ArrayList<>();
+        for (KgNode n : base.nodes) {
+            if (!removedNodes.contains(n.getId()) && !nodeOverrides.containsKey(n.getId())) list.add(n);
+        }
+        for (KgNode n : nodeOverrides.values()) {
+            if (!removedNodes.contains(n.getId())) list.add(n);
+        }
+        return list;
+    }
+
+    private List<KgEdge> collectEdges() {
+        List<KgEdge> list = new ArrayList<>();
+        for (KgEdge e : base.edges) {
+            if (!removedEdges.contains(e.getId())) list.add(e);
+        }
+        for (KgEdge e : addedEdges.values()) {
+            if (nodeUnlocked(e.getSourceNodeId()) != null && nodeUnlocked(e.getTargetNodeId()) != null) list.add(e);
+        }
+        return list;
+    }
+}
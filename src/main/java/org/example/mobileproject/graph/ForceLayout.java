@@ -0,0 +1,269 @@
+package org.example.mobileproject.graph;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 力导向布局（Fruchterman–Reingold）：斥力用 Barnes–Hut 四叉树近似，每轮 O(n log n)；
+ * 引力沿无向邻接计算，另加指向原点的线性引力，让不连通的分量聚拢而不是被斥力推远。
+ * 每轮先串行建树，再按节点并行计算位移，新坐标写入另一组数组，读写互不干扰。
+ */
+public final class ForceLayout {
+
+    /**
+     * 理想边长，与前端画布的像素尺度一致
+     */
+    public static final double EDGE_LENGTH = 80;
+
+    private static final double THETA = 0.8;         // Barnes–Hut 张角阈值，越大越快越粗略
+    private static final double GRAVITY = 1.0;       // 平衡半径约为 k·√n，节点平均间距接近理想边长
+    private static final double MIN_DISTANCE = 0.01;
+    private static final int MAX_DEPTH = 32;         // 重合点过多时不再细分
+
+    private ForceLayout() {
+    }
+
+    /**
+     * 就地计算布局
+     * @param x           坐标输入 / 输出，NaN 表示没有已知位置（按邻居或随机放置）
+     * @param pinned      为 true 的节点保持不动，可为空
+     * @param iterations  迭代轮数
+     * @param warm        是否以已有坐标为起点：只需小幅调整，初始温度低
+     * @param seed        随机放置用的种子，同一输入得到同一布局
+     */
+    public static void run(GraphArrays g, double[] x, double[] y, boolean[] pinned,
+                           int iterations, boolean warm, long seed, ForkJoinPool pool) {
+        int n = g.n;
+        if (n == 0) return;
+        double k = EDGE_LENGTH;
+        boolean[] placed = place(g, x, y, k, seed);
+        if (n == 1) return;
+
+        // 冷启动从较高温度开始；热启动时原有节点只做微调，新放入的节点可以大幅移动
+        double t0 = warm ? k / 10 : Math.max(k, k * Math.sqrt(n) / 10);
+        double tNew = Math.max(t0, k);
+        double[] nx = new double[n];
+        double[] ny = new double[n];
+        QuadTree tree = new QuadTree(n);
+        for (int iter = 0; iter < iterations; iter++) {
+            double cooling = 1 - (double) iter / iterations;
+            tree.build(x, y);
+            double[] cx = x, cy = y;
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> {
+                if (pinned != null && pinned[v]) {
+                    nx[v] = cx[v];
+                    ny[v] = cy[v];
+                    return;
+                }
+                double[] f = new double[2];
+                tree.repulsion(v, cx[v], cy[v], k * k, f);
+                for (int i = g.undOffsets[v]; i < g.undOffsets[v + 1]; i++) {
+                    int u = g.undTargets[i];
+                    if (u == v) continue;
+                    double dx = cx[u] - cx[v];
+                    double dy = cy[u] - cy[v];
+                    double d = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+                    double a = d / k;                // d² / k 沿单位向量
+                    f[0] += dx * a;
+                    f[1] += dy * a;
+                }
+                f[0] -= GRAVITY * cx[v];
+                f[1] -= GRAVITY * cy[v];
+
+                double temperature = (placed[v] ? tNew : t0) * cooling;
+                double len = Math.sqrt(f[0] * f[0] + f[1] * f[1]);
+                double step = len > temperature ? temperature / len : 1;
+                nx[v] = cx[v] + f[0] * step;
+                ny[v] = cy[v] + f[1] * step;
+            })).join();
+            System.arraycopy(nx, 0, x, 0, n);
+            System.arraycopy(ny, 0, y, 0, n);
+        }
+    }
+
+    // 没有坐标的节点：放在已放置邻居的重心附近，没有邻居则在圆盘内随机放置；返回本次放置了哪些节点
+    private static boolean[] place(GraphArrays g, double[] x, double[] y, double k, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double radius = k * Math.sqrt(g.n) / 2;
+        boolean[] placed = new boolean[g.n];
+        for (int v = 0; v < g.n; v++) {
+            if (!Double.isNaN(x[v]) && !Double.isNaN(y[v])) continue;
+            placed[v] = true;
+            double sx = 0, sy = 0;
+            int known = 0;
+            for (int i = g.undOffsets[v]; i < g.undOffsets[v + 1]; i++) {
+                int u = g.undTargets[i];
+                if (Double.isNaN(x[u]) || Double.isNaN(y[u])) continue;
+                sx += x[u];
+                sy += y[u];
+                known++;
+            }
+            if (known > 0) {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                x[v] = sx / known + Math.cos(angle) * k / 2;
+                y[v] = sy / known + Math.sin(angle) * k / 2;
+            } else {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                double r = radius * Math.sqrt(random.nextDouble());
+                x[v] = Math.cos(angle) * r;
+                y[v] = Math.sin(angle) * r;
+            }
+        }
+        return placed;
+    }
+
+    /**
+     * 数组实现的四叉树：每个格子记录总质量（节点数）与质心；叶子只存一个节点，
+     * 超过最大深度的重合点合并进同一叶子
+     */
+    private static final class QuadTree {
+        private int[] child;       // 4 * cell，-1 为空
+        private int[] body;        // 叶子中的节点，-1 表示内部格子或空
+        private double[] mass;
+        private double[] mx;       // 质量加权坐标和，建完后换算为质心
+        private double[] my;
+        private double[] size;     // 格子边长
+        private double[] ox;       // 格子左下角
+        private double[] oy;
+        private int cells;
+
+        QuadTree(int n) {
+            allocate(Math.max(16, 2 * n));
+        }
+
+        private void allocate(int capacity) {
+            child = grow(child, capacity * 4);
+            body = grow(body, capacity);
+            mass = grow(mass, capacity);
+            mx = grow(mx, capacity);
+            my = grow(my, capacity);
+            size = grow(size, capacity);
+            ox = grow(ox, capacity);
+            oy = grow(oy, capacity);
+        }
+
+        void build(double[] x, double[] y) {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            cells = 0;
+            int root = newCell(minX, minY, Math.max(maxX - minX, maxY - minY) + 1);
+            for (int i = 0; i < x.length; i++) insert(root, i, x, y);
+            for (int c = 0; c < cells; c++) {
+                mx[c] /= mass[c];
+                my[c] /= mass[c];
+            }
+        }
+
+        private void insert(int cell, int v, double[] x, double[] y) {
+            for (int depth = 0; ; depth++) {
+                mass[cell] += 1;
+                mx[cell] += x[v];
+                my[cell] += y[v];
+                if (mass[cell] == 1) {          // 空格子：直接成为叶子
+                    body[cell] = v;
+                    return;
+                }
+                if (depth >= MAX_DEPTH) return;  // 合并叶子，只累计质量
+                if (body[cell] >= 0) {          // 叶子：把原有节点下推一层
+                    int old = body[cell];
+                    body[cell] = -1;
+                    int c = subCell(cell, quadrant(cell, x[old], y[old]));
+                    mass[c] = 1;
+                    mx[c] = x[old];
+                    my[c] = y[old];
+                    body[c] = old;
+                }
+                int q = quadrant(cell, x[v], y[v]);
+                int c = child[cell * 4 + q];
+                cell = c >= 0 ? c : subCell(cell, q);
+            }
+        }
+
+        private int quadrant(int cell, double px, double py) {
+            double half = size[cell] / 2;
+            int q = 0;
+            if (px >= ox[cell] + half) q |= 1;
+            if (py >= oy[cell] + half) q |= 2;
+            return q;
+        }
+
+        private int subCell(int cell, int q) {
+            double half = size[cell] / 2;
+            int c = newCell(ox[cell] + ((q & 1) != 0 ? half : 0), oy[cell] + ((q & 2) != 0 ? half : 0), half);
+            child[cell * 4 + q] = c;
+            return c;
+        }
+
+        private int newCell(double x0, double y0, double s) {
+            if (cells == body.length) allocate(cells * 2);
+            int c = cells++;
+            for (int q = 0; q < 4; q++) child[c * 4 + q] = -1;
+            body[c] = -1;
+            mass[c] = 0;
+            mx[c] = 0;
+            my[c] = 0;
+            ox[c] = x0;
+            oy[c] = y0;
+            size[c] = s;
+            return c;
+        }
+
+        /**
+         * 节点 v 受到的斥力（k² / d 沿远离方向）累加到 f
+         */
+        void repulsion(int v, double px, double py, double k2, double[] f) {
+            visit(0, v, px, py, k2, f);
+        }
+
+        private void visit(int cell, int v, double px, double py, double k2, double[] f) {
+            double m = mass[cell];
+            if (m == 0) return;
+            boolean leaf = body[cell] >= 0;
+            if (leaf && m == 1 && body[cell] == v) return;
+            double dx = px - mx[cell];
+            double dy = py - my[cell];
+            double d2 = dx * dx + dy * dy;
+            if (leaf || size[cell] * size[cell] < THETA * THETA * d2) {
+                if (leaf && m > 1 && contains(cell, px, py)) m -= 1;   // 合并叶子中扣除自身
+                if (m <= 0) return;
+                double d = Math.max(MIN_DISTANCE, Math.sqrt(d2));
+                if (d2 == 0) {                  // 完全重合：按节点号错开方向
+                    dx = Math.cos(v);
+                    dy = Math.sin(v);
+                    d = 1;
+                }
+                double r = m * k2 / (d * d);
+                f[0] += dx * r;
+                f[1] += dy * r;
+                return;
+            }
+            for (int q = 0; q < 4; q++) {
+                int c = child[cell * 4 + q];
+                if (c >= 0) visit(c, v, px, py, k2, f);
+            }
+        }
+
+        private boolean contains(int cell, double px, double py) {
+            return px >= ox[cell] && px < ox[cell] + size[cell] && py >= oy[cell] && py < oy[cell] + size[cell];
+        }
+
+        private static int[] grow(int[] a, int capacity) {
+            int[] b = new int[capacity];
+            if (a != null) System.arraycopy(a, 0, b, 0, a.length);
+            return b;
+        }
+
+        private static double[] grow(double[] a, int capacity) {
+            double[] b = new double[capacity];
+            if (a != null) System.arraycopy(a, 0, b, 0, a.length);
+            return b;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.mobileproject.graph;
+
+import org.example.mobileproject.dataset.DimensionIndex;
+
+import java.util.*;
+
+/**
+ * 跨文档实体消解用的内存索引：
+ * 先按 (标签, 规范化名称) 精确分块；未命中时用字符 n-gram（单字 + 双字）的 MinHash 签名做 LSH 分桶，
+ * 只对同标签、同桶的候选计算精确 Jaccard，避免与全部全局节点两两比较。
+ * 非线程安全的操作均已加锁；写入方应只有一个（全局图谱服务的单线程执行器）。
+ */
+public class GlobalEntityIndex {
+
+    // 20 段 × 3 行：Jaccard 0.6 时成为候选的概率约 99%，0.3 时约 42%
+    private static final int BANDS = 20;
+    private static final int ROWS = 3;
+    // 短名称（如两字人名）一字之差就是不同实体，只做精确匹配
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int NUM_HASHES = BANDS * ROWS;
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        SplittableRandom r = new SplittableRandom(0x5EED_CAFEL);
+        for (int i = 0; i < NUM_HASHES; i++) SEEDS[i] = r.nextLong();
+    }
+
+    /**
+     * 匹配结果
+     */
+    public static final class Match {
+        public final long globalId;
+        public final boolean exact;
+        public final double score;
+
+        Match(long globalId, boolean exact, double score) {
+            this.globalId = globalId;
+            this.exact = exact;
+            this.score = score;
+        }
+    }
+
+    private static final class Entry {
+        final long labelId;
+        final String norm;
+        final Set<String> grams;
+        final int[] signature;
+
+        Entry(long labelId, String norm) {
+            this.labelId = labelId;
+            this.norm = norm;
+            this.grams = grams(norm);
+            this.signature = signature(grams);
+        }
+    }
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Long> exact = new HashMap<>();
+    private final Map<Long, List<Long>> buckets = new HashMap<>();
+
+    /**
+     * 名称规范化：与 CSV 维度匹配同一套规则
+     */
+    public static String normalize(String name) {
+        return DimensionIndex.normalize(name);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void add(long globalId, long labelId, String norm) {
+        remove(globalId);
+        Entry e = new Entry(labelId, norm);
+        entries.put(globalId, e);
+        exact.putIfAbsent(exactKey(labelId, norm), globalId);
+        for (int b = 0; b < BANDS; b++) {
+            buckets.computeIfAbsent(bandKey(labelId, b, e.signature), k -> new ArrayList<>(2)).add(globalId);
+        }
+    }
+
+    public synchronized void remove(long globalId) {
+        Entry e = entries.remove(globalId);
+        if (e == null) return;
+        exact.remove(exactKey(e.labelId, e.norm), globalId);
+        for (int b = 0; b < BANDS; b++) {
+            long key = bandKey(e.labelId, b, e.signature);
+            List<Long> ids = buckets.get(key);
+            if (ids == null) continue;
+            ids.remove(Long.valueOf(globalId));
+            if (ids.isEmpty()) buckets.remove(key);
+        }
+    }
+
+    /**
+     * 查找同标签下最匹配的全局节点：精确命中优先，其次 LSH 候选中 Jaccard 最高且不低于 threshold 的
+     * @return 无匹配时为 null
+     */
+    public synchronized Match find(long labelId, String norm, double threshold) {
+        Long hit = exact.get(exactKey(labelId, norm));
+        if (hit != null) return new Match(hit, true, 1.0);
+        if (norm.length() < MIN_FUZZY_LENGTH) return null;
+
+        Set<String> grams = grams(norm);
+        int[] sig = signature(grams);
+        Set<Long> seen = new HashSet<>();
+        long best = -1;
+        double bestScore = -1;
+        for (int b = 0; b < BANDS; b++) {
+            List<Long> ids = buckets.get(bandKey(labelId, b, sig));
+            if (ids == null) continue;
+            for (Long id : ids) {
+                if (!seen.add(id)) continue;
+                Entry e = entries.get(id);
+                if (e.labelId != labelId || e.norm.length() < MIN_FUZZY_LENGTH) continue;   // 桶键哈希碰撞 / 短名称
+                double s = jaccard(grams, e.grams);
+                if (s > bestScore || (s == bestScore && id < best)) {
+                    best = id;
+                    bestScore = s;
+                }
+            }
+        }
+        return best >= 0 && bestScore >= threshold ? new Match(best, false, bestScore) : null;
+    }
+
+    /**
+     * 两个规范化名称是否视为同一实体（与 find 的判定规则一致）
+     */
+    public static boolean matches(String a, String b, double threshold) {
+        if (a.equals(b)) return true;
+        if (a.length() < MIN_FUZZY_LENGTH || b.length() < MIN_FUZZY_LENGTH) return false;
+        return jaccard(grams(a), grams(b)) >= threshold;
+    }
+
+    // 单字 + 双字 n-gram：中文实体名普遍很短，只用双字时一字之差就会让相似度过低
+    static Set<String> grams(String s) {
+        Set<String> g = new HashSet<>();
+        for (int i = 0; i < s.length(); i++) {
+            g.add(s.substring(i, i + 1));
+            if (i + 1 < s.length()) g.add(s.substring(i, i + 2));
+        }
+        return g;
+    }
+
+    static int[] signature(Set<String> grams) {
+        int[] sig = new int[NUM_HASHES];
+        Arrays.fill(sig, Integer.MAX_VALUE);
+        for (String g : grams) {
+            long h = g.hashCode();
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int v = (int) (mix(h ^ SEEDS[i]) >>> 33);
+                if (v < sig[i]) sig[i] = v;
+            }
+        }
+        return sig;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) return 1.0;
+        Set<String> small = a.size() <= b.size() ? a : b;
+        Set<String> large = small == a ? b : a;
+        int inter = 0;
+        for (String g : small) {
+            if (large.contains(g)) inter++;
+        }
+        return (double) inter / (a.size() + b.size() - inter);
+    }
+
+    private static String exactKey(long labelId, String norm) {
+        return labelId + "\u0001" + norm;
+    }
+
+    private static long bandKey(long labelId, int band, int[] sig) {
+        long h = mix(labelId * 31 + band);
+        for (int r = band * ROWS; r < (band + 1) * ROWS; r++) {
+            h = mix(h ^ sig[r]);
+        }
+        return h;
+    }
+
+    // SplitMix64 终结函数
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
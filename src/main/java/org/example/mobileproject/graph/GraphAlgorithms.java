@@ -0,0 +1,369 @@
+package org.example.mobileproject.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * 基于 GraphArrays 的整图算法，全部使用原始数组；整图计算通过传入的 ForkJoinPool 并行。
+ */
+public final class GraphAlgorithms {
+
+    private GraphAlgorithms() {
+    }
+
+    // ---------- 最短路径 ----------
+
+    /**
+     * 最短路径结果：nodes / edges 为下标（edges 对应 GraphArrays.edge），未连通时 nodes 为空
+     */
+    public static final class Path {
+        public final int[] nodes;
+        public final int[] edges;
+        public final double cost;
+
+        Path(int[] nodes, int[] edges, double cost) {
+            this.nodes = nodes;
+            this.edges = edges;
+            this.cost = cost;
+        }
+
+        public boolean found() {
+            return nodes.length > 0;
+        }
+    }
+
+    /**
+     * 无权用 BFS，带权用 Dijkstra（二叉堆 + 惰性删除）
+     * @param directed 为 true 时只沿边的方向走
+     */
+    public static Path shortestPath(GraphArrays g, int from, int to, boolean weighted, boolean directed) {
+        int[] offsets = directed ? g.outOffsets : g.undOffsets;
+        int[] targets = directed ? g.outTargets : g.undTargets;
+        int[] edgeOf = directed ? g.outEdge : g.undEdge;
+
+        int[] prevNode = new int[g.n];
+        int[] prevEdge = new int[g.n];
+        Arrays.fill(prevNode, -1);
+        double[] dist = new double[g.n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[from] = 0;
+
+        if (!weighted) {
+            int[] queue = new int[g.n];
+            int head = 0, tail = 0;
+            queue[tail++] = from;
+            while (head < tail && dist[to] == Double.POSITIVE_INFINITY) {
+                int u = queue[head++];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    if (dist[v] != Double.POSITIVE_INFINITY) continue;
+                    dist[v] = dist[u] + 1;
+                    prevNode[v] = u;
+                    prevEdge[v] = edgeOf[i];
+                    queue[tail++] = v;
+                }
+            }
+        } else {
+            boolean[] done = new boolean[g.n];
+            DoubleHeap heap = new DoubleHeap(Math.max(16, g.n));
+            heap.push(from, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.peekNode();
+                double d = heap.peekKey();
+                heap.pop();
+                if (done[u]) continue;
+                done[u] = true;
+                if (u == to) break;
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    double w = g.edgeWeights[edgeOf[i]];
+                    if (d + w < dist[v]) {
+                        dist[v] = d + w;
+                        prevNode[v] = u;
+                        prevEdge[v] = edgeOf[i];
+                        heap.push(v, dist[v]);
+                    }
+                }
+            }
+        }
+
+        if (dist[to] == Double.POSITIVE_INFINITY) return new Path(new int[0], new int[0], Double.POSITIVE_INFINITY);
+        int hops = 0;
+        for (int v = to; v != from; v = prevNode[v]) hops++;
+        int[] nodes = new int[hops + 1];
+        int[] edges = new int[hops];
+        int v = to;
+        for (int i = hops; i > 0; i--) {
+            nodes[i] = v;
+            edges[i - 1] = prevEdge[v];
+            v = prevNode[v];
+        }
+        nodes[0] = from;
+        return new Path(nodes, edges, dist[to]);
+    }
+
+    // ---------- 连通分量 ----------
+
+    /**
+     * 弱连通分量（并查集，按秩合并 + 路径减半）
+     */
+    public static final class Components {
+        public final int count;
+        public final int[] componentOf;  // 节点下标 → 分量编号（0..count-1，按分量大小降序编号）
+        public final int[] sizes;
+
+        Components(int count, int[] componentOf, int[] sizes) {
+            this.count = count;
+            this.componentOf = componentOf;
+            this.sizes = sizes;
+        }
+    }
+
+    public static Components components(GraphArrays g) {
+        int[] parent = new int[g.n];
+        byte[] rank = new byte[g.n];
+        for (int i = 0; i < g.n; i++) parent[i] = i;
+        for (int u = 0; u < g.n; u++) {
+            for (int i = g.outOffsets[u]; i < g.outOffsets[u + 1]; i++) {
+                int a = find(parent, u), b = find(parent, g.outTargets[i]);
+                if (a == b) continue;
+                if (rank[a] < rank[b]) {
+                    parent[a] = b;
+                } else {
+                    parent[b] = a;
+                    if (rank[a] == rank[b]) rank[a]++;
+                }
+            }
+        }
+
+        // 根 → 临时编号，再按大小降序重新编号
+        int[] rootId = new int[g.n];
+        Arrays.fill(rootId, -1);
+        int count = 0;
+        int[] tmpOf = new int[g.n];
+        int[] tmpSize = new int[g.n];
+        for (int u = 0; u < g.n; u++) {
+            int r = find(parent, u);
+            if (rootId[r] < 0) rootId[r] = count++;
+            tmpOf[u] = rootId[r];
+            tmpSize[tmpOf[u]]++;
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(tmpSize[b], tmpSize[a]));
+        int[] renumber = new int[count];
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            renumber[order[i]] = i;
+            sizes[i] = tmpSize[order[i]];
+        }
+        for (int u = 0; u < g.n; u++) tmpOf[u] = renumber[tmpOf[u]];
+        return new Components(count, tmpOf, sizes);
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    // ---------- 中心性 ----------
+
+    /**
+     * 度中心性（无向度，自环计一次）
+     */
+    public static double[] degree(GraphArrays g) {
+        double[] d = new double[g.n];
+        for (int u = 0; u < g.n; u++) d[u] = g.undOffsets[u + 1] - g.undOffsets[u];
+        return d;
+    }
+
+    /**
+     * PageRank（有向，拉取式迭代；悬挂节点的分数均匀分配），每轮按节点并行
+     */
+    public static double[] pageRank(GraphArrays g, double damping, int maxIterations, double tolerance, ForkJoinPool pool) {
+        int n = g.n;
+        if (n == 0) return new double[0];
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        int[] outDegree = new int[n];
+        for (int u = 0; u < n; u++) outDegree[u] = g.outOffsets[u + 1] - g.outOffsets[u];
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                if (outDegree[u] == 0) dangling += rank[u];
+            }
+            double base = (1 - damping) / n + damping * dangling / n;
+            double[] cur = rank;
+            double[] out = next;
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> {
+                double sum = 0;
+                for (int i = g.inOffsets[v]; i < g.inOffsets[v + 1]; i++) {
+                    int u = g.inSources[i];
+                    sum += cur[u] / outDegree[u];
+                }
+                out[v] = base + damping * sum;
+            })).join();
+
+            double diff = 0;
+            for (int v = 0; v < n; v++) diff += Math.abs(next[v] - rank[v]);
+            double[] t = rank;
+            rank = next;
+            next = t;
+            if (diff < tolerance) break;
+        }
+        return rank;
+    }
+
+    /**
+     * 近似介数中心性：从 samples 个均匀间隔的源点跑 Brandes（无向、无权），结果按 n / samples 放大。
+     * 源点按 ForkJoin 分块并行，每块复用一套工作数组，避免每个源点分配 O(n) 内存。
+     */
+    public static double[] betweenness(GraphArrays g, int samples, ForkJoinPool pool) {
+        int n = g.n;
+        if (n == 0) return new double[0];
+        int k = Math.min(n, Math.max(1, samples));
+        int[] sources = new int[k];
+        for (int i = 0; i < k; i++) sources[i] = (int) ((long) i * n / k);
+        int chunk = Math.max(1, (k + pool.getParallelism() - 1) / pool.getParallelism());
+
+        double[] score = pool.invoke(new BrandesTask(g, sources, 0, k, chunk));
+        double scale = (double) n / k / 2;   // 无向图每条最短路被两端各计一次
+        for (int v = 0; v < n; v++) score[v] *= scale;
+        return score;
+    }
+
+    private static final class BrandesTask extends RecursiveTask<double[]> {
+        private final GraphArrays g;
+        private final int[] sources;
+        private final int from, to, chunk;
+
+        BrandesTask(GraphArrays g, int[] sources, int from, int to, int chunk) {
+            this.g = g;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                BrandesTask left = new BrandesTask(g, sources, from, mid, chunk);
+                left.fork();
+                double[] right = new BrandesTask(g, sources, mid, to, chunk).compute();
+                double[] l = left.join();
+                for (int i = 0; i < l.length; i++) l[i] += right[i];
+                return l;
+            }
+            int n = g.n;
+            double[] acc = new double[n];
+            int[] dist = new int[n];
+            long[] sigma = new long[n];
+            double[] delta = new double[n];
+            int[] stack = new int[n];
+            int[] queue = new int[n];
+            for (int s = from; s < to; s++) {
+                int src = sources[s];
+                Arrays.fill(dist, -1);
+                Arrays.fill(sigma, 0);
+                Arrays.fill(delta, 0);
+                dist[src] = 0;
+                sigma[src] = 1;
+                int head = 0, tail = 0, top = 0;
+                queue[tail++] = src;
+                while (head < tail) {
+                    int u = queue[head++];
+                    stack[top++] = u;
+                    for (int i = g.undOffsets[u]; i < g.undOffsets[u + 1]; i++) {
+                        int v = g.undTargets[i];
+                        if (dist[v] < 0) {
+                            dist[v] = dist[u] + 1;
+                            queue[tail++] = v;
+                        }
+                        if (dist[v] == dist[u] + 1) sigma[v] += sigma[u];
+                    }
+                }
+                // 按距离逆序回传依赖
+                while (top > 0) {
+                    int w = stack[--top];
+                    for (int i = g.undOffsets[w]; i < g.undOffsets[w + 1]; i++) {
+                        int v = g.undTargets[i];
+                        if (dist[v] == dist[w] - 1 && sigma[w] > 0) {
+                            delta[v] += (double) sigma[v] / sigma[w] * (1 + delta[w]);
+                        }
+                    }
+                    if (w != src) acc[w] += delta[w];
+                }
+            }
+            return acc;
+        }
+    }
+
+    /**
+     * 按 key 递增的二叉堆（节点下标 + double 键），允许同一节点多次入堆
+     */
+    private static final class DoubleHeap {
+        private int[] nodes;
+        private double[] keys;
+        private int size;
+
+        DoubleHeap(int capacity) {
+            nodes = new int[capacity];
+            keys = new double[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peekNode() {
+            return nodes[0];
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        void push(int node, double key) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (keys[p] <= key) break;
+                nodes[i] = nodes[p];
+                keys[i] = keys[p];
+                i = p;
+            }
+            nodes[i] = node;
+            keys[i] = key;
+        }
+
+        void pop() {
+            int node = nodes[--size];
+            double key = keys[size];
+            int i = 0;
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= size) break;
+                if (c + 1 < size && keys[c + 1] < keys[c]) c++;
+                if (keys[c] >= key) break;
+                nodes[i] = nodes[c];
+                keys[i] = keys[c];
+                i = c;
+            }
+            nodes[i] = node;
+            keys[i] = key;
+        }
+    }
+}
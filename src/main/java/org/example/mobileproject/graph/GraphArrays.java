@@ -0,0 +1,142 @@
+package org.example.mobileproject.graph;
+
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 整图算法用的原始数组图：节点编号 0..n-1，
+ * 有向出边 CSR（out*）与无向邻接 CSR（und*，每条边两个方向各一次，自环一次）。
+ * 边权取 properties.weight（正数），缺省为 1。
+ */
+public final class GraphArrays {
+
+    final long version;
+    final int n;
+    final long[] nodeIds;
+    final KgNode[] nodes;
+    final KgEdge[] edges;
+    final double[] edgeWeights;
+
+    final int[] outOffsets;
+    final int[] outTargets;
+    final int[] outEdge;       // 对应 edges 下标
+    final int[] inOffsets;
+    final int[] inSources;
+
+    final int[] undOffsets;
+    final int[] undTargets;
+    final int[] undEdge;
+
+    private final Map<Long, Integer> index;
+
+    GraphArrays(long version, List<KgNode> nodeList, List<KgEdge> edgeList) {
+        this.version = version;
+        this.n = nodeList.size();
+        this.nodes = nodeList.toArray(new KgNode[0]);
+        this.nodeIds = new long[n];
+        this.index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            nodeIds[i] = nodes[i].getId();
+            index.put(nodeIds[i], i);
+        }
+        this.edges = edgeList.toArray(new KgEdge[0]);
+        int m = edges.length;
+        int[] src = new int[m];
+        int[] tgt = new int[m];
+        edgeWeights = new double[m];
+        for (int e = 0; e < m; e++) {
+            src[e] = index.get(edges[e].getSourceNodeId());
+            tgt[e] = index.get(edges[e].getTargetNodeId());
+            edgeWeights[e] = weight(edges[e]);
+        }
+
+        // 有向出边 / 入边
+        outOffsets = new int[n + 1];
+        inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            outOffsets[src[e] + 1]++;
+            inOffsets[tgt[e] + 1]++;
+        }
+        prefix(outOffsets);
+        prefix(inOffsets);
+        outTargets = new int[m];
+        outEdge = new int[m];
+        inSources = new int[m];
+        int[] outFill = new int[n];
+        int[] inFill = new int[n];
+        for (int e = 0; e < m; e++) {
+            int o = outOffsets[src[e]] + outFill[src[e]]++;
+            outTargets[o] = tgt[e];
+            outEdge[o] = e;
+            inSources[inOffsets[tgt[e]] + inFill[tgt[e]]++] = src[e];
+        }
+
+        // 无向邻接
+        undOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            undOffsets[src[e] + 1]++;
+            if (src[e] != tgt[e]) undOffsets[tgt[e] + 1]++;
+        }
+        prefix(undOffsets);
+        int total = undOffsets[n];
+        undTargets = new int[total];
+        undEdge = new int[total];
+        int[] fill = new int[n];
+        for (int e = 0; e < m; e++) {
+            int a = undOffsets[src[e]] + fill[src[e]]++;
+            undTargets[a] = tgt[e];
+            undEdge[a] = e;
+            if (src[e] != tgt[e]) {
+                int b = undOffsets[tgt[e]] + fill[tgt[e]]++;
+                undTargets[b] = src[e];
+                undEdge[b] = e;
+            }
+        }
+    }
+
+    /**
+     * 节点 id → 下标，不存在返回 -1
+     */
+    public int indexOf(Long nodeId) {
+        Integer i = index.get(nodeId);
+        return i == null ? -1 : i;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int nodeCount() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    public KgNode node(int i) {
+        return nodes[i];
+    }
+
+    public KgEdge edge(int e) {
+        return edges[e];
+    }
+
+    private static void prefix(int[] offsets) {
+        for (int i = 0; i + 1 < offsets.length; i++) offsets[i + 1] += offsets[i];
+    }
+
+    private static double weight(KgEdge e) {
+        if (e.getProperties() == null) return 1;
+        Object w = e.getProperties().get("weight");
+        if (w instanceof Number) {
+            double d = ((Number) w).doubleValue();
+            if (d > 0 && !Double.isInfinite(d)) return d;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,271 @@
+package org.example.mobileproject.graph;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.util.CsvParser;
+import org.example.mobileproject.util.LazyJsonMap;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * 图谱导出的逐条写出器：调用顺序为 begin → node* → edge* → end，
+ * 每条记录写完即可丢弃，内存占用与图的规模无关。
+ */
+public abstract class GraphExportWriter {
+
+    public enum Format {
+        GRAPHML("application/graphml+xml", "graphml"),
+        JSONL("application/x-ndjson", "jsonl"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String s) {
+            for (Format f : values()) {
+                if (f.name().equalsIgnoreCase(s)) return f;
+            }
+            throw new BizException("不支持的导出格式: " + s + "（graphml / jsonl / csv）");
+        }
+    }
+
+    protected final Writer out;
+    protected final ObjectMapper mapper;
+
+    protected GraphExportWriter(Writer out, ObjectMapper mapper) {
+        this.out = out;
+        this.mapper = mapper;
+    }
+
+    /**
+     * @param mapper 序列化 properties / JSON 行，需已注册 Java 时间类型（使用 Spring 容器中的 ObjectMapper）
+     */
+    public static GraphExportWriter of(Format format, Writer out, ObjectMapper mapper) {
+        switch (format) {
+            case GRAPHML:
+                return new GraphMl(out, mapper);
+            case JSONL:
+                return new JsonLines(out, mapper);
+            default:
+                return new Csv(out, mapper);
+        }
+    }
+
+    public abstract void begin() throws IOException;
+
+    public abstract void node(KgNode node) throws IOException;
+
+    public abstract void edge(KgEdge edge) throws IOException;
+
+    public abstract void end() throws IOException;
+
+    protected String json(Map<String, Object> properties) {
+        if (properties == null) return null;
+        if (properties instanceof LazyJsonMap) return ((LazyJsonMap) properties).toJson();   // 不解析，原样导出
+        if (properties.isEmpty()) return null;
+        try {
+            return mapper.writeValueAsString(properties);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ---------- GraphML ----------
+
+    private static final class GraphMl extends GraphExportWriter {
+        private final XMLStreamWriter xml;
+
+        GraphMl(Writer out, ObjectMapper mapper) {
+            super(out, mapper);
+            try {
+                xml = XMLOutputFactory.newFactory().createXMLStreamWriter(out);
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void begin() throws IOException {
+            try {
+                xml.writeStartDocument("UTF-8", "1.0");
+                xml.writeStartElement("graphml");
+                xml.writeDefaultNamespace("http://graphml.graphdrawing.org/xmlns");
+                key("d_doc", "all", "documentId", "long");
+                key("n_label", "node", "labelId", "long");
+                key("n_entity", "node", "entityId", "long");
+                key("n_name", "node", "name", "string");
+                key("e_label", "edge", "relationLabelId", "long");
+                key("e_name", "edge", "edgeName", "string");
+                key("d_props", "all", "properties", "string");
+                xml.writeStartElement("graph");
+                xml.writeAttribute("id", "kg");
+                xml.writeAttribute("edgedefault", "directed");
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void node(KgNode n) throws IOException {
+            try {
+                xml.writeStartElement("node");
+                xml.writeAttribute("id", "n" + n.getId());
+                data("d_doc", n.getDocumentId());
+                data("n_label", n.getLabelId());
+                data("n_entity", n.getEntityId());
+                data("n_name", n.getName());
+                data("d_props", json(n.getProperties()));
+                xml.writeEndElement();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void edge(KgEdge e) throws IOException {
+            try {
+                xml.writeStartElement("edge");
+                xml.writeAttribute("id", "e" + e.getId());
+                xml.writeAttribute("source", "n" + e.getSourceNodeId());
+                xml.writeAttribute("target", "n" + e.getTargetNodeId());
+                data("d_doc", e.getDocumentId());
+                data("e_label", e.getRelationLabelId());
+                data("e_name", e.getEdgeName());
+                data("d_props", json(e.getProperties()));
+                xml.writeEndElement();
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public void end() throws IOException {
+            try {
+                xml.writeEndElement();   // graph
+                xml.writeEndElement();   // graphml
+                xml.writeEndDocument();
+                xml.flush();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private void key(String id, String target, String name, String type) throws XMLStreamException {
+            xml.writeEmptyElement("key");
+            xml.writeAttribute("id", id);
+            xml.writeAttribute("for", target);
+            xml.writeAttribute("attr.name", name);
+            xml.writeAttribute("attr.type", type);
+        }
+
+        private void data(String key, Object value) throws XMLStreamException {
+            if (value == null) return;
+            xml.writeStartElement("data");
+            xml.writeAttribute("key", key);
+            xml.writeCharacters(value.toString());
+            xml.writeEndElement();
+        }
+    }
+
+    // ---------- JSON Lines：每行一个对象，type 区分节点 / 边 ----------
+
+    private static final class JsonLines extends GraphExportWriter {
+        JsonLines(Writer out, ObjectMapper mapper) {
+            super(out, mapper);
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void node(KgNode n) throws IOException {
+            line("node", n);
+        }
+
+        @Override
+        public void edge(KgEdge e) throws IOException {
+            line("edge", e);
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.flush();
+        }
+
+        private void line(String type, Object value) throws IOException {
+            ObjectNode line = mapper.createObjectNode();
+            line.put("type", type);
+            line.setAll((ObjectNode) mapper.valueToTree(value));
+            out.write(mapper.writeValueAsString(line));
+            out.write('\n');
+        }
+    }
+
+    // ---------- CSV：节点与边共用一张表，kind 列区分 ----------
+
+    private static final class Csv extends GraphExportWriter {
+        Csv(Writer out, ObjectMapper mapper) {
+            super(out, mapper);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            out.write(CsvParser.BOM);   // Excel 按 UTF-8 识别
+            out.write("kind,id,document_id,label_id,entity_id,name,source_node_id,target_node_id,relation_label_id,edge_name,properties\n");
+        }
+
+        @Override
+        public void node(KgNode n) throws IOException {
+            row("node", n.getId(), n.getDocumentId(), n.getLabelId(), n.getEntityId(), n.getName(),
+                    null, null, null, null, json(n.getProperties()));
+        }
+
+        @Override
+        public void edge(KgEdge e) throws IOException {
+            row("edge", e.getId(), e.getDocumentId(), null, null, null,
+                    e.getSourceNodeId(), e.getTargetNodeId(), e.getRelationLabelId(), e.getEdgeName(), json(e.getProperties()));
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.flush();
+        }
+
+        private void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                if (values[i] != null) out.write(escape(values[i].toString()));
+            }
+            out.write('\n');
+        }
+
+        private static String escape(String s) {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+    }
+}
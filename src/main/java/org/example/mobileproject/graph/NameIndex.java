@@ -0,0 +1,194 @@
+package org.example.mobileproject.graph;
+
+import org.example.mobileproject.dataset.DimensionIndex;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * 跨文档的名称前缀索引：键为 规范化名称 + \0 + id，按字典序有序存放，
+ * 前缀查询即有序区间扫描，翻页以上一页最后一个键为游标（keyset），不随页码变慢。
+ * 全局一份、每个文档一份，限定少量文档时直接合并这几个文档的区间，不必扫描全局。
+ * 读操作无锁；写入方应只有一个（搜索服务的单线程执行器）。
+ */
+public class NameIndex {
+
+    /**
+     * 索引条目：节点时 labelId 为实体标签，边时为关系标签
+     */
+    public static final class Entry {
+        public final long id;
+        public final long documentId;
+        public final Long labelId;
+        public final String name;
+        public final String key;
+
+        Entry(long id, long documentId, Long labelId, String name, String key) {
+            this.id = id;
+            this.documentId = documentId;
+            this.labelId = labelId;
+            this.name = name;
+            this.key = key;
+        }
+    }
+
+    /**
+     * 一次扫描的结果；nextKey 为空表示已到末尾
+     */
+    public static final class Page {
+        public final List<Entry> items;
+        public final String nextKey;
+        public final int scanned;
+
+        Page(List<Entry> items, String nextKey, int scanned) {
+            this.items = items;
+            this.nextKey = nextKey;
+            this.scanned = scanned;
+        }
+    }
+
+    // 指定的文档数超过该值时改为扫描全局区间再按文档过滤
+    private static final int MAX_MERGED_DOCUMENTS = 64;
+
+    private final ConcurrentSkipListMap<String, Entry> global = new ConcurrentSkipListMap<>();
+    private final Map<Long, ConcurrentSkipListMap<String, Entry>> byDocument = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+
+    public static String normalize(String name) {
+        return DimensionIndex.normalize(name);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public static Entry entry(long id, long documentId, Long labelId, String name) {
+        return new Entry(id, documentId, labelId, name, normalize(name) + '\u0000' + id);
+    }
+
+    public void put(long id, long documentId, Long labelId, String name) {
+        insert(entry(id, documentId, labelId, name));
+    }
+
+    /**
+     * 批量写入：先按键排序再顺序插入，跳表每次都落在末尾附近，比乱序逐条插入快得多（启动全量加载用）
+     */
+    public void putAll(List<Entry> entries) {
+        entries.sort((a, b) -> a.key.compareTo(b.key));
+        for (Entry e : entries) insert(e);
+    }
+
+    private void insert(Entry e) {
+        remove(e.id);
+        byId.put(e.id, e);
+        global.put(e.key, e);
+        byDocument.computeIfAbsent(e.documentId, d -> new ConcurrentSkipListMap<>()).put(e.key, e);
+    }
+
+    public void remove(long id) {
+        Entry e = byId.remove(id);
+        if (e == null) return;
+        global.remove(e.key);
+        ConcurrentSkipListMap<String, Entry> doc = byDocument.get(e.documentId);
+        if (doc != null) {
+            doc.remove(e.key);
+            if (doc.isEmpty()) byDocument.remove(e.documentId);
+        }
+    }
+
+    public void removeDocument(long documentId) {
+        ConcurrentSkipListMap<String, Entry> doc = byDocument.remove(documentId);
+        if (doc == null) return;
+        for (Entry e : doc.values()) {
+            byId.remove(e.id);
+            global.remove(e.key);
+        }
+    }
+
+    public void clear() {
+        global.clear();
+        byDocument.clear();
+        byId.clear();
+    }
+
+    /**
+     * 按前缀有序扫描
+     * @param prefix      规范化前的名称前缀，为空时扫描全部
+     * @param documentIds 限定文档，为空表示全部文档
+     * @param afterKey    游标（上一页的 nextKey），为空从头开始
+     * @param filter      额外过滤条件，可为空
+     * @param limit       最多返回条数
+     * @param budget      最多检查的条目数；过滤条件命中率低时提前返回，nextKey 指向扫描停止处
+     */
+    public Page scan(String prefix, Collection<Long> documentIds, String afterKey,
+                     Predicate<Entry> filter, int limit, int budget) {
+        String from = normalize(prefix);
+        String to = from + '\uffff';
+        boolean inclusive = true;
+        if (afterKey != null && afterKey.compareTo(from) >= 0) {
+            if (afterKey.compareTo(to) >= 0) return new Page(List.of(), null, 0);
+            from = afterKey;
+            inclusive = false;
+        }
+
+        Iterator<Entry> it;
+        if (documentIds == null || documentIds.isEmpty()) {
+            it = range(global, from, inclusive, to).iterator();
+        } else if (documentIds.size() > MAX_MERGED_DOCUMENTS) {
+            Set<Long> docs = new HashSet<>(documentIds);
+            Predicate<Entry> inDocs = e -> docs.contains(e.documentId);
+            filter = filter == null ? inDocs : inDocs.and(filter);
+            it = range(global, from, inclusive, to).iterator();
+        } else {
+            List<Iterator<Entry>> parts = new ArrayList<>();
+            for (Long d : new LinkedHashSet<>(documentIds)) {
+                ConcurrentSkipListMap<String, Entry> doc = byDocument.get(d);
+                if (doc != null) parts.add(range(doc, from, inclusive, to).iterator());
+            }
+            it = merge(parts);
+        }
+
+        List<Entry> items = new ArrayList<>(Math.min(limit, 256));
+        int scanned = 0;
+        String last = null;
+        while (it.hasNext()) {
+            if (items.size() >= limit || scanned >= budget) return new Page(items, last, scanned);
+            Entry e = it.next();
+            scanned++;
+            last = e.key;
+            if (filter == null || filter.test(e)) items.add(e);
+        }
+        return new Page(items, null, scanned);
+    }
+
+    private static Collection<Entry> range(ConcurrentSkipListMap<String, Entry> map, String from, boolean inclusive, String to) {
+        return map.subMap(from, inclusive, to, false).values();
+    }
+
+    // 多个有序区间按键归并
+    private static Iterator<Entry> merge(List<Iterator<Entry>> parts) {
+        if (parts.size() == 1) return parts.get(0);
+        PriorityQueue<Map.Entry<Entry, Iterator<Entry>>> heap =
+                new PriorityQueue<>(Math.max(1, parts.size()), (a, b) -> a.getKey().key.compareTo(b.getKey().key));
+        for (Iterator<Entry> p : parts) {
+            if (p.hasNext()) heap.add(new AbstractMap.SimpleEntry<>(p.next(), p));
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public Entry next() {
+                Map.Entry<Entry, Iterator<Entry>> head = heap.poll();
+                if (head == null) throw new NoSuchElementException();
+                Iterator<Entry> p = head.getValue();
+                if (p.hasNext()) heap.add(new AbstractMap.SimpleEntry<>(p.next(), p));
+                return head.getKey();
+            }
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.mobileproject.graph;
+
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 文档图谱节点 / 边 properties 的倒排索引：键 → 值 → id，数值另建有序索引支持范围查询。
+ * 只索引标量（字符串、数字、布尔）及数组中的标量元素；嵌套对象不索引。
+ * 与构建时的图版本绑定，图有变更后由调用方重建。
+ */
+public final class PropertyIndex {
+
+    public enum Owner { NODE, EDGE }
+
+    private static final class KeyIndex {
+        final Map<String, List<Long>> exact = new HashMap<>();
+        final TreeMap<Double, List<Long>> numeric = new TreeMap<>();
+        final Set<String> types = new TreeSet<>();
+        int count;
+    }
+
+    private final long version;
+    private final Map<String, KeyIndex> nodeKeys = new HashMap<>();
+    private final Map<String, KeyIndex> edgeKeys = new HashMap<>();
+
+    private PropertyIndex(long version) {
+        this.version = version;
+    }
+
+    public static PropertyIndex build(DocumentGraph graph) {
+        PropertyIndex index = new PropertyIndex(graph.getVersion());
+        for (KgNode n : graph.nodes()) index.add(index.nodeKeys, n.getId(), n.getProperties());
+        for (KgEdge e : graph.edges()) index.add(index.edgeKeys, e.getId(), e.getProperties());
+        return index;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 属性值等于 value 的 id（数字按数值比较，1 与 1.0 相同）
+     */
+    public List<Long> find(Owner owner, String key, String value) {
+        KeyIndex k = keys(owner).get(key);
+        if (k == null) return List.of();
+        List<Long> ids = k.exact.get(normalize(value));
+        return ids == null ? List.of() : ids;
+    }
+
+    /**
+     * 数值属性落在 [min, max] 内的 id，按数值升序；min / max 为空表示不限
+     */
+    public List<Long> range(Owner owner, String key, Double min, Double max) {
+        KeyIndex k = keys(owner).get(key);
+        if (k == null) return List.of();
+        NavigableMap<Double, List<Long>> sub = k.numeric;
+        if (min != null && max != null) {
+            if (min > max) return List.of();
+            sub = sub.subMap(min, true, max, true);
+        } else if (min != null) {
+            sub = sub.tailMap(min, true);
+        } else if (max != null) {
+            sub = sub.headMap(max, true);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (List<Long> l : sub.values()) ids.addAll(l);
+        return ids;
+    }
+
+    /**
+     * 属性概况：键 → 出现次数、值类型、不同值个数
+     */
+    public Map<String, Map<String, Object>> schema(Owner owner) {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        keys(owner).forEach((key, k) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", k.count);
+            m.put("types", k.types);
+            m.put("distinctValues", k.exact.size());
+            result.put(key, m);
+        });
+        return result;
+    }
+
+    /**
+     * 单个属性值是否等于 expected，规则与 find 一致（数组任一元素相等即可）
+     */
+    public static boolean valueMatches(Object actual, String expected) {
+        if (actual instanceof Collection) {
+            for (Object item : (Collection<?>) actual) {
+                if (valueMatches(item, expected)) return true;
+            }
+            return false;
+        }
+        if (!(actual instanceof Number || actual instanceof String || actual instanceof Boolean)) return false;
+        return normalize(actual.toString()).equals(normalize(expected));
+    }
+
+    private Map<String, KeyIndex> keys(Owner owner) {
+        return owner == Owner.NODE ? nodeKeys : edgeKeys;
+    }
+
+    private void add(Map<String, KeyIndex> keys, Long id, Map<String, Object> properties) {
+        if (properties == null || id == null) return;
+        for (Map.Entry<String, Object> e : properties.entrySet()) {
+            Object v = e.getValue();
+            if (v instanceof Collection) {
+                for (Object item : (Collection<?>) v) addValue(keys, e.getKey(), id, item);
+            } else {
+                addValue(keys, e.getKey(), id, v);
+            }
+        }
+    }
+
+    private void addValue(Map<String, KeyIndex> keys, String key, Long id, Object v) {
+        String type;
+        if (v instanceof Number) type = "number";
+        else if (v instanceof String) type = "string";
+        else if (v instanceof Boolean) type = "boolean";
+        else return;
+
+        KeyIndex k = keys.computeIfAbsent(key, x -> new KeyIndex());
+        k.count++;
+        k.types.add(type);
+        k.exact.computeIfAbsent(normalize(v.toString()), x -> new ArrayList<>(1)).add(id);
+        if (v instanceof Number) {
+            double d = ((Number) v).doubleValue();
+            if (!Double.isNaN(d)) k.numeric.computeIfAbsent(d, x -> new ArrayList<>(1)).add(id);
+        }
+    }
+
+    // 数字统一成不带多余小数位的形式
+    private static String normalize(String value) {
+        if (value == null) return "";
+        String s = value.trim();
+        if (!s.isEmpty() && (Character.isDigit(s.charAt(0)) || s.charAt(0) == '-' || s.charAt(0) == '.')) {
+            try {
+                return new BigDecimal(s).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException ignored) {
+                // 按字符串处理
+            }
+        }
+        return s;
+    }
+}
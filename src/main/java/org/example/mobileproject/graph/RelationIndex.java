@@ -0,0 +1,172 @@
+package org.example.mobileproject.graph;
+
+import org.example.mobileproject.entity.Relation;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 一个文档标注关系（relations 表）的内存邻接索引：头实体 → 出关系、尾实体 → 入关系，
+ * 另维护按关系标签的计数。增删改由 RelationService 在写库后同步应用，读写通过读写锁隔离。
+ */
+public class RelationIndex {
+
+    public enum Direction { OUT, IN, BOTH }
+
+    private final Long documentId;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Relation> byId = new HashMap<>();
+    private final Map<Long, List<Relation>> outgoing = new HashMap<>();
+    private final Map<Long, List<Relation>> incoming = new HashMap<>();
+    private final Map<Long, Integer> labelCounts = new HashMap<>();
+
+    public RelationIndex(Long documentId, Collection<Relation> relations) {
+        this.documentId = documentId;
+        for (Relation r : relations) addUnlocked(r);
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    // ---------- 变更 ----------
+
+    public void upsert(Relation relation) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(relation.getId());
+            addUnlocked(relation);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long relationId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(relationId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addUnlocked(Relation r) {
+        if (r.getId() == null) return;
+        byId.put(r.getId(), r);
+        if (r.getHeadEntityId() != null) outgoing.computeIfAbsent(r.getHeadEntityId(), k -> new ArrayList<>(2)).add(r);
+        if (r.getTailEntityId() != null) incoming.computeIfAbsent(r.getTailEntityId(), k -> new ArrayList<>(2)).add(r);
+        labelCounts.merge(labelKey(r), 1, Integer::sum);
+    }
+
+    private void removeUnlocked(Long relationId) {
+        Relation r = byId.remove(relationId);
+        if (r == null) return;
+        detach(outgoing, r.getHeadEntityId(), relationId);
+        detach(incoming, r.getTailEntityId(), relationId);
+        labelCounts.computeIfPresent(labelKey(r), (k, c) -> c > 1 ? c - 1 : null);
+    }
+
+    private static void detach(Map<Long, List<Relation>> adjacency, Long entityId, Long relationId) {
+        if (entityId == null) return;
+        List<Relation> list = adjacency.get(entityId);
+        if (list == null) return;
+        list.removeIf(r -> r.getId().equals(relationId));
+        if (list.isEmpty()) adjacency.remove(entityId);
+    }
+
+    // ---------- 读取 ----------
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 实体的关系
+     * @param labelId 只返回该关系标签，为空不过滤
+     */
+    public List<Relation> relationsOf(Long entityId, Direction direction, Long labelId) {
+        lock.readLock().lock();
+        try {
+            List<Relation> result = new ArrayList<>();
+            if (direction != Direction.IN) collect(outgoing.get(entityId), labelId, result);
+            if (direction != Direction.OUT) {
+                for (Relation r : incoming.getOrDefault(entityId, List.of())) {
+                    // 自环在出方向已经收集过
+                    if (direction == Direction.BOTH && entityId.equals(r.getHeadEntityId())) continue;
+                    if (labelId == null || labelId.equals(r.getRelationLabelId())) result.add(r);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 两个实体之间的关系
+     * @param directed 为 true 时只返回 a → b，否则两个方向都返回
+     */
+    public List<Relation> between(Long a, Long b, boolean directed) {
+        lock.readLock().lock();
+        try {
+            List<Relation> result = new ArrayList<>();
+            directed(a, b, result);
+            if (!directed && !a.equals(b)) directed(b, a, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按关系标签计数；entityId 为空时统计整个文档，否则只统计该实体参与的关系（出 + 入，自环计一次）
+     * 无标签的关系计在键 0 下
+     */
+    public Map<Long, Integer> labelCounts(Long entityId) {
+        lock.readLock().lock();
+        try {
+            if (entityId == null) return new TreeMap<>(labelCounts);
+            Map<Long, Integer> counts = new TreeMap<>();
+            for (Relation r : outgoing.getOrDefault(entityId, List.of())) counts.merge(labelKey(r), 1, Integer::sum);
+            for (Relation r : incoming.getOrDefault(entityId, List.of())) {
+                if (entityId.equals(r.getHeadEntityId())) continue;
+                counts.merge(labelKey(r), 1, Integer::sum);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // from → to 的关系：从 from 的出边与 to 的入边中较短的一侧查找
+    private void directed(Long from, Long to, List<Relation> result) {
+        List<Relation> out = outgoing.getOrDefault(from, List.of());
+        List<Relation> in = incoming.getOrDefault(to, List.of());
+        if (out.size() <= in.size()) {
+            for (Relation r : out) {
+                if (to.equals(r.getTailEntityId())) result.add(r);
+            }
+        } else {
+            for (Relation r : in) {
+                if (from.equals(r.getHeadEntityId())) result.add(r);
+            }
+        }
+    }
+
+    private static void collect(List<Relation> list, Long labelId, List<Relation> result) {
+        if (list == null) return;
+        for (Relation r : list) {
+            if (labelId == null || labelId.equals(r.getRelationLabelId())) result.add(r);
+        }
+    }
+
+    private static Long labelKey(Relation r) {
+        return r.getRelationLabelId() == null ? 0L : r.getRelationLabelId();
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.mobileproject.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.mobileproject.entity.AnalysisResult;
+
+@Mapper
+public interface AnalysisResultMapper {
+    int insert(AnalysisResult result);
+    AnalysisResult selectLatest(@Param("documentId") Long documentId, @Param("kind") String kind);
+    AnalysisResult selectByFingerprint(@Param("documentId") Long documentId,
+                                       @Param("kind") String kind,
+                                       @Param("fingerprint") String fingerprint);
+    int deleteOlder(@Param("documentId") Long documentId, @Param("kind") String kind, @Param("keepId") Long keepId);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
+}
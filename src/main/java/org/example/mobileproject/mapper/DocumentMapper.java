@@ -1,14 +1,29 @@
 package org.example.mobileproject.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.mobileproject.entity.Document;
+import org.example.mobileproject.entity.DocumentSummary;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
 public interface DocumentMapper {
     Document selectById(Long id);
+    Document selectByIdForUpdate(Long id);
     List<Document> selectAll();
+    List<Document> selectByIds(@Param("ids") List<Long> ids);
+    List<Document> selectTitlesByIds(@Param("ids") List<Long> ids);
+    List<Document> selectIndexPage(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 按 (created_at, id) 倒序取 (afterCreatedAt, afterId) 之后的 limit 条摘要；after 为空时从头开始
+     */
+    List<DocumentSummary> selectSummaryPage(@Param("title") String title,
+                                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                            @Param("afterId") Long afterId,
+                                            @Param("limit") int limit);
     int insert(Document doc);
     int update(Document doc);
     int deleteById(Long id);
@@ -1,6 +1,7 @@
 package org.example.mobileproject.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.mobileproject.entity.DocumentToken;
 
 import java.util.List;
@@ -10,6 +11,9 @@ public interface DocumentTokenMapper {
     List<DocumentToken> selectByDocumentId(Long documentId);
     int batchInsert(List<DocumentToken> tokens);
     int deleteByDocumentId(Long documentId);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
     int update(DocumentToken token);
+    int markEntity(@Param("documentId") Long documentId, @Param("tokenStart") int tokenStart,
+                   @Param("tokenEnd") int tokenEnd, @Param("entityId") Long entityId);
     int insert(DocumentToken token);
 }
@@ -10,12 +10,17 @@ import java.util.List;
 public interface EntityItemMapper {
     EntityItem selectById(Long id);
     List<EntityItem> selectByDocumentId(Long documentId);
+    List<EntityItem> selectByIds(@Param("ids") List<Long> ids);
+    List<EntityItem> selectIndexPage(@Param("afterId") long afterId, @Param("limit") int limit);
     EntityItem selectByDocumentIdAndTokenRange(
             @Param("documentId") Long documentId,
             @Param("tokenStart") Integer tokenStart,
             @Param("tokenEnd") Integer tokenEnd
     );
     int insert(EntityItem item);
+    int batchInsert(List<EntityItem> items);
     int update(EntityItem item);
+    int updateTokenRange(@Param("id") Long id, @Param("tokenStart") Integer tokenStart, @Param("tokenEnd") Integer tokenEnd);
     int deleteById(Long id);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
 }
@@ -0,0 +1,24 @@
+package org.example.mobileproject.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.mobileproject.entity.KgChange;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface KgChangeLogMapper {
+    /**
+     * 文档版本号加 1，新版本号回填到 change.version（须与 insert 在同一事务内）
+     */
+    int bumpVersion(KgChange change);
+    Long selectVersion(@Param("documentId") Long documentId);
+    int insert(KgChange change);
+    List<KgChange> selectSince(@Param("documentId") Long documentId,
+                               @Param("since") long since,
+                               @Param("limit") int limit);
+    int deleteBefore(@Param("cutoff") LocalDateTime cutoff);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
+    int deleteVersion(@Param("documentId") Long documentId);
+}
@@ -1,6 +1,8 @@
 package org.example.mobileproject.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.example.mobileproject.entity.KgEdge;
 
 import java.util.List;
@@ -9,7 +11,12 @@ import java.util.List;
 public interface KgEdgeMapper {
     KgEdge selectById(Long id);
     List<KgEdge> selectByDocumentId(Long documentId);
+    List<KgEdge> selectByIds(@Param("ids") List<Long> ids);
+    List<KgEdge> selectIndexPage(@Param("afterId") long afterId, @Param("limit") int limit);
+    Cursor<KgEdge> cursorByDocumentIds(@Param("documentIds") List<Long> documentIds);
     int insert(KgEdge edge);
+    int batchInsert(List<KgEdge> edges);
     int update(KgEdge edge);
     int delete(Long id);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
 }
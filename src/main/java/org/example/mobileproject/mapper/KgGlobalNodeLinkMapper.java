@@ -0,0 +1,18 @@
+package org.example.mobileproject.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.mobileproject.entity.KgGlobalEdge;
+import org.example.mobileproject.entity.KgGlobalNodeLink;
+
+import java.util.List;
+
+@Mapper
+public interface KgGlobalNodeLinkMapper {
+    KgGlobalNodeLink selectByNodeId(@Param("nodeId") Long nodeId);
+    List<KgGlobalNodeLink> selectByGlobalNodeId(@Param("globalNodeId") Long globalNodeId);
+    List<KgGlobalNodeLink> selectByDocumentId(@Param("documentId") Long documentId);
+    int upsert(KgGlobalNodeLink link);
+    int deleteByNodeId(@Param("nodeId") Long nodeId);
+    List<KgGlobalEdge> selectEdges(@Param("globalNodeId") Long globalNodeId);
+}
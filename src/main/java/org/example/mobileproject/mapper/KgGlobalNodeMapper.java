@@ -0,0 +1,19 @@
+package org.example.mobileproject.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.mobileproject.entity.KgGlobalNode;
+
+import java.util.List;
+
+@Mapper
+public interface KgGlobalNodeMapper {
+    KgGlobalNode selectById(@Param("id") Long id);
+    List<KgGlobalNode> selectAll();
+    List<KgGlobalNode> selectList(@Param("labelId") Long labelId,
+                                  @Param("minMembers") int minMembers,
+                                  @Param("limit") int limit);
+    int insert(KgGlobalNode node);
+    int adjustMemberCount(@Param("id") Long id, @Param("delta") int delta);
+    int delete(@Param("id") Long id);
+}
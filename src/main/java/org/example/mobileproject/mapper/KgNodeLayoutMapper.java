@@ -0,0 +1,15 @@
+package org.example.mobileproject.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.mobileproject.entity.KgNodeLayout;
+
+import java.util.List;
+
+@Mapper
+public interface KgNodeLayoutMapper {
+    List<KgNodeLayout> selectByDocumentId(@Param("documentId") Long documentId);
+    int batchUpsert(@Param("list") List<KgNodeLayout> positions);
+    int deleteByNodeIds(@Param("nodeIds") List<Long> nodeIds);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
+}
@@ -1,6 +1,8 @@
 package org.example.mobileproject.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.example.mobileproject.entity.KgNode;
 
 import java.util.List;
@@ -9,7 +11,12 @@ import java.util.List;
 public interface KgNodeMapper {
     KgNode selectById(Long id);
     List<KgNode> selectByDocumentId(Long documentId);
+    List<KgNode> selectByIds(@Param("ids") List<Long> ids);
+    List<KgNode> selectIndexPage(@Param("afterId") long afterId, @Param("limit") int limit);
+    Cursor<KgNode> cursorByDocumentIds(@Param("documentIds") List<Long> documentIds);
     int insert(KgNode node);
+    int batchInsert(List<KgNode> nodes);
     int update(KgNode node);
     int delete(Long id);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
 }
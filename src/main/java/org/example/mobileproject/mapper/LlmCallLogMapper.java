@@ -0,0 +1,14 @@
+package org.example.mobileproject.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.mobileproject.entity.LlmCallLog;
+import org.example.mobileproject.entity.LlmUsageSummary;
+
+import java.util.List;
+
+@Mapper
+public interface LlmCallLogMapper {
+    int insert(LlmCallLog log);
+    List<LlmUsageSummary> selectUsageSummaryByDocument(@Param("documentId") Long documentId);
+}
@@ -3,6 +3,7 @@ package org.example.mobileproject.mapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.example.mobileproject.entity.Relation;
+import org.example.mobileproject.entity.RelationSignature;
 
 import java.util.List;
 
@@ -13,6 +14,7 @@ public interface RelationMapper {
     List<Relation> selectByDocumentId(@Param("documentId") Long documentId);
     int update(Relation relation);
     int delete(@Param("id") Long id);
+    int deleteByDocumentIdLimit(@Param("documentId") Long documentId, @Param("limit") int limit);
 
     Relation selectByDocumentAndLabel(
             @Param("documentId") Long documentId,
@@ -21,4 +23,10 @@ public interface RelationMapper {
             @Param("tailEntityId") Long tailEntityId
     );
 
+    int batchInsert(List<Relation> relations);
+
+    /**
+     * 已标注关系中出现过的 (关系标签, 头实体标签, 尾实体标签) 组合
+     */
+    List<RelationSignature> selectSignatures();
 }
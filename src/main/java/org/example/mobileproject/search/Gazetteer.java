@@ -0,0 +1,195 @@
+package org.example.mobileproject.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 词典自动机（Aho–Corasick）：一次线性扫描找出文本中所有词条的出现位置，与词条数量无关。
+ * 状态转移存放在以 (状态, 字符) 为键的开放寻址表中；每个状态另有失配链接与输出链接
+ * （失配链上最近的词条终点），同一位置结束的多个词条沿输出链接逐个报告。
+ * 构建后不可变，可以被多个线程同时使用。匹配前文本与词条都按 TextAnalyzer 的规则折叠（全角 / 大小写）。
+ */
+public final class Gazetteer {
+
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param start   起始下标（含）
+         * @param end     结束下标（不含）
+         * @param pattern 词条序号，见 pattern(int)
+         */
+        void match(int start, int end, int pattern);
+    }
+
+    private static final Gazetteer EMPTY = build(List.of());
+
+    private final String[] patterns;
+    private final TransitionTable transitions;
+    private final int[] fail;
+    private final int[] output;       // 在该状态结束的词条，-1 表示没有
+    private final int[] outputLink;   // 失配链上最近的有输出的状态，-1 表示没有
+    private final int[] depth;
+
+    private Gazetteer(String[] patterns, TransitionTable transitions, int[] fail, int[] output, int[] outputLink, int[] depth) {
+        this.patterns = patterns;
+        this.transitions = transitions;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.depth = depth;
+    }
+
+    public static Gazetteer empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 折叠后的词条文本，调用方用它作为词条的键
+     */
+    public static String normalize(String text) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) chars[i] = TextAnalyzer.fold(text.charAt(i));
+        return new String(chars);
+    }
+
+    /**
+     * @param patterns 词条，应已 normalize；重复与空串忽略
+     */
+    public static Gazetteer build(Collection<String> patterns) {
+        int capacity = 1;
+        for (String p : patterns) capacity += p.length();
+        TransitionTable transitions = new TransitionTable(capacity);
+        int[] parent = new int[capacity];
+        char[] label = new char[capacity];
+        int[] depth = new int[capacity];
+        int[] output = new int[capacity];
+        Arrays.fill(output, -1);
+        String[] kept = new String[patterns.size()];
+        int states = 1;
+        int count = 0;
+        for (String p : patterns) {
+            if (p.isEmpty()) continue;
+            int s = 0;
+            for (int i = 0; i < p.length(); i++) {
+                char c = p.charAt(i);
+                int next = transitions.get(s, c);
+                if (next < 0) {
+                    next = states++;
+                    transitions.put(s, c, next);
+                    parent[next] = s;
+                    label[next] = c;
+                    depth[next] = i + 1;
+                }
+                s = next;
+            }
+            if (output[s] < 0) {
+                output[s] = count;
+                kept[count++] = p;
+            }
+        }
+
+        // 按深度处理（计数排序代替队列），失配链接指向的状态总是更浅，已经算好
+        int maxDepth = 0;
+        for (int s = 0; s < states; s++) maxDepth = Math.max(maxDepth, depth[s]);
+        int[] bucket = new int[maxDepth + 2];
+        for (int s = 0; s < states; s++) bucket[depth[s] + 1]++;
+        for (int d = 1; d < bucket.length; d++) bucket[d] += bucket[d - 1];
+        int[] order = new int[states];
+        for (int s = 0; s < states; s++) order[bucket[depth[s]]++] = s;
+
+        int[] fail = new int[states];
+        int[] outputLink = new int[states];
+        outputLink[0] = -1;
+        for (int i = 1; i < states; i++) {
+            int s = order[i];
+            int p = parent[s];
+            int f = 0;
+            if (p != 0) {
+                f = fail[p];
+                while (f != 0 && transitions.get(f, label[s]) < 0) f = fail[f];
+                int g = transitions.get(f, label[s]);
+                f = g < 0 ? 0 : g;
+            }
+            fail[s] = f;
+            outputLink[s] = output[f] >= 0 ? f : outputLink[f];
+        }
+        return new Gazetteer(Arrays.copyOf(kept, count), transitions, fail,
+                Arrays.copyOf(output, states), outputLink, Arrays.copyOf(depth, states));
+    }
+
+    public int size() {
+        return patterns.length;
+    }
+
+    public String pattern(int i) {
+        return patterns[i];
+    }
+
+    /**
+     * 词条是否在词典中（key 应已 normalize）
+     */
+    public boolean contains(String key) {
+        int s = 0;
+        for (int i = 0; i < key.length() && s >= 0; i++) s = transitions.get(s, key.charAt(i));
+        return s > 0 && output[s] >= 0;
+    }
+
+    /**
+     * 报告所有出现位置（包括相互重叠、嵌套的），按结束位置递增
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        if (patterns.length == 0) return;
+        int s = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = TextAnalyzer.fold(text.charAt(i));
+            int g = transitions.get(s, c);
+            while (g < 0 && s != 0) {
+                s = fail[s];
+                g = transitions.get(s, c);
+            }
+            s = g < 0 ? 0 : g;
+            for (int t = output[s] >= 0 ? s : outputLink[s]; t > 0; t = outputLink[t]) {
+                handler.match(i + 1 - depth[t], i + 1, output[t]);
+            }
+        }
+    }
+
+    /**
+     * (状态, 字符) → 状态 的开放寻址哈希表，键为 状态 << 16 | 字符
+     */
+    private static final class TransitionTable {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        TransitionTable(int expected) {
+            int size = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            keys = new long[size];
+            Arrays.fill(keys, -1L);
+            values = new int[size];
+            mask = size - 1;
+        }
+
+        int get(int state, char c) {
+            long key = (long) state << 16 | c;
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+                if (keys[i] == -1L) return -1;
+            }
+        }
+
+        void put(int state, char c, int value) {
+            long key = (long) state << 16 | c;
+            int i = slot(key);
+            while (keys[i] != -1L && keys[i] != key) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+}
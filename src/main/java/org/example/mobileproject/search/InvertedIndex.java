@@ -0,0 +1,540 @@
+package org.example.mobileproject.search;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 字符二元组倒排索引：新写入的文档先进内存段，flush 时写成磁盘段并内存映射；
+ * 段数超过上限时全部合并为一个，顺带丢弃已删除的文档。目录中的 manifest 记录当前有效的段，
+ * 各段的删除位图存在同名 .del 文件里。
+ * <p>
+ * 两次 flush 之间的变更只在内存中，为此写入前先把变更涉及的键记入 journal（由调用方决定键的含义），
+ * 重启后由调用方按这些键从数据库重新索引；flush 写完 manifest 后清空 journal。
+ * <p>
+ * 写操作（journal / put / remove / flush / clear）只能由同一个线程调用；检索可以并发，
+ * 与写操作之间用读写锁隔离。
+ */
+public final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final long MAX_BUFFER_BYTES = 32L * 1024 * 1024;
+    private static final String MANIFEST = "manifest";
+    private static final String JOURNAL = "journal";
+
+    private static final class Location {
+        final Segment segment;
+        final int ord;
+
+        Location(Segment segment, int ord) {
+            this.segment = segment;
+            this.ord = ord;
+        }
+    }
+
+    public static final class Hit {
+        public final long id;
+        public final long group;
+        public final double score;
+        public final int position;   // 第一处命中在原文中的下标，用于截取摘要
+
+        Hit(long id, long group, double score, int position) {
+            this.id = id;
+            this.group = group;
+            this.score = score;
+            this.position = position;
+        }
+    }
+
+    public static final class Result {
+        public final List<Hit> hits;
+        public final int total;
+
+        Result(List<Hit> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+    }
+
+    private final Path dir;
+    private final boolean grouped;
+    private final int maxSegments;
+    private final int flushDocs;
+    private final SegmentWriter writer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private List<MappedSegment> segments = new ArrayList<>();
+    private MemorySegment live = new MemorySegment();
+    private final Map<Long, Location> locations = new HashMap<>();
+    private final Map<Long, Set<Long>> groups = new HashMap<>();
+    private long totalLength;
+    private int nextGen;
+
+    private final Set<MappedSegment> dirtyDeletes = new HashSet<>();
+    private final List<String> obsolete = new ArrayList<>();
+    private boolean manifestDirty;
+    private BufferedWriter journal;
+
+    /**
+     * @param grouped 是否维护分组 → id 的映射（实体索引按文档整体替换时需要）
+     */
+    public InvertedIndex(Path dir, boolean grouped, int maxSegments, int flushDocs) {
+        this.dir = dir;
+        this.grouped = grouped;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.flushDocs = Math.max(1, flushDocs);
+        this.writer = new SegmentWriter(dir);
+    }
+
+    // ---------- 打开 / 持久化 ----------
+
+    /**
+     * 打开目录中的索引
+     * @return journal 中尚未持久化的键，调用方需按它们重新索引；没有可用索引（首次启动）时返回 null
+     */
+    public Set<Long> open() throws IOException {
+        Files.createDirectories(dir);
+        Path manifest = dir.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            clear();
+            return null;
+        }
+        List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        List<MappedSegment> loaded = new ArrayList<>();
+        int gen = 0;
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            if (line.startsWith("gen ")) {
+                gen = Integer.parseInt(line.substring(4).trim());
+                continue;
+            }
+            MappedSegment segment = MappedSegment.open(dir, line.trim());
+            Path del = dir.resolve(segment.name + ".del");
+            if (Files.exists(del)) segment.deleted.or(BitSet.valueOf(Files.readAllBytes(del)));
+            loaded.add(segment);
+        }
+
+        Set<String> names = new HashSet<>();
+        for (MappedSegment s : loaded) names.add(s.name);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                String file = f.getFileName().toString();
+                if (file.equals(MANIFEST) || file.equals(JOURNAL)) continue;
+                int dot = file.indexOf('.');
+                if (dot < 0 || file.endsWith(".tmp") || !names.contains(file.substring(0, dot))) Files.deleteIfExists(f);
+            }
+        }
+
+        Set<Long> pending = new LinkedHashSet<>();
+        Path journalFile = dir.resolve(JOURNAL);
+        if (Files.exists(journalFile)) {
+            for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+                // 进程中途退出时最后一行可能不完整
+                try {
+                    if (!line.isBlank()) pending.add(Long.parseLong(line.trim()));
+                } catch (NumberFormatException ignored) {
+                    // 忽略
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            resetUnlocked();
+            segments = loaded;
+            nextGen = gen;
+            for (MappedSegment segment : loaded) {
+                for (int ord = 0; ord < segment.docCount(); ord++) {
+                    if (segment.deleted.get(ord)) continue;
+                    long id = segment.docId(ord);
+                    // 正常情况下不会重复；万一出现以后写入的为准
+                    if (locations.containsKey(id)) removeUnlocked(id);
+                    addLocation(id, segment.group(ord), segment.length(ord), new Location(segment, ord));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        openJournal(true);
+        return pending;
+    }
+
+    /**
+     * 记录即将变更的键，在对应的 put / remove 之前调用
+     */
+    public void journal(long key) throws IOException {
+        journal.write(Long.toString(key));
+        journal.newLine();
+        // 只写到操作系统缓冲区：进程崩溃不丢，机器掉电可能丢最后几条
+        journal.flush();
+    }
+
+    /**
+     * 清空索引（删除目录下所有文件），用于全量重建；重建完成后调用 flush 写出 manifest
+     */
+    public void clear() throws IOException {
+        if (journal != null) journal.close();
+        Files.createDirectories(dir);
+        lock.writeLock().lock();
+        try {
+            resetUnlocked();
+            segments = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirtyDeletes.clear();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                String file = f.getFileName().toString();
+                try {
+                    Files.deleteIfExists(f);
+                } catch (IOException e) {
+                    // 仍被映射的段文件（Windows 上不能删除），下次 flush 时再试；段号不回退，新段不会与它重名
+                    if (file.endsWith(".seg")) obsolete.add(file.substring(0, file.length() - 4));
+                    else throw e;
+                }
+            }
+        }
+        manifestDirty = true;
+        openJournal(false);
+    }
+
+    public boolean needsFlush() {
+        return live.docCount() >= flushDocs || live.bytes() >= MAX_BUFFER_BYTES;
+    }
+
+    /**
+     * 内存段写成磁盘段，必要时合并，保存删除位图与 manifest，然后清空 journal
+     */
+    public void flush() throws IOException {
+        deleteObsolete();
+        if (live.docCount() == 0 && dirtyDeletes.isEmpty() && !manifestDirty) return;
+        if (live.docCount() > 0) {
+            MemorySegment frozen = live;
+            String name = "seg_" + nextGen++;
+            writer.write(frozen, name);
+            MappedSegment mapped = MappedSegment.open(dir, name);
+            mapped.deleted.or(frozen.deleted);
+            lock.writeLock().lock();
+            try {
+                List<MappedSegment> next = new ArrayList<>(segments);
+                next.add(mapped);
+                segments = next;
+                live = new MemorySegment();
+                for (int ord = 0; ord < frozen.docCount(); ord++) {
+                    if (!frozen.deleted.get(ord)) locations.put(frozen.docId(ord), new Location(mapped, ord));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!mapped.deleted.isEmpty()) dirtyDeletes.add(mapped);
+        }
+        if (segments.size() > maxSegments) merge();
+
+        for (MappedSegment segment : dirtyDeletes) {
+            writeAtomically(segment.name + ".del", segment.deleted.toByteArray());
+        }
+        dirtyDeletes.clear();
+        StringBuilder manifest = new StringBuilder("gen ").append(nextGen).append('\n');
+        for (MappedSegment segment : segments) manifest.append(segment.name).append('\n');
+        writeAtomically(MANIFEST, manifest.toString().getBytes(StandardCharsets.UTF_8));
+        manifestDirty = false;
+        journal.close();
+        openJournal(false);
+        deleteObsolete();
+    }
+
+    /**
+     * 删除 manifest 已不再引用的段文件。Linux 上已映射的区域在释放前仍可读；
+     * Windows 上仍被映射的文件删除会失败，留到下次 flush 再试（打开索引时也会清理未被引用的文件）
+     */
+    private void deleteObsolete() {
+        for (Iterator<String> it = obsolete.iterator(); it.hasNext(); ) {
+            String name = it.next();
+            try {
+                Files.deleteIfExists(dir.resolve(name + ".seg"));
+                Files.deleteIfExists(dir.resolve(name + ".del"));
+                it.remove();
+            } catch (IOException e) {
+                // 下次再试
+            }
+        }
+    }
+
+    // 所有磁盘段合并为一个；只有写线程会修改删除位图，合并期间不会有新的删除
+    private void merge() throws IOException {
+        List<MappedSegment> sources = segments;
+        String name = "seg_" + nextGen++;
+        int[][] remap = writer.merge(sources, name);
+        MappedSegment merged = MappedSegment.open(dir, name);
+        lock.writeLock().lock();
+        try {
+            for (int s = 0; s < sources.size(); s++) {
+                MappedSegment src = sources.get(s);
+                for (int ord = 0; ord < src.docCount(); ord++) {
+                    if (remap[s][ord] >= 0) locations.put(src.docId(ord), new Location(merged, remap[s][ord]));
+                }
+            }
+            segments = new ArrayList<>(List.of(merged));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirtyDeletes.removeAll(sources);
+        for (MappedSegment src : sources) obsolete.add(src.name);
+    }
+
+    private void openJournal(boolean append) throws IOException {
+        FileOutputStream out = new FileOutputStream(dir.resolve(JOURNAL).toFile(), append);
+        journal = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private void writeAtomically(String file, byte[] data) throws IOException {
+        Path tmp = dir.resolve(file + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        Files.move(tmp, dir.resolve(file), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // ---------- 写入 ----------
+
+    /**
+     * 写入或替换一个文档
+     */
+    public void put(long id, long group, String text) {
+        TextAnalyzer.Analyzed analyzed = TextAnalyzer.analyze(text);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            int ord = live.add(id, group, analyzed);
+            addLocation(id, group, analyzed.length, new Location(live, ord));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            return removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除一个分组下的所有文档
+     */
+    public void removeGroup(long group) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> ids = groups.get(group);
+            if (ids == null) return;
+            for (Long id : new ArrayList<>(ids)) removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocation(long id, long group, int length, Location location) {
+        locations.put(id, location);
+        totalLength += length;
+        if (grouped) groups.computeIfAbsent(group, k -> new HashSet<>()).add(id);
+    }
+
+    private boolean removeUnlocked(long id) {
+        Location location = locations.remove(id);
+        if (location == null) return false;
+        Segment segment = location.segment;
+        segment.deleted.set(location.ord);
+        if (segment instanceof MappedSegment) dirtyDeletes.add((MappedSegment) segment);
+        totalLength -= segment.length(location.ord);
+        if (grouped) {
+            long group = segment.group(location.ord);
+            Set<Long> ids = groups.get(group);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) groups.remove(group);
+        }
+        return true;
+    }
+
+    private void resetUnlocked() {
+        live = new MemorySegment();
+        locations.clear();
+        groups.clear();
+        totalLength = 0;
+    }
+
+    // ---------- 统计 ----------
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return locations.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int bufferedDocs() {
+        lock.readLock().lock();
+        try {
+            return live.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- 检索 ----------
+
+    /**
+     * BM25 排序的前 topN 个结果；total 为命中的文档总数
+     */
+    public Result search(SearchQuery query, int topN) {
+        lock.readLock().lock();
+        try {
+            int n = locations.size();
+            if (n == 0 || query.isEmpty() || topN <= 0) return new Result(List.of(), 0);
+            List<Segment> all = new ArrayList<>(segments);
+            all.add(live);
+            double avgLength = Math.max(1.0, (double) totalLength / n);
+
+            // 子句的 df 取其中最稀有词项的 df（短语 df 的上界），按全部段（含已删除文档）估算
+            List<List<SearchQuery.Part>> clauses = query.getClauses();
+            double[] idf = new double[clauses.size()];
+            for (int c = 0; c < clauses.size(); c++) {
+                long df = Long.MAX_VALUE;
+                for (SearchQuery.Part part : clauses.get(c)) {
+                    long partDf = 0;
+                    for (Segment segment : all) {
+                        PostingSource source = source(segment, part);
+                        if (source != null) partDf += source.cost();
+                    }
+                    df = Math.min(df, partDf);
+                }
+                df = Math.min(df, n);
+                idf[c] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            }
+
+            PriorityQueue<Hit> heap = new PriorityQueue<>(Comparator.comparingDouble((Hit h) -> h.score)
+                    .thenComparing(h -> -h.id));
+            int total = 0;
+            for (Segment segment : all) total += searchSegment(segment, clauses, idf, avgLength, heap, topN);
+
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(Comparator.comparingDouble((Hit h) -> -h.score).thenComparingLong(h -> h.id));
+            return new Result(hits, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static PostingSource source(Segment segment, SearchQuery.Part part) {
+        if (!part.prefix) return segment.postings(part.term);
+        List<PostingsCursor> cursors = segment.postingsWithPrefix(part.term.charAt(0));
+        return cursors.isEmpty() ? null : new UnionSource(cursors);
+    }
+
+    // 所有词项的倒排表按跳跃方式求交，再逐子句按位置校验相邻关系并打分
+    private static int searchSegment(Segment segment, List<List<SearchQuery.Part>> clauses, double[] idf,
+                                     double avgLength, PriorityQueue<Hit> heap, int topN) {
+        PostingSource[][] sources = new PostingSource[clauses.size()][];
+        List<PostingSource> flat = new ArrayList<>();
+        for (int c = 0; c < clauses.size(); c++) {
+            List<SearchQuery.Part> parts = clauses.get(c);
+            sources[c] = new PostingSource[parts.size()];
+            for (int p = 0; p < parts.size(); p++) {
+                PostingSource source = source(segment, parts.get(p));
+                if (source == null) return 0;
+                sources[c][p] = source;
+                flat.add(source);
+            }
+        }
+        flat.sort(Comparator.comparingInt(PostingSource::cost));
+        PostingSource lead = flat.get(0);
+
+        int matched = 0;
+        int doc = lead.next() ? lead.ord() : Integer.MAX_VALUE;
+        outer:
+        while (doc != Integer.MAX_VALUE) {
+            for (int i = 1; i < flat.size(); i++) {
+                PostingSource other = flat.get(i);
+                if (!other.advance(doc)) return matched;
+                if (other.ord() > doc) {
+                    if (!lead.advance(other.ord())) return matched;
+                    doc = lead.ord();
+                    continue outer;
+                }
+            }
+            if (!segment.deleted.get(doc)) {
+                double norm = K1 * (1 - B + B * segment.length(doc) / avgLength);
+                double score = 0;
+                int position = -1;
+                for (int c = 0; c < clauses.size(); c++) {
+                    int[] first = new int[1];
+                    int freq = phraseFreq(clauses.get(c), sources[c], first);
+                    if (freq == 0) {
+                        score = -1;
+                        break;
+                    }
+                    if (position < 0) position = first[0];
+                    score += idf[c] * freq * (K1 + 1) / (freq + norm);
+                }
+                if (score >= 0) {
+                    matched++;
+                    Hit hit = new Hit(segment.docId(doc), segment.group(doc), score, position);
+                    if (heap.size() < topN) {
+                        heap.add(hit);
+                    } else if (heap.comparator().compare(hit, heap.peek()) > 0) {
+                        heap.poll();
+                        heap.add(hit);
+                    }
+                }
+            }
+            doc = lead.next() ? lead.ord() : Integer.MAX_VALUE;
+        }
+        return matched;
+    }
+
+    // 子句在当前文档中完整出现的次数：各词项都出现在 起点 + 相对位置 处；first[0] 记录第一个起点
+    private static int phraseFreq(List<SearchQuery.Part> parts, PostingSource[] sources, int[] first) {
+        PostingSource head = sources[0];
+        int headOffset = parts.get(0).offset;
+        if (parts.size() == 1) {
+            first[0] = head.positions()[0] - headOffset;
+            return head.tf();
+        }
+        int freq = 0;
+        int[] positions = head.positions();
+        for (int i = 0; i < head.tf(); i++) {
+            int start = positions[i] - headOffset;
+            boolean all = true;
+            for (int p = 1; p < parts.size() && all; p++) {
+                PostingSource s = sources[p];
+                all = Arrays.binarySearch(s.positions(), 0, s.tf(), start + parts.get(p).offset) >= 0;
+            }
+            if (all) {
+                if (freq == 0) first[0] = start;
+                freq++;
+            }
+        }
+        return freq;
+    }
+}
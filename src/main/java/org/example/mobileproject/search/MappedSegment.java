@@ -0,0 +1,118 @@
+package org.example.mobileproject.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射的只读磁盘段，文件布局见 SegmentWriter。
+ * 词典按词项排序存放，查找用二分；倒排表直接在映射区上解码，不整体读入堆内存。
+ */
+final class MappedSegment extends Segment {
+
+    static final int MAGIC = 0x4B475358;   // "KGSX"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 48;
+    static final int DOC_BYTES = 20;       // long id, long group, int length
+    static final int TERM_BYTES = 20;      // int termStart, int termLen, int postingsStart, int postingsLen, int df
+
+    final String name;
+    private final MappedByteBuffer buf;
+    private final int docCount;
+    private final int termCount;
+    private final int docsOffset;
+    private final int termsOffset;
+    private final int termBytesOffset;
+    private final int postingsOffset;
+
+    private MappedSegment(String name, MappedByteBuffer buf) throws IOException {
+        this.name = name;
+        this.buf = buf;
+        if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IOException("索引段格式不正确: " + name);
+        }
+        docCount = buf.getInt(8);
+        termCount = buf.getInt(12);
+        docsOffset = buf.getInt(16);
+        termsOffset = buf.getInt(20);
+        termBytesOffset = buf.getInt(24);
+        postingsOffset = buf.getInt(28);
+    }
+
+    static MappedSegment open(Path dir, String name) throws IOException {
+        try (FileChannel ch = FileChannel.open(dir.resolve(name + ".seg"), StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("索引段超过 2GB: " + name);
+            return new MappedSegment(name, ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    @Override
+    int docCount() {
+        return docCount;
+    }
+
+    @Override
+    long docId(int ord) {
+        return buf.getLong(docsOffset + ord * DOC_BYTES);
+    }
+
+    @Override
+    long group(int ord) {
+        return buf.getLong(docsOffset + ord * DOC_BYTES + 8);
+    }
+
+    @Override
+    int length(int ord) {
+        return buf.getInt(docsOffset + ord * DOC_BYTES + 16);
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    String term(int i) {
+        int entry = termsOffset + i * TERM_BYTES;
+        byte[] bytes = new byte[buf.getInt(entry + 4)];
+        buf.get(termBytesOffset + buf.getInt(entry), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    PostingsCursor postingsAt(int i) {
+        int entry = termsOffset + i * TERM_BYTES;
+        ByteBuffer slice = buf.slice(postingsOffset + buf.getInt(entry + 8), buf.getInt(entry + 12));
+        return new PostingsCursor(slice, buf.getInt(entry + 16));
+    }
+
+    @Override
+    PostingsCursor postings(String term) {
+        int i = lowerBound(term);
+        return i < termCount && term(i).equals(term) ? postingsAt(i) : null;
+    }
+
+    @Override
+    List<PostingsCursor> postingsWithPrefix(char c) {
+        List<PostingsCursor> result = new ArrayList<>();
+        for (int i = lowerBound(String.valueOf(c)); i < termCount; i++) {
+            if (term(i).charAt(0) != c) break;
+            result.add(postingsAt(i));
+        }
+        return result;
+    }
+
+    // 第一个不小于 key 的词项下标
+    private int lowerBound(String key) {
+        int lo = 0, hi = termCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (term(mid).compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
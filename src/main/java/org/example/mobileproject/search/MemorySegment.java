@@ -0,0 +1,81 @@
+package org.example.mobileproject.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 内存中正在写入的段，flush 时按词项顺序写成磁盘段
+ */
+final class MemorySegment extends Segment {
+
+    final TreeMap<String, PostingsBuffer> terms = new TreeMap<>();
+    private long[] ids = new long[64];
+    private long[] groups = new long[64];
+    private int[] lengths = new int[64];
+    private int docCount;
+    private long bytes;
+
+    int add(long id, long group, TextAnalyzer.Analyzed analyzed) {
+        if (docCount == ids.length) {
+            ids = Arrays.copyOf(ids, docCount * 2);
+            groups = Arrays.copyOf(groups, docCount * 2);
+            lengths = Arrays.copyOf(lengths, docCount * 2);
+        }
+        int ord = docCount++;
+        ids[ord] = id;
+        groups[ord] = group;
+        lengths[ord] = analyzed.length;
+        for (Map.Entry<String, TextAnalyzer.PositionList> e : analyzed.terms.entrySet()) {
+            PostingsBuffer p = terms.computeIfAbsent(e.getKey(), k -> new PostingsBuffer());
+            int before = p.size;
+            p.add(ord, e.getValue().positions, e.getValue().size);
+            bytes += p.size - before;
+        }
+        return ord;
+    }
+
+    /**
+     * 倒排表占用的字节数（粗略），用于决定何时 flush
+     */
+    long bytes() {
+        return bytes + (long) terms.size() * 64;
+    }
+
+    @Override
+    int docCount() {
+        return docCount;
+    }
+
+    @Override
+    long docId(int ord) {
+        return ids[ord];
+    }
+
+    @Override
+    long group(int ord) {
+        return groups[ord];
+    }
+
+    @Override
+    int length(int ord) {
+        return lengths[ord];
+    }
+
+    @Override
+    PostingsCursor postings(String term) {
+        PostingsBuffer p = terms.get(term);
+        return p == null ? null : new PostingsCursor(p.view(), p.df);
+    }
+
+    @Override
+    List<PostingsCursor> postingsWithPrefix(char c) {
+        List<PostingsCursor> result = new ArrayList<>();
+        for (PostingsBuffer p : terms.subMap(String.valueOf(c), true, String.valueOf((char) (c + 1)), false).values()) {
+            result.add(new PostingsCursor(p.view(), p.df));
+        }
+        return result;
+    }
+}
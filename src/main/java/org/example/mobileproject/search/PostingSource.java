@@ -0,0 +1,36 @@
+package org.example.mobileproject.search;
+
+/**
+ * 按文档序号递增遍历的倒排表
+ */
+interface PostingSource {
+
+    /**
+     * 移到下一个文档，没有更多时返回 false
+     */
+    boolean next();
+
+    /**
+     * 移到序号不小于 target 的第一个文档，没有时返回 false
+     */
+    default boolean advance(int target) {
+        while (ord() < target) {
+            if (!next()) return false;
+        }
+        return true;
+    }
+
+    int ord();
+
+    int tf();
+
+    /**
+     * 当前文档中的位置，前 tf 个有效，升序
+     */
+    int[] positions();
+
+    /**
+     * 文档数估计，用于挑选最短的倒排表驱动求交
+     */
+    int cost();
+}
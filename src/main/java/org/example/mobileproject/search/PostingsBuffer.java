@@ -0,0 +1,50 @@
+package org.example.mobileproject.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 一个词项的倒排表（压缩编码）：每个文档依次写 文档序号差值、词频、各位置差值，
+ * 均为变长整数（每字节 7 位，最高位表示后面还有字节）。序号与位置都递增，差值大多只占一两个字节。
+ */
+final class PostingsBuffer {
+
+    byte[] data = new byte[16];
+    int size;
+    int df;
+    private int lastOrd = -1;
+
+    void add(int ord, int[] positions, int count) {
+        writeVarInt(ord - lastOrd);
+        lastOrd = ord;
+        writeVarInt(count);
+        int prev = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarInt(positions[i] - prev);
+            prev = positions[i];
+        }
+        df++;
+    }
+
+    void reset() {
+        size = 0;
+        df = 0;
+        lastOrd = -1;
+    }
+
+    ByteBuffer view() {
+        return ByteBuffer.wrap(data, 0, size).slice();
+    }
+
+    private void writeVarInt(int v) {
+        if (size + 5 > data.length) {
+            byte[] grown = new byte[Math.max(data.length * 2, size + 5)];
+            System.arraycopy(data, 0, grown, 0, size);
+            data = grown;
+        }
+        while ((v & ~0x7F) != 0) {
+            data[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[size++] = (byte) v;
+    }
+}
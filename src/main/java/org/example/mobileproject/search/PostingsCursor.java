@@ -0,0 +1,66 @@
+package org.example.mobileproject.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 单个词项倒排表的解码游标，数据来自内存或映射文件
+ */
+final class PostingsCursor implements PostingSource {
+
+    private final ByteBuffer buf;
+    private final int df;
+    private int ord = -1;
+    private int tf;
+    private int[] positions = new int[8];
+
+    PostingsCursor(ByteBuffer buf, int df) {
+        this.buf = buf;
+        this.df = df;
+    }
+
+    @Override
+    public boolean next() {
+        if (!buf.hasRemaining()) {
+            ord = Integer.MAX_VALUE;
+            return false;
+        }
+        ord += readVarInt();
+        tf = readVarInt();
+        if (positions.length < tf) positions = new int[Math.max(tf, positions.length * 2)];
+        int p = 0;
+        for (int i = 0; i < tf; i++) {
+            p += readVarInt();
+            positions[i] = p;
+        }
+        return true;
+    }
+
+    @Override
+    public int ord() {
+        return ord;
+    }
+
+    @Override
+    public int tf() {
+        return tf;
+    }
+
+    @Override
+    public int[] positions() {
+        return positions;
+    }
+
+    @Override
+    public int cost() {
+        return df;
+    }
+
+    private int readVarInt() {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+    }
+}
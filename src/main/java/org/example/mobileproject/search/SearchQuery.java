@@ -0,0 +1,95 @@
+package org.example.mobileproject.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 检索式：空白分隔的若干子句，全部命中才算匹配；双引号括起的短语作为一个子句（可以含空格和标点）。
+ * 子句内的字母 / 数字 / 汉字片段用覆盖它的最少二元组表示，按相对位置校验相邻关系，
+ * 因此"北京大学"不会命中只出现"北京"和"大学"但不相连的文档；单字片段按首字符前缀匹配。
+ */
+public final class SearchQuery {
+
+    /**
+     * 子句中的一个词项及其相对子句开头的位置
+     */
+    public static final class Part {
+        public final int offset;
+        public final String term;
+        public final boolean prefix;   // 单字：匹配以该字开头的所有词项
+
+        Part(int offset, String term, boolean prefix) {
+            this.offset = offset;
+            this.term = term;
+            this.prefix = prefix;
+        }
+    }
+
+    private final List<List<Part>> clauses;
+
+    private SearchQuery(List<List<Part>> clauses) {
+        this.clauses = clauses;
+    }
+
+    public List<List<Part>> getClauses() {
+        return clauses;
+    }
+
+    public boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    public static SearchQuery parse(String q) {
+        List<List<Part>> clauses = new ArrayList<>();
+        if (q == null) return new SearchQuery(clauses);
+        int n = q.length();
+        int i = 0;
+        while (i < n) {
+            char c = q.charAt(i);
+            if (Character.isWhitespace(c) || c == '　') {
+                i++;
+                continue;
+            }
+            int start, end;
+            if (c == '"' || c == '“') {
+                start = i + 1;
+                end = start;
+                while (end < n && q.charAt(end) != '"' && q.charAt(end) != '”') end++;
+                i = end + 1;
+            } else {
+                start = i;
+                end = i;
+                while (end < n && !Character.isWhitespace(q.charAt(end)) && q.charAt(end) != '　') end++;
+                i = end;
+            }
+            List<Part> parts = parts(q.substring(start, end));
+            if (!parts.isEmpty()) clauses.add(parts);
+        }
+        return new SearchQuery(Collections.unmodifiableList(clauses));
+    }
+
+    // 每个连续片段 [a, b)：取 a, a+2, ... 处的二元组，长度为奇数时补上 b-2 处的一个，恰好覆盖整个片段
+    private static List<Part> parts(String text) {
+        List<Part> parts = new ArrayList<>();
+        char[] folded = new char[text.length()];
+        for (int i = 0; i < folded.length; i++) folded[i] = TextAnalyzer.fold(text.charAt(i));
+        int i = 0;
+        while (i < folded.length) {
+            if (!TextAnalyzer.isTokenChar(folded[i])) {
+                i++;
+                continue;
+            }
+            int a = i;
+            while (i < folded.length && TextAnalyzer.isTokenChar(folded[i])) i++;
+            int b = i;
+            if (b - a == 1) {
+                parts.add(new Part(a, String.valueOf(folded[a]), true));
+                continue;
+            }
+            for (int j = a; j + 1 < b; j += 2) parts.add(new Part(j, new String(folded, j, 2), false));
+            if ((b - a) % 2 == 1) parts.add(new Part(b - 2, new String(folded, b - 2, 2), false));
+        }
+        return parts;
+    }
+}
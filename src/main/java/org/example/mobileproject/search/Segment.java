@@ -0,0 +1,41 @@
+package org.example.mobileproject.search;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 索引段：一批文档（段内按序号 0..n-1 编号）及其倒排表。
+ * 文档内容写入后不再变化，删除只在位图中标记，合并段时才真正丢弃。
+ */
+abstract class Segment {
+
+    final BitSet deleted = new BitSet();
+
+    abstract int docCount();
+
+    /**
+     * 外部 id（文档 id 或实体 id）
+     */
+    abstract long docId(int ord);
+
+    /**
+     * 所属分组（实体所在的文档 id），不分组的索引与 docId 相同
+     */
+    abstract long group(int ord);
+
+    abstract int length(int ord);
+
+    /**
+     * 词项的倒排表，不存在时返回 null
+     */
+    abstract PostingsCursor postings(String term);
+
+    /**
+     * 以字符 c 开头的所有词项（单字本身与以它开头的二元组）
+     */
+    abstract List<PostingsCursor> postingsWithPrefix(char c);
+
+    int liveCount() {
+        return docCount() - deleted.cardinality();
+    }
+}
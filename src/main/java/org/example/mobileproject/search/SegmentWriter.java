@@ -0,0 +1,197 @@
+package org.example.mobileproject.search;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 写磁盘段。文件布局（均为大端）：
+ * <pre>
+ * 头部 48 字节   magic, version, docCount, termCount, docs / terms / termBytes / postings 各区起始偏移
+ * docs          每个文档 20 字节：long id, long group, int length
+ * terms         每个词项 20 字节：termStart, termLen, postingsStart, postingsLen, df，按词项排序
+ * termBytes     词项的 UTF-8 字节
+ * postings      各词项的压缩倒排表，格式见 PostingsBuffer
+ * </pre>
+ * 倒排表先写入临时文件，词典大小确定后再拼成最终文件；写完 fsync 后原子改名，读到的段文件总是完整的。
+ */
+final class SegmentWriter {
+
+    private final Path dir;
+
+    SegmentWriter(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * 内存段原样写出，文档序号不变（已删除的文档也写出，删除位图由调用方另存）
+     */
+    void write(MemorySegment segment, String name) throws IOException {
+        try (TermSink sink = new TermSink(name)) {
+            for (Map.Entry<String, PostingsBuffer> e : segment.terms.entrySet()) {
+                PostingsBuffer p = e.getValue();
+                sink.term(e.getKey(), p.data, p.size, p.df);
+            }
+            int n = segment.docCount();
+            long[] ids = new long[n];
+            long[] groups = new long[n];
+            int[] lengths = new int[n];
+            for (int ord = 0; ord < n; ord++) {
+                ids[ord] = segment.docId(ord);
+                groups[ord] = segment.group(ord);
+                lengths[ord] = segment.length(ord);
+            }
+            sink.finish(ids, groups, lengths);
+        }
+    }
+
+    /**
+     * 把多个段合并为一个，丢弃已删除的文档
+     * @return 每个源段的序号映射：remap[i][旧序号] = 新序号，已删除为 -1
+     */
+    int[][] merge(List<MappedSegment> sources, String name) throws IOException {
+        int k = sources.size();
+        int[][] remap = new int[k][];
+        int n = 0;
+        for (int s = 0; s < k; s++) {
+            MappedSegment src = sources.get(s);
+            remap[s] = new int[src.docCount()];
+            for (int ord = 0; ord < src.docCount(); ord++) {
+                remap[s][ord] = src.deleted.get(ord) ? -1 : n++;
+            }
+        }
+        long[] ids = new long[n];
+        long[] groups = new long[n];
+        int[] lengths = new int[n];
+        for (int s = 0; s < k; s++) {
+            MappedSegment src = sources.get(s);
+            for (int ord = 0; ord < src.docCount(); ord++) {
+                int target = remap[s][ord];
+                if (target < 0) continue;
+                ids[target] = src.docId(ord);
+                groups[target] = src.group(ord);
+                lengths[target] = src.length(ord);
+            }
+        }
+
+        // 按词项多路归并；同一词项按源段顺序拼接，新序号随源段递增，倒排表保持有序
+        String[] current = new String[k];
+        int[] termIndex = new int[k];
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> {
+            int c = current[a].compareTo(current[b]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        for (int s = 0; s < k; s++) {
+            if (sources.get(s).termCount() > 0) {
+                current[s] = sources.get(s).term(0);
+                heap.add(s);
+            }
+        }
+        PostingsBuffer out = new PostingsBuffer();
+        int[] same = new int[k];
+        try (TermSink sink = new TermSink(name)) {
+            while (!heap.isEmpty()) {
+                String term = current[heap.peek()];
+                int count = 0;
+                while (!heap.isEmpty() && current[heap.peek()].equals(term)) same[count++] = heap.poll();
+                Arrays.sort(same, 0, count);
+                out.reset();
+                for (int i = 0; i < count; i++) {
+                    int s = same[i];
+                    PostingsCursor cursor = sources.get(s).postingsAt(termIndex[s]);
+                    while (cursor.next()) {
+                        int target = remap[s][cursor.ord()];
+                        if (target >= 0) out.add(target, cursor.positions(), cursor.tf());
+                    }
+                    if (++termIndex[s] < sources.get(s).termCount()) {
+                        current[s] = sources.get(s).term(termIndex[s]);
+                        heap.add(s);
+                    }
+                }
+                if (out.df > 0) sink.term(term, out.data, out.size, out.df);
+            }
+            sink.finish(ids, groups, lengths);
+        }
+        return remap;
+    }
+
+    private final class TermSink implements Closeable {
+        private final Path target;
+        private final Path tmp;
+        private final Path postingsTmp;
+        private final DataOutputStream postings;
+        private final ByteArrayOutputStream termTable = new ByteArrayOutputStream();
+        private final DataOutputStream termOut = new DataOutputStream(termTable);
+        private final ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+        private long postingsSize;
+        private int termCount;
+        private boolean finished;
+
+        TermSink(String name) throws IOException {
+            target = dir.resolve(name + ".seg");
+            tmp = dir.resolve(name + ".seg.tmp");
+            postingsTmp = dir.resolve(name + ".post.tmp");
+            postings = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(postingsTmp), 64 * 1024));
+        }
+
+        void term(String term, byte[] data, int size, int df) throws IOException {
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            termOut.writeInt(termBytes.size());
+            termOut.writeInt(bytes.length);
+            termOut.writeInt((int) postingsSize);
+            termOut.writeInt(size);
+            termOut.writeInt(df);
+            termBytes.write(bytes);
+            postings.write(data, 0, size);
+            postingsSize += size;
+            termCount++;
+        }
+
+        void finish(long[] ids, long[] groups, int[] lengths) throws IOException {
+            postings.close();
+            long docsOffset = MappedSegment.HEADER_BYTES;
+            long termsOffset = docsOffset + (long) ids.length * MappedSegment.DOC_BYTES;
+            long termBytesOffset = termsOffset + termTable.size();
+            long postingsOffset = termBytesOffset + termBytes.size();
+            if (postingsOffset + postingsSize > Integer.MAX_VALUE) throw new IOException("索引段超过 2GB: " + target);
+
+            try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 64 * 1024));
+                out.writeInt(MappedSegment.MAGIC);
+                out.writeInt(MappedSegment.VERSION);
+                out.writeInt(ids.length);
+                out.writeInt(termCount);
+                out.writeInt((int) docsOffset);
+                out.writeInt((int) termsOffset);
+                out.writeInt((int) termBytesOffset);
+                out.writeInt((int) postingsOffset);
+                out.write(new byte[MappedSegment.HEADER_BYTES - 32]);
+                for (int i = 0; i < ids.length; i++) {
+                    out.writeLong(ids[i]);
+                    out.writeLong(groups[i]);
+                    out.writeInt(lengths[i]);
+                }
+                termTable.writeTo(out);
+                termBytes.writeTo(out);
+                Files.copy(postingsTmp, out);
+                out.flush();
+                fos.getFD().sync();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            postings.close();
+            Files.deleteIfExists(postingsTmp);
+            if (!finished) Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.mobileproject.search;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 全文检索的切词：字母 / 数字 / 汉字组成的连续片段内，每个字符位置产生一个词项——
+ * 与下一个字符组成的二元组，片段最后一个字符单独成词。于是每个字符位置恰好对应一个以它开头的词项，
+ * 单字查询可以按首字符前缀匹配，短语查询按位置校验相邻关系。
+ * 全角 ASCII 折叠为半角、英文转小写，一个字符只折叠为一个字符，位置与原文下标一致。
+ */
+public final class TextAnalyzer {
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * 一段文本的词项及其出现位置（升序）
+     */
+    public static final class Analyzed {
+        final Map<String, PositionList> terms = new HashMap<>();
+        int length;   // 词项总数，BM25 中的文档长度
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    static final class PositionList {
+        int[] positions = new int[2];
+        int size;
+
+        void add(int p) {
+            if (size == positions.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(positions, 0, grown, 0, size);
+                positions = grown;
+            }
+            positions[size++] = p;
+        }
+    }
+
+    public static Analyzed analyze(String text) {
+        Analyzed result = new Analyzed();
+        if (text == null) return result;
+        int n = text.length();
+        char next = n > 0 ? fold(text.charAt(0)) : 0;
+        for (int i = 0; i < n; i++) {
+            char c = next;
+            next = i + 1 < n ? fold(text.charAt(i + 1)) : 0;
+            if (!isTokenChar(c)) continue;
+            String term = i + 1 < n && isTokenChar(next) ? new String(new char[]{c, next}) : String.valueOf(c);
+            result.terms.computeIfAbsent(term, k -> new PositionList()).add(i);
+            result.length++;
+        }
+        return result;
+    }
+
+    static char fold(char c) {
+        if (c >= '！' && c <= '～') {
+            c = (char) (c - 0xFEE0);
+        } else if (c == '　') {
+            c = ' ';
+        }
+        return Character.toLowerCase(c);
+    }
+
+    static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+}
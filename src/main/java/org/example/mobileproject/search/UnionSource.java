@@ -0,0 +1,88 @@
+package org.example.mobileproject.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 多个倒排表的并集（单字查询：所有以该字开头的词项），同一文档的位置合并后排序
+ */
+final class UnionSource implements PostingSource {
+
+    private final PostingsCursor[] cursors;
+    private boolean started;
+    private int ord = -1;
+    private int tf;
+    private int[] positions = new int[8];
+
+    UnionSource(List<PostingsCursor> cursors) {
+        this.cursors = cursors.toArray(new PostingsCursor[0]);
+    }
+
+    @Override
+    public boolean next() {
+        if (!started) {
+            started = true;
+            for (PostingsCursor c : cursors) c.next();
+        } else {
+            for (PostingsCursor c : cursors) {
+                if (c.ord() == ord) c.next();
+            }
+        }
+        return collect();
+    }
+
+    @Override
+    public boolean advance(int target) {
+        if (!started) {
+            started = true;
+            for (PostingsCursor c : cursors) {
+                if (c.next()) c.advance(target);
+            }
+            return collect();
+        }
+        if (ord >= target) return true;
+        for (PostingsCursor c : cursors) {
+            if (c.ord() < target) c.advance(target);
+        }
+        return collect();
+    }
+
+    // 当前序号取各游标的最小值，合并这些游标的位置
+    private boolean collect() {
+        int min = Integer.MAX_VALUE;
+        for (PostingsCursor c : cursors) min = Math.min(min, c.ord());
+        ord = min;
+        if (min == Integer.MAX_VALUE) return false;
+        tf = 0;
+        for (PostingsCursor c : cursors) {
+            if (c.ord() != min) continue;
+            if (positions.length < tf + c.tf()) positions = Arrays.copyOf(positions, Math.max(tf + c.tf(), positions.length * 2));
+            System.arraycopy(c.positions(), 0, positions, tf, c.tf());
+            tf += c.tf();
+        }
+        Arrays.sort(positions, 0, tf);
+        return true;
+    }
+
+    @Override
+    public int ord() {
+        return ord;
+    }
+
+    @Override
+    public int tf() {
+        return tf;
+    }
+
+    @Override
+    public int[] positions() {
+        return positions;
+    }
+
+    @Override
+    public int cost() {
+        int sum = 0;
+        for (PostingsCursor c : cursors) sum += c.cost();
+        return sum;
+    }
+}
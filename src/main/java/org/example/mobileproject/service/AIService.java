@@ -1,5 +1,7 @@
 package org.example.mobileproject.service;
 
+import java.util.Map;
+
 public interface AIService {
     /**
      * 调用大模型自动提取文档中的实体、标签及描述，并持久化到数据库
@@ -7,7 +9,27 @@ public interface AIService {
      */
     void autoExtractAndSave(Long documentId);
 
+    /**
+     * CSV 关联分析。文档内容、实体集合、CSV 数据集、模板版本都未变化时直接返回已持久化的结果
+     */
     String analyzeDocumentWithCsv(Long documentId);
 
     String generateBusinessReport(String rawAnalysis);
+
+    /**
+     * 指定 documentId 且 rawAnalysis 正是该文档当前持久化的分析结论时，按 (原始结论, 报告版本) 指纹持久化并复用结果；
+     * 其他内容只生成、不落库
+     */
+    String generateBusinessReport(Long documentId, String rawAnalysis);
+
+    /**
+     * 服务端流水线：CSV 关联分析流式输出足够内容后即开始生成业务报告，两个产物都落库
+     * @return rawAnalysis / businessReport 及各自的结果 ID、耗时
+     */
+    Map<String, Object> runAnalysisPipeline(Long documentId);
+
+    /**
+     * 最近一次持久化的分析 / 报告，以及它们相对当前输入是否仍然有效
+     */
+    Map<String, Object> getLatestResults(Long documentId);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.entity.AnalysisResult;
+
+public interface AnalysisResultService {
+    /**
+     * 按版本指纹查找已持久化的结果，指纹不一致（任一输入变化）时返回 null
+     */
+    AnalysisResult findFresh(Long documentId, String kind, String fingerprint);
+
+    /**
+     * 最近一次结果（不校验指纹）
+     */
+    AnalysisResult findLatest(Long documentId, String kind);
+
+    /**
+     * 保存新结果，并清理该文档同类型的旧版本
+     */
+    AnalysisResult save(Long documentId, String kind, String fingerprint, String content);
+
+    /**
+     * 各任务类型当前启用模板的版本标识（id:version:updatedAt），没有启用模板时为 "-"
+     */
+    String templateVersion(AiTaskType... taskTypes);
+}
@@ -0,0 +1,27 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.BusinessReport;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface BusinessReportService {
+    /**
+     * 将业务报告拆分为独立章节并发生成，按顺序拼装后做一次轻量一致性检查。
+     * 输入未变化的章节直接复用上次生成结果。个别章节失败时仍返回报告（complete 为 false）。
+     * @param documentId 关联文档，仅用于用量统计，可为空
+     */
+    BusinessReport generate(Long documentId, String rawAnalysis);
+
+    /**
+     * 流水线版本：partialAnalysis 就绪后即开始生成只依赖数据部分的章节，
+     * 其余章节等待 fullAnalysis。方法本身不阻塞；取消返回的 future 会一并取消尚未开始的章节。
+     */
+    CompletableFuture<BusinessReport> generateAsync(Long documentId,
+                                            CompletableFuture<String> partialAnalysis,
+                                            CompletableFuture<String> fullAnalysis);
+
+    /**
+     * 报告结构版本（各章节版本的组合），用于结果指纹
+     */
+    String version();
+}
@@ -0,0 +1,20 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.AggregationQuery;
+import org.example.mobileproject.entity.AggregationResult;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CsvAggregationService {
+    /**
+     * 执行聚合查询，结果按参与数据集的版本缓存
+     */
+    AggregationResult aggregate(AggregationQuery query);
+
+    /**
+     * 指定网格（及月份，为空表示全部月份）的预计算事实：各指标取值、同月排名、环比、渠道构成。
+     * 供 CSV 关联分析 prompt 使用，避免让大模型自己做算术
+     */
+    List<String> facts(Collection<String> grids, Collection<String> months);
+}
@@ -0,0 +1,28 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.dataset.CsvDataset;
+import org.example.mobileproject.dataset.DatasetSnapshot;
+import org.example.mobileproject.entity.CsvIngestResult;
+
+import java.io.InputStream;
+
+public interface CsvDatasetService {
+    /**
+     * 当前数据集快照（内存中的列式数据，不做磁盘 I/O）
+     */
+    DatasetSnapshot snapshot();
+
+    CsvDataset get(String name);
+
+    /**
+     * 重新扫描数据目录，有变化时原子替换快照
+     * @return 是否发生了替换
+     */
+    boolean reload();
+
+    /**
+     * 流式导入一个 CSV：边读边解析进列式存储，成功后原子替换快照，产生新的数据集版本。
+     * 数据集已存在时表头必须一致、列类型严格校验；append 为 true 时追加在原数据之后，否则替换
+     */
+    CsvIngestResult ingest(String name, InputStream in, boolean append);
+}
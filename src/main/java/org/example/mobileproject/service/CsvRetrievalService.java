@@ -0,0 +1,13 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.dataset.RowMatch;
+
+import java.util.List;
+
+public interface CsvRetrievalService {
+    /**
+     * 按文档提及（实体文本，或无实体时的全文）在维度索引上检索相关行，
+     * 每个数据集返回一个结果；都没有命中时给出最近邻或样例行
+     */
+    List<RowMatch> retrieve(List<String> mentions);
+}
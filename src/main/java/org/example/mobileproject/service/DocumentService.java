@@ -1,13 +1,33 @@
 package org.example.mobileproject.service;
 
 import org.example.mobileproject.entity.Document;
+import org.example.mobileproject.entity.DocumentDeleteProgress;
+import org.example.mobileproject.entity.DocumentPage;
 
 import java.util.List;
 
 public interface DocumentService {
     Document getById(Long id);
     List<Document> listAll();
+
+    /**
+     * 文档摘要分页（不含正文），按创建时间倒序
+     * @param title  标题包含该文本，可为空
+     * @param cursor 上一页返回的 nextCursor，首页为空
+     */
+    DocumentPage listSummaries(String title, String cursor, int limit);
     Document create(Document doc);
     Document update(Document doc);
+
+    /**
+     * 级联删除文档及其分词、实体、关系、图谱节点 / 边、布局、变更日志和分析结果，按块提交
+     */
     void delete(Long id);
+
+    /**
+     * 在后台执行级联删除，立即返回进度；同一文档已在删除时返回现有任务的进度
+     */
+    DocumentDeleteProgress deleteAsync(Long id);
+
+    DocumentDeleteProgress getDeleteProgress(Long id);
 }
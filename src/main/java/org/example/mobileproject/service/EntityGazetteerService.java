@@ -0,0 +1,25 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.EntityItem;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EntityGazetteerService {
+    /**
+     * 用已有标注（实体文本 → 标签）构成的词典匹配文档正文，返回建议的实体（未入库）；
+     * 与已有标注重叠的位置跳过，相互冲突时取最长的匹配，同样长取标签出现次数多的
+     */
+    List<EntityItem> suggest(Long documentId);
+
+    /**
+     * suggest 的结果直接入库
+     * @return 新写入的实体
+     */
+    List<EntityItem> preAnnotate(Long documentId);
+
+    /**
+     * 词典概况：词条数、自动机 / 增量词条数
+     */
+    Map<String, Object> stats();
+}
@@ -8,6 +8,12 @@ public interface EntityItemService {
     EntityItem getById(Long id);
     List<EntityItem> listByDocumentId(Long documentId);
     EntityItem create(EntityItem item);
+
+    /**
+     * 批量标注同一文档：与已有标注或彼此重叠的区间跳过，其余一次写入，只发布一次变更事件
+     * @return 实际写入的实体（带 id）
+     */
+    List<EntityItem> createAll(Long documentId, List<EntityItem> items);
     EntityItem update(EntityItem item);
     void delete(Long id);
 }
@@ -0,0 +1,24 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.SearchResult;
+
+import java.util.Map;
+
+public interface FullTextSearchService {
+    /**
+     * 文档正文 / 实体文本的全文检索，BM25 排序
+     * @param q    空白分隔的检索词，全部命中才返回；双引号括起的短语按原样匹配
+     * @param type document 或 entity
+     */
+    SearchResult search(String q, String type, int offset, int limit);
+
+    /**
+     * 索引概况：文档数、段数、尚未落盘的文档数
+     */
+    Map<String, Object> stats();
+
+    /**
+     * 丢弃磁盘上的索引，从数据库全量重建
+     */
+    void rebuild();
+}
@@ -0,0 +1,30 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.KgGlobalNode;
+import org.example.mobileproject.entity.KgGlobalNodeLink;
+
+import java.util.List;
+import java.util.Map;
+
+public interface GlobalGraphService {
+    /**
+     * 全局节点列表，按成员数降序
+     * @param minMembers 只返回至少合并了这么多文档节点的全局节点
+     */
+    List<KgGlobalNode> listNodes(Long labelId, int minMembers, int limit);
+
+    /**
+     * 全局节点详情：节点、成员（溯源到各文档节点）、汇总后的全局边
+     */
+    Map<String, Object> getNode(Long globalNodeId);
+
+    /**
+     * 文档节点所属的全局节点，未归属时为 null
+     */
+    KgGlobalNodeLink linkOf(Long nodeId);
+
+    /**
+     * 按当前 kg_nodes 重新核对某文档的归属（已有数据回填、批量导入后使用），返回处理的节点数
+     */
+    int resyncDocument(Long documentId);
+}
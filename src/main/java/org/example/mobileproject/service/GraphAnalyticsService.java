@@ -0,0 +1,23 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.KgPath;
+
+import java.util.Map;
+
+public interface GraphAnalyticsService {
+    /**
+     * 最短路径：weighted 为 false 时按跳数（BFS），为 true 时按边属性 weight（Dijkstra）
+     */
+    KgPath shortestPath(Long documentId, Long fromNodeId, Long toNodeId, boolean weighted, boolean directed);
+
+    /**
+     * 弱连通分量：分量总数 + 最大的 limit 个分量（含节点 id）
+     */
+    Map<String, Object> components(Long documentId, int limit);
+
+    /**
+     * 中心性排名
+     * @param type degree / pagerank / betweenness
+     */
+    Map<String, Object> centrality(Long documentId, String type, int top);
+}
@@ -0,0 +1,23 @@
+package org.example.mobileproject.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+public interface GraphChangeFeedService {
+    /**
+     * 文档图谱的当前版本，从未变更过时为 0
+     */
+    long currentVersion(Long documentId);
+
+    /**
+     * since 之后的变更（按版本升序，最多 limit 条）；
+     * resetRequired 为 true 时客户端应整图重新加载（日志已清理或期间有批量变更）
+     */
+    Map<String, Object> changes(Long documentId, long since, int limit);
+
+    /**
+     * 订阅变更推送（SSE）：先补发 since 之后的变更，之后每次提交实时推送
+     */
+    SseEmitter subscribe(Long documentId, long since);
+}
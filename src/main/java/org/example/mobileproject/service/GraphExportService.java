@@ -0,0 +1,15 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.graph.GraphExportWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface GraphExportService {
+    /**
+     * 把图谱节点、边逐条写到 out，不在内存中汇总
+     * @param documentIds 为空时导出全部文档
+     */
+    void export(GraphExportWriter.Format format, List<Long> documentIds, OutputStream out) throws IOException;
+}
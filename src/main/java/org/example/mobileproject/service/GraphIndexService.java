@@ -0,0 +1,46 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgSubgraph;
+import org.example.mobileproject.graph.DocumentGraph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface GraphIndexService {
+    /**
+     * 文档图谱的内存邻接索引；未缓存时从 kg_nodes / kg_edges 构建
+     */
+    DocumentGraph graph(Long documentId);
+
+    /**
+     * 节点的 k 跳邻域
+     * @param labelIds  只沿这些关系标签扩展，为空不过滤
+     * @param maxDegree 每个节点最多展开的边数，<=0 不限
+     * @param maxNodes  结果节点数上限，<=0 不限
+     */
+    KgSubgraph neighbourhood(Long documentId, Long nodeId, int hops, DocumentGraph.Direction direction,
+                             Set<Long> labelIds, int maxDegree, int maxNodes);
+
+    /**
+     * 按 properties 查询节点：给出 value 时按值精确匹配，否则按 [min, max] 数值范围匹配
+     */
+    List<KgNode> nodesByProperty(Long documentId, String key, String value, Double min, Double max, int limit);
+
+    /**
+     * 按 properties 查询边，规则同 nodesByProperty
+     */
+    List<KgEdge> edgesByProperty(Long documentId, String key, String value, Double min, Double max, int limit);
+
+    /**
+     * 文档内节点 / 边出现过的属性键及其值类型、出现次数
+     */
+    Map<String, Object> propertySchema(Long documentId);
+
+    /**
+     * 丢弃某文档的索引，下次访问时重建
+     */
+    void evict(Long documentId);
+}
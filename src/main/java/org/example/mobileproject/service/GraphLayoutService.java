@@ -0,0 +1,20 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.KgLayout;
+import org.example.mobileproject.entity.KgNodeLayout;
+
+import java.util.List;
+
+public interface GraphLayoutService {
+    /**
+     * 文档图谱的节点坐标：图谱版本未变时直接复用已保存的坐标，
+     * 变化后以已有坐标为起点增量调整（新节点放在邻居附近），没有任何坐标时从头计算
+     * @param recompute 为 true 时忽略已保存的结果重新计算（仍保留用户固定的位置）
+     */
+    KgLayout layout(Long documentId, boolean recompute);
+
+    /**
+     * 保存用户拖拽后的位置；pinned 为 true 的节点之后重新布局时保持不动
+     */
+    void savePositions(Long documentId, List<KgNodeLayout> positions);
+}
@@ -0,0 +1,30 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgSearchPage;
+
+import java.util.List;
+import java.util.Map;
+
+public interface GraphSearchService {
+    /**
+     * 名称自动补全：只读内存索引，返回的节点不含 properties
+     * @param documentIds 限定文档，为空时跨全部文档
+     */
+    List<KgNode> suggest(String prefix, List<Long> documentIds, List<Long> labelIds, int limit);
+
+    /**
+     * 节点搜索：名称前缀 + 标签 + 属性等值条件，按规范化名称排序，游标分页
+     * @param properties 属性键 → 期望值，全部满足才返回
+     * @param cursor     上一页的 nextCursor，首页为空
+     */
+    KgSearchPage<KgNode> searchNodes(String prefix, List<Long> documentIds, List<Long> labelIds,
+                                     Map<String, String> properties, String cursor, int limit);
+
+    /**
+     * 边搜索：边名称前缀 + 关系标签 + 属性等值条件，规则同 searchNodes
+     */
+    KgSearchPage<KgEdge> searchEdges(String prefix, List<Long> documentIds, List<Long> relationLabelIds,
+                                     Map<String, String> properties, String cursor, int limit);
+}
@@ -1,6 +1,7 @@
 package org.example.mobileproject.service;
 
 import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgMaterializeResult;
 import org.example.mobileproject.entity.KgNode;
 
 import java.util.List;
@@ -21,4 +22,9 @@ public interface KgService {
 
     // ----- Graph ------
     Object loadFullGraph(Long documentId);
+
+    /**
+     * 把文档的实体 / 关系物化为图谱节点 / 边（批量插入，可重复执行）
+     */
+    KgMaterializeResult materialize(Long documentId);
 }
@@ -0,0 +1,23 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.LlmRequest;
+
+public interface LlmClient {
+    /**
+     * 按任务类型路由到合适的模型并发起一次对话补全，首选模型失败时自动降级到备用模型。
+     * 每次尝试都会记录排队 / 建连 / 首 token / 总耗时、token 用量与重试次数。
+     * @return 模型返回的 message.content
+     */
+    String chat(LlmRequest request);
+
+    /**
+     * 流式输出监听：每收到一段内容回调一次 onDelta；
+     * 首选模型中途失败、改用备用模型重新生成前回调 onRestart，监听方应丢弃已收到的内容
+     */
+    interface StreamListener {
+        void onDelta(String delta);
+
+        default void onRestart() {
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.entity.LlmCallLog;
+import org.example.mobileproject.entity.LlmUsageSummary;
+
+import java.util.List;
+
+public interface LlmUsageService {
+    /**
+     * 记录一次调用（独立事务，不受调用方事务回滚影响）
+     */
+    void record(LlmCallLog log);
+
+    List<LlmUsageSummary> summaryByDocument(Long documentId);
+}
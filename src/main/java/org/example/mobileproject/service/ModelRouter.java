@@ -0,0 +1,28 @@
+package org.example.mobileproject.service;
+
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.entity.ModelTarget;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ModelRouter {
+    /**
+     * 按任务类型给出候选模型，按优先级排序（第一个为首选，其余为降级备选）
+     */
+    List<ModelTarget> route(AiTaskType taskType);
+
+    /**
+     * prompt 模板新增、修改、删除或启停后调用，丢弃缓存的模板模型
+     */
+    void invalidateTemplates();
+
+    void recordSuccess(ModelTarget target, long latencyMs);
+
+    void recordFailure(ModelTarget target, long latencyMs);
+
+    /**
+     * 各模型最近窗口内的 p95 延迟、错误率等统计
+     */
+    Map<String, Object> stats();
+}
@@ -0,0 +1,11 @@
+package org.example.mobileproject.service;
+
+import java.util.Map;
+
+public interface RelationExtractionService {
+    /**
+     * 调用大模型为文档中已标注的实体抽取关系并批量入库（已存在的关系不重复插入）
+     * @return 候选实体对数、批次数、失败批次数、抽取 / 新增的关系数及耗时
+     */
+    Map<String, Object> extractAndSave(Long documentId);
+}
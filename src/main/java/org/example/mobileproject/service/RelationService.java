@@ -3,6 +3,7 @@ package org.example.mobileproject.service;
 import org.example.mobileproject.entity.Relation;
 
 import java.util.List;
+import java.util.Map;
 
 public interface RelationService {
     int add(Relation relation);
@@ -10,4 +11,28 @@ public interface RelationService {
     List<Relation> getByDocumentId(Long documentId);
     int update(Relation relation);
     int delete(Long id);
+
+    /**
+     * 批量新增同一文档的关系，跳过 (文档, 标签, 头实体, 尾实体) 已存在或重复的
+     * @return 实际插入的关系（已回填 id）
+     */
+    List<Relation> addAll(Long documentId, List<Relation> relations);
+
+    /**
+     * 实体参与的关系
+     * @param direction out（实体为头）/ in（实体为尾）/ both
+     * @param labelId   只返回该关系标签，为空不过滤
+     */
+    List<Relation> getByEntity(Long entityId, String direction, Long labelId);
+
+    /**
+     * 两个实体之间的关系
+     * @param directed 为 true 时只返回 a → b
+     */
+    List<Relation> getBetween(Long entityA, Long entityB, boolean directed);
+
+    /**
+     * 按关系标签计数（标签 id → 数量，无标签计在 0 下）；entityId 为空时统计整个文档
+     */
+    Map<Long, Integer> countByLabel(Long documentId, Long entityId);
 }
@@ -0,0 +1,30 @@
+package org.example.mobileproject.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface ResponseCacheService {
+
+    /**
+     * 可缓存的按文档资源
+     */
+    enum Resource {
+        GRAPH,
+        TOKENS,
+        ENTITIES
+    }
+
+    /**
+     * 返回资源的 JSON：命中缓存时直接写出已序列化（并压缩）的字节，不访问数据库；
+     * If-None-Match 与当前 ETag 一致时返回 304
+     * @param loader 未命中时加载资源对象
+     */
+    ResponseEntity<byte[]> serve(Resource resource, Long documentId, String ifNoneMatch, String acceptEncoding,
+                                 Supplier<Object> loader);
+
+    /**
+     * 写入后使资源失效
+     */
+    void invalidate(Resource resource, Long documentId);
+}
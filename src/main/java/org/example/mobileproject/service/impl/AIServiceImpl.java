@@ -3,20 +3,23 @@ package org.example.mobileproject.service.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.dataset.AggregationEngine;
+import org.example.mobileproject.dataset.CsvColumn;
+import org.example.mobileproject.dataset.CsvDataset;
+import org.example.mobileproject.dataset.RowMatch;
 import org.example.mobileproject.entity.*;
 import org.example.mobileproject.mapper.DocumentTokenMapper;
 import org.example.mobileproject.service.*;
-import org.springframework.http.*;
+import org.example.mobileproject.util.HashUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.InputStreamReader;
-import java.io.FileInputStream;
-import java.nio.charset.StandardCharsets;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
@@ -28,9 +31,18 @@ public class AIServiceImpl implements AIService {
     private final EntityItemService entityItemService;
     private final DocumentTokenMapper tokenMapper;
     private final ObjectMapper objectMapper;
+    private final LlmClient llmClient;
+    private final BusinessReportService businessReportService;
+    private final AnalysisResultService analysisResultService;
+    private final CsvDatasetService csvDatasetService;
+    private final CsvRetrievalService csvRetrievalService;
+    private final CsvAggregationService csvAggregationService;
 
-    private final String API_KEY = "sk-9fec8ac0a66e48ecbb8d714bbfaea319";
-    private final String BASE_URL = "https://api.deepseek.com/v1/chat/completions";
+    // CSV 分析 prompt 结构版本，修改 buildCsvAnalysisPrompt 时递增，使已持久化的结果失效
+    private static final int CSV_ANALYSIS_PROMPT_VERSION = 4;
+
+    @Value("${ai.pipeline.early-start-chars:1500}")
+    private int pipelineEarlyStartChars;
 
     @Override
     @Transactional
@@ -45,7 +57,7 @@ public class AIServiceImpl implements AIService {
         }
 
         // 2. 调用大模型获取结构化 JSON
-        AIEntityExtractionResponse aiResponse = callDeepSeek(doc.getContent());
+        AIEntityExtractionResponse aiResponse = callDeepSeek(documentId, doc.getContent());
         if (aiResponse == null || aiResponse.getEntities() == null) {
             log.error("AI 提取结果为空");
             return;
@@ -93,36 +105,18 @@ public class AIServiceImpl implements AIService {
     }
 
     /**
-     * 调用 DeepSeek API
+     * 调用大模型抽取实体（按 extraction 任务路由模型）
      */
-    private AIEntityExtractionResponse callDeepSeek(String content) {
-        RestTemplate restTemplate = new RestTemplate();
-
-        // 严格构造消息体，解决 400 Bad Request 问题
-        Map<String, String> userMessage = new HashMap<>();
-        userMessage.put("role", "user");
-        userMessage.put("content", "你是一个命名实体识别助手。请从文本中提取实体。要求：\n" +
+    private AIEntityExtractionResponse callDeepSeek(Long documentId, String content) {
+        String prompt = "你是一个命名实体识别助手。请从文本中提取实体。要求：\n" +
                 "1. 严格返回 JSON 格式。\n" +
                 "2. 结构：{\"entities\": [{\"text\": \"...\", \"label\": \"...\", \"description\": \"...\"}]}\n" +
-                "3. 待处理文本：\n" + content);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "deepseek-chat");
-        requestBody.put("messages", Collections.singletonList(userMessage));
-        requestBody.put("response_format", Collections.singletonMap("type", "json_object"));
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(API_KEY);
+                "3. 待处理文本：\n" + content;
 
         try {
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(BASE_URL, entity, String.class);
-
-            Map<String, Object> respMap = objectMapper.readValue(response.getBody(), Map.class);
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) respMap.get("choices");
-            String jsonContent = (String) ((Map<String, Object>) choices.get(0).get("message")).get("content");
-
+            LlmRequest request = LlmRequest.of(AiTaskType.EXTRACTION, documentId, prompt);
+            request.setJsonMode(true);
+            String jsonContent = llmClient.chat(request);
             log.debug("AI Response JSON: {}", jsonContent);
             return objectMapper.readValue(jsonContent, AIEntityExtractionResponse.class);
         } catch (Exception e) {
@@ -178,10 +172,235 @@ public class AIServiceImpl implements AIService {
         Document doc = documentService.getById(documentId);
         if (doc == null) return "未找到文档信息";
 
-        // 2. 获取该文档已有的实体列表 (注意这里使用你接口定义的 listByDocumentId)
-        List<EntityItem> entities = entityItemService.listByDocumentId(documentId);
+        // 2. 输入（文档内容 / 实体 / CSV 数据集 / 模板）均未变化时直接返回已持久化的结果
+        AnalysisInput input = prepareAnalysis(doc);
+        AnalysisResult cached = analysisResultService.findFresh(documentId, AnalysisResult.KIND_CSV_ANALYSIS, input.fingerprint);
+        if (cached != null) {
+            log.info("文档 {} 分析输入未变化，返回已有结果 {}", documentId, cached.getId());
+            return cached.getContent();
+        }
+
+        // 3. 调用大模型（csv_analysis 路由），成功的结果按指纹落库
+        try {
+            String content = llmClient.chat(LlmRequest.of(AiTaskType.CSV_ANALYSIS, documentId, input.prompt()));
+            analysisResultService.save(documentId, AnalysisResult.KIND_CSV_ANALYSIS, input.fingerprint, content);
+            return content;
+        } catch (Exception e) {
+            log.error("AI 总结失败: ", e);
+            return "AI 分析过程中出现错误：" + e.getMessage();
+        }
+    }
+
+    @Override
+    public Map<String, Object> runAnalysisPipeline(Long documentId) {
+        Document doc = documentService.getById(documentId);
+        if (doc == null) {
+            throw new BizException("文档不存在: " + documentId);
+        }
+        long start = System.currentTimeMillis();
+        AnalysisInput input = prepareAnalysis(doc);
+
+        // 0. 两阶段结果都未过期时直接返回
+        AnalysisResult analysisResult = analysisResultService.findFresh(
+                documentId, AnalysisResult.KIND_CSV_ANALYSIS, input.fingerprint);
+        if (analysisResult != null) {
+            String reportFingerprint = reportFingerprint(analysisResult.getContent());
+            AnalysisResult reportResult = analysisResultService.findFresh(
+                    documentId, AnalysisResult.KIND_BUSINESS_REPORT, reportFingerprint);
+            if (reportResult == null) {
+                BusinessReport report = businessReportService.generate(documentId, analysisResult.getContent());
+                reportResult = saveReport(documentId, reportFingerprint, report);
+            }
+            return pipelineResult(analysisResult, reportResult, 0, start);
+        }
+
+        // 1. 先挂好报告阶段：partial 就绪即开始生成只依赖数据部分的章节，其余章节等 full
+        AtomicReference<ReportRun> run = new AtomicReference<>(new ReportRun(documentId));
+
+        // 2. 流式执行 CSV 关联分析，输出足够多时提前放行报告阶段
+        StringBuilder streamed = new StringBuilder();
+        LlmRequest request = LlmRequest.of(AiTaskType.CSV_ANALYSIS, documentId, input.prompt());
+        request.setStreamListener(new LlmClient.StreamListener() {
+            @Override
+            public void onDelta(String delta) {
+                streamed.append(delta);
+                CompletableFuture<String> partial = run.get().partial;
+                if (!partial.isDone() && earlyStartReady(streamed)) {
+                    log.info("文档 {} 分析已输出 {} 字，提前开始生成报告", documentId, streamed.length());
+                    partial.complete(streamed.toString());
+                }
+            }
+
+            @Override
+            public void onRestart() {
+                streamed.setLength(0);
+                // 已放行的前缀来自失败的模型，基于它的早期章节作废，报告阶段重新挂一次
+                if (run.get().partial.isDone()) {
+                    log.info("文档 {} 分析改用备用模型重新生成，取消已提前开始的报告章节", documentId);
+                    run.getAndSet(new ReportRun(documentId)).cancel();
+                }
+            }
+        });
+
+        String analysis;
+        try {
+            analysis = llmClient.chat(request);
+        } catch (Exception e) {
+            run.get().cancel();
+            throw new BizException("CSV 关联分析失败: " + e.getMessage());
+        }
+        ReportRun reportRun = run.get();
+        reportRun.partial.complete(analysis); // 输出过短未触发提前放行时，用完整结果
+        reportRun.full.complete(analysis);
+        long analysisMs = System.currentTimeMillis() - start;
+
+        BusinessReport report = reportRun.report.join();
+
+        // 3. 两个产物都按指纹落库（报告不完整时除外）
+        analysisResult = analysisResultService.save(
+                documentId, AnalysisResult.KIND_CSV_ANALYSIS, input.fingerprint, analysis);
+        AnalysisResult reportResult = saveReport(documentId, reportFingerprint(analysis), report);
+        return pipelineResult(analysisResult, reportResult, analysisMs, start);
+    }
+
+    @Override
+    public Map<String, Object> getLatestResults(Long documentId) {
+        Document doc = documentService.getById(documentId);
+        if (doc == null) {
+            throw new BizException("文档不存在: " + documentId);
+        }
+        AnalysisResult analysis = analysisResultService.findLatest(documentId, AnalysisResult.KIND_CSV_ANALYSIS);
+        AnalysisResult report = analysisResultService.findLatest(documentId, AnalysisResult.KIND_BUSINESS_REPORT);
+
+        boolean analysisFresh = analysis != null
+                && Objects.equals(analysis.getFingerprint(), prepareAnalysis(doc).fingerprint);
+        boolean reportFresh = analysisFresh && report != null
+                && Objects.equals(report.getFingerprint(), reportFingerprint(analysis.getContent()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentId", documentId);
+        result.put("rawAnalysis", analysis != null ? analysis.getContent() : null);
+        result.put("analysisFresh", analysisFresh);
+        result.put("businessReport", report != null ? report.getContent() : null);
+        result.put("reportFresh", reportFresh);
+        return result;
+    }
+
+    private Map<String, Object> pipelineResult(AnalysisResult analysis, AnalysisResult report,
+                                               long analysisMs, long start) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentId", analysis.getDocumentId());
+        result.put("analysisId", analysis.getId());
+        result.put("reportId", report.getId());
+        result.put("rawAnalysis", analysis.getContent());
+        result.put("businessReport", report.getContent());
+        result.put("analysisMs", analysisMs);
+        result.put("totalMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 流水线中挂起的一次报告生成：partial / full 由分析阶段完成
+     */
+    private class ReportRun {
+        final CompletableFuture<String> partial = new CompletableFuture<>();
+        final CompletableFuture<String> full = new CompletableFuture<>();
+        final CompletableFuture<BusinessReport> report;
+
+        ReportRun(Long documentId) {
+            this.report = businessReportService.generateAsync(documentId, partial, full);
+        }
+
+        void cancel() {
+            report.cancel(false);
+            partial.cancel(false);
+            full.cancel(false);
+        }
+    }
+
+    /**
+     * 分析结论的数据部分（要求中的第 1、2 点）已输出，或输出已足够长时，可以提前开始报告
+     */
+    private boolean earlyStartReady(StringBuilder streamed) {
+        if (streamed.length() >= pipelineEarlyStartChars) return true;
+        if (streamed.length() < 200) return false;
+        return BusinessReportServiceImpl.dataPartEnd(streamed.toString()) >= 0;
+    }
+
+    /**
+     * CSV 关联分析的输入：版本指纹立即可得，prompt 只在需要调用大模型时才构造
+     */
+    private class AnalysisInput {
+        final Document doc;
+        final List<EntityItem> entities;
+        final Map<Long, EntityLabel> labels;
+        final String fingerprint;
+
+        AnalysisInput(Document doc, List<EntityItem> entities, Map<Long, EntityLabel> labels, String fingerprint) {
+            this.doc = doc;
+            this.entities = entities;
+            this.labels = labels;
+            this.fingerprint = fingerprint;
+        }
+
+        String prompt() {
+            return buildCsvAnalysisPrompt(doc, entities, labels);
+        }
+    }
+
+    private AnalysisInput prepareAnalysis(Document doc) {
+        List<EntityItem> entities = entityItemService.listByDocumentId(doc.getId());
+        Map<Long, EntityLabel> labels = new HashMap<>();
+        for (EntityLabel l : labelService.listAll()) {
+            labels.put(l.getId(), l);
+        }
+
+        // 实体集合版本：实体的标签、文本、位置任一变化都会改变
+        StringBuilder entitySet = new StringBuilder();
+        for (EntityItem item : entities) {
+            EntityLabel label = labels.get(item.getLabelId());
+            entitySet.append(item.getId()).append('|')
+                    .append(label != null ? label.getLabelName() : "").append('|')
+                    .append(item.getText()).append('|')
+                    .append(item.getTokenStart()).append('-').append(item.getTokenEnd()).append('\n');
+        }
+
+        String fingerprint = HashUtil.sha256Hex(
+                AnalysisResult.KIND_CSV_ANALYSIS + ":v" + CSV_ANALYSIS_PROMPT_VERSION,
+                HashUtil.sha256Hex(doc.getContent()),
+                HashUtil.sha256Hex(entitySet.toString()),
+                csvDatasetVersion(),
+                analysisResultService.templateVersion(AiTaskType.CSV_ANALYSIS));
+        return new AnalysisInput(doc, entities, labels, fingerprint);
+    }
 
-        // 3. 构造实体上下文，方便 AI 理解我们要查什么
+    /**
+     * 完整的报告按指纹落库；有章节失败的报告只返回、不落库，否则一次临时错误会一直被当作有效结果复用
+     */
+    private AnalysisResult saveReport(Long documentId, String fingerprint, BusinessReport report) {
+        if (report.isComplete()) {
+            return analysisResultService.save(documentId, AnalysisResult.KIND_BUSINESS_REPORT, fingerprint, report.getContent());
+        }
+        log.warn("文档 {} 业务报告部分内容生成失败，本次结果不落库", documentId);
+        AnalysisResult unsaved = new AnalysisResult();
+        unsaved.setDocumentId(documentId);
+        unsaved.setKind(AnalysisResult.KIND_BUSINESS_REPORT);
+        unsaved.setContent(report.getContent());
+        return unsaved;
+    }
+
+    private String reportFingerprint(String rawAnalysis) {
+        return HashUtil.sha256Hex(
+                AnalysisResult.KIND_BUSINESS_REPORT + ":" + businessReportService.version(),
+                HashUtil.sha256Hex(rawAnalysis),
+                analysisResultService.templateVersion(AiTaskType.BUSINESS_REPORT, AiTaskType.REPORT_REVIEW));
+    }
+
+    /**
+     * 构造 CSV 关联分析 prompt：文档实体 + CSV 数据 + 分析要求
+     */
+    private String buildCsvAnalysisPrompt(Document doc, List<EntityItem> entities, Map<Long, EntityLabel> labels) {
+        // 1. 构造实体上下文，方便 AI 理解我们要查什么
         StringBuilder entityContext = new StringBuilder();
         if (entities.isEmpty()) {
             entityContext.append("（文档暂未提取具体实体，请根据全文内容匹配相关数据）\n原文内容：")
@@ -189,16 +408,37 @@ public class AIServiceImpl implements AIService {
         } else {
             for (EntityItem item : entities) {
                 // 获取标签名称
-                EntityLabel label = labelService.getById(item.getLabelId());
+                EntityLabel label = labels.get(item.getLabelId());
                 entityContext.append(String.format("- 实体文本: [%s], 标签类型: [%s]\n",
                         item.getText(), label != null ? label.getLabelName() : "未知"));
             }
         }
 
-        // 4. 读取本地 CSV 数据
-        String csvData = loadAllCsvData();
+        // 2. 按实体检索相关的 CSV 行（无实体时用全文匹配）
+        List<String> mentions = new ArrayList<>();
+        for (EntityItem item : entities) {
+            mentions.add(item.getText());
+        }
+        if (mentions.isEmpty()) {
+            mentions.add(doc.getContent());
+        }
+        List<RowMatch> matches = csvRetrievalService.retrieve(mentions);
+
+        // 3. 命中的网格/月份交给本地聚合引擎算好指标、排名和环比；算不出时才退回原始行
+        List<String> facts = csvAggregationService.facts(
+                matchedValues(matches, AggregationEngine.GRID), matchedValues(matches, AggregationEngine.MONTH));
+        String csvData;
+        if (facts.isEmpty()) {
+            csvData = "【CSV 相关数据行】（已按实体从全量数据中检索，括号内为匹配方式）：\n"
+                    + renderRelevantRows(matches, true);
+        } else {
+            csvData = "【CSV 检索结果】（括号内为匹配方式）：\n" + renderRelevantRows(matches, false)
+                    + "\n【预计算指标】（系统基于全量数据精确计算，数值、排名、环比请直接引用，不要自行重算；"
+                    + "sum(列) 为该网格当月合计，avg(列) 为平均值）：\n"
+                    + String.join("\n", facts) + "\n";
+        }
 
-        // 5. 编写针对性 Prompt
+        // 4. 编写针对性 Prompt
         String prompt = "你是一个专业的数据关联分析专家。任务是结合【文档实体】与【CSV业务数据】进行交叉比对分析。\n\n" +
                 "【CSV 数据表头含义说明】：\n" +
                 "- grid: 网格名称\n" +
@@ -208,92 +448,85 @@ public class AIServiceImpl implements AIService {
                 "- income_completion_rate: 收入完成率（实际/目标）\n" +
                 "- score_6plus4: 综合评分（关键业务指标）\n\n" +
                 "【当前文档关联实体】：\n" + entityContext.toString() + "\n\n" +
-                "【CSV 原始数据库存】：\n" + csvData + "\n\n" +
+                csvData + "\n" +
                 "【分析要求】：\n" +
                 "1. 首先明确指出你在哪些 CSV 文件中找到了与实体匹配的数据行。\n" +
-                "2. 详细列出关键数据：例如匹配到的网格在特定月份的完成率、得分情况。\n" +
+                "2. 详细列出关键数据：例如匹配到的网格在特定月份的完成率、得分情况，有【预计算指标】时以其为准。\n" +
                 "3. 给出业务总结：比如该网格表现是否达标，完成率在数据集中处于什么水平。\n" +
-                "4. 如果文档实体中提到的月份/网格在 CSV 中不存在，请礼貌提示并尝试寻找最接近的数据。\n\n" +
+                "4. 如果某个文件标注为“无匹配”，说明文档提到的月份/网格在 CSV 中不存在，请礼貌提示，并基于给出的最接近数据分析。\n\n" +
                 "请以清晰的结构化文本返回分析报告。";
+        return prompt;
+    }
 
-        // 6. 调用 DeepSeek (请确保你已实现这个通用的 callDeepSeek 方法)
-        return callDeepSeekGeneric(prompt);
+    // CSV 数据集版本：由各数据集内容哈希决定
+    private String csvDatasetVersion() {
+        return csvDatasetService.snapshot().getVersion();
     }
 
-    // 加载csv数据
-    private String loadAllCsvData() {
-        StringBuilder sb = new StringBuilder();
-        String csvFolderPath = "D:\\IDEA Projects\\Mobile-Project-main\\src\\main\\resources\\csvdata";
-        File folder = new File(csvFolderPath);
-
-        if (folder.exists() && folder.isDirectory()) {
-            File[] files = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(".csv"));
-            if (files != null) {
-                for (File file : files) {
-                    sb.append("--- 文件名: ").append(file.getName()).append(" ---\n");
-                    try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                            new FileInputStream(file), StandardCharsets.UTF_8))) {
-                        String line;
-                        int limit = 0;
-                        while ((line = br.readLine()) != null && limit < 100) { // 每个文件读取前100行防止溢出
-                            sb.append(line).append("\n");
-                            limit++;
-                        }
-                    } catch (Exception e) {
-                        log.error("读取CSV失败: " + file.getName(), e);
-                    }
-                    sb.append("\n");
-                }
+    // 检索命中行中某一列的不同取值；样例行不算命中
+    private List<String> matchedValues(List<RowMatch> matches, String column) {
+        Set<String> values = new LinkedHashSet<>();
+        for (RowMatch match : matches) {
+            CsvColumn c = match.getDataset().column(column);
+            if (c == null || match.getType() == RowMatch.Type.SAMPLE) continue;
+            for (int row : match.getRows()) {
+                values.add(c.stringValue(row));
             }
         }
-        return sb.toString();
+        return new ArrayList<>(values);
     }
 
-    // 调用deepseek分析csv数据
-    private String callDeepSeekGeneric(String prompt) {
-        RestTemplate restTemplate = new RestTemplate();
-        Map<String, String> message = new HashMap<>();
-        message.put("role", "user");
-        message.put("content", prompt);
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("model", "deepseek-chat");
-        body.put("messages", Collections.singletonList(message));
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(API_KEY);
-
-        try {
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            // 使用 ResponseEntity<String> 接收原始字符串，再手动解析或让 RestTemplate 解析
-            ResponseEntity<Map> response = restTemplate.postForEntity(BASE_URL, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) response.getBody().get("choices");
-                if (choices != null && !choices.isEmpty()) {
-                    Map<String, Object> messageResult = (Map<String, Object>) choices.get(0).get("message");
-                    return (String) messageResult.get("content");
-                }
+    // 渲染检索结果：注明匹配方式与截断情况，withRows 为 false 时只给概要
+    private String renderRelevantRows(List<RowMatch> matches, boolean withRows) {
+        StringBuilder sb = new StringBuilder();
+        for (RowMatch match : matches) {
+            CsvDataset ds = match.getDataset();
+            sb.append("--- 文件名: ").append(ds.getName()).append(".csv（")
+                    .append(match.getType().getDesc())
+                    .append("，命中 ").append(match.getMatchedCount()).append(" 行");
+            if (match.getRows().length < match.getMatchedCount()) {
+                sb.append("，仅展示前 ").append(match.getRows().length).append(" 行");
             }
-            return "AI 未能生成有效的分析报告，请检查 API 状态。";
-        } catch (Exception e) {
-            log.error("AI 总结失败: ", e);
-            return "AI 分析过程中出现错误：" + e.getMessage();
+            if (!match.getMatchedValues().isEmpty()) {
+                sb.append("，匹配取值: ").append(String.join("、", match.getMatchedValues()));
+            }
+            sb.append("）---\n");
+            if (!withRows) continue;
+            sb.append(ds.header()).append("\n");
+            for (int row : match.getRows()) {
+                ds.appendRow(sb, row);
+            }
+            sb.append("\n");
         }
+        return sb.toString();
     }
 
     @Override
     public String generateBusinessReport(String rawAnalysis) {
-        String prompt = "你是一位资深的业务管理专家。请根据以下【原始数据分析结论】，撰写一份深度的【业务年度/月度评估与行动指南】。\n\n" +
-                "【原始结论】：\n" + rawAnalysis + "\n\n" +
-                "【撰写要求】：\n" +
-                "1. **逻辑推理**：不要只重复数字，要分析数字背后的原因（如：为何某网格进步快？是否是动作到位？）。\n" +
-                "2. **管理洞察**：识别出潜在的风险点和机会点。\n" +
-                "3. **指导信息**：针对未来工作，给出具体的、可操作的行动建议（分短期、中期）。\n" +
-                "4. **文风**：专业、严谨、具有前瞻性。\n\n" +
-                "请以正式报告的格式返回。";
-
-        return callDeepSeekGeneric(prompt); // 复用之前的通用调用方法
+        return generateBusinessReport(null, rawAnalysis);
+    }
+
+    @Override
+    public String generateBusinessReport(Long documentId, String rawAnalysis) {
+        if (documentId == null || !isPersistedAnalysis(documentId, rawAnalysis)) {
+            // 分节并发生成，见 BusinessReportServiceImpl；客户端提交的结论不是该文档当前的分析结果时只生成、不落库，
+            // 否则任意内容都能替换流水线按指纹保存的报告
+            return businessReportService.generate(documentId, rawAnalysis).getContent();
+        }
+        String fingerprint = reportFingerprint(rawAnalysis);
+        AnalysisResult cached = analysisResultService.findFresh(documentId, AnalysisResult.KIND_BUSINESS_REPORT, fingerprint);
+        if (cached != null) {
+            return cached.getContent();
+        }
+        return saveReport(documentId, fingerprint, businessReportService.generate(documentId, rawAnalysis)).getContent();
+    }
+
+    // rawAnalysis 是否正是该文档当前（指纹未过期）持久化的分析结论
+    private boolean isPersistedAnalysis(Long documentId, String rawAnalysis) {
+        Document doc = documentService.getById(documentId);
+        if (doc == null) return false;
+        AnalysisResult analysis = analysisResultService.findFresh(
+                documentId, AnalysisResult.KIND_CSV_ANALYSIS, prepareAnalysis(doc).fingerprint);
+        return analysis != null && analysis.getContent().equals(rawAnalysis);
     }
-}
\ No newline at end of file
+}
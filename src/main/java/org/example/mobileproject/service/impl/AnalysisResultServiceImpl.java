@@ -0,0 +1,67 @@
+package org.example.mobileproject.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.entity.AnalysisResult;
+import org.example.mobileproject.entity.PromptTemplate;
+import org.example.mobileproject.mapper.AnalysisResultMapper;
+import org.example.mobileproject.mapper.PromptTemplateMapper;
+import org.example.mobileproject.service.AnalysisResultService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class AnalysisResultServiceImpl implements AnalysisResultService {
+
+    private final AnalysisResultMapper resultMapper;
+    private final PromptTemplateMapper promptTemplateMapper;
+
+    @Override
+    public AnalysisResult findFresh(Long documentId, String kind, String fingerprint) {
+        if (documentId == null || fingerprint == null) return null;
+        return resultMapper.selectByFingerprint(documentId, kind, fingerprint);
+    }
+
+    @Override
+    public AnalysisResult findLatest(Long documentId, String kind) {
+        return resultMapper.selectLatest(documentId, kind);
+    }
+
+    @Override
+    @Transactional
+    public AnalysisResult save(Long documentId, String kind, String fingerprint, String content) {
+        AnalysisResult r = new AnalysisResult();
+        r.setDocumentId(documentId);
+        r.setKind(kind);
+        r.setFingerprint(fingerprint);
+        r.setContent(content);
+        resultMapper.insert(r);
+        // 旧指纹的结果已失效，只保留最新一份
+        resultMapper.deleteOlder(documentId, kind, r.getId());
+        return r;
+    }
+
+    @Override
+    public String templateVersion(AiTaskType... taskTypes) {
+        StringBuilder sb = new StringBuilder();
+        for (AiTaskType taskType : taskTypes) {
+            sb.append(taskType.getCode()).append('=');
+            PromptTemplate active = null;
+            for (PromptTemplate t : promptTemplateMapper.selectByTaskType(taskType.getCode())) {
+                if (t.getIsActive() != null && t.getIsActive() == 1) {
+                    active = t;
+                    break;
+                }
+            }
+            if (active == null) {
+                sb.append('-');
+            } else {
+                sb.append(active.getId()).append(':').append(active.getVersion())
+                        .append(':').append(active.getUpdatedAt());
+            }
+            sb.append(';');
+        }
+        return sb.toString();
+    }
+}
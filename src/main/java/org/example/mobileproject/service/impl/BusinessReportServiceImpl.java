@@ -0,0 +1,187 @@
+package org.example.mobileproject.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.entity.BusinessReport;
+import org.example.mobileproject.entity.LlmRequest;
+import org.example.mobileproject.service.BusinessReportService;
+import org.example.mobileproject.service.LlmClient;
+import org.example.mobileproject.util.HashUtil;
+import org.example.mobileproject.util.LruCache;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class BusinessReportServiceImpl implements BusinessReportService {
+
+    /**
+     * 报告章节，顺序即拼装顺序。修改某节 instruction 时请同步修改 version，使缓存失效。
+     * early = true 的章节只依赖分析结论中的数据部分，流水线模式下可提前开始
+     */
+    enum Section {
+        REASONING("一、逻辑推理", 2, true,
+                "不要只重复数字，要分析数字背后的原因（如：为何某网格进步快？是否是动作到位？）。"),
+        INSIGHTS("二、管理洞察", 2, true,
+                "识别出潜在的风险点和机会点，并说明判断依据。"),
+        SHORT_TERM("三、短期行动建议（1-3 个月）", 1, false,
+                "针对未来 1-3 个月给出具体的、可操作的行动建议，写明责任对象与衡量指标。"),
+        MID_TERM("四、中期行动建议（3-12 个月）", 1, false,
+                "针对未来 3-12 个月给出具体的、可操作的行动建议，侧重机制建设与资源投入。");
+
+        final String title;
+        final int version;
+        final boolean early;
+        final String instruction;
+
+        Section(String title, int version, boolean early, String instruction) {
+            this.title = title;
+            this.version = version;
+            this.early = early;
+            this.instruction = instruction;
+        }
+    }
+
+    // 分析结论中业务总结（要求中的第 3 点）的开头，之前的内容为数据部分
+    private static final String[] SUMMARY_MARKERS = {"\n3.", "业务总结"};
+
+    private final LlmClient llmClient;
+    private final ThreadPoolTaskExecutor executor;
+
+    // 章节结果缓存：key = hash(章节 + 章节版本 + 章节用到的结论部分)
+    private final LruCache<String, String> sectionCache;
+
+    public BusinessReportServiceImpl(LlmClient llmClient,
+                                     @Qualifier("aiTaskExecutor") ThreadPoolTaskExecutor executor,
+                                     @Value("${ai.report.section-cache-size:256}") int cacheSize) {
+        this.llmClient = llmClient;
+        this.executor = executor;
+        this.sectionCache = new LruCache<>(cacheSize);
+    }
+
+    @Override
+    public BusinessReport generate(Long documentId, String rawAnalysis) {
+        CompletableFuture<String> analysis = CompletableFuture.completedFuture(rawAnalysis);
+        return generateAsync(documentId, analysis, analysis).join();
+    }
+
+    @Override
+    public CompletableFuture<BusinessReport> generateAsync(Long documentId,
+                                                   CompletableFuture<String> partialAnalysis,
+                                                   CompletableFuture<String> fullAnalysis) {
+        long start = System.currentTimeMillis();
+
+        // 1. 各章节并发生成（并发度受 aiTaskExecutor 线程数限制），未变化的章节直接复用
+        Map<Section, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        AtomicBoolean complete = new AtomicBoolean(true);
+        List<CompletableFuture<String>> generating = new ArrayList<>();
+        for (Section section : Section.values()) {
+            CompletableFuture<String> input = section.early ? partialAnalysis : fullAnalysis;
+            CompletableFuture<String> text = input
+                    .thenApplyAsync(analysis -> sectionText(documentId, section, analysis), executor);
+            generating.add(text);
+            futures.put(section, text
+                    .exceptionally(e -> {
+                        log.warn("报告章节 [{}] 生成失败: {}", section.title, e.getMessage());
+                        complete.set(false);
+                        return "（本节生成失败，请稍后重试）";
+                    }));
+        }
+
+        // 2. 全部完成后按顺序拼装，3. 轻量一致性检查：只输出摘要与冲突提示，不重写全文
+        CompletableFuture<BusinessReport> report = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .thenApplyAsync(v -> {
+                    StringBuilder body = new StringBuilder();
+                    for (Map.Entry<Section, CompletableFuture<String>> entry : futures.entrySet()) {
+                        body.append("## ").append(entry.getKey().title).append("\n\n")
+                                .append(entry.getValue().join().trim()).append("\n\n");
+                    }
+                    String review = review(documentId, body.toString());
+                    if (review == null) {
+                        complete.set(false);
+                        review = "（摘要生成失败）";
+                    }
+
+                    log.info("业务报告生成完成，耗时 {} ms{}", System.currentTimeMillis() - start,
+                            complete.get() ? "" : "（部分内容生成失败）");
+                    return new BusinessReport("# 业务评估与行动指南\n\n" +
+                            "## 报告摘要\n\n" + review.trim() + "\n\n" +
+                            body.toString().trim(), complete.get());
+                }, executor);
+
+        // 调用方取消报告时，排队中的章节不再调用大模型
+        report.whenComplete((r, e) -> {
+            if (report.isCancelled()) generating.forEach(f -> f.cancel(false));
+        });
+        return report;
+    }
+
+    @Override
+    public String version() {
+        StringBuilder sb = new StringBuilder();
+        for (Section section : Section.values()) {
+            sb.append(section.name()).append(':').append(section.version).append(';');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 数据部分的结束位置（业务总结的开头），尚未输出到业务总结时返回 -1
+     */
+    static int dataPartEnd(String analysis) {
+        int end = -1;
+        for (String marker : SUMMARY_MARKERS) {
+            int i = analysis.indexOf(marker);
+            if (i >= 0 && (end < 0 || i < end)) end = i;
+        }
+        return end;
+    }
+
+    // 早期章节只用数据部分：流水线提前放行的前缀与完整结论得到相同的输入，也就命中同一条缓存
+    private String sectionText(Long documentId, Section section, String rawAnalysis) {
+        int end = section.early ? dataPartEnd(rawAnalysis) : -1;
+        String input = end >= 0 ? rawAnalysis.substring(0, end).trim() : rawAnalysis;
+        String cacheKey = HashUtil.sha256Hex(section.name(), String.valueOf(section.version), input);
+        return sectionCache.computeIfAbsent(cacheKey, k -> generateSection(documentId, section, input));
+    }
+
+    private String generateSection(Long documentId, Section section, String rawAnalysis) {
+        String prompt = "你是一位资深的业务管理专家，正在撰写一份【业务年度/月度评估与行动指南】中的一个章节。\n\n" +
+                "【原始数据分析结论】：\n" + rawAnalysis + "\n\n" +
+                "【本节】：" + section.title + "\n" +
+                "【撰写要求】：\n" +
+                "1. " + section.instruction + "\n" +
+                "2. 只撰写本节正文，不要输出章节标题，也不要撰写其他章节的内容。\n" +
+                "3. 文风专业、严谨、具有前瞻性。";
+        return llmClient.chat(LlmRequest.of(AiTaskType.BUSINESS_REPORT, documentId, prompt));
+    }
+
+    // 失败时返回 null
+    private String review(Long documentId, String assembled) {
+        String cacheKey = HashUtil.sha256Hex("REVIEW", assembled);
+        String cached = sectionCache.get(cacheKey);
+        if (cached != null) return cached;
+
+        String prompt = "以下是一份分章节并行撰写的业务评估报告。请完成两件事：\n" +
+                "1. 用不超过 200 字写出整份报告的摘要；\n" +
+                "2. 如果各章节之间存在相互矛盾的结论或数字，用一句话逐条指出；没有则不写。\n" +
+                "只输出摘要和矛盾提示，不要复述或改写正文。\n\n" + assembled;
+        try {
+            String text = llmClient.chat(LlmRequest.of(AiTaskType.REPORT_REVIEW, documentId, prompt));
+            sectionCache.put(cacheKey, text);
+            return text;
+        } catch (Exception e) {
+            log.warn("报告一致性检查失败: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.dataset.AggregationEngine;
+import org.example.mobileproject.dataset.CsvColumn;
+import org.example.mobileproject.dataset.CsvDataset;
+import org.example.mobileproject.dataset.DatasetSnapshot;
+import org.example.mobileproject.entity.AggregationQuery;
+import org.example.mobileproject.entity.AggregationResult;
+import org.example.mobileproject.service.CsvAggregationService;
+import org.example.mobileproject.service.CsvDatasetService;
+import org.example.mobileproject.util.HashUtil;
+import org.example.mobileproject.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class CsvAggregationServiceImpl implements CsvAggregationService {
+
+    // 明细表按这些列给出构成
+    private static final List<String> BREAKDOWN_COLUMNS = List.of("channel", "business_type");
+
+    // 列名含这些词的指标是比率 / 得分，分组内取平均；其余（金额、数量）求和
+    private static final List<String> AVERAGED_NAME_PARTS = List.of("rate", "ratio", "pct", "percent", "score");
+
+    private final CsvDatasetService csvDatasetService;
+
+    @Value("${csv.aggregation.cache-size:128}")
+    private int cacheSize;
+
+    // 缓存 key 含参与数据集的版本，数据重载后旧结果自然失效并被淘汰
+    private LruCache<String, AggregationResult> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LruCache<>(cacheSize);
+    }
+
+    @Override
+    public AggregationResult aggregate(AggregationQuery query) {
+        DatasetSnapshot snapshot = csvDatasetService.snapshot();
+        List<String> parts = new ArrayList<>();
+        parts.add(versionOf(snapshot, query.getDataset()));
+        for (String join : query.getJoin()) {
+            parts.add(versionOf(snapshot, join));
+        }
+        parts.add(query.toString());
+        String key = HashUtil.sha256Hex(parts.toArray(new String[0]));
+        return cache.computeIfAbsent(key, k -> AggregationEngine.execute(snapshot, query));
+    }
+
+    @Override
+    public List<String> facts(Collection<String> grids, Collection<String> months) {
+        List<String> facts = new ArrayList<>();
+        if (grids == null || grids.isEmpty()) return facts;
+        Set<String> gridSet = new HashSet<>(grids);
+        Set<String> monthSet = months == null ? Collections.emptySet() : new HashSet<>(months);
+
+        for (CsvDataset ds : csvDatasetService.snapshot().getDatasets().values()) {
+            if (!ds.hasColumn(AggregationEngine.GRID) || !ds.hasColumn(AggregationEngine.MONTH)) continue;
+
+            // 1. (grid, month) 粒度的全部数值指标 + 环比；排名在全量分组上算，再筛选目标网格
+            AggregationQuery query = new AggregationQuery();
+            query.setDataset(ds.getName());
+            query.setGroupBy(List.of(AggregationEngine.GRID, AggregationEngine.MONTH));
+            query.setMetrics(numericMetrics(ds));
+            query.setMom(true);
+            if (query.getMetrics().isEmpty()) continue;
+            AggregationResult result = aggregate(query);
+
+            Map<Object, List<Map<String, Object>>> byMonth = new HashMap<>();
+            for (Map<String, Object> row : result.getRows()) {
+                byMonth.computeIfAbsent(row.get(AggregationEngine.MONTH), k -> new ArrayList<>()).add(row);
+            }
+            for (Map<String, Object> row : result.getRows()) {
+                Object grid = row.get(AggregationEngine.GRID);
+                Object month = row.get(AggregationEngine.MONTH);
+                if (!gridSet.contains(grid) || (!monthSet.isEmpty() && !monthSet.contains(month))) continue;
+
+                List<Map<String, Object>> sameMonth = byMonth.get(month);
+                StringBuilder sb = new StringBuilder();
+                sb.append(ds.getName()).append(" | ").append(grid).append(' ').append(month).append("：");
+                boolean first = true;
+                for (AggregationQuery.Metric m : query.getMetrics()) {
+                    String name = m.name();
+                    Object v = row.get(name);
+                    if (!(v instanceof Number)) continue;
+                    if (!first) sb.append("；");
+                    first = false;
+                    double value = ((Number) v).doubleValue();
+                    sb.append(label(m)).append('=').append(format(value))
+                            .append("（同月从高到低第 ").append(rank(sameMonth, name, value))
+                            .append('/').append(sameMonth.size());
+                    Object mom = row.get(name + "_mom");
+                    Object pct = row.get(name + "_mom_pct");
+                    if (mom instanceof Number) {
+                        double d = ((Number) mom).doubleValue();
+                        sb.append("，环比 ").append(d >= 0 ? "+" : "").append(format(d));
+                        if (pct instanceof Number) {
+                            sb.append(String.format("（%+.1f%%）", ((Number) pct).doubleValue() * 100));
+                        }
+                    }
+                    sb.append('）');
+                }
+                facts.add(sb.toString());
+            }
+
+            // 2. 明细表额外给出渠道 / 业务类型构成
+            for (String column : BREAKDOWN_COLUMNS) {
+                if (ds.hasColumn(column)) {
+                    facts.addAll(breakdownFacts(ds, column, gridSet, monthSet));
+                }
+            }
+        }
+        return facts;
+    }
+
+    private List<String> breakdownFacts(CsvDataset ds, String column, Set<String> grids, Set<String> months) {
+        AggregationQuery query = new AggregationQuery();
+        query.setDataset(ds.getName());
+        query.setGroupBy(List.of(AggregationEngine.GRID, AggregationEngine.MONTH, column));
+        query.setMetrics(numericMetrics(ds));
+        query.getFilters().put(AggregationEngine.GRID, String.join(",", grids));
+        if (!months.isEmpty()) {
+            query.getFilters().put(AggregationEngine.MONTH, String.join(",", months));
+        }
+        Map<String, StringBuilder> lines = new LinkedHashMap<>();
+        for (Map<String, Object> row : aggregate(query).getRows()) {
+            String key = row.get(AggregationEngine.GRID) + " " + row.get(AggregationEngine.MONTH);
+            StringBuilder sb = lines.computeIfAbsent(key,
+                    k -> new StringBuilder(ds.getName()).append(" | ").append(k).append(" 按 ").append(column).append(" 构成："));
+            if (sb.charAt(sb.length() - 1) != '：') sb.append("；");
+            sb.append(row.get(column));
+            for (AggregationQuery.Metric m : query.getMetrics()) {
+                Object v = row.get(m.name());
+                if (v instanceof Number) {
+                    sb.append(' ').append(label(m)).append('=').append(format(((Number) v).doubleValue()));
+                }
+            }
+        }
+        List<String> result = new ArrayList<>();
+        lines.values().forEach(sb -> result.add(sb.toString()));
+        return result;
+    }
+
+    // 聚合方式按列的含义而不是存储类型决定：整数列有一个空值就会放宽为 DOUBLE，不能因此从求和变成平均
+    private List<AggregationQuery.Metric> numericMetrics(CsvDataset ds) {
+        List<AggregationQuery.Metric> metrics = new ArrayList<>();
+        for (CsvColumn c : ds.getColumns()) {
+            if (!c.isNumeric()) continue;
+            AggregationQuery.Metric m = new AggregationQuery.Metric();
+            m.setColumn(c.getName());
+            m.setFunc(isAveraged(c.getName()) ? "avg" : "sum");
+            m.setAlias(c.getName());
+            metrics.add(m);
+        }
+        return metrics;
+    }
+
+    private static boolean isAveraged(String column) {
+        String lower = column.toLowerCase();
+        for (String part : AVERAGED_NAME_PARTS) {
+            if (lower.contains(part)) return true;
+        }
+        return false;
+    }
+
+    // 事实行中的指标名带上聚合函数，如 sum(income_actual)，模型引用时不会把平均值当成合计
+    private static String label(AggregationQuery.Metric m) {
+        return m.getFunc() + "(" + m.name() + ")";
+    }
+
+    private static int rank(List<Map<String, Object>> rows, String metric, double value) {
+        int higher = 0;
+        for (Map<String, Object> r : rows) {
+            Object v = r.get(metric);
+            if (v instanceof Number && ((Number) v).doubleValue() > value) higher++;
+        }
+        return higher + 1;
+    }
+
+    private static String format(double d) {
+        if (d == Math.rint(d)) return CsvColumn.formatDouble(d);
+        return String.format("%.4f", d);
+    }
+
+    private static String versionOf(DatasetSnapshot snapshot, String name) {
+        CsvDataset ds = name == null ? null : snapshot.get(name);
+        return name + ":" + (ds == null ? "-" : ds.getVersion());
+    }
+}
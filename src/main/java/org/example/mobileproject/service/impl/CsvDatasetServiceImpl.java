@@ -0,0 +1,262 @@
+package org.example.mobileproject.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.dataset.CsvDataset;
+import org.example.mobileproject.dataset.CsvDatasetReader;
+import org.example.mobileproject.dataset.DatasetSnapshot;
+import org.example.mobileproject.entity.CsvIngestResult;
+import org.example.mobileproject.service.CsvDatasetService;
+import org.example.mobileproject.util.CsvParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * CSV 业务数据集：启动时加载一次并解析为列式数组，之后定时检查文件变化并原子热更新。
+ * 配置了 csv.data-dir 时从该目录加载，否则从 classpath:csvdata/ 加载（classpath 模式不做热更新）。
+ * 上传导入的数据集在目录模式下会写回数据目录，classpath 模式下只保存在内存中。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CsvDatasetServiceImpl implements CsvDatasetService {
+
+    // 数据集名即文件名（不含扩展名），不允许路径分隔符
+    private static final Pattern VALID_NAME = Pattern.compile("[\\w\\u4e00-\\u9fa5.-]{1,100}");
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${csv.data-dir:}")
+    private String dataDir;
+
+    private volatile DatasetSnapshot snapshot = new DatasetSnapshot(Collections.emptyMap());
+
+    // 目录模式下各文件的 (大小, 修改时间)，用于判断是否需要重载
+    private Map<String, String> fileSignatures = Collections.emptyMap();
+
+    // 同一数据集的导入串行执行，不同数据集可并行解析
+    private final Map<String, Object> ingestLocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @Override
+    public DatasetSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public CsvDataset get(String name) {
+        return snapshot.get(name);
+    }
+
+    @Override
+    public synchronized boolean reload() {
+        try {
+            if (useDirectory()) {
+                return reloadFromDirectory();
+            }
+            if (!snapshot.getDatasets().isEmpty()) return false;
+            return reloadFromClasspath();
+        } catch (Exception e) {
+            log.error("加载 CSV 数据集失败，继续使用旧快照", e);
+            return false;
+        }
+    }
+
+    @Override
+    public CsvIngestResult ingest(String name, InputStream in, boolean append) {
+        if (name == null || !VALID_NAME.matcher(name).matches() || name.startsWith(".")) {
+            throw new BizException("数据集名称不合法: " + name);
+        }
+        synchronized (ingestLocks.computeIfAbsent(name, k -> new Object())) {
+            CsvDataset base = snapshot.get(name);
+            if (append && base == null) {
+                throw new BizException("数据集不存在，无法追加: " + name);
+            }
+            String mode = append ? "append" : "replace";
+            String source = useDirectory() ? new File(dataDir, name + ".csv").getAbsolutePath() : "upload:" + name;
+            long start = System.nanoTime();
+            Timer.Sample sample = Timer.start(meterRegistry);
+
+            // 1. 流式解析：每批行回调一次，计入吞吐指标
+            long[] progress = new long[2];
+            CsvDataset dataset;
+            try {
+                dataset = CsvDatasetReader.read(name, source, in, base, append, (rows, bytes) -> {
+                    meterRegistry.counter("csv.ingest.rows", "mode", mode).increment(rows - progress[0]);
+                    meterRegistry.counter("csv.ingest.bytes", "mode", mode).increment(bytes - progress[1]);
+                    progress[0] = rows;
+                    progress[1] = bytes;
+                    log.debug("CSV 导入 [{}] 已解析 {} 行 / {} 字节", name, rows, bytes);
+                });
+            } catch (IllegalArgumentException e) {
+                sample.stop(ingestTimer(mode, "invalid"));
+                throw new BizException("CSV 校验失败: " + e.getMessage());
+            } catch (IOException e) {
+                sample.stop(ingestTimer(mode, "error"));
+                throw new BizException("CSV 读取失败: " + e.getMessage());
+            }
+
+            // 2. 写回数据目录并替换快照；持锁期间定时重载不会读到写了一半的文件
+            boolean persisted;
+            synchronized (this) {
+                persisted = persist(dataset);
+                Map<String, CsvDataset> datasets = new HashMap<>(snapshot.getDatasets());
+                datasets.put(name, dataset);
+                snapshot = new DatasetSnapshot(datasets);
+            }
+            sample.stop(ingestTimer(mode, "success"));
+
+            long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            CsvIngestResult result = new CsvIngestResult();
+            result.setDataset(name);
+            result.setMode(mode);
+            result.setVersion(dataset.getVersion());
+            result.setRows(progress[0]);
+            result.setTotalRows(dataset.getRowCount());
+            result.setBytes(progress[1]);
+            result.setElapsedMs(elapsedMs);
+            result.setRowsPerSecond(progress[0] * 1000.0 / elapsedMs);
+            result.setBytesPerSecond(progress[1] * 1000.0 / elapsedMs);
+            result.setPersisted(persisted);
+            log.info("CSV 导入 [{}] 完成（{}）：{} 行 / {} 字节，耗时 {} ms，共 {} 行",
+                    name, mode, progress[0], progress[1], elapsedMs, dataset.getRowCount());
+            return result;
+        }
+    }
+
+    // 数据集名称由用户上传时指定，不作为标签，避免指标时间序列无限增长
+    private Timer ingestTimer(String mode, String outcome) {
+        return Timer.builder("csv.ingest.duration")
+                .description("CSV 导入耗时")
+                .tags("mode", mode, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 目录模式下把数据集写回 name.csv（带 BOM，与现有文件一致）：先写临时文件再原子替换，
+     * 并记下新文件签名，避免定时重载再解析一遍
+     */
+    private boolean persist(CsvDataset dataset) {
+        if (!useDirectory()) {
+            log.warn("未配置 csv.data-dir，导入的数据集 [{}] 只保存在内存中，重启后丢失", dataset.getName());
+            return false;
+        }
+        String fileName = dataset.getName() + ".csv";
+        Path target = new File(dataDir, fileName).toPath();
+        Path tmp = new File(dataDir, fileName + ".uploading").toPath();
+        try {
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tmp), StandardCharsets.UTF_8))) {
+                w.write(CsvParser.BOM);
+                w.write(dataset.header());
+                w.write('\n');
+                StringBuilder sb = new StringBuilder();
+                for (int row = 0; row < dataset.getRowCount(); row++) {
+                    sb.setLength(0);
+                    dataset.appendRow(sb, row);
+                    w.append(sb);
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            File f = target.toFile();
+            Map<String, String> signatures = new HashMap<>(fileSignatures);
+            signatures.put(fileName, f.length() + ":" + f.lastModified());
+            fileSignatures = signatures;
+            return true;
+        } catch (IOException e) {
+            log.error("写回 CSV 数据集失败: {}", target, e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+            throw new BizException("写回数据目录失败: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${csv.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (useDirectory()) reload();
+    }
+
+    private boolean useDirectory() {
+        return dataDir != null && !dataDir.isBlank();
+    }
+
+    private boolean reloadFromDirectory() throws Exception {
+        File folder = new File(dataDir);
+        File[] files = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(".csv"));
+        if (files == null) {
+            log.warn("CSV 数据目录不存在: {}", dataDir);
+            return false;
+        }
+
+        Map<String, String> signatures = new HashMap<>();
+        for (File f : files) {
+            signatures.put(f.getName(), f.length() + ":" + f.lastModified());
+        }
+        if (signatures.equals(fileSignatures)) return false;
+
+        // 只重新解析变化了的文件，其余沿用旧快照中的数据集
+        Map<String, CsvDataset> datasets = new HashMap<>();
+        for (File f : files) {
+            String name = datasetName(f.getName());
+            CsvDataset old = snapshot.get(name);
+            if (old != null && signatures.get(f.getName()).equals(fileSignatures.get(f.getName()))) {
+                datasets.put(name, old);
+                continue;
+            }
+            try (InputStream in = new FileInputStream(f)) {
+                datasets.put(name, CsvDatasetReader.read(name, f.getAbsolutePath(), in));
+            }
+        }
+        swap(datasets);
+        fileSignatures = signatures;
+        return true;
+    }
+
+    private boolean reloadFromClasspath() throws Exception {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:csvdata/*.csv");
+        Map<String, CsvDataset> datasets = new HashMap<>();
+        for (Resource r : resources) {
+            String name = datasetName(Objects.requireNonNull(r.getFilename()));
+            try (InputStream in = r.getInputStream()) {
+                datasets.put(name, CsvDatasetReader.read(name, r.getDescription(), in));
+            }
+        }
+        swap(datasets);
+        return true;
+    }
+
+    private void swap(Map<String, CsvDataset> datasets) {
+        DatasetSnapshot next = new DatasetSnapshot(datasets);
+        snapshot = next;
+        for (CsvDataset ds : next.getDatasets().values()) {
+            log.info("CSV 数据集 [{}] 已加载：{} 行，{} 列", ds.getName(), ds.getRowCount(), ds.getColumns().size());
+        }
+    }
+
+    private static String datasetName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
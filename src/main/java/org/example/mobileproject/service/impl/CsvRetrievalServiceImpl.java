@@ -0,0 +1,145 @@
+package org.example.mobileproject.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.dataset.CsvDataset;
+import org.example.mobileproject.dataset.DimensionIndex;
+import org.example.mobileproject.dataset.RowMatch;
+import org.example.mobileproject.service.CsvDatasetService;
+import org.example.mobileproject.service.CsvRetrievalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+public class CsvRetrievalServiceImpl implements CsvRetrievalService {
+
+    // 2025-09 / 2025年9月 / 2025.9 / 2025/09
+    private static final Pattern YEAR_MONTH = Pattern.compile("(20\\d{2})\\s*[-年./]\\s*(\\d{1,2})(?!\\d)");
+    // 9月（不带年份）
+    private static final Pattern MONTH_ONLY = Pattern.compile("(?<![\\d年./-])(\\d{1,2})\\s*月");
+    // 超过该长度的提及视为全文，不做最近邻
+    private static final int SHORT_MENTION = 32;
+
+    private final CsvDatasetService csvDatasetService;
+
+    @Value("${csv.retrieval.max-rows-per-dataset:200}")
+    private int maxRowsPerDataset;
+
+    @Value("${csv.retrieval.nearest-k:3}")
+    private int nearestK;
+
+    @Override
+    public List<RowMatch> retrieve(List<String> mentions) {
+        List<RowMatch> result = new ArrayList<>();
+        for (CsvDataset ds : csvDatasetService.snapshot().getDatasets().values()) {
+            result.add(retrieve(ds, mentions));
+        }
+        return result;
+    }
+
+    private RowMatch retrieve(CsvDataset ds, List<String> mentions) {
+        List<BitSet> perDim = new ArrayList<>();
+        List<String> matchedValues = new ArrayList<>();
+        boolean fuzzy = false;
+
+        // 1. 各维度分别匹配，维度内取并集
+        for (DimensionIndex dim : ds.dimensions()) {
+            Set<Integer> codes = new LinkedHashSet<>();
+            for (String mention : mentions) {
+                if ("month".equals(dim.getColumnName())) {
+                    codes.addAll(matchMonth(dim, mention));
+                    continue;
+                }
+                List<Integer> exact = dim.matchExact(mention);
+                if (!exact.isEmpty()) {
+                    codes.addAll(exact);
+                } else {
+                    Set<Integer> fuzzyCodes = dim.matchFuzzy(mention).keySet();
+                    fuzzy |= !fuzzyCodes.isEmpty();
+                    codes.addAll(fuzzyCodes);
+                }
+            }
+            if (codes.isEmpty()) continue;
+
+            BitSet rows = new BitSet(ds.getRowCount());
+            for (int code : codes) {
+                for (int row : dim.rows(code)) rows.set(row);
+                matchedValues.add(dim.getColumnName() + "=" + dim.value(code));
+            }
+            perDim.add(rows);
+        }
+
+        // 2. 维度间取交集；交集为空时退化为并集
+        if (!perDim.isEmpty()) {
+            BitSet rows = (BitSet) perDim.get(0).clone();
+            for (int i = 1; i < perDim.size(); i++) rows.and(perDim.get(i));
+            RowMatch.Type type = fuzzy ? RowMatch.Type.FUZZY : RowMatch.Type.EXACT;
+            if (rows.isEmpty()) {
+                for (BitSet b : perDim) rows.or(b);
+                type = RowMatch.Type.PARTIAL;
+            }
+            return toMatch(ds, rows, type, matchedValues);
+        }
+
+        // 3. 没有命中：按名称相似度取最近的若干取值
+        BitSet nearest = new BitSet(ds.getRowCount());
+        for (DimensionIndex dim : ds.dimensions()) {
+            if ("month".equals(dim.getColumnName())) continue;
+            for (String mention : mentions) {
+                if (mention == null || mention.length() > SHORT_MENTION) continue;
+                for (int code : dim.nearest(mention, nearestK)) {
+                    for (int row : dim.rows(code)) nearest.set(row);
+                    matchedValues.add(dim.getColumnName() + "≈" + dim.value(code));
+                }
+            }
+        }
+        if (!nearest.isEmpty()) {
+            return toMatch(ds, nearest, RowMatch.Type.NEAREST, matchedValues);
+        }
+
+        // 4. 仍然没有：给少量样例行，让模型了解表结构
+        BitSet sample = new BitSet(ds.getRowCount());
+        sample.set(0, Math.min(nearestK, ds.getRowCount()));
+        return toMatch(ds, sample, RowMatch.Type.SAMPLE, matchedValues);
+    }
+
+    private RowMatch toMatch(CsvDataset ds, BitSet rows, RowMatch.Type type, List<String> matchedValues) {
+        int total = rows.cardinality();
+        int[] picked = rows.stream().limit(maxRowsPerDataset).toArray();
+        List<String> values = new ArrayList<>(new LinkedHashSet<>(matchedValues));
+        return new RowMatch(ds, picked, total, type, values);
+    }
+
+    /**
+     * 月份匹配：带年份的按年月精确比较，只有“9月”的按月份匹配所有年份
+     */
+    private List<Integer> matchMonth(DimensionIndex dim, String mention) {
+        Set<String> full = new HashSet<>();
+        Set<String> monthOnly = new HashSet<>();
+        Matcher m = YEAR_MONTH.matcher(mention);
+        while (m.find()) {
+            full.add(m.group(1) + pad(m.group(2)));
+        }
+        m = MONTH_ONLY.matcher(mention);
+        while (m.find()) {
+            monthOnly.add(pad(m.group(1)));
+        }
+
+        List<Integer> codes = new ArrayList<>(dim.matchExact(mention));
+        if (full.isEmpty() && monthOnly.isEmpty()) return codes;
+        for (int code = 0; code < dim.cardinality(); code++) {
+            String v = dim.normalizedValue(code);   // 2025-09 → 202509
+            if (v.length() != 6) continue;
+            if (full.contains(v) || monthOnly.contains(v.substring(4))) codes.add(code);
+        }
+        return codes;
+    }
+
+    private static String pad(String month) {
+        return month.length() == 1 ? "0" + month : month;
+    }
+}
@@ -1,23 +1,43 @@
 package org.example.mobileproject.service.impl;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
 import org.example.mobileproject.entity.Document;
+import org.example.mobileproject.entity.DocumentDeleteProgress;
+import org.example.mobileproject.entity.DocumentPage;
+import org.example.mobileproject.entity.DocumentSummary;
 import org.example.mobileproject.entity.DocumentToken;
 import org.example.mobileproject.entity.EntityItem;
-import org.example.mobileproject.mapper.DocumentMapper;
-import org.example.mobileproject.mapper.DocumentTokenMapper;
-import org.example.mobileproject.mapper.EntityItemMapper;
+import org.example.mobileproject.event.DocumentDataChangedEvent;
+import org.example.mobileproject.event.KgGraphChangedEvent;
+import org.example.mobileproject.mapper.*;
 import org.example.mobileproject.service.DocumentService;
+import org.example.mobileproject.util.LruCache;
 import org.example.mobileproject.util.TokenDiffUtil;
 import org.example.mobileproject.util.Tokenizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntUnaryOperator;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DocumentServiceImpl implements DocumentService {
@@ -25,6 +45,38 @@ public class DocumentServiceImpl implements DocumentService {
     private final DocumentMapper documentMapper;
     private final DocumentTokenMapper tokenMapper;
     private final EntityItemMapper entityItemMapper;
+    private final RelationMapper relationMapper;
+    private final KgNodeMapper kgNodeMapper;
+    private final KgEdgeMapper kgEdgeMapper;
+    private final KgNodeLayoutMapper layoutMapper;
+    private final KgChangeLogMapper changeLogMapper;
+    private final AnalysisResultMapper analysisResultMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // 级联删除每条 DELETE 的最大行数：每块单独提交，行锁只持有一条语句的时间
+    @Value("${document.delete.chunk-size:5000}")
+    private int deleteChunkSize;
+
+    // 进行中的异步删除；结束后移入 finishedDeletes 供查询
+    private final Map<Long, DocumentDeleteProgress> runningDeletes = new ConcurrentHashMap<>();
+    private final LruCache<Long, DocumentDeleteProgress> finishedDeletes = new LruCache<>(256);
+    private ExecutorService deleteExecutor;
+
+    @PostConstruct
+    public void init() {
+        deleteExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "document-delete");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleteExecutor.shutdown();
+    }
 
     @Override
     public Document getById(Long id) {
@@ -36,6 +88,35 @@ public class DocumentServiceImpl implements DocumentService {
         return documentMapper.selectAll();
     }
 
+    @Override
+    public DocumentPage listSummaries(String title, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                afterCreatedAt = LocalDateTime.parse(parts[0]);
+                afterId = Long.valueOf(parts[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new BizException("无效的分页游标");
+            }
+        }
+        String filter = title == null || title.isBlank() ? null : title.trim();
+
+        // 多取一条判断是否还有下一页
+        List<DocumentSummary> rows = documentMapper.selectSummaryPage(filter, afterCreatedAt, afterId, size + 1);
+        DocumentPage page = new DocumentPage();
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            DocumentSummary last = rows.get(size - 1);
+            String key = last.getCreatedAt() + "|" + last.getId();
+            page.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8)));
+        }
+        page.setItems(new ArrayList<>(rows));
+        return page;
+    }
+
     @Override
     @Transactional
     public Document create(Document doc) {
@@ -55,6 +136,9 @@ public class DocumentServiceImpl implements DocumentService {
         }
         if (!tokenList.isEmpty()) tokenMapper.batchInsert(tokenList);
         // no entities initially
+        eventPublisher.publishEvent(new DocumentDataChangedEvent(doc.getId(),
+                DocumentDataChangedEvent.Kind.TOKENS, DocumentDataChangedEvent.Kind.CONTENT,
+                DocumentDataChangedEvent.Kind.CREATED));
         return doc;
     }
 
@@ -108,7 +192,7 @@ public class DocumentServiceImpl implements DocumentService {
                 int newEnd = Collections.max(mapped);
                 e.setTokenStart(newStart);
                 e.setTokenEnd(newEnd);
-                entityItemMapper.update(e);
+                entityItemMapper.updateTokenRange(e.getId(), newStart, newEnd);
             }
         }
 
@@ -143,20 +227,137 @@ public class DocumentServiceImpl implements DocumentService {
             }
         }
 
+        eventPublisher.publishEvent(new DocumentDataChangedEvent(doc.getId(),
+                DocumentDataChangedEvent.Kind.TOKENS, DocumentDataChangedEvent.Kind.ENTITIES,
+                DocumentDataChangedEvent.Kind.CONTENT));
         return doc;
     }
 
     @Override
-    @Transactional
     public void delete(Long id) {
-        // delete document_tokens
-        tokenMapper.deleteByDocumentId(id);
-        // delete entities (entity_items have FK to documents? if not, ensure deletion)
-        List<EntityItem> items = entityItemMapper.selectByDocumentId(id);
-        for (EntityItem e : items) {
-            entityItemMapper.deleteById(e.getId());
+        DocumentDeleteProgress progress = newProgress(id);
+        if (runningDeletes.putIfAbsent(id, progress) != null) {
+            throw new BizException("文档正在删除中: " + id);
+        }
+        try {
+            cascadeDelete(progress);
+        } finally {
+            runningDeletes.remove(id);
+            finishedDeletes.put(id, progress);
+        }
+    }
+
+    @Override
+    public DocumentDeleteProgress deleteAsync(Long id) {
+        if (documentMapper.selectById(id) == null) {
+            throw new BizException("文档不存在: " + id);
+        }
+        DocumentDeleteProgress progress = newProgress(id);
+        DocumentDeleteProgress running = runningDeletes.putIfAbsent(id, progress);
+        if (running != null) return snapshot(running);
+        deleteExecutor.submit(() -> {
+            try {
+                cascadeDelete(progress);
+            } catch (Exception e) {
+                log.error("文档 {} 级联删除失败", id, e);
+            } finally {
+                runningDeletes.remove(id);
+                finishedDeletes.put(id, progress);
+            }
+        });
+        return snapshot(progress);
+    }
+
+    @Override
+    public DocumentDeleteProgress getDeleteProgress(Long id) {
+        DocumentDeleteProgress progress = runningDeletes.get(id);
+        if (progress == null) progress = finishedDeletes.get(id);
+        if (progress == null) {
+            throw new BizException("没有该文档的删除任务: " + id);
+        }
+        return snapshot(progress);
+    }
+
+    /**
+     * 按 document_id 分块删除文档的全部数据，子表在前、文档本身最后；
+     * 每块是一条独立提交的 DELETE ... LIMIT，大文档也不会长时间持有行锁，中途失败可以重新执行。
+     * 全局图谱归属、搜索 / 图索引、响应缓存由 GRAPH_RESET 与数据变更事件各自清理
+     */
+    private void cascadeDelete(DocumentDeleteProgress progress) {
+        Long id = progress.getDocumentId();
+        long start = System.currentTimeMillis();
+        try {
+            purge(progress, "kg_node_layout", limit -> layoutMapper.deleteByDocumentIdLimit(id, limit));
+            purge(progress, "kg_edges", limit -> kgEdgeMapper.deleteByDocumentIdLimit(id, limit));
+            purge(progress, "kg_nodes", limit -> kgNodeMapper.deleteByDocumentIdLimit(id, limit));
+            purge(progress, "relations", limit -> relationMapper.deleteByDocumentIdLimit(id, limit));
+            purge(progress, "document_tokens", limit -> tokenMapper.deleteByDocumentIdLimit(id, limit));
+            purge(progress, "entity_items", limit -> entityItemMapper.deleteByDocumentIdLimit(id, limit));
+            purge(progress, "analysis_result", limit -> analysisResultMapper.deleteByDocumentIdLimit(id, limit));
+
+            eventPublisher.publishEvent(KgGraphChangedEvent.graphReset(id));
+
+            // 变更日志放在事件之后清理，连同 GRAPH_RESET 自身写入的记录一起删掉
+            purge(progress, "kg_change_log", limit -> changeLogMapper.deleteByDocumentIdLimit(id, limit));
+            purge(progress, "kg_graph_versions", limit -> changeLogMapper.deleteVersion(id));
+            purge(progress, "documents", limit -> documentMapper.deleteById(id));
+
+            // 不在事务中，监听方立即执行；文档行删除后再发布，监听方回表时才能看到文档已不存在
+            eventPublisher.publishEvent(new DocumentDataChangedEvent(id,
+                    DocumentDataChangedEvent.Kind.TOKENS, DocumentDataChangedEvent.Kind.ENTITIES,
+                    DocumentDataChangedEvent.Kind.CONTENT));
+
+            synchronized (progress) {
+                progress.setStatus(DocumentDeleteProgress.DONE);
+                progress.setCurrentTable(null);
+                progress.setFinishedAt(LocalDateTime.now());
+            }
+            log.info("文档 {} 级联删除完成：{}，耗时 {} ms", id, progress.getDeleted(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            synchronized (progress) {
+                progress.setStatus(DocumentDeleteProgress.FAILED);
+                progress.setError(e.getMessage());
+                progress.setFinishedAt(LocalDateTime.now());
+            }
+            throw e;
+        }
+    }
+
+    // 反复执行一条带 LIMIT 的 DELETE，直到影响行数不足一块
+    private void purge(DocumentDeleteProgress progress, String table, IntUnaryOperator deleteChunk) {
+        synchronized (progress) {
+            progress.setCurrentTable(table);
+            progress.getDeleted().put(table, 0L);
+        }
+        int n;
+        do {
+            n = deleteChunk.applyAsInt(deleteChunkSize);
+            synchronized (progress) {
+                progress.getDeleted().merge(table, (long) n, Long::sum);
+            }
+        } while (n >= deleteChunkSize);
+    }
+
+    private DocumentDeleteProgress newProgress(Long id) {
+        DocumentDeleteProgress progress = new DocumentDeleteProgress();
+        progress.setDocumentId(id);
+        progress.setStatus(DocumentDeleteProgress.RUNNING);
+        progress.setStartedAt(LocalDateTime.now());
+        return progress;
+    }
+
+    // 删除线程持续更新进度，返回给调用方的是加锁复制的快照
+    private DocumentDeleteProgress snapshot(DocumentDeleteProgress progress) {
+        synchronized (progress) {
+            DocumentDeleteProgress copy = new DocumentDeleteProgress();
+            copy.setDocumentId(progress.getDocumentId());
+            copy.setStatus(progress.getStatus());
+            copy.setCurrentTable(progress.getCurrentTable());
+            copy.setDeleted(new LinkedHashMap<>(progress.getDeleted()));
+            copy.setError(progress.getError());
+            copy.setStartedAt(progress.getStartedAt());
+            copy.setFinishedAt(progress.getFinishedAt());
+            return copy;
         }
-        // delete document
-        documentMapper.deleteById(id);
     }
 }
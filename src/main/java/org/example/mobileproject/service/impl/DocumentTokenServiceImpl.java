@@ -3,9 +3,11 @@ package org.example.mobileproject.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.example.mobileproject.entity.DocumentToken;
 import org.example.mobileproject.entity.EntityItem;
+import org.example.mobileproject.event.DocumentDataChangedEvent;
 import org.example.mobileproject.mapper.DocumentTokenMapper;
 import org.example.mobileproject.mapper.EntityItemMapper;
 import org.example.mobileproject.service.DocumentTokenService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +19,7 @@ public class DocumentTokenServiceImpl implements DocumentTokenService {
 
     private final DocumentTokenMapper tokenMapper;
     private final EntityItemMapper entityItemMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<DocumentToken> getByDocumentId(Long documentId) {
@@ -27,6 +30,7 @@ public class DocumentTokenServiceImpl implements DocumentTokenService {
     @Transactional
     public void rebuildTokensForDocument(Long documentId, List<String> tokens) {
         tokenMapper.deleteByDocumentId(documentId);
+        eventPublisher.publishEvent(new DocumentDataChangedEvent(documentId, DocumentDataChangedEvent.Kind.TOKENS));
         if (tokens == null || tokens.isEmpty()) return;
         List<DocumentToken> list = new java.util.ArrayList<>();
         for (int i = 0; i < tokens.size(); i++) {
@@ -44,6 +48,7 @@ public class DocumentTokenServiceImpl implements DocumentTokenService {
     @Override
     @Transactional
     public void markTokensForEntities(Long documentId) {
+        eventPublisher.publishEvent(new DocumentDataChangedEvent(documentId, DocumentDataChangedEvent.Kind.TOKENS));
         // reset
         List<DocumentToken> tokens = tokenMapper.selectByDocumentId(documentId);
         for (DocumentToken t : tokens) {
@@ -0,0 +1,318 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.Document;
+import org.example.mobileproject.entity.EntityItem;
+import org.example.mobileproject.event.DocumentDataChangedEvent;
+import org.example.mobileproject.mapper.DocumentMapper;
+import org.example.mobileproject.mapper.EntityItemMapper;
+import org.example.mobileproject.search.Gazetteer;
+import org.example.mobileproject.service.EntityGazetteerService;
+import org.example.mobileproject.service.EntityItemService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 实体词典预标注：以所有人工标注实体的 文本 → 标签（及出现次数）为词典，构建 Aho–Corasick 自动机，
+ * 一次扫描正文找出全部候选，不调用大模型。
+ * 启动时按 id 分页从库加载；之后由实体变更事件按文档增量维护计数。
+ * 新出现的词条先进入一个小的增量自动机（每次变更重建，代价只与增量大小有关），
+ * 积累到 delta-limit 后并入主自动机。词典维护都在单线程执行器上串行执行。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EntityGazetteerServiceImpl implements EntityGazetteerService {
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final EntityItemMapper entityItemMapper;
+    private final DocumentMapper documentMapper;
+    private final EntityItemService entityItemService;
+
+    @Value("${annotate.gazetteer.auto:false}")
+    private boolean auto;
+
+    @Value("${annotate.gazetteer.min-length:2}")
+    private int minLength;
+
+    @Value("${annotate.gazetteer.max-length:32}")
+    private int maxLength;
+
+    @Value("${annotate.gazetteer.delta-limit:2000}")
+    private int deltaLimit;
+
+    /**
+     * 一个词条的标签计数，不可变；写线程整体替换，检索线程无锁读取
+     */
+    private static final class Surface {
+        final Map<Long, Integer> labels;
+        final long bestLabel;
+        final int bestCount;
+
+        Surface(Map<Long, Integer> labels) {
+            this.labels = labels;
+            long best = 0;
+            int count = 0;
+            for (Map.Entry<Long, Integer> e : labels.entrySet()) {
+                if (e.getValue() > count || (e.getValue() == count && e.getKey() < best)) {
+                    best = e.getKey();
+                    count = e.getValue();
+                }
+            }
+            this.bestLabel = best;
+            this.bestCount = count;
+        }
+
+        // 计数归零时返回 null，词条随之移除
+        static Surface adjust(Surface old, long labelId, int delta) {
+            Map<Long, Integer> labels = old == null ? new HashMap<>() : new HashMap<>(old.labels);
+            labels.merge(labelId, delta, Integer::sum);
+            labels.values().removeIf(c -> c <= 0);
+            return labels.isEmpty() ? null : new Surface(labels);
+        }
+    }
+
+    private static final class Mention {
+        final String key;
+        final long labelId;
+
+        Mention(String key, long labelId) {
+            this.key = key;
+            this.labelId = labelId;
+        }
+    }
+
+    private static final class Candidate {
+        final int start;
+        final int end;
+        final Surface surface;
+
+        Candidate(int start, int end, Surface surface) {
+            this.start = start;
+            this.end = end;
+            this.surface = surface;
+        }
+    }
+
+    private final Map<String, Surface> surfaces = new ConcurrentHashMap<>();
+    private final Map<Long, List<Mention>> mentions = new HashMap<>();     // 文档 → 它贡献的词条，只在写线程访问
+    private final Set<String> delta = new HashSet<>();                      // 不在主自动机中的词条，只在写线程访问
+    private volatile Gazetteer automaton = Gazetteer.empty();
+    private volatile Gazetteer deltaAutomaton = Gazetteer.empty();
+    private volatile boolean ready;
+    private volatile boolean failed;     // 全量加载失败，定时重试
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "entity-gazetteer");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.submit(this::loadAll);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ---------- 匹配 ----------
+
+    @Override
+    public List<EntityItem> suggest(Long documentId) {
+        if (!ready) {
+            throw new BizException(failed ? "实体词典加载失败，正在重试，请稍后再试" : "实体词典正在加载，请稍后重试");
+        }
+        Document doc = documentMapper.selectById(documentId);
+        if (doc == null) {
+            throw new BizException("文档不存在");
+        }
+        String text = doc.getContent();
+        if (text == null || text.isEmpty()) return new ArrayList<>();
+
+        BitSet taken = new BitSet(text.length());
+        for (EntityItem e : entityItemMapper.selectByDocumentId(documentId)) taken.set(e.getTokenStart(), e.getTokenEnd() + 1);
+
+        List<Candidate> candidates = new ArrayList<>();
+        collect(automaton, text, candidates);
+        collect(deltaAutomaton, text, candidates);
+        // 最长优先，同样长时标签出现次数多的优先，再按位置
+        candidates.sort(Comparator.comparingInt((Candidate c) -> c.start - c.end)
+                .thenComparingInt(c -> -c.surface.bestCount)
+                .thenComparingInt(c -> c.start));
+
+        List<EntityItem> result = new ArrayList<>();
+        for (Candidate c : candidates) {
+            int overlap = taken.nextSetBit(c.start);
+            if (overlap >= 0 && overlap < c.end) continue;
+            taken.set(c.start, c.end);
+            EntityItem item = new EntityItem();
+            item.setDocumentId(documentId);
+            item.setLabelId(c.surface.bestLabel);
+            item.setText(text.substring(c.start, c.end));
+            item.setTokenStart(c.start);      // 分词按字符，token 下标即字符下标
+            item.setTokenEnd(c.end - 1);
+            item.setSource(EntityItem.SOURCE_GAZETTEER);
+            result.add(item);
+        }
+        result.sort(Comparator.comparingInt(EntityItem::getTokenStart));
+        return result;
+    }
+
+    private void collect(Gazetteer gazetteer, String text, List<Candidate> candidates) {
+        gazetteer.scan(text, (start, end, pattern) -> {
+            // 英文 / 数字词条不匹配单词的一部分
+            if (start > 0 && isWordChar(text.charAt(start - 1)) && isWordChar(text.charAt(start))) return;
+            if (end < text.length() && isWordChar(text.charAt(end)) && isWordChar(text.charAt(end - 1))) return;
+            Surface surface = surfaces.get(gazetteer.pattern(pattern));
+            if (surface != null) candidates.add(new Candidate(start, end, surface));
+        });
+    }
+
+    private static boolean isWordChar(char c) {
+        return c < 128 && Character.isLetterOrDigit(c);
+    }
+
+    @Override
+    public List<EntityItem> preAnnotate(Long documentId) {
+        List<EntityItem> suggestions = suggest(documentId);
+        if (suggestions.isEmpty()) return suggestions;
+        return entityItemService.createAll(documentId, suggestions);
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", ready);
+        result.put("surfaces", surfaces.size());
+        result.put("automaton", automaton.size());
+        result.put("delta", deltaAutomaton.size());
+        return result;
+    }
+
+    // ---------- 词典维护 ----------
+
+    /**
+     * 事务提交后交给词典线程：实体变更更新计数；文档新建时按配置自动预标注。
+     * 正文修改后不再重跑，否则用户删掉的预标注会在下次修改时又回来
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentDataChanged(DocumentDataChangedEvent event) {
+        executor.submit(() -> {
+            try {
+                if (event.getKinds().contains(DocumentDataChangedEvent.Kind.ENTITIES)) refreshDocument(event.getDocumentId());
+                if (auto && ready && event.getKinds().contains(DocumentDataChangedEvent.Kind.CREATED)) {
+                    int created = preAnnotate(event.getDocumentId()).size();
+                    if (created > 0) log.info("文档 {} 词典预标注 {} 个实体", event.getDocumentId(), created);
+                }
+            } catch (Exception e) {
+                log.error("实体词典更新失败", e);
+            }
+        });
+    }
+
+    // 文档的实体重新读取，先减去它原先贡献的计数再加上现在的
+    private void refreshDocument(Long documentId) {
+        List<Mention> now = new ArrayList<>();
+        for (EntityItem e : entityItemMapper.selectByDocumentId(documentId)) {
+            Mention m = mention(e);
+            if (m != null) now.add(m);
+        }
+        List<Mention> old = now.isEmpty() ? mentions.remove(documentId) : mentions.put(documentId, now);
+        boolean deltaChanged = false;
+        if (old != null) {
+            for (Mention m : old) deltaChanged |= adjust(m, -1);
+        }
+        for (Mention m : now) deltaChanged |= adjust(m, 1);
+        if (delta.size() > deltaLimit) {
+            rebuild();
+        } else if (deltaChanged) {
+            deltaAutomaton = Gazetteer.build(delta);
+        }
+    }
+
+    // 返回增量词条集合是否变化
+    private boolean adjust(Mention m, int change) {
+        Surface before = surfaces.get(m.key);
+        Surface after = Surface.adjust(before, m.labelId, change);
+        if (after == null) {
+            surfaces.remove(m.key);
+        } else {
+            surfaces.put(m.key, after);
+        }
+        if (before == null && after != null && !automaton.contains(m.key)) return delta.add(m.key);
+        if (before != null && after == null) return delta.remove(m.key);
+        return false;
+    }
+
+    // 新的主自动机生效后再清空增量，检索期间最多重复匹配同一词条，不会漏掉
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        automaton = Gazetteer.build(new ArrayList<>(surfaces.keySet()));
+        delta.clear();
+        deltaAutomaton = Gazetteer.empty();
+        log.info("实体词典自动机已重建：{} 个词条，耗时 {} ms", automaton.size(), System.currentTimeMillis() - start);
+    }
+
+    // 词典预标注生成的实体不计入，否则自动标注的结果会反过来强化词典；人工修改后才算证据
+    private Mention mention(EntityItem e) {
+        if (e.getText() == null || e.getLabelId() == null) return null;
+        if (EntityItem.SOURCE_GAZETTEER.equals(e.getSource())) return null;
+        String key = Gazetteer.normalize(e.getText().trim());
+        if (key.length() < minLength || key.length() > maxLength) return null;
+        return new Mention(key, e.getLabelId());
+    }
+
+    /**
+     * 全量加载失败后定时重试；重试前丢弃已加载的部分计数，期间的实体变更已提交到库，重新加载时一并读到
+     */
+    @Scheduled(fixedDelayString = "${annotate.gazetteer.load-retry-ms:60000}")
+    public void retryLoad() {
+        if (!failed) return;
+        executor.submit(() -> {
+            if (!failed) return;
+            surfaces.clear();
+            mentions.clear();
+            delta.clear();
+            deltaAutomaton = Gazetteer.empty();
+            loadAll();
+        });
+    }
+
+    private void loadAll() {
+        try {
+            long after = 0;
+            List<EntityItem> items;
+            do {
+                items = entityItemMapper.selectIndexPage(after, LOAD_PAGE_SIZE);
+                for (EntityItem e : items) {
+                    Mention m = e.getDocumentId() == null ? null : mention(e);
+                    if (m == null) continue;
+                    mentions.computeIfAbsent(e.getDocumentId(), k -> new ArrayList<>()).add(m);
+                    surfaces.put(m.key, Surface.adjust(surfaces.get(m.key), m.labelId, 1));
+                }
+                if (!items.isEmpty()) after = items.get(items.size() - 1).getId();
+            } while (items.size() == LOAD_PAGE_SIZE);
+            rebuild();
+            failed = false;
+            ready = true;
+        } catch (Exception e) {
+            failed = true;
+            log.warn("实体词典加载失败，稍后重试: {}", e.getMessage());
+        }
+    }
+}
@@ -4,20 +4,27 @@ import lombok.RequiredArgsConstructor;
 import org.example.mobileproject.common.BizException;
 import org.example.mobileproject.entity.DocumentToken;
 import org.example.mobileproject.entity.EntityItem;
+import org.example.mobileproject.event.DocumentDataChangedEvent;
 import org.example.mobileproject.mapper.DocumentTokenMapper;
 import org.example.mobileproject.mapper.EntityItemMapper;
 import org.example.mobileproject.service.EntityItemService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class EntityItemServiceImpl implements EntityItemService {
 
+    private static final int BATCH_SIZE = 500;
+
     private final EntityItemMapper itemMapper;
     private final DocumentTokenMapper tokenMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public EntityItem getById(Long id) {
@@ -44,9 +51,34 @@ public class EntityItemServiceImpl implements EntityItemService {
         itemMapper.insert(item);
         // update tokens marking
         markTokensForEntity(item);
+        publishChanged(item.getDocumentId());
         return item;
     }
 
+    @Override
+    @Transactional
+    public List<EntityItem> createAll(Long documentId, List<EntityItem> items) {
+        BitSet covered = new BitSet();
+        for (EntityItem e : itemMapper.selectByDocumentId(documentId)) covered.set(e.getTokenStart(), e.getTokenEnd() + 1);
+        List<EntityItem> accepted = new ArrayList<>();
+        for (EntityItem item : items) {
+            item.setDocumentId(documentId);
+            validateEntityRange(item);
+            int end = item.getTokenEnd() + 1;
+            int overlap = covered.nextSetBit(item.getTokenStart());
+            if (overlap >= 0 && overlap < end) continue;
+            covered.set(item.getTokenStart(), end);
+            accepted.add(item);
+        }
+        if (accepted.isEmpty()) return accepted;
+        for (int from = 0; from < accepted.size(); from += BATCH_SIZE) {
+            itemMapper.batchInsert(accepted.subList(from, Math.min(from + BATCH_SIZE, accepted.size())));
+        }
+        for (EntityItem e : accepted) tokenMapper.markEntity(documentId, e.getTokenStart(), e.getTokenEnd(), e.getId());
+        publishChanged(documentId);
+        return accepted;
+    }
+
     @Override
     @Transactional
     public EntityItem update(EntityItem item) {
@@ -64,6 +96,7 @@ public class EntityItemServiceImpl implements EntityItemService {
         }
         itemMapper.update(item);
         markTokensForEntity(item);
+        publishChanged(item.getDocumentId());
         return item;
     }
 
@@ -82,9 +115,15 @@ public class EntityItemServiceImpl implements EntityItemService {
                 }
             }
             itemMapper.deleteById(id);
+            publishChanged(e.getDocumentId());
         }
     }
 
+    private void publishChanged(Long documentId) {
+        eventPublisher.publishEvent(new DocumentDataChangedEvent(documentId,
+                DocumentDataChangedEvent.Kind.ENTITIES, DocumentDataChangedEvent.Kind.TOKENS));
+    }
+
     private void markTokensForEntity(EntityItem e) {
         List<DocumentToken> tokens = tokenMapper.selectByDocumentId(e.getDocumentId());
         for (DocumentToken t : tokens) {
@@ -0,0 +1,372 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.Document;
+import org.example.mobileproject.entity.EntityItem;
+import org.example.mobileproject.entity.SearchHit;
+import org.example.mobileproject.entity.SearchResult;
+import org.example.mobileproject.event.DocumentDataChangedEvent;
+import org.example.mobileproject.mapper.DocumentMapper;
+import org.example.mobileproject.mapper.EntityItemMapper;
+import org.example.mobileproject.search.InvertedIndex;
+import org.example.mobileproject.search.SearchQuery;
+import org.example.mobileproject.service.FullTextSearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全文检索：文档（标题 + 正文）与实体文本各一个字符二元组倒排索引，存放在 search.index-dir 下。
+ * 启动时打开磁盘索引并按 journal 补上次未落盘的变更，没有索引时从库全量构建；
+ * 之后由文档 / 实体变更事件增量维护，定时把内存中的新文档写成磁盘段。
+ * 索引写入都在单线程执行器上串行执行。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FullTextSearchServiceImpl implements FullTextSearchService {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_WINDOW = 1000;      // offset + limit 上限
+    private static final int MAX_CLAUSES = 8;
+    private static final int SNIPPET_BEFORE = 30;
+    private static final int SNIPPET_LENGTH = 120;
+
+    private final DocumentMapper documentMapper;
+    private final EntityItemMapper entityItemMapper;
+
+    @Value("${search.index-dir:./data/search-index}")
+    private String indexDir;
+
+    @Value("${search.flush-docs:5000}")
+    private int flushDocs;
+
+    @Value("${search.max-segments:8}")
+    private int maxSegments;
+
+    private InvertedIndex documentIndex;
+    private InvertedIndex entityIndex;
+    private volatile boolean ready;
+    private volatile boolean failed;     // 打开 / 重建失败，定时任务会重新全量构建
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        Path root = Paths.get(indexDir);
+        documentIndex = new InvertedIndex(root.resolve("documents"), false, maxSegments, flushDocs);
+        entityIndex = new InvertedIndex(root.resolve("entities"), true, maxSegments, flushDocs);
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "fulltext-index");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.submit(this::open);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.submit(this::flushQuietly);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------- 检索 ----------
+
+    @Override
+    public SearchResult search(String q, String type, int offset, int limit) {
+        requireReady();
+        if (q == null || q.isBlank()) {
+            throw new BizException("请输入检索词");
+        }
+        boolean entities;
+        switch (type == null ? "" : type.toLowerCase()) {
+            case "document":
+                entities = false;
+                break;
+            case "entity":
+                entities = true;
+                break;
+            default:
+                throw new BizException("type 只能是 document / entity");
+        }
+        SearchQuery query = SearchQuery.parse(q);
+        if (query.getClauses().size() > MAX_CLAUSES) {
+            throw new BizException("检索词最多 " + MAX_CLAUSES + " 个");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int from = Math.max(0, offset);
+        if (from + size > MAX_WINDOW) {
+            throw new BizException("最多只能查看前 " + MAX_WINDOW + " 条结果");
+        }
+
+        long start = System.currentTimeMillis();
+        InvertedIndex.Result r = (entities ? entityIndex : documentIndex).search(query, from + size);
+        List<InvertedIndex.Hit> page = r.hits.subList(Math.min(from, r.hits.size()), r.hits.size());
+
+        SearchResult result = new SearchResult();
+        result.setItems(entities ? entityHits(page) : documentHits(page));
+        result.setTotal(r.total);
+        result.setTookMs(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    // 回表取标题与正文，按命中位置截取摘要；检索后已被删除的文档跳过
+    private List<SearchHit> documentHits(List<InvertedIndex.Hit> hits) {
+        if (hits.isEmpty()) return new ArrayList<>();
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit h : hits) ids.add(h.id);
+        Map<Long, Document> docs = new HashMap<>();
+        for (Document d : documentMapper.selectByIds(ids)) docs.put(d.getId(), d);
+
+        List<SearchHit> items = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit h : hits) {
+            Document d = docs.get(h.id);
+            if (d == null) continue;
+            SearchHit item = hit("document", h);
+            item.setDocumentId(d.getId());
+            item.setTitle(d.getTitle());
+            item.setSnippet(snippet(indexText(d), h.position));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private List<SearchHit> entityHits(List<InvertedIndex.Hit> hits) {
+        if (hits.isEmpty()) return new ArrayList<>();
+        List<Long> ids = new ArrayList<>(hits.size());
+        Set<Long> docIds = new LinkedHashSet<>();
+        for (InvertedIndex.Hit h : hits) {
+            ids.add(h.id);
+            docIds.add(h.group);
+        }
+        Map<Long, EntityItem> rows = new HashMap<>();
+        for (EntityItem e : entityItemMapper.selectByIds(ids)) rows.put(e.getId(), e);
+        Map<Long, String> titles = new HashMap<>();
+        for (Document d : documentMapper.selectTitlesByIds(new ArrayList<>(docIds))) titles.put(d.getId(), d.getTitle());
+
+        List<SearchHit> items = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit h : hits) {
+            EntityItem e = rows.get(h.id);
+            if (e == null) continue;
+            SearchHit item = hit("entity", h);
+            item.setDocumentId(e.getDocumentId());
+            item.setTitle(titles.get(e.getDocumentId()));
+            item.setSnippet(e.getText());
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static SearchHit hit(String type, InvertedIndex.Hit h) {
+        SearchHit item = new SearchHit();
+        item.setType(type);
+        item.setId(h.id);
+        item.setScore(h.score);
+        return item;
+    }
+
+    private static String snippet(String text, int position) {
+        int from = Math.max(0, Math.min(position, text.length()) - SNIPPET_BEFORE);
+        int to = Math.min(text.length(), from + SNIPPET_LENGTH);
+        String s = text.substring(from, to).replace('\n', ' ');
+        return (from > 0 ? "…" : "") + s + (to < text.length() ? "…" : "");
+    }
+
+    // 文档的索引文本；命中位置以它为准
+    private static String indexText(Document d) {
+        return (d.getTitle() == null ? "" : d.getTitle()) + "\n" + (d.getContent() == null ? "" : d.getContent());
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", ready);
+        result.put("documents", stats(documentIndex));
+        result.put("entities", stats(entityIndex));
+        return result;
+    }
+
+    private static Map<String, Object> stats(InvertedIndex index) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("docs", index.size());
+        m.put("segments", index.segmentCount());
+        m.put("buffered", index.bufferedDocs());
+        return m;
+    }
+
+    @Override
+    public void rebuild() {
+        try {
+            executor.submit(() -> {
+                ready = false;
+                try {
+                    rebuildAll();
+                } catch (Exception e) {
+                    failed = true;
+                    throw e;
+                }
+                failed = false;
+                ready = true;
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BizException("全文索引重建被中断");
+        } catch (ExecutionException e) {
+            throw new BizException("全文索引重建失败: " + e.getCause().getMessage());
+        }
+    }
+
+    private void requireReady() {
+        if (!ready) {
+            throw new BizException(failed ? "搜索索引构建失败，正在重试，请稍后再试" : "搜索索引正在构建，请稍后重试");
+        }
+    }
+
+    // ---------- 索引维护 ----------
+
+    /**
+     * 事务提交后把变更交给索引线程，按提交顺序应用
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentDataChanged(DocumentDataChangedEvent event) {
+        executor.submit(() -> {
+            try {
+                apply(event);
+            } catch (Exception e) {
+                log.error("全文索引增量更新失败", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${search.flush-interval-ms:30000}")
+    public void scheduledFlush() {
+        if (ready) {
+            executor.submit(this::flushQuietly);
+        } else if (failed) {
+            executor.submit(this::recover);
+        }
+    }
+
+    private void apply(DocumentDataChangedEvent event) throws IOException {
+        Long documentId = event.getDocumentId();
+        // 文档索引只看正文变化；标注实体也会发布 TOKENS（is_entity 标记变化），不需要重新分析整篇正文
+        if (event.getKinds().contains(DocumentDataChangedEvent.Kind.CONTENT)) {
+            documentIndex.journal(documentId);
+            reindexDocument(documentId);
+        }
+        if (event.getKinds().contains(DocumentDataChangedEvent.Kind.ENTITIES)) {
+            entityIndex.journal(documentId);
+            reindexEntities(documentId);
+        }
+        if (documentIndex.needsFlush()) documentIndex.flush();
+        if (entityIndex.needsFlush()) entityIndex.flush();
+    }
+
+    // journal 中的键：文档索引为文档 id，实体索引为实体所在的文档 id
+    private void reindexDocument(Long documentId) {
+        Document d = documentMapper.selectById(documentId);
+        if (d == null) {
+            documentIndex.remove(documentId);
+        } else {
+            documentIndex.put(d.getId(), d.getId(), indexText(d));
+        }
+    }
+
+    private void reindexEntities(Long documentId) {
+        List<EntityItem> items = entityItemMapper.selectByDocumentId(documentId);
+        entityIndex.removeGroup(documentId);
+        for (EntityItem e : items) entityIndex.put(e.getId(), documentId, e.getText());
+    }
+
+    private void open() {
+        long start = System.currentTimeMillis();
+        try {
+            Set<Long> documentKeys = documentIndex.open();
+            Set<Long> entityKeys = entityIndex.open();
+            if (documentKeys == null || entityKeys == null) {
+                rebuildAll();
+            } else {
+                for (Long id : documentKeys) reindexDocument(id);
+                for (Long id : entityKeys) reindexEntities(id);
+                documentIndex.flush();
+                entityIndex.flush();
+            }
+            ready = true;
+            log.info("全文索引已就绪：{} 篇文档，{} 个实体，耗时 {} ms",
+                    documentIndex.size(), entityIndex.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            failed = true;
+            log.error("全文索引打开失败，稍后全量重建", e);
+        }
+    }
+
+    // 打开或重建失败后由定时任务调用：丢弃现有文件全量重建，成功后才对外可用
+    private void recover() {
+        if (!failed) return;
+        long start = System.currentTimeMillis();
+        try {
+            rebuildAll();
+            failed = false;
+            ready = true;
+            log.info("全文索引重建完成：{} 篇文档，{} 个实体，耗时 {} ms",
+                    documentIndex.size(), entityIndex.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("全文索引重建失败，稍后重试", e);
+        }
+    }
+
+    private void rebuildAll() throws IOException {
+        documentIndex.clear();
+        long after = 0;
+        List<Document> docs;
+        do {
+            docs = documentMapper.selectIndexPage(after, LOAD_PAGE_SIZE);
+            for (Document d : docs) documentIndex.put(d.getId(), d.getId(), indexText(d));
+            if (!docs.isEmpty()) after = docs.get(docs.size() - 1).getId();
+            if (documentIndex.needsFlush()) documentIndex.flush();
+        } while (docs.size() == LOAD_PAGE_SIZE);
+        documentIndex.flush();
+
+        entityIndex.clear();
+        after = 0;
+        List<EntityItem> items;
+        do {
+            items = entityItemMapper.selectIndexPage(after, LOAD_PAGE_SIZE);
+            for (EntityItem e : items) {
+                if (e.getDocumentId() != null) entityIndex.put(e.getId(), e.getDocumentId(), e.getText());
+            }
+            if (!items.isEmpty()) after = items.get(items.size() - 1).getId();
+            if (entityIndex.needsFlush()) entityIndex.flush();
+        } while (items.size() == LOAD_PAGE_SIZE);
+        entityIndex.flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            documentIndex.flush();
+            entityIndex.flush();
+        } catch (Exception e) {
+            log.error("全文索引落盘失败", e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.KgGlobalNode;
+import org.example.mobileproject.entity.KgGlobalNodeLink;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.event.KgGraphChangedEvent;
+import org.example.mobileproject.graph.GlobalEntityIndex;
+import org.example.mobileproject.mapper.KgGlobalNodeLinkMapper;
+import org.example.mobileproject.mapper.KgGlobalNodeMapper;
+import org.example.mobileproject.mapper.KgNodeMapper;
+import org.example.mobileproject.service.GlobalGraphService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 跨文档全局图谱：文档节点变更后增量消解到全局节点，不做全量重算。
+ * 所有写操作在单线程执行器上串行执行，内存索引与 kg_global_* 表只有一个写入方。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GlobalGraphServiceImpl implements GlobalGraphService {
+
+    private final KgNodeMapper nodeMapper;
+    private final KgGlobalNodeMapper globalNodeMapper;
+    private final KgGlobalNodeLinkMapper linkMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${kg.global.similarity-threshold:0.6}")
+    private double similarityThreshold;
+
+    private volatile GlobalEntityIndex index = new GlobalEntityIndex();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "kg-global-resolve");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.submit(() -> {
+            try {
+                reloadIndex();
+            } catch (Exception e) {
+                log.warn("全局图谱消解索引加载失败，将从空索引开始: {}", e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<KgGlobalNode> listNodes(Long labelId, int minMembers, int limit) {
+        return globalNodeMapper.selectList(labelId, Math.max(1, minMembers), Math.max(1, Math.min(limit, 1000)));
+    }
+
+    @Override
+    public Map<String, Object> getNode(Long globalNodeId) {
+        KgGlobalNode node = globalNodeMapper.selectById(globalNodeId);
+        if (node == null) {
+            throw new BizException("全局节点不存在: " + globalNodeId);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("node", node);
+        result.put("members", linkMapper.selectByGlobalNodeId(globalNodeId));
+        result.put("edges", linkMapper.selectEdges(globalNodeId));
+        return result;
+    }
+
+    @Override
+    public KgGlobalNodeLink linkOf(Long nodeId) {
+        return linkMapper.selectByNodeId(nodeId);
+    }
+
+    @Override
+    public int resyncDocument(Long documentId) {
+        try {
+            return executor.submit(() -> inTransaction(() -> doResync(documentId))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BizException("全局图谱同步被中断");
+        } catch (ExecutionException e) {
+            throw new BizException("全局图谱同步失败: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 事务提交后把节点变更交给消解线程；边不落表，全局边查询时由成员节点的边汇总
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGraphChanged(KgGraphChangedEvent event) {
+        switch (event.getType()) {
+            case NODE_UPSERTED:
+                submit(() -> resolve(event.getNode()));
+                break;
+            case NODE_DELETED:
+                submit(() -> unlink(event.getId()));
+                break;
+            case GRAPH_RESET:
+                if (event.getDocumentId() != null) {
+                    submit(() -> doResync(event.getDocumentId()));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void submit(Runnable task) {
+        executor.submit(() -> {
+            try {
+                inTransaction(() -> {
+                    task.run();
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("全局图谱增量消解失败", e);
+            }
+        });
+    }
+
+    // 在消解线程上以单个事务执行；失败时内存索引可能多出未落库的全局节点，按库重建
+    private <T> T inTransaction(Supplier<T> task) {
+        try {
+            return transactionTemplate.execute(status -> task.get());
+        } catch (RuntimeException e) {
+            try {
+                reloadIndex();
+            } catch (RuntimeException reloadError) {
+                e.addSuppressed(reloadError);
+            }
+            throw e;
+        }
+    }
+
+    private int doResync(Long documentId) {
+        long start = System.currentTimeMillis();
+        List<KgNode> nodes = nodeMapper.selectByDocumentId(documentId);
+        Set<Long> alive = new HashSet<>();
+        for (KgNode node : nodes) alive.add(node.getId());
+        for (KgGlobalNodeLink link : linkMapper.selectByDocumentId(documentId)) {
+            if (!alive.contains(link.getNodeId())) unlink(link.getNodeId());
+        }
+        for (KgNode node : nodes) resolve(node);
+        log.info("文档 {} 全局图谱归属已同步：{} 个节点，耗时 {} ms", documentId, nodes.size(), System.currentTimeMillis() - start);
+        return nodes.size();
+    }
+
+    /**
+     * 把文档节点归属到全局节点：已有归属且仍匹配则保留，否则按 精确分块 → LSH 近似 → 新建 的顺序重新归属
+     */
+    private void resolve(KgNode node) {
+        if (node == null || node.getId() == null) return;
+        String norm = GlobalEntityIndex.normalize(node.getName());
+        long labelId = node.getLabelId() == null ? 0L : node.getLabelId();
+        KgGlobalNodeLink existing = linkMapper.selectByNodeId(node.getId());
+        if (norm.isEmpty()) {
+            if (existing != null) unlink(node.getId());
+            return;
+        }
+        if (existing != null) {
+            KgGlobalNode current = globalNodeMapper.selectById(existing.getGlobalNodeId());
+            if (current != null && current.getLabelId() == labelId
+                    && GlobalEntityIndex.matches(current.getNormName(), norm, similarityThreshold)) {
+                return;
+            }
+            unlink(node.getId());
+        }
+
+        KgGlobalNodeLink link = new KgGlobalNodeLink();
+        link.setNodeId(node.getId());
+        link.setDocumentId(node.getDocumentId());
+        GlobalEntityIndex.Match match = index.find(labelId, norm, similarityThreshold);
+        if (match != null) {
+            link.setGlobalNodeId(match.globalId);
+            link.setMatchType(match.exact ? KgGlobalNodeLink.MATCH_EXACT : KgGlobalNodeLink.MATCH_FUZZY);
+            link.setScore(match.score);
+        } else {
+            KgGlobalNode global = new KgGlobalNode();
+            global.setLabelId(labelId);
+            global.setName(node.getName().trim());
+            global.setNormName(norm);
+            globalNodeMapper.insert(global);
+            index.add(global.getId(), labelId, norm);
+            link.setGlobalNodeId(global.getId());
+            link.setMatchType(KgGlobalNodeLink.MATCH_NEW);
+            link.setScore(1.0);
+        }
+        linkMapper.upsert(link);
+        globalNodeMapper.adjustMemberCount(link.getGlobalNodeId(), 1);
+    }
+
+    // 解除归属；全局节点没有成员后一并删除
+    private void unlink(Long nodeId) {
+        KgGlobalNodeLink link = linkMapper.selectByNodeId(nodeId);
+        if (link == null) return;
+        linkMapper.deleteByNodeId(nodeId);
+        globalNodeMapper.adjustMemberCount(link.getGlobalNodeId(), -1);
+        KgGlobalNode global = globalNodeMapper.selectById(link.getGlobalNodeId());
+        if (global != null && global.getMemberCount() <= 0) {
+            globalNodeMapper.delete(global.getId());
+            index.remove(global.getId());
+        }
+    }
+
+    private void reloadIndex() {
+        long start = System.currentTimeMillis();
+        GlobalEntityIndex fresh = new GlobalEntityIndex();
+        for (KgGlobalNode g : globalNodeMapper.selectAll()) {
+            fresh.add(g.getId(), g.getLabelId(), g.getNormName());
+        }
+        index = fresh;
+        log.info("全局图谱消解索引已加载：{} 个全局节点，耗时 {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+}
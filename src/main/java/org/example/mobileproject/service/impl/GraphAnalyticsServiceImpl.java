@@ -0,0 +1,197 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgNodeScore;
+import org.example.mobileproject.entity.KgPath;
+import org.example.mobileproject.graph.DocumentGraph;
+import org.example.mobileproject.graph.GraphAlgorithms;
+import org.example.mobileproject.graph.GraphArrays;
+import org.example.mobileproject.service.GraphAnalyticsService;
+import org.example.mobileproject.service.GraphIndexService;
+import org.example.mobileproject.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 图谱分析：基于内存邻接索引导出的原始数组图计算，结果按 (文档, 图版本, 参数) 缓存，
+ * 图有任何变更后版本号变化，旧结果自然失效。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GraphAnalyticsServiceImpl implements GraphAnalyticsService {
+
+    private static final double PAGERANK_DAMPING = 0.85;
+    private static final int PAGERANK_MAX_ITERATIONS = 100;
+    private static final double PAGERANK_TOLERANCE = 1e-9;
+
+    private final GraphIndexService graphIndexService;
+
+    @Value("${kg.analytics.parallelism:0}")
+    private int parallelism;
+
+    @Value("${kg.analytics.betweenness-samples:256}")
+    private int betweennessSamples;
+
+    @Value("${kg.analytics.cache-size:256}")
+    private int cacheSize;
+
+    private ForkJoinPool pool;
+    private LruCache<Long, GraphArrays> arraysCache;
+    private LruCache<String, Object> resultCache;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        arraysCache = new LruCache<>(Math.max(4, cacheSize / 16));
+        resultCache = new LruCache<>(cacheSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public KgPath shortestPath(Long documentId, Long fromNodeId, Long toNodeId, boolean weighted, boolean directed) {
+        GraphArrays g = arrays(documentId);
+        int from = require(g, fromNodeId);
+        int to = require(g, toNodeId);
+        String key = cacheKey(documentId, g, "path", fromNodeId, toNodeId, weighted, directed);
+        return (KgPath) resultCache.computeIfAbsent(key, k -> {
+            GraphAlgorithms.Path path = GraphAlgorithms.shortestPath(g, from, to, weighted, directed);
+            KgPath result = new KgPath();
+            result.setDocumentId(documentId);
+            result.setFromNodeId(fromNodeId);
+            result.setToNodeId(toNodeId);
+            result.setGraphVersion(g.getVersion());
+            result.setFound(path.found());
+            if (path.found()) {
+                result.setHops(path.edges.length);
+                result.setCost(path.cost);
+                for (int v : path.nodes) result.getNodes().add(g.node(v));
+                for (int e : path.edges) result.getEdges().add(g.edge(e));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> components(Long documentId, int limit) {
+        GraphArrays g = arrays(documentId);
+        String key = cacheKey(documentId, g, "components", limit);
+        return (Map<String, Object>) resultCache.computeIfAbsent(key, k -> {
+            long start = System.currentTimeMillis();
+            GraphAlgorithms.Components c = GraphAlgorithms.components(g);
+            int shown = Math.min(c.count, Math.max(0, limit));
+            List<List<Long>> members = new ArrayList<>();
+            for (int i = 0; i < shown; i++) members.add(new ArrayList<>());
+            for (int v = 0; v < g.nodeCount(); v++) {
+                int comp = c.componentOf[v];
+                if (comp < shown) members.get(comp).add(g.node(v).getId());
+            }
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (int i = 0; i < shown; i++) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("id", i);
+                m.put("size", c.sizes[i]);
+                m.put("nodeIds", members.get(i));
+                list.add(m);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("documentId", documentId);
+            result.put("graphVersion", g.getVersion());
+            result.put("count", c.count);
+            result.put("components", list);
+            result.put("elapsedMs", System.currentTimeMillis() - start);
+            return result;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> centrality(Long documentId, String type, int top) {
+        String t = type == null ? "degree" : type.toLowerCase();
+        if (!List.of("degree", "pagerank", "betweenness").contains(t)) {
+            throw new BizException("不支持的中心性类型: " + type + "（degree / pagerank / betweenness）");
+        }
+        GraphArrays g = arrays(documentId);
+
+        // 得分数组按 (图版本, 类型) 缓存，不同 top 共用
+        double[] scores = (double[]) resultCache.computeIfAbsent(cacheKey(documentId, g, "centrality", t), k -> {
+            long start = System.currentTimeMillis();
+            double[] s;
+            switch (t) {
+                case "pagerank":
+                    s = GraphAlgorithms.pageRank(g, PAGERANK_DAMPING, PAGERANK_MAX_ITERATIONS, PAGERANK_TOLERANCE, pool);
+                    break;
+                case "betweenness":
+                    s = GraphAlgorithms.betweenness(g, betweennessSamples, pool);
+                    break;
+                default:
+                    s = GraphAlgorithms.degree(g);
+            }
+            log.info("文档 {} 图谱 {} 计算完成：{} 个节点 / {} 条边，耗时 {} ms",
+                    documentId, t, g.nodeCount(), g.edgeCount(), System.currentTimeMillis() - start);
+            return s;
+        });
+
+        // 取前 top 个：小顶堆
+        int k = Math.min(Math.max(0, top), scores.length);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Comparator.comparingDouble(i -> scores[i]));
+        for (int v = 0; v < scores.length; v++) {
+            heap.add(v);
+            if (heap.size() > k) heap.poll();
+        }
+        List<KgNodeScore> ranking = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            KgNode node = g.node(v);
+            ranking.add(new KgNodeScore(node.getId(), node.getName(), node.getLabelId(), scores[v]));
+        }
+        Collections.reverse(ranking);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentId", documentId);
+        result.put("graphVersion", g.getVersion());
+        result.put("type", t);
+        if ("betweenness".equals(t)) {
+            result.put("samples", Math.min(betweennessSamples, g.nodeCount()));
+        }
+        result.put("nodes", ranking);
+        return result;
+    }
+
+    // 当前版本的数组图；图变更后重新导出
+    private GraphArrays arrays(Long documentId) {
+        DocumentGraph graph = graphIndexService.graph(documentId);
+        GraphArrays cached = arraysCache.get(documentId);
+        if (cached != null && cached.getVersion() == graph.getVersion()) return cached;
+        GraphArrays fresh = graph.arrays();
+        arraysCache.put(documentId, fresh);
+        return fresh;
+    }
+
+    private static int require(GraphArrays g, Long nodeId) {
+        int idx = nodeId == null ? -1 : g.indexOf(nodeId);
+        if (idx < 0) {
+            throw new BizException("节点不存在或不属于该文档: " + nodeId);
+        }
+        return idx;
+    }
+
+    private static String cacheKey(Long documentId, GraphArrays g, Object... parts) {
+        StringBuilder sb = new StringBuilder().append(documentId).append(':').append(g.getVersion());
+        for (Object p : parts) sb.append(':').append(p);
+        return sb.toString();
+    }
+}
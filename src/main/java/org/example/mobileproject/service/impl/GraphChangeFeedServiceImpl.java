@@ -0,0 +1,186 @@
+package org.example.mobileproject.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.entity.KgChange;
+import org.example.mobileproject.event.KgGraphChangedEvent;
+import org.example.mobileproject.mapper.KgChangeLogMapper;
+import org.example.mobileproject.service.GraphChangeFeedService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 图谱变更日志：变更在同一事务内写入日志并分配版本号（BEFORE_COMMIT），
+ * 事务提交后再推送给 SSE 订阅者（AFTER_COMMIT），订阅者不会看到回滚的变更。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GraphChangeFeedServiceImpl implements GraphChangeFeedService {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final KgChangeLogMapper changeLogMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kg.changes.max-batch:1000}")
+    private int maxBatch;
+
+    @Value("${kg.changes.retention-days:7}")
+    private int retentionDays;
+
+    // 文档 → 订阅者
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private ExecutorService pushExecutor;
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        long version;   // 已推送到的版本，仅在推送线程上读写
+
+        Subscriber(SseEmitter emitter, long version) {
+            this.emitter = emitter;
+            this.version = version;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        pushExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "kg-change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pushExecutor.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(s -> s.emitter.complete()));
+    }
+
+    @Override
+    public long currentVersion(Long documentId) {
+        Long v = changeLogMapper.selectVersion(documentId);
+        return v == null ? 0 : v;
+    }
+
+    @Override
+    public Map<String, Object> changes(Long documentId, long since, int limit) {
+        int n = Math.max(1, Math.min(limit, maxBatch));
+        long version = currentVersion(documentId);
+        List<KgChange> changes = since >= version ? List.of() : changeLogMapper.selectSince(documentId, since, n);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentId", documentId);
+        result.put("since", since);
+        result.put("version", version);
+        result.put("resetRequired", resetRequired(since, version, changes));
+        result.put("hasMore", !changes.isEmpty() && changes.get(changes.size() - 1).getVersion() < version);
+        result.put("changes", changes);
+        return result;
+    }
+
+    @Override
+    public SseEmitter subscribe(Long documentId, long since) {
+        SseEmitter emitter = new SseEmitter();
+        Subscriber sub = new Subscriber(emitter, since);
+        List<Subscriber> list = subscribers.computeIfAbsent(documentId, id -> new CopyOnWriteArrayList<>());
+        list.add(sub);
+        Runnable remove = () -> list.remove(sub);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        pushExecutor.submit(() -> push(documentId, sub));
+        return emitter;
+    }
+
+    /**
+     * 与图谱变更同一事务：分配版本号并写日志
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void record(KgGraphChangedEvent event) {
+        if (event.getDocumentId() == null) return;
+        KgChange change = new KgChange();
+        change.setDocumentId(event.getDocumentId());
+        change.setOp(event.getType().name());
+        change.setTargetId(event.getId());
+        if (event.getNode() != null) {
+            change.setPayload(objectMapper.convertValue(event.getNode(), MAP_TYPE));
+        } else if (event.getEdge() != null) {
+            change.setPayload(objectMapper.convertValue(event.getEdge(), MAP_TYPE));
+        }
+        changeLogMapper.bumpVersion(change);
+        changeLogMapper.insert(change);
+    }
+
+    /**
+     * 提交后推送给该文档的订阅者
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(KgGraphChangedEvent event) {
+        List<Subscriber> list = event.getDocumentId() == null ? null : subscribers.get(event.getDocumentId());
+        if (list == null || list.isEmpty()) return;
+        for (Subscriber sub : list) {
+            pushExecutor.submit(() -> push(event.getDocumentId(), sub));
+        }
+    }
+
+    @Scheduled(cron = "${kg.changes.prune-cron:0 30 3 * * *}")
+    public void prune() {
+        int n = changeLogMapper.deleteBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (n > 0) log.info("已清理 {} 条 {} 天前的图谱变更日志", n, retentionDays);
+    }
+
+    // 只在推送线程上执行：补发订阅者版本之后的全部变更
+    private void push(Long documentId, Subscriber sub) {
+        try {
+            long version = currentVersion(documentId);
+            while (sub.version < version) {
+                List<KgChange> changes = changeLogMapper.selectSince(documentId, sub.version, maxBatch);
+                if (resetRequired(sub.version, version, changes)) {
+                    sub.emitter.send(SseEmitter.event().id(String.valueOf(version)).name("reset").data(Map.of("version", version)));
+                    sub.version = version;
+                    break;
+                }
+                if (changes.isEmpty()) break;
+                for (KgChange c : changes) {
+                    sub.emitter.send(SseEmitter.event().id(String.valueOf(c.getVersion())).name("change").data(c));
+                    sub.version = c.getVersion();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // 连接已断开
+            List<Subscriber> list = subscribers.get(documentId);
+            if (list != null) list.remove(sub);
+            sub.emitter.completeWithError(e);
+        } catch (Exception e) {
+            log.warn("文档 {} 图谱变更推送失败: {}", documentId, e.getMessage());
+        }
+    }
+
+    private static boolean resetRequired(long since, long version, List<KgChange> changes) {
+        if (since > version || (since < version && changes.isEmpty())) return true;
+        if (!changes.isEmpty() && changes.get(0).getVersion() > since + 1) return true;   // 中间的日志已被清理
+        for (KgChange c : changes) {
+            if (KgGraphChangedEvent.Type.GRAPH_RESET.name().equals(c.getOp())) return true;
+        }
+        return false;
+    }
+}
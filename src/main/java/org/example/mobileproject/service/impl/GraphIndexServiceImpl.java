@@ -0,0 +1,182 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgSubgraph;
+import org.example.mobileproject.event.KgGraphChangedEvent;
+import org.example.mobileproject.graph.DocumentGraph;
+import org.example.mobileproject.graph.PropertyIndex;
+import org.example.mobileproject.mapper.KgEdgeMapper;
+import org.example.mobileproject.mapper.KgNodeMapper;
+import org.example.mobileproject.service.GraphIndexService;
+import org.example.mobileproject.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GraphIndexServiceImpl implements GraphIndexService {
+
+    private final KgNodeMapper nodeMapper;
+    private final KgEdgeMapper edgeMapper;
+
+    @Value("${kg.index.cache-size:64}")
+    private int cacheSize;
+
+    @Value("${kg.index.max-hops:4}")
+    private int maxHops;
+
+    private LruCache<Long, DocumentGraph> cache;
+    private LruCache<Long, PropertyIndex> propertyCache;
+
+    // 文档 → 变更版本，每个变更事件递增；加载期间版本变化的图不放入缓存
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = new LruCache<>(cacheSize);
+        propertyCache = new LruCache<>(cacheSize);
+    }
+
+    @Override
+    public DocumentGraph graph(Long documentId) {
+        DocumentGraph cached = cache.get(documentId);
+        if (cached != null) return cached;
+        long version = versions.getOrDefault(documentId, 0L);
+        long start = System.currentTimeMillis();
+        DocumentGraph g = new DocumentGraph(documentId,
+                nodeMapper.selectByDocumentId(documentId), edgeMapper.selectByDocumentId(documentId));
+        log.info("文档 {} 图谱索引已构建：{} 个节点，耗时 {} ms", documentId, g.nodeCount(), System.currentTimeMillis() - start);
+        // 加载期间到达的变更事件找不到已缓存的图，增量会丢失；版本变化时本次结果只返回、不缓存
+        versions.compute(documentId, (k, v) -> {
+            if ((v == null ? 0L : v) == version) cache.put(k, g);
+            return v;
+        });
+        return g;
+    }
+
+    @Override
+    public KgSubgraph neighbourhood(Long documentId, Long nodeId, int hops, DocumentGraph.Direction direction,
+                                    Set<Long> labelIds, int maxDegree, int maxNodes) {
+        if (hops < 1 || hops > maxHops) {
+            throw new BizException("hops 取值范围为 1-" + maxHops);
+        }
+        DocumentGraph g = graph(documentId);
+        if (g.node(nodeId) == null) {
+            throw new BizException("节点不存在或不属于该文档: " + nodeId);
+        }
+        return g.neighbourhood(nodeId, hops, direction, labelIds, maxDegree, maxNodes);
+    }
+
+    @Override
+    public List<KgNode> nodesByProperty(Long documentId, String key, String value, Double min, Double max, int limit) {
+        DocumentGraph g = graph(documentId);
+        List<Long> ids = matchProperty(propertyIndex(documentId, g), PropertyIndex.Owner.NODE, key, value, min, max);
+        int cap = Math.max(1, Math.min(limit, 1000));
+        List<KgNode> result = new ArrayList<>(Math.min(ids.size(), cap));
+        for (Long id : ids) {
+            if (result.size() >= cap) break;
+            KgNode n = g.node(id);
+            if (n != null) result.add(n);
+        }
+        return result;
+    }
+
+    @Override
+    public List<KgEdge> edgesByProperty(Long documentId, String key, String value, Double min, Double max, int limit) {
+        DocumentGraph g = graph(documentId);
+        List<Long> ids = matchProperty(propertyIndex(documentId, g), PropertyIndex.Owner.EDGE, key, value, min, max);
+        if (ids.isEmpty()) return List.of();
+        Map<Long, KgEdge> edges = new HashMap<>();
+        for (KgEdge e : g.edges()) edges.put(e.getId(), e);
+        int cap = Math.max(1, Math.min(limit, 1000));
+        List<KgEdge> result = new ArrayList<>(Math.min(ids.size(), cap));
+        for (Long id : ids) {
+            if (result.size() >= cap) break;
+            KgEdge e = edges.get(id);
+            if (e != null) result.add(e);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> propertySchema(Long documentId) {
+        DocumentGraph g = graph(documentId);
+        PropertyIndex index = propertyIndex(documentId, g);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", index.getVersion());
+        result.put("nodes", index.schema(PropertyIndex.Owner.NODE));
+        result.put("edges", index.schema(PropertyIndex.Owner.EDGE));
+        return result;
+    }
+
+    private List<Long> matchProperty(PropertyIndex index, PropertyIndex.Owner owner, String key,
+                                     String value, Double min, Double max) {
+        if (key == null || key.isBlank()) {
+            throw new BizException("属性键不能为空");
+        }
+        if (value != null) return index.find(owner, key, value);
+        if (min == null && max == null) {
+            throw new BizException("需指定 value 或 min / max");
+        }
+        return index.range(owner, key, min, max);
+    }
+
+    // 属性索引与图版本绑定：版本变化后整体重建，避免逐条维护
+    private PropertyIndex propertyIndex(Long documentId, DocumentGraph g) {
+        PropertyIndex index = propertyCache.get(documentId);
+        if (index != null && index.getVersion() == g.getVersion()) return index;
+        long start = System.currentTimeMillis();
+        index = PropertyIndex.build(g);
+        propertyCache.put(documentId, index);
+        log.debug("文档 {} 属性索引已构建，耗时 {} ms", documentId, System.currentTimeMillis() - start);
+        return index;
+    }
+
+    @Override
+    public void evict(Long documentId) {
+        versions.merge(documentId, 1L, Long::sum);
+        cache.remove(documentId);
+        propertyCache.remove(documentId);
+    }
+
+    /**
+     * 事务提交后把变更增量应用到已缓存的索引；未缓存的文档无需处理，下次访问时按最新数据构建
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGraphChanged(KgGraphChangedEvent event) {
+        if (event.getDocumentId() == null) return;
+        versions.merge(event.getDocumentId(), 1L, Long::sum);
+        if (event.getType() == KgGraphChangedEvent.Type.GRAPH_RESET) {
+            evict(event.getDocumentId());
+            return;
+        }
+        DocumentGraph g = cache.get(event.getDocumentId());
+        if (g == null) return;
+        switch (event.getType()) {
+            case NODE_UPSERTED:
+                g.upsertNode(event.getNode());
+                break;
+            case NODE_DELETED:
+                g.removeNode(event.getId());
+                break;
+            case EDGE_UPSERTED:
+                g.upsertEdge(event.getEdge());
+                break;
+            case EDGE_DELETED:
+                g.removeEdge(event.getId());
+                break;
+            default:
+                evict(event.getDocumentId());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.KgLayout;
+import org.example.mobileproject.entity.KgNodeLayout;
+import org.example.mobileproject.graph.DocumentGraph;
+import org.example.mobileproject.graph.ForceLayout;
+import org.example.mobileproject.graph.GraphArrays;
+import org.example.mobileproject.mapper.KgNodeLayoutMapper;
+import org.example.mobileproject.service.GraphChangeFeedService;
+import org.example.mobileproject.service.GraphIndexService;
+import org.example.mobileproject.service.GraphLayoutService;
+import org.example.mobileproject.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 服务端图谱布局：Barnes–Hut 力导布局在服务端算好坐标，存入 kg_node_layout，
+ * 前端拿到即可绘制。坐标按持久化的图谱版本判断是否过期，过期后以原坐标热启动，只做小幅调整。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GraphLayoutServiceImpl implements GraphLayoutService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final GraphIndexService graphIndexService;
+    private final GraphChangeFeedService changeFeedService;
+    private final KgNodeLayoutMapper layoutMapper;
+
+    @Value("${kg.layout.parallelism:0}")
+    private int parallelism;
+
+    @Value("${kg.layout.iterations:300}")
+    private int iterations;
+
+    @Value("${kg.layout.warm-iterations:60}")
+    private int warmIterations;
+
+    @Value("${kg.layout.cache-size:64}")
+    private int cacheSize;
+
+    private ForkJoinPool pool;
+    private LruCache<Long, KgLayout> cache;
+    private final Map<Long, Object> locks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        cache = new LruCache<>(cacheSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public KgLayout layout(Long documentId, boolean recompute) {
+        // 先取版本再读图：计算期间若有变更，保存的版本偏旧，下次请求会再调整一次
+        long version = changeFeedService.currentVersion(documentId);
+        KgLayout cached = cache.get(documentId);
+        if (!recompute && cached != null && cached.getGraphVersion() == version) return cached;
+
+        synchronized (locks.computeIfAbsent(documentId, id -> new Object())) {
+            cached = cache.get(documentId);
+            if (!recompute && cached != null && cached.getGraphVersion() == version) return cached;
+
+            List<KgNodeLayout> stored = layoutMapper.selectByDocumentId(documentId);
+            if (!recompute && !stored.isEmpty() && stored.stream().allMatch(p -> p.getGraphVersion() == version)) {
+                KgLayout reused = new KgLayout();
+                reused.setDocumentId(documentId);
+                reused.setGraphVersion(version);
+                reused.setPositions(stored);
+                cache.put(documentId, reused);
+                return reused;
+            }
+            KgLayout computed = compute(documentId, version, stored, recompute);
+            cache.put(documentId, computed);
+            return computed;
+        }
+    }
+
+    private KgLayout compute(Long documentId, long version, List<KgNodeLayout> stored, boolean recompute) {
+        long start = System.currentTimeMillis();
+        DocumentGraph graph = graphIndexService.graph(documentId);
+        GraphArrays g = graph.arrays();
+        int n = g.nodeCount();
+
+        Map<Long, KgNodeLayout> previous = new HashMap<>();
+        for (KgNodeLayout p : stored) previous.put(p.getNodeId(), p);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        boolean[] pinned = new boolean[n];
+        int known = 0;
+        for (int v = 0; v < n; v++) {
+            KgNodeLayout p = previous.get(g.node(v).getId());
+            // 强制重算时只保留用户固定的位置
+            if (p != null && (!recompute || p.isPinned())) {
+                x[v] = p.getX();
+                y[v] = p.getY();
+                pinned[v] = p.isPinned();
+                known++;
+            } else {
+                x[v] = Double.NaN;
+                y[v] = Double.NaN;
+            }
+        }
+        boolean warm = known > 0 && known * 2 >= n;   // 已知坐标不足一半时按冷启动处理
+        int rounds = warm ? warmIterations : iterations;
+        ForceLayout.run(g, x, y, pinned, rounds, warm, documentId, pool);
+
+        KgLayout layout = new KgLayout();
+        layout.setDocumentId(documentId);
+        layout.setGraphVersion(version);
+        layout.setComputed(true);
+        layout.setWarmStart(warm);
+        layout.setIterations(rounds);
+        Set<Long> alive = new HashSet<>();
+        for (int v = 0; v < n; v++) {
+            KgNodeLayout p = new KgNodeLayout();
+            p.setNodeId(g.node(v).getId());
+            p.setDocumentId(documentId);
+            p.setX(Math.round(x[v] * 10) / 10.0);
+            p.setY(Math.round(y[v] * 10) / 10.0);
+            p.setPinned(pinned[v]);
+            p.setGraphVersion(version);
+            layout.getPositions().add(p);
+            alive.add(p.getNodeId());
+        }
+        persist(layout.getPositions());
+        List<Long> stale = new ArrayList<>();
+        for (Long id : previous.keySet()) {
+            if (!alive.contains(id)) stale.add(id);
+        }
+        for (int i = 0; i < stale.size(); i += BATCH_SIZE) {
+            layoutMapper.deleteByNodeIds(stale.subList(i, Math.min(i + BATCH_SIZE, stale.size())));
+        }
+        layout.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("文档 {} 布局已计算：{} 个节点，{}，{} 轮，耗时 {} ms",
+                documentId, n, warm ? "热启动" : "冷启动", rounds, layout.getElapsedMs());
+        return layout;
+    }
+
+    @Override
+    public void savePositions(Long documentId, List<KgNodeLayout> positions) {
+        if (positions == null || positions.isEmpty()) return;
+        DocumentGraph graph = graphIndexService.graph(documentId);
+        long version = changeFeedService.currentVersion(documentId);
+        for (KgNodeLayout p : positions) {
+            if (p.getNodeId() == null || graph.node(p.getNodeId()) == null) {
+                throw new BizException("节点不存在或不属于该文档: " + p.getNodeId());
+            }
+            if (!Double.isFinite(p.getX()) || !Double.isFinite(p.getY())) {
+                throw new BizException("坐标无效: " + p.getNodeId());
+            }
+            p.setDocumentId(documentId);
+            p.setGraphVersion(version);
+        }
+        synchronized (locks.computeIfAbsent(documentId, id -> new Object())) {
+            persist(positions);
+            cache.remove(documentId);
+        }
+    }
+
+    private void persist(List<KgNodeLayout> positions) {
+        for (int i = 0; i < positions.size(); i += BATCH_SIZE) {
+            layoutMapper.batchUpsert(positions.subList(i, Math.min(i + BATCH_SIZE, positions.size())));
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package org.example.mobileproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.KgEdge;
+import org.example.mobileproject.entity.KgNode;
+import org.example.mobileproject.entity.KgSearchPage;
+import org.example.mobileproject.event.KgGraphChangedEvent;
+import org.example.mobileproject.graph.NameIndex;
+import org.example.mobileproject.graph.PropertyIndex;
+import org.example.mobileproject.mapper.KgEdgeMapper;
+import org.example.mobileproject.mapper.KgNodeMapper;
+import org.example.mobileproject.service.GraphSearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 图谱搜索：节点名 / 边名的内存前缀索引，启动时按 id 分页从库加载一次，
+ * 之后由图谱变更事件增量维护；属性条件对候选行批量回表后判断。
+ * 索引写入都在单线程执行器上串行执行。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GraphSearchServiceImpl implements GraphSearchService {
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final KgNodeMapper nodeMapper;
+    private final KgEdgeMapper edgeMapper;
+
+    @Value("${kg.search.scan-budget:20000}")
+    private int scanBudget;
+
+    private final NameIndex nodeIndex = new NameIndex();
+    private final NameIndex edgeIndex = new NameIndex();
+    private volatile boolean ready;
+    private volatile boolean failed;     // 全量加载失败，定时重试
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "kg-search-index");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.submit(this::loadAll);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<KgNode> suggest(String prefix, List<Long> documentIds, List<Long> labelIds, int limit) {
+        requireReady();
+        NameIndex.Page page = nodeIndex.scan(prefix, documentIds, null, labelFilter(labelIds),
+                Math.max(1, Math.min(limit, MAX_SUGGESTIONS)), scanBudget);
+        List<KgNode> result = new ArrayList<>(page.items.size());
+        for (NameIndex.Entry e : page.items) {
+            KgNode n = new KgNode();
+            n.setId(e.id);
+            n.setDocumentId(e.documentId);
+            n.setLabelId(e.labelId);
+            n.setName(e.name);
+            result.add(n);
+        }
+        return result;
+    }
+
+    @Override
+    public KgSearchPage<KgNode> searchNodes(String prefix, List<Long> documentIds, List<Long> labelIds,
+                                            Map<String, String> properties, String cursor, int limit) {
+        return search(nodeIndex, prefix, documentIds, labelIds, properties, cursor, limit,
+                nodeMapper::selectByIds, KgNode::getId, KgNode::getProperties);
+    }
+
+    @Override
+    public KgSearchPage<KgEdge> searchEdges(String prefix, List<Long> documentIds, List<Long> relationLabelIds,
+                                            Map<String, String> properties, String cursor, int limit) {
+        return search(edgeIndex, prefix, documentIds, relationLabelIds, properties, cursor, limit,
+                edgeMapper::selectByIds, KgEdge::getId, KgEdge::getProperties);
+    }
+
+    /**
+     * 按索引顺序取候选，批量回表后按属性条件过滤，直到凑满一页或用完扫描预算；
+     * 预算用完时返回的结果可能不足一页，但 nextCursor 仍可继续向后取
+     */
+    private <T> KgSearchPage<T> search(NameIndex index, String prefix, List<Long> documentIds, List<Long> labelIds,
+                                       Map<String, String> properties, String cursor, int limit,
+                                       Function<List<Long>, List<T>> loader, Function<T, Long> idOf,
+                                       Function<T, Map<String, Object>> propertiesOf) {
+        requireReady();
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Map<String, String> predicates = properties == null ? Map.of() : properties;
+        Predicate<NameIndex.Entry> filter = labelFilter(labelIds);
+        String after = decodeCursor(cursor);
+
+        KgSearchPage<T> result = new KgSearchPage<>();
+        int scanned = 0;
+        String next;
+        while (true) {
+            int remaining = size - result.getItems().size();
+            // 有属性条件时多取一些候选，减少回表次数
+            int want = predicates.isEmpty() ? remaining : Math.min(remaining * 4, 1000);
+            NameIndex.Page page = index.scan(prefix, documentIds, after, filter, want, scanBudget - scanned);
+            scanned += page.scanned;
+
+            Map<Long, T> rows = load(page.items, loader, idOf);
+            String consumed = null;
+            boolean full = false;
+            for (NameIndex.Entry e : page.items) {
+                if (result.getItems().size() >= size) {
+                    full = true;
+                    break;
+                }
+                consumed = e.key;
+                T row = rows.get(e.id);
+                if (row != null && matches(propertiesOf.apply(row), predicates)) result.getItems().add(row);
+            }
+            if (full) {
+                next = consumed;
+                break;
+            }
+            next = page.nextKey;
+            if (next == null || result.getItems().size() >= size || scanned >= scanBudget) break;
+            after = next;
+        }
+        result.setNextCursor(next == null ? null : encodeCursor(next));
+        result.setScanned(scanned);
+        return result;
+    }
+
+    private static <T> Map<Long, T> load(List<NameIndex.Entry> entries, Function<List<Long>, List<T>> loader,
+                                         Function<T, Long> idOf) {
+        if (entries.isEmpty()) return Map.of();
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (NameIndex.Entry e : entries) ids.add(e.id);
+        Map<Long, T> rows = new HashMap<>();
+        for (T row : loader.apply(ids)) rows.put(idOf.apply(row), row);
+        return rows;
+    }
+
+    private static boolean matches(Map<String, Object> actual, Map<String, String> predicates) {
+        if (predicates.isEmpty()) return true;
+        if (actual == null) return false;
+        for (Map.Entry<String, String> p : predicates.entrySet()) {
+            if (!PropertyIndex.valueMatches(actual.get(p.getKey()), p.getValue())) return false;
+        }
+        return true;
+    }
+
+    private static Predicate<NameIndex.Entry> labelFilter(List<Long> labelIds) {
+        if (labelIds == null || labelIds.isEmpty()) return null;
+        Set<Long> labels = new HashSet<>(labelIds);
+        return e -> e.labelId != null && labels.contains(e.labelId);
+    }
+
+    private void requireReady() {
+        if (!ready) {
+            throw new BizException(failed ? "搜索索引加载失败，正在重试，请稍后再试" : "搜索索引正在构建，请稍后重试");
+        }
+    }
+
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BizException("无效的分页游标");
+        }
+    }
+
+    // ---------- 索引维护 ----------
+
+    /**
+     * 事务提交后把变更交给索引线程，按提交顺序应用
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGraphChanged(KgGraphChangedEvent event) {
+        executor.submit(() -> {
+            try {
+                apply(event);
+            } catch (Exception e) {
+                log.error("搜索索引增量更新失败", e);
+            }
+        });
+    }
+
+    private void apply(KgGraphChangedEvent event) {
+        switch (event.getType()) {
+            case NODE_UPSERTED:
+                putNode(event.getNode());
+                break;
+            case NODE_DELETED:
+                nodeIndex.remove(event.getId());
+                break;
+            case EDGE_UPSERTED:
+                putEdge(event.getEdge());
+                break;
+            case EDGE_DELETED:
+                edgeIndex.remove(event.getId());
+                break;
+            case GRAPH_RESET:
+                if (event.getDocumentId() != null) reloadDocument(event.getDocumentId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 全量加载失败后定时重试；重试前清空已加载的部分，期间的增量变更也已提交到库，重新加载时一并读到
+     */
+    @Scheduled(fixedDelayString = "${kg.search.load-retry-ms:60000}")
+    public void retryLoad() {
+        if (!failed) return;
+        executor.submit(() -> {
+            if (!failed) return;
+            nodeIndex.clear();
+            edgeIndex.clear();
+            loadAll();
+        });
+    }
+
+    private void loadAll() {
+        long start = System.currentTimeMillis();
+        try {
+            List<NameIndex.Entry> entries = new ArrayList<>();
+            long after = 0;
+            List<KgNode> nodes;
+            do {
+                nodes = nodeMapper.selectIndexPage(after, LOAD_PAGE_SIZE);
+                for (KgNode n : nodes) {
+                    if (n.getDocumentId() != null) entries.add(NameIndex.entry(n.getId(), n.getDocumentId(), n.getLabelId(), n.getName()));
+                }
+                if (!nodes.isEmpty()) after = nodes.get(nodes.size() - 1).getId();
+            } while (nodes.size() == LOAD_PAGE_SIZE);
+            nodeIndex.putAll(entries);
+
+            entries = new ArrayList<>();
+            after = 0;
+            List<KgEdge> edges;
+            do {
+                edges = edgeMapper.selectIndexPage(after, LOAD_PAGE_SIZE);
+                for (KgEdge e : edges) {
+                    if (e.getDocumentId() != null) entries.add(NameIndex.entry(e.getId(), e.getDocumentId(), e.getRelationLabelId(), e.getEdgeName()));
+                }
+                if (!edges.isEmpty()) after = edges.get(edges.size() - 1).getId();
+            } while (edges.size() == LOAD_PAGE_SIZE);
+            edgeIndex.putAll(entries);
+            failed = false;
+            ready = true;
+            log.info("图谱搜索索引已加载：{} 个节点，{} 条边，耗时 {} ms",
+                    nodeIndex.size(), edgeIndex.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            failed = true;
+            log.warn("图谱搜索索引加载失败，稍后重试: {}", e.getMessage());
+        }
+    }
+
+    private void reloadDocument(Long documentId) {
+        nodeIndex.removeDocument(documentId);
+        edgeIndex.removeDocument(documentId);
+        for (KgNode n : nodeMapper.selectByDocumentId(documentId)) putNode(n);
+        for (KgEdge e : edgeMapper.selectByDocumentId(documentId)) putEdge(e);
+    }
+
+    private void putNode(KgNode n) {
+        if (n == null || n.getId() == null || n.getDocumentId() == null) return;
+        nodeIndex.put(n.getId(), n.getDocumentId(), n.getLabelId(), n.getName());
+    }
+
+    private void putEdge(KgEdge e) {
+        if (e == null || e.getId() == null || e.getDocumentId() == null) return;
+        edgeIndex.put(e.getId(), e.getDocumentId(), e.getRelationLabelId(), e.getEdgeName());
+    }
+}
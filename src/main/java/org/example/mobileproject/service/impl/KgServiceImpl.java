@@ -3,20 +3,22 @@ package org.example.mobileproject.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.example.mobileproject.common.BizException;
 import org.example.mobileproject.entity.*;
+import org.example.mobileproject.event.KgGraphChangedEvent;
 import org.example.mobileproject.mapper.*;
 import org.example.mobileproject.service.KgService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class KgServiceImpl implements KgService {
 
+    // 批量插入每批条数，控制单条 SQL 大小
+    private static final int BATCH_SIZE = 500;
+
     private final KgNodeMapper nodeMapper;
     private final KgEdgeMapper edgeMapper;
     private final DocumentMapper documentMapper;
@@ -24,6 +26,8 @@ public class KgServiceImpl implements KgService {
     private final EntityLabelMapper entityLabelMapper;
     private final RelationLabelMapper relationLabelMapper;
     private final RelationMapper relationMapper;
+    private final KgChangeLogMapper changeLogMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     // 创建新节点
     @Override
@@ -82,6 +86,7 @@ public class KgServiceImpl implements KgService {
         }
 
         nodeMapper.insert(node);
+        eventPublisher.publishEvent(KgGraphChangedEvent.nodeUpserted(node));
         return node;
     }
 
@@ -139,13 +144,20 @@ public class KgServiceImpl implements KgService {
         }
 
         nodeMapper.update(node);
-        return nodeMapper.selectById(node.getId());
+        KgNode updated = nodeMapper.selectById(node.getId());
+        eventPublisher.publishEvent(KgGraphChangedEvent.nodeUpserted(updated));
+        return updated;
     }
 
 
     @Override
+    @Transactional
     public void deleteNode(Long id) {
+        KgNode db = nodeMapper.selectById(id);
         nodeMapper.delete(id);
+        if (db != null) {
+            eventPublisher.publishEvent(KgGraphChangedEvent.nodeDeleted(db.getDocumentId(), id));
+        }
     }
 
     @Override
@@ -155,14 +167,24 @@ public class KgServiceImpl implements KgService {
 
 
     @Override
+    @Transactional
     public KgEdge updateEdge(KgEdge edge) {
         edgeMapper.update(edge);
-        return edgeMapper.selectById(edge.getId());
+        KgEdge updated = edgeMapper.selectById(edge.getId());
+        if (updated != null) {
+            eventPublisher.publishEvent(KgGraphChangedEvent.edgeUpserted(updated));
+        }
+        return updated;
     }
 
     @Override
+    @Transactional
     public void deleteEdge(Long id) {
+        KgEdge db = edgeMapper.selectById(id);
         edgeMapper.delete(id);
+        if (db != null) {
+            eventPublisher.publishEvent(KgGraphChangedEvent.edgeDeleted(db.getDocumentId(), id));
+        }
     }
 
     @Override
@@ -174,12 +196,15 @@ public class KgServiceImpl implements KgService {
 
     @Override
     public Object loadFullGraph(Long documentId) {
+        // 先取版本再读数据：客户端之后按该版本增量同步，最多重复收到几条幂等的变更
+        Long version = changeLogMapper.selectVersion(documentId);
         List<KgNode> nodes = nodeMapper.selectByDocumentId(documentId);
         List<KgEdge> edges = edgeMapper.selectByDocumentId(documentId);
 
         Map<String, Object> graph = new HashMap<>();
         graph.put("nodes", nodes);
         graph.put("edges", edges);
+        graph.put("version", version == null ? 0L : version);
 
         return graph;
     }
@@ -215,10 +240,99 @@ public class KgServiceImpl implements KgService {
 
         // 5. 插入 edge
         edgeMapper.insert(edge);
+        eventPublisher.publishEvent(KgGraphChangedEvent.edgeUpserted(edge));
         return edge;
     }
 
+    /**
+     * 实体 → 节点（按 entity_id 去重）、关系 → 边（按 源节点 + 目标节点 + 关系标签 去重）。
+     * 校验全部基于预加载的 Map 在内存中完成，不再逐条查库；完成后发布 GRAPH_RESET 让派生数据整体刷新。
+     * 开头锁住文档行，同一文档的并发调用依次执行，后者能读到前者已提交的节点和边，不会重复插入
+     */
+    @Override
+    @Transactional
+    public KgMaterializeResult materialize(Long documentId) {
+        long start = System.currentTimeMillis();
+        // 必须是事务中的第一条语句：InnoDB 的一致性读快照在第一次普通 SELECT 时建立，拿到锁之后再建立才能看到前一次调用的结果
+        if (documentMapper.selectByIdForUpdate(documentId) == null) {
+            throw new BizException("文档不存在: " + documentId);
+        }
+        KgMaterializeResult result = new KgMaterializeResult();
+        result.setDocumentId(documentId);
+
+        // 1. 预加载
+        Map<Long, RelationLabel> relationLabels = new HashMap<>();
+        for (RelationLabel l : relationLabelMapper.selectAll()) relationLabels.put(l.getId(), l);
+        Map<Long, Long> nodeByEntity = new HashMap<>();
+        for (KgNode n : nodeMapper.selectByDocumentId(documentId)) {
+            if (n.getEntityId() != null) nodeByEntity.putIfAbsent(n.getEntityId(), n.getId());
+        }
+        Set<String> edgeKeys = new HashSet<>();
+        for (KgEdge e : edgeMapper.selectByDocumentId(documentId)) {
+            edgeKeys.add(edgeKey(e.getSourceNodeId(), e.getTargetNodeId(), e.getRelationLabelId()));
+        }
 
+        // 2. 实体 → 节点
+        List<KgNode> newNodes = new ArrayList<>();
+        Map<Long, KgNode> newNodeByEntity = new HashMap<>();
+        for (EntityItem entity : entityItemMapper.selectByDocumentId(documentId)) {
+            if (nodeByEntity.containsKey(entity.getId()) || newNodeByEntity.containsKey(entity.getId())) {
+                result.setNodesExisting(result.getNodesExisting() + 1);
+                continue;
+            }
+            if (entity.getLabelId() == null) {
+                result.setEntitiesSkipped(result.getEntitiesSkipped() + 1);
+                continue;
+            }
+            KgNode node = new KgNode();
+            node.setDocumentId(documentId);
+            node.setEntityId(entity.getId());
+            node.setLabelId(entity.getLabelId());
+            node.setName(entity.getText());
+            newNodes.add(node);
+            newNodeByEntity.put(entity.getId(), node);
+        }
+        for (int i = 0; i < newNodes.size(); i += BATCH_SIZE) {
+            nodeMapper.batchInsert(newNodes.subList(i, Math.min(i + BATCH_SIZE, newNodes.size())));
+        }
+        for (KgNode node : newNodes) nodeByEntity.put(node.getEntityId(), node.getId());
+        result.setNodesCreated(newNodes.size());
+
+        // 3. 关系 → 边
+        List<KgEdge> newEdges = new ArrayList<>();
+        for (Relation relation : relationMapper.selectByDocumentId(documentId)) {
+            Long source = nodeByEntity.get(relation.getHeadEntityId());
+            Long target = nodeByEntity.get(relation.getTailEntityId());
+            RelationLabel label = relation.getRelationLabelId() == null ? null : relationLabels.get(relation.getRelationLabelId());
+            if (source == null || target == null || (relation.getRelationLabelId() != null && label == null)) {
+                result.setRelationsSkipped(result.getRelationsSkipped() + 1);
+                continue;
+            }
+            if (!edgeKeys.add(edgeKey(source, target, relation.getRelationLabelId()))) {
+                result.setEdgesExisting(result.getEdgesExisting() + 1);
+                continue;
+            }
+            KgEdge edge = new KgEdge();
+            edge.setDocumentId(documentId);
+            edge.setSourceNodeId(source);
+            edge.setTargetNodeId(target);
+            edge.setRelationLabelId(relation.getRelationLabelId());
+            edge.setEdgeName(label == null ? null : label.getRelationName());
+            newEdges.add(edge);
+        }
+        for (int i = 0; i < newEdges.size(); i += BATCH_SIZE) {
+            edgeMapper.batchInsert(newEdges.subList(i, Math.min(i + BATCH_SIZE, newEdges.size())));
+        }
+        result.setEdgesCreated(newEdges.size());
 
+        if (!newNodes.isEmpty() || !newEdges.isEmpty()) {
+            eventPublisher.publishEvent(KgGraphChangedEvent.graphReset(documentId));
+        }
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        return result;
+    }
 
+    private static String edgeKey(Long source, Long target, Long relationLabelId) {
+        return source + ":" + target + ":" + relationLabelId;
+    }
 }
@@ -0,0 +1,327 @@
+package org.example.mobileproject.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.config.AiProperties;
+import org.example.mobileproject.entity.LlmCallLog;
+import org.example.mobileproject.entity.LlmRequest;
+import org.example.mobileproject.entity.ModelTarget;
+import org.example.mobileproject.service.LlmClient;
+import org.example.mobileproject.service.LlmUsageService;
+import org.example.mobileproject.service.ModelRouter;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大模型调用客户端：流式（SSE）请求，以便拿到首 token 时间和 usage。
+ * 指标通过 Micrometer 暴露（llm.call.*，按 task / model / outcome 打标签），
+ * 按文档的明细写入 llm_call_log。
+ * 读取响应体时由看门狗线程计时：两行之间超过 read-timeout-ms 或整体超过 total-timeout-ms 即关闭连接，
+ * 阻塞中的读取随之失败，不会一直占着并发许可。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LlmClientImpl implements LlmClient {
+
+    private final AiProperties aiProperties;
+    private final ModelRouter modelRouter;
+    private final LlmUsageService usageService;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private ScheduledExecutorService watchdog;
+
+    @PostConstruct
+    public void init() {
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "llm-stream-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    @Override
+    public String chat(LlmRequest request) {
+        List<ModelTarget> candidates = modelRouter.route(request.getTaskType());
+        Exception lastError = null;
+        int attempt = 0;
+
+        for (ModelTarget target : candidates) {
+            if (attempt > 0 && request.getStreamListener() != null) {
+                request.getStreamListener().onRestart();
+            }
+            LlmCallLog callLog = newCallLog(request, target, attempt);
+            long start = System.nanoTime();
+            try {
+                String content = doChat(target, request, callLog);
+                long totalMs = elapsedMs(start);
+                callLog.setSuccess(true);
+                callLog.setTotalMs(totalMs);
+                modelRouter.recordSuccess(target, totalMs);
+                recordMetrics(request, target, callLog, "success");
+                recordRetries(request, target, attempt);
+                return content;
+            } catch (Exception e) {
+                long totalMs = elapsedMs(start);
+                callLog.setSuccess(false);
+                callLog.setTotalMs(totalMs);
+                callLog.setErrorMessage(truncate(e.getMessage()));
+                modelRouter.recordFailure(target, totalMs);
+                recordMetrics(request, target, callLog, "failure");
+                log.warn("任务 {} 调用模型 {} 失败: {}", request.getTaskType().getCode(), target.key(), e.getMessage());
+                lastError = e;
+                attempt++;
+            } finally {
+                usageService.record(callLog);
+            }
+        }
+        if (!candidates.isEmpty()) recordRetries(request, candidates.get(candidates.size() - 1), attempt - 1);
+        throw new BizException("AI 调用失败: " + (lastError != null ? lastError.getMessage() : "无可用模型"));
+    }
+
+    private String doChat(ModelTarget target, LlmRequest request, LlmCallLog callLog) throws Exception {
+        AiProperties.Provider provider = provider(target);
+
+        // 1. 排队：同一提供方的并发请求数受限
+        Semaphore semaphore = permits.computeIfAbsent(target.getProvider(),
+                k -> new Semaphore(Math.max(1, provider.getMaxConcurrency()), true));
+        long queueStart = System.nanoTime();
+        if (!semaphore.tryAcquire(provider.getReadTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("等待提供方并发许可超时: " + target.getProvider());
+        }
+        callLog.setQueueWaitMs(elapsedMs(queueStart));
+
+        StreamTimeout timeout = null;
+        try {
+            // 2. 发出请求，收到响应头即视为连接建立
+            long sendStart = System.nanoTime();
+            HttpResponse<InputStream> response = httpClient(target.getProvider(), provider)
+                    .send(buildRequest(target, provider, request), HttpResponse.BodyHandlers.ofInputStream());
+            callLog.setConnectMs(elapsedMs(sendStart));
+            long remainingMs = provider.getTotalTimeoutMs() - callLog.getConnectMs();
+            timeout = new StreamTimeout(response.body(), provider.getReadTimeoutMs(), Math.max(1, remainingMs));
+
+            if (response.statusCode() != 200) {
+                try (InputStream in = response.body()) {
+                    String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                    throw new IllegalStateException("HTTP " + response.statusCode() + ": " + body);
+                }
+            }
+
+            // 3. 逐行读取 SSE，拼接 delta 内容，记录首 token 时间与 usage
+            StringBuilder content = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = timeout.readLine(reader)) != null) {
+                    if (!line.startsWith("data:")) continue;
+                    String data = line.substring(5).trim();
+                    if ("[DONE]".equals(data)) break;
+
+                    JsonNode chunk = objectMapper.readTree(data);
+                    JsonNode choices = chunk.path("choices");
+                    if (choices.isArray() && choices.size() > 0) {
+                        String delta = choices.get(0).path("delta").path("content").asText("");
+                        if (!delta.isEmpty()) {
+                            if (callLog.getTtftMs() == null) {
+                                callLog.setTtftMs(elapsedMs(sendStart));
+                            }
+                            content.append(delta);
+                            if (request.getStreamListener() != null) {
+                                request.getStreamListener().onDelta(delta);
+                            }
+                        }
+                    }
+                    JsonNode usage = chunk.path("usage");
+                    if (usage.isObject()) {
+                        callLog.setPromptTokens(usage.path("prompt_tokens").asInt());
+                        callLog.setCompletionTokens(usage.path("completion_tokens").asInt());
+                    }
+                }
+            }
+            if (content.length() == 0) {
+                throw new IllegalStateException("模型未返回内容");
+            }
+            return content.toString();
+        } finally {
+            if (timeout != null) timeout.cancel();
+            semaphore.release();
+        }
+    }
+
+    /**
+     * 流式读取的超时控制：每读到一行重新计算空闲时限，另有一个总时限；
+     * 到时由看门狗关闭响应流，阻塞中的 readLine 抛出异常，再换成超时的说明
+     */
+    private final class StreamTimeout {
+        private final InputStream body;
+        private final long idleMs;
+        private final ScheduledFuture<?> deadline;
+        private ScheduledFuture<?> idle;
+        private volatile String expired;
+
+        StreamTimeout(InputStream body, long idleMs, long totalMs) {
+            this.body = body;
+            this.idleMs = idleMs;
+            this.deadline = watchdog.schedule(() -> expire("响应超过总时限 " + totalMs + " ms"), totalMs, TimeUnit.MILLISECONDS);
+        }
+
+        String readLine(BufferedReader reader) throws IOException {
+            idle = watchdog.schedule(() -> expire("超过 " + idleMs + " ms 未收到数据"), idleMs, TimeUnit.MILLISECONDS);
+            try {
+                String line = reader.readLine();
+                if (expired != null) throw new IOException(expired);
+                return line;
+            } catch (IOException e) {
+                if (expired != null) throw new IOException("流式读取超时: " + expired, e);
+                throw e;
+            } finally {
+                idle.cancel(false);
+            }
+        }
+
+        void cancel() {
+            deadline.cancel(false);
+            if (idle != null) idle.cancel(false);
+        }
+
+        private void expire(String reason) {
+            expired = reason;
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // 关闭只是为了唤醒读取线程
+            }
+        }
+    }
+
+    private HttpRequest buildRequest(ModelTarget target, AiProperties.Provider provider, LlmRequest request) throws Exception {
+        Map<String, String> message = new HashMap<>();
+        message.put("role", "user");
+        message.put("content", request.getPrompt());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", target.getModel());
+        body.put("messages", Collections.singletonList(message));
+        body.put("stream", true);
+        body.put("stream_options", Collections.singletonMap("include_usage", true));
+        if (request.isJsonMode()) {
+            body.put("response_format", Collections.singletonMap("type", "json_object"));
+        }
+
+        return HttpRequest.newBuilder(URI.create(provider.getBaseUrl()))
+                .timeout(Duration.ofMillis(provider.getReadTimeoutMs()))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + provider.getApiKey())
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private void recordMetrics(LlmRequest request, ModelTarget target, LlmCallLog callLog, String outcome) {
+        String task = request.getTaskType().getCode();
+        String model = target.key();
+
+        recordTimer("llm.call.queue.wait", "等待并发许可耗时", task, model, outcome, callLog.getQueueWaitMs());
+        recordTimer("llm.call.connect", "发出请求到收到响应头耗时", task, model, outcome, callLog.getConnectMs());
+        recordTimer("llm.call.ttft", "首个 token 到达耗时", task, model, outcome, callLog.getTtftMs());
+        recordTimer("llm.call.duration", "单次调用总耗时", task, model, outcome, callLog.getTotalMs());
+
+        if (callLog.getPromptTokens() != null) {
+            tokenSummary(task, model, "prompt").record(callLog.getPromptTokens());
+        }
+        if (callLog.getCompletionTokens() != null) {
+            tokenSummary(task, model, "completion").record(callLog.getCompletionTokens());
+        }
+    }
+
+    // 一次 chat 调用共重试了几次，记在最后一个尝试的模型下
+    private void recordRetries(LlmRequest request, ModelTarget target, int retries) {
+        if (retries <= 0) return;
+        meterRegistry.counter("llm.call.retries", "task", request.getTaskType().getCode(), "model", target.key())
+                .increment(retries);
+    }
+
+    private void recordTimer(String name, String description, String task, String model, String outcome, Long ms) {
+        if (ms == null) return;
+        Timer.builder(name)
+                .description(description)
+                .tags("task", task, "model", model, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(ms, TimeUnit.MILLISECONDS);
+    }
+
+    private DistributionSummary tokenSummary(String task, String model, String type) {
+        return DistributionSummary.builder("llm.tokens")
+                .description("每次调用的 token 数")
+                .tags("task", task, "model", model, "type", type)
+                .register(meterRegistry);
+    }
+
+    private LlmCallLog newCallLog(LlmRequest request, ModelTarget target, int attempt) {
+        LlmCallLog callLog = new LlmCallLog();
+        callLog.setDocumentId(request.getDocumentId());
+        callLog.setTaskType(request.getTaskType().getCode());
+        callLog.setProvider(target.getProvider());
+        callLog.setModel(target.getModel());
+        callLog.setRetryCount(attempt);
+        return callLog;
+    }
+
+    private AiProperties.Provider provider(ModelTarget target) {
+        AiProperties.Provider provider = aiProperties.getProviders().get(target.getProvider());
+        if (provider == null) {
+            throw new IllegalStateException("未配置提供方: " + target.getProvider());
+        }
+        return provider;
+    }
+
+    private HttpClient httpClient(String name, AiProperties.Provider provider) {
+        return httpClients.computeIfAbsent(name, k -> HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(provider.getConnectTimeoutMs()))
+                .build());
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String truncate(String msg) {
+        if (msg == null) return null;
+        return msg.length() > 500 ? msg.substring(0, 500) : msg;
+    }
+}
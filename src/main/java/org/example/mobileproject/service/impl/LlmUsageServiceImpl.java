@@ -0,0 +1,37 @@
+package org.example.mobileproject.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.entity.LlmCallLog;
+import org.example.mobileproject.entity.LlmUsageSummary;
+import org.example.mobileproject.mapper.LlmCallLogMapper;
+import org.example.mobileproject.service.LlmUsageService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LlmUsageServiceImpl implements LlmUsageService {
+
+    private final LlmCallLogMapper callLogMapper;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void record(LlmCallLog callLog) {
+        try {
+            callLogMapper.insert(callLog);
+        } catch (Exception e) {
+            // 统计失败不影响业务调用
+            log.warn("记录大模型调用失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<LlmUsageSummary> summaryByDocument(Long documentId) {
+        return callLogMapper.selectUsageSummaryByDocument(documentId);
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.mobileproject.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.config.AiProperties;
+import org.example.mobileproject.entity.ModelTarget;
+import org.example.mobileproject.entity.PromptTemplate;
+import org.example.mobileproject.mapper.PromptTemplateMapper;
+import org.example.mobileproject.service.ModelRouter;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于配置规则 + 最近窗口 p95 延迟/错误率的模型路由
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModelRouterImpl implements ModelRouter {
+
+    private final AiProperties aiProperties;
+    private final PromptTemplateMapper promptTemplateMapper;
+
+    private final Map<String, ModelStats> statsMap = new ConcurrentHashMap<>();
+
+    // 任务类型 -> 启用模板指定的模型（Optional.empty 表示未指定），模板变更时整体失效
+    private final Map<String, Optional<String>> templateModels = new ConcurrentHashMap<>();
+    private final AtomicLong templateVersion = new AtomicLong();
+
+    @Override
+    public List<ModelTarget> route(AiTaskType taskType) {
+        AiProperties.Route route = aiProperties.getRoutes().get(taskType.getCode());
+        if (route == null || route.getPrimary() == null) {
+            throw new BizException("未配置任务类型的模型路由: " + taskType.getCode());
+        }
+
+        ModelTarget primary = ModelTarget.parse(route.getPrimary());
+        ModelTarget fallback = ModelTarget.parse(route.getFallback());
+
+        // 启用中的 prompt 模板指定了 model 时，覆盖首选模型（提供方沿用路由配置）
+        String templateModel = activeTemplateModel(taskType);
+        if (templateModel != null && !templateModel.equals(primary.getModel())) {
+            if (fallback == null) fallback = primary;
+            primary = new ModelTarget(primary.getProvider(), templateModel);
+        }
+
+        List<ModelTarget> candidates = new ArrayList<>();
+        candidates.add(primary);
+        if (fallback != null && !fallback.equals(primary)) {
+            candidates.add(fallback);
+        }
+
+        // 首选模型不健康、备用模型健康时，调换顺序
+        if (candidates.size() > 1
+                && !isHealthy(primary, route.getMaxP95Ms())
+                && isHealthy(fallback, 0)) {
+            log.info("任务 {} 首选模型 {} 不健康，改走备用模型 {}", taskType.getCode(), primary.key(), fallback.key());
+            Collections.swap(candidates, 0, 1);
+        }
+        return candidates;
+    }
+
+    @Override
+    public void recordSuccess(ModelTarget target, long latencyMs) {
+        stats(target).add(latencyMs, true);
+    }
+
+    @Override
+    public void recordFailure(ModelTarget target, long latencyMs) {
+        stats(target).add(latencyMs, false);
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new TreeMap<>();
+        long windowMs = aiProperties.getRouting().getWindowSeconds() * 1000L;
+        statsMap.forEach((key, s) -> {
+            ModelStats.Snapshot snap = s.snapshot(windowMs);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("samples", snap.samples);
+            m.put("errorRate", snap.errorRate());
+            m.put("p95Ms", snap.p95Ms);
+            result.put(key, m);
+        });
+        return result;
+    }
+
+    @Override
+    public void invalidateTemplates() {
+        templateVersion.incrementAndGet();
+        templateModels.clear();
+    }
+
+    private String activeTemplateModel(AiTaskType taskType) {
+        String code = taskType.getCode();
+        Optional<String> cached = templateModels.get(code);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        long version = templateVersion.get();
+        Optional<String> loaded = Optional.ofNullable(loadTemplateModel(code));
+        // 加载期间模板发生变更则不回填，避免旧值覆盖失效
+        if (templateVersion.get() == version) {
+            templateModels.put(code, loaded);
+            if (templateVersion.get() != version) {
+                templateModels.remove(code);
+            }
+        }
+        return loaded.orElse(null);
+    }
+
+    private String loadTemplateModel(String code) {
+        List<PromptTemplate> templates = promptTemplateMapper.selectByTaskType(code);
+        for (PromptTemplate t : templates) {
+            if (t.getIsActive() != null && t.getIsActive() == 1
+                    && t.getModel() != null && !t.getModel().isBlank()) {
+                return t.getModel().trim();
+            }
+        }
+        return null;
+    }
+
+    private boolean isHealthy(ModelTarget target, long maxP95Ms) {
+        AiProperties.Routing routing = aiProperties.getRouting();
+        ModelStats.Snapshot snap = stats(target).snapshot(routing.getWindowSeconds() * 1000L);
+        if (snap.samples < routing.getMinSamples()) return true; // 样本不足，视为健康（允许探测）
+        if (snap.errorRate() > routing.getMaxErrorRate()) return false;
+        return maxP95Ms <= 0 || snap.p95Ms <= maxP95Ms;
+    }
+
+    private ModelStats stats(ModelTarget target) {
+        return statsMap.computeIfAbsent(target.key(), k -> new ModelStats());
+    }
+
+    /**
+     * 固定容量的环形缓冲区，记录最近的调用耗时与成败
+     */
+    static class ModelStats {
+        private static final int CAPACITY = 256;
+
+        private final long[] timestamps = new long[CAPACITY];
+        private final long[] latencies = new long[CAPACITY];
+        private final boolean[] success = new boolean[CAPACITY];
+        private int next = 0;
+        private int size = 0;
+
+        synchronized void add(long latencyMs, boolean ok) {
+            timestamps[next] = System.currentTimeMillis();
+            latencies[next] = latencyMs;
+            success[next] = ok;
+            next = (next + 1) % CAPACITY;
+            if (size < CAPACITY) size++;
+        }
+
+        synchronized Snapshot snapshot(long windowMs) {
+            long since = System.currentTimeMillis() - windowMs;
+            long[] window = new long[size];
+            int n = 0;
+            int errors = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] < since) continue;
+                window[n++] = latencies[i];
+                if (!success[i]) errors++;
+            }
+            long p95 = 0;
+            if (n > 0) {
+                Arrays.sort(window, 0, n);
+                p95 = window[Math.min(n - 1, (int) Math.ceil(n * 0.95) - 1)];
+            }
+            return new Snapshot(n, errors, p95);
+        }
+
+        static class Snapshot {
+            final int samples;
+            final int errors;
+            final long p95Ms;
+
+            Snapshot(int samples, int errors, long p95Ms) {
+                this.samples = samples;
+                this.errors = errors;
+                this.p95Ms = p95Ms;
+            }
+
+            double errorRate() {
+                return samples == 0 ? 0 : (double) errors / samples;
+            }
+        }
+    }
+}
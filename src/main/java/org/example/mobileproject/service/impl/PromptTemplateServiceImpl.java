@@ -2,6 +2,7 @@ package org.example.mobileproject.service.impl;
 
 import org.example.mobileproject.entity.PromptTemplate;
 import org.example.mobileproject.mapper.PromptTemplateMapper;
+import org.example.mobileproject.service.ModelRouter;
 import org.example.mobileproject.service.PromptTemplateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,9 +15,14 @@ public class PromptTemplateServiceImpl implements PromptTemplateService {
     @Autowired
     private PromptTemplateMapper promptTemplateMapper;
 
+    @Autowired
+    private ModelRouter modelRouter;
+
     @Override
     public int add(PromptTemplate template) {
-        return promptTemplateMapper.insert(template);
+        int rows = promptTemplateMapper.insert(template);
+        modelRouter.invalidateTemplates();
+        return rows;
     }
 
     @Override
@@ -41,16 +47,22 @@ public class PromptTemplateServiceImpl implements PromptTemplateService {
 
     @Override
     public int update(PromptTemplate template) {
-        return promptTemplateMapper.update(template);
+        int rows = promptTemplateMapper.update(template);
+        modelRouter.invalidateTemplates();
+        return rows;
     }
 
     @Override
     public int delete(Long id) {
-        return promptTemplateMapper.delete(id);
+        int rows = promptTemplateMapper.delete(id);
+        modelRouter.invalidateTemplates();
+        return rows;
     }
 
     @Override
     public int setActive(Long id, Integer isActive) {
-        return promptTemplateMapper.setActive(id, isActive);
+        int rows = promptTemplateMapper.setActive(id, isActive);
+        modelRouter.invalidateTemplates();
+        return rows;
     }
 }
@@ -0,0 +1,325 @@
+package org.example.mobileproject.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.*;
+import org.example.mobileproject.mapper.DocumentTokenMapper;
+import org.example.mobileproject.mapper.EntityItemMapper;
+import org.example.mobileproject.mapper.RelationLabelMapper;
+import org.example.mobileproject.mapper.RelationMapper;
+import org.example.mobileproject.service.EntityLabelService;
+import org.example.mobileproject.service.LlmClient;
+import org.example.mobileproject.service.RelationExtractionService;
+import org.example.mobileproject.service.RelationService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI 关系抽取：
+ * 1. 同一句内或相距不超过窗口的实体两两组成候选对，按已标注关系的标签组合剪枝；
+ * 2. 每个 prompt 携带多对候选，各批次在 aiTaskExecutor 上并发调用（并发度另受提供方 max-concurrency 限制）；
+ * 3. 结果按 (文档, 标签, 头, 尾) 去重后批量入库。
+ * 调用次数约为候选对数 / pairs-per-prompt，耗时取决于并发度而不是候选对数。
+ */
+@Slf4j
+@Service
+public class RelationExtractionServiceImpl implements RelationExtractionService {
+
+    // 句末标点（分词按字符切分，一个 token 即一个字符）
+    private static final String SENTENCE_END = "。！？!?；;\n";
+
+    private final DocumentTokenMapper tokenMapper;
+    private final EntityItemMapper entityItemMapper;
+    private final EntityLabelService entityLabelService;
+    private final RelationLabelMapper relationLabelMapper;
+    private final RelationMapper relationMapper;
+    private final RelationService relationService;
+    private final LlmClient llmClient;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${ai.relation.window-tokens:60}")
+    private int windowTokens;
+
+    @Value("${ai.relation.pairs-per-prompt:30}")
+    private int pairsPerPrompt;
+
+    @Value("${ai.relation.max-pairs:3000}")
+    private int maxPairs;
+
+    public RelationExtractionServiceImpl(DocumentTokenMapper tokenMapper,
+                                         EntityItemMapper entityItemMapper,
+                                         EntityLabelService entityLabelService,
+                                         RelationLabelMapper relationLabelMapper,
+                                         RelationMapper relationMapper,
+                                         RelationService relationService,
+                                         LlmClient llmClient,
+                                         ObjectMapper objectMapper,
+                                         @Qualifier("aiTaskExecutor") ThreadPoolTaskExecutor executor) {
+        this.tokenMapper = tokenMapper;
+        this.entityItemMapper = entityItemMapper;
+        this.entityLabelService = entityLabelService;
+        this.relationLabelMapper = relationLabelMapper;
+        this.relationMapper = relationMapper;
+        this.relationService = relationService;
+        this.llmClient = llmClient;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+    }
+
+    /**
+     * 候选实体对：a 在原文中位于 b 之前，distance 为两者之间的 token 数
+     */
+    private static class Pair {
+        final EntityItem a;
+        final EntityItem b;
+        final int distance;
+
+        Pair(EntityItem a, EntityItem b) {
+            this.a = a;
+            this.b = b;
+            this.distance = b.getTokenStart() - a.getTokenEnd() - 1;
+        }
+    }
+
+    /**
+     * 已标注关系中的标签组合；还没有任何标注关系时不做剪枝
+     */
+    private static class Signatures {
+        final Set<String> entityPairs = new HashSet<>();          // 头标签:尾标签
+        final Map<Long, Set<String>> byRelation = new HashMap<>(); // 关系标签 → 头标签:尾标签
+
+        Signatures(List<RelationSignature> list) {
+            for (RelationSignature s : list) {
+                String key = s.getHeadLabelId() + ":" + s.getTailLabelId();
+                entityPairs.add(key);
+                byRelation.computeIfAbsent(s.getRelationLabelId(), k -> new HashSet<>()).add(key);
+            }
+        }
+
+        // 两个方向任一出现过即可能有关系
+        boolean compatible(Long labelA, Long labelB) {
+            return entityPairs.isEmpty()
+                    || entityPairs.contains(labelA + ":" + labelB)
+                    || entityPairs.contains(labelB + ":" + labelA);
+        }
+
+        // 模型给出的关系与头 / 尾实体标签是否相符；该关系标签尚无标注样本时放行
+        boolean accepts(Long relationLabelId, Long headLabel, Long tailLabel) {
+            Set<String> keys = byRelation.get(relationLabelId);
+            return keys == null || keys.contains(headLabel + ":" + tailLabel);
+        }
+    }
+
+    @Override
+    public Map<String, Object> extractAndSave(Long documentId) {
+        long start = System.currentTimeMillis();
+        log.info("--- 开始 AI 关系抽取任务，文档 ID: {} ---", documentId);
+
+        List<RelationLabel> relationLabels = relationLabelMapper.selectAll();
+        if (relationLabels.isEmpty()) {
+            throw new BizException("请先创建关系标签");
+        }
+        List<EntityItem> entities = entityItemMapper.selectByDocumentId(documentId);
+        List<DocumentToken> tokens = tokenMapper.selectByDocumentId(documentId);
+        if (tokens.isEmpty()) {
+            throw new BizException("该文档尚未进行分词处理");
+        }
+
+        // 1. 候选实体对
+        int[] sentenceOf = sentenceIds(tokens);
+        Signatures signatures = new Signatures(relationMapper.selectSignatures());
+        List<Pair> pairs = candidatePairs(entities, sentenceOf, signatures);
+        log.info("文档 {} 共 {} 个实体，生成 {} 个候选实体对", documentId, entities.size(), pairs.size());
+
+        // 2. 分批并发调用大模型
+        Map<String, RelationLabel> labelsByName = new HashMap<>();
+        for (RelationLabel l : relationLabels) {
+            labelsByName.put(normalizeLabel(l.getRelationName()), l);
+        }
+        Map<Long, String> entityLabelNames = new HashMap<>();
+        for (EntityLabel l : entityLabelService.listAll()) {
+            entityLabelNames.put(l.getId(), l.getLabelName());
+        }
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<List<Relation>>> futures = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i += pairsPerPrompt) {
+            List<Pair> batch = pairs.subList(i, Math.min(pairs.size(), i + pairsPerPrompt));
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> extractBatch(documentId, batch, tokens, sentenceOf, relationLabels,
+                            labelsByName, entityLabelNames, signatures), executor)
+                    .exceptionally(e -> {
+                        // 单批失败不影响其他批次
+                        log.warn("文档 {} 关系抽取批次失败（{} 对），原因: {}", documentId, batch.size(), e.getMessage());
+                        failed.incrementAndGet();
+                        return List.of();
+                    }));
+        }
+        List<Relation> extracted = new ArrayList<>();
+        for (CompletableFuture<List<Relation>> f : futures) {
+            extracted.addAll(f.join());
+        }
+
+        // 3. 去重后批量入库
+        List<Relation> inserted = relationService.addAll(documentId, extracted);
+        log.info("--- 文档 {} AI 关系抽取完成：抽取 {} 条，新增 {} 条，耗时 {} ms ---",
+                documentId, extracted.size(), inserted.size(), System.currentTimeMillis() - start);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentId", documentId);
+        result.put("candidatePairs", pairs.size());
+        result.put("batches", futures.size());
+        result.put("failedBatches", failed.get());
+        result.put("extracted", extracted.size());
+        result.put("inserted", inserted.size());
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 同一句内或间隔不超过窗口的实体对，按间隔升序，超过上限时只保留最近的
+     */
+    private List<Pair> candidatePairs(List<EntityItem> entities, int[] sentenceOf, Signatures signatures) {
+        List<EntityItem> sorted = new ArrayList<>(entities);
+        sorted.removeIf(e -> e.getTokenStart() == null || e.getTokenEnd() == null
+                || e.getTokenStart() < 0 || e.getTokenEnd() >= sentenceOf.length);
+        sorted.sort(Comparator.comparing(EntityItem::getTokenStart));
+
+        List<Pair> pairs = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            EntityItem a = sorted.get(i);
+            for (int j = i + 1; j < sorted.size(); j++) {
+                EntityItem b = sorted.get(j);
+                // 按起点排序后，句号与间隔都只增不减，超出后可以提前结束
+                boolean sameSentence = sentenceOf[b.getTokenStart()] == sentenceOf[a.getTokenEnd()];
+                if (!sameSentence && b.getTokenStart() - a.getTokenEnd() - 1 > windowTokens) break;
+                if (b.getTokenStart() <= a.getTokenEnd()) continue;   // 嵌套 / 重叠的实体
+                if (!signatures.compatible(a.getLabelId(), b.getLabelId())) continue;
+                pairs.add(new Pair(a, b));
+            }
+        }
+        if (pairs.size() > maxPairs) {
+            log.warn("候选实体对 {} 个超过上限 {}，只保留距离最近的", pairs.size(), maxPairs);
+            pairs.sort(Comparator.comparingInt(p -> p.distance));
+            pairs = new ArrayList<>(pairs.subList(0, maxPairs));
+        }
+        return pairs;
+    }
+
+    private List<Relation> extractBatch(Long documentId, List<Pair> batch, List<DocumentToken> tokens,
+                                        int[] sentenceOf, List<RelationLabel> relationLabels,
+                                        Map<String, RelationLabel> labelsByName, Map<Long, String> entityLabelNames,
+                                        Signatures signatures) {
+        // 同一批次内相同的上下文片段只出现一次
+        Map<String, Integer> snippets = new LinkedHashMap<>();
+        StringBuilder pairText = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            Pair p = batch.get(i);
+            String snippet = snippet(tokens, sentenceOf, p);
+            Integer snippetNo = snippets.computeIfAbsent(snippet, k -> snippets.size() + 1);
+            pairText.append(i + 1).append(". A=「").append(p.a.getText()).append("」(")
+                    .append(entityLabelNames.getOrDefault(p.a.getLabelId(), "未知")).append(") B=「")
+                    .append(p.b.getText()).append("」(")
+                    .append(entityLabelNames.getOrDefault(p.b.getLabelId(), "未知")).append(") 片段 ")
+                    .append(snippetNo).append('\n');
+        }
+
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("你是一个关系抽取助手。请根据文本片段判断每个候选实体对之间是否存在下列关系之一。\n")
+                .append("【关系类型】：\n");
+        for (RelationLabel l : relationLabels) {
+            prompt.append("- ").append(l.getRelationName());
+            if (l.getDescription() != null && !l.getDescription().isBlank()) {
+                prompt.append("：").append(l.getDescription());
+            }
+            prompt.append('\n');
+        }
+        prompt.append("【要求】：\n")
+                .append("1. 严格返回 JSON 格式。\n")
+                .append("2. 结构：{\"relations\": [{\"pair\": 序号, \"head\": \"A\" 或 \"B\", \"label\": \"关系类型\"}]}\n")
+                .append("3. head 为关系的主体（头实体），另一个为尾实体；label 只能取上面列出的关系类型。\n")
+                .append("4. 只输出片段中有明确依据的关系，没有关系的实体对不要输出。\n\n")
+                .append("【文本片段】：\n");
+        snippets.forEach((text, no) -> prompt.append('[').append(no).append("] ").append(text).append('\n'));
+        prompt.append("\n【候选实体对】：\n").append(pairText);
+
+        LlmRequest request = LlmRequest.of(AiTaskType.RELATION_EXTRACTION, documentId, prompt.toString());
+        request.setJsonMode(true);
+        AIRelationExtractionResponse response;
+        try {
+            response = objectMapper.readValue(llmClient.chat(request), AIRelationExtractionResponse.class);
+        } catch (Exception e) {
+            throw new BizException("关系抽取结果解析失败: " + e.getMessage());
+        }
+        if (response == null || response.getRelations() == null) return List.of();
+
+        List<Relation> result = new ArrayList<>();
+        for (AIRelationExtractionResponse.RelationDetail d : response.getRelations()) {
+            if (d.getPair() == null || d.getPair() < 1 || d.getPair() > batch.size()) continue;
+            RelationLabel label = d.getLabel() == null ? null : labelsByName.get(normalizeLabel(d.getLabel()));
+            if (label == null) {
+                log.debug("忽略未定义的关系类型: {}", d.getLabel());
+                continue;
+            }
+            Pair p = batch.get(d.getPair() - 1);
+            boolean aIsHead = !"B".equalsIgnoreCase(d.getHead() == null ? null : d.getHead().trim());
+            EntityItem head = aIsHead ? p.a : p.b;
+            EntityItem tail = aIsHead ? p.b : p.a;
+            if (!signatures.accepts(label.getId(), head.getLabelId(), tail.getLabelId())) continue;
+
+            Relation r = new Relation();
+            r.setDocumentId(documentId);
+            r.setRelationLabelId(label.getId());
+            r.setHeadEntityId(head.getId());
+            r.setTailEntityId(tail.getId());
+            result.add(r);
+        }
+        return result;
+    }
+
+    /**
+     * 候选对的上下文：两个实体所在句子的全文；跨句且过长时只取实体前后各半个窗口
+     */
+    private String snippet(List<DocumentToken> tokens, int[] sentenceOf, Pair p) {
+        int from = p.a.getTokenStart();
+        int to = p.b.getTokenEnd();
+        int sentenceFrom = from;
+        while (sentenceFrom > 0 && sentenceOf[sentenceFrom - 1] == sentenceOf[from]) sentenceFrom--;
+        int sentenceTo = to;
+        while (sentenceTo < tokens.size() - 1 && sentenceOf[sentenceTo + 1] == sentenceOf[to]) sentenceTo++;
+        int limit = 2 * windowTokens + (to - from + 1);
+        if (sentenceTo - sentenceFrom + 1 > limit) {
+            sentenceFrom = Math.max(sentenceFrom, from - windowTokens / 2);
+            sentenceTo = Math.min(sentenceTo, to + windowTokens / 2);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = sentenceFrom; i <= sentenceTo; i++) {
+            sb.append(tokens.get(i).getTokenText());
+        }
+        return sb.toString().replaceAll("\\s+", " ").trim();
+    }
+
+    // 每个 token 所属句子的序号，句末标点归入当前句
+    private static int[] sentenceIds(List<DocumentToken> tokens) {
+        int[] ids = new int[tokens.size()];
+        int sentence = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            ids[i] = sentence;
+            String text = tokens.get(i).getTokenText();
+            if (text != null && text.length() == 1 && SENTENCE_END.indexOf(text.charAt(0)) >= 0) sentence++;
+        }
+        return ids;
+    }
+
+    private static String normalizeLabel(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,12 +1,26 @@
 package org.example.mobileproject.service.impl;
 
+import jakarta.annotation.PostConstruct;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.entity.EntityItem;
 import org.example.mobileproject.entity.Relation;
+import org.example.mobileproject.event.DocumentDataChangedEvent;
+import org.example.mobileproject.graph.RelationIndex;
+import org.example.mobileproject.mapper.EntityItemMapper;
 import org.example.mobileproject.mapper.RelationMapper;
 import org.example.mobileproject.service.RelationService;
+import org.example.mobileproject.util.LruCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class RelationServiceImpl implements RelationService {
@@ -14,9 +28,35 @@ public class RelationServiceImpl implements RelationService {
     @Autowired
     private RelationMapper relationMapper;
 
+    @Autowired
+    private EntityItemMapper entityItemMapper;
+
+    // 单条 INSERT 的最大行数
+    private static final int INSERT_BATCH = 500;
+
+    @Value("${relation.index.cache-size:64}")
+    private int cacheSize;
+
+    // 文档 → 关系邻接索引；写操作在写库后同步更新已缓存的索引
+    private LruCache<Long, RelationIndex> cache;
+
+    // 文档 → 写入版本，每次写库后递增；加载期间版本变化的索引不放入缓存
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    // 文档 → 批量写入锁：判重读取与插入之间不能插入同一文档的另一次批量写入
+    private final Map<Long, Object> addAllLocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = new LruCache<>(cacheSize);
+    }
+
     @Override
     public int add(Relation relation) {
-        return relationMapper.insert(relation);
+        int rows = relationMapper.insert(relation);
+        RelationIndex index = written(relation.getDocumentId());
+        if (index != null) index.upsert(relation);
+        return rows;
     }
 
     @Override
@@ -31,11 +71,132 @@ public class RelationServiceImpl implements RelationService {
 
     @Override
     public int update(Relation relation) {
-        return relationMapper.update(relation);
+        Relation old = relationMapper.selectById(relation.getId());
+        int rows = relationMapper.update(relation);
+        if (old != null) {
+            RelationIndex index = written(old.getDocumentId());
+            if (index != null) {
+                // UPDATE 只改标签和头尾实体，其余字段沿用原记录
+                Relation merged = new Relation();
+                merged.setId(old.getId());
+                merged.setDocumentId(old.getDocumentId());
+                merged.setRelationLabelId(relation.getRelationLabelId());
+                merged.setHeadEntityId(relation.getHeadEntityId());
+                merged.setTailEntityId(relation.getTailEntityId());
+                merged.setCreatedAt(old.getCreatedAt());
+                index.upsert(merged);
+            }
+        }
+        return rows;
     }
 
     @Override
     public int delete(Long id) {
-        return relationMapper.delete(id);
+        Relation old = relationMapper.selectById(id);
+        int rows = relationMapper.delete(id);
+        if (old != null) {
+            RelationIndex index = written(old.getDocumentId());
+            if (index != null) index.remove(id);
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Relation> addAll(Long documentId, List<Relation> relations) {
+        // 同一文档的并发抽取依次写入，后者读到前者已插入的关系（不在事务中，逐条自动提交）
+        synchronized (addAllLocks.computeIfAbsent(documentId, k -> new Object())) {
+            return addAllLocked(documentId, relations);
+        }
+    }
+
+    private List<Relation> addAllLocked(Long documentId, List<Relation> relations) {
+        // 与 selectByDocumentAndLabel 的判重规则一致，一次取出文档已有关系在内存中比对
+        Set<String> seen = new HashSet<>();
+        for (Relation r : relationMapper.selectByDocumentId(documentId)) {
+            seen.add(dedupKey(r));
+        }
+        List<Relation> fresh = new ArrayList<>();
+        for (Relation r : relations) {
+            r.setDocumentId(documentId);
+            if (seen.add(dedupKey(r))) fresh.add(r);
+        }
+        for (int i = 0; i < fresh.size(); i += INSERT_BATCH) {
+            relationMapper.batchInsert(fresh.subList(i, Math.min(fresh.size(), i + INSERT_BATCH)));
+        }
+        RelationIndex index = written(documentId);
+        if (index != null) {
+            for (Relation r : fresh) index.upsert(r);
+        }
+        return fresh;
+    }
+
+    @Override
+    public List<Relation> getByEntity(Long entityId, String direction, Long labelId) {
+        RelationIndex.Direction dir;
+        try {
+            dir = RelationIndex.Direction.valueOf(direction.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BizException("direction 只能是 out / in / both");
+        }
+        return index(documentOf(entityId)).relationsOf(entityId, dir, labelId);
+    }
+
+    @Override
+    public List<Relation> getBetween(Long entityA, Long entityB, boolean directed) {
+        Long documentId = documentOf(entityA);
+        if (!documentId.equals(documentOf(entityB))) {
+            return List.of();   // 关系只存在于同一文档的实体之间
+        }
+        return index(documentId).between(entityA, entityB, directed);
+    }
+
+    @Override
+    public Map<Long, Integer> countByLabel(Long documentId, Long entityId) {
+        return index(documentId).labelCounts(entityId);
+    }
+
+    /**
+     * 实体被删除时数据库中的关系可能随之变化，丢弃该文档的索引，下次访问时重建
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentDataChanged(DocumentDataChangedEvent event) {
+        if (event.getKinds().contains(DocumentDataChangedEvent.Kind.ENTITIES)) {
+            versions.merge(event.getDocumentId(), 1L, Long::sum);
+            cache.remove(event.getDocumentId());
+        }
+    }
+
+    private RelationIndex index(Long documentId) {
+        RelationIndex index = cache.get(documentId);
+        if (index != null) return index;
+        long version = versions.getOrDefault(documentId, 0L);
+        RelationIndex loaded = new RelationIndex(documentId, relationMapper.selectByDocumentId(documentId));
+        // 加载期间有写入时读到的可能是写入前的数据，本次结果只返回、不缓存
+        versions.compute(documentId, (k, v) -> {
+            if ((v == null ? 0L : v) == version) cache.put(k, loaded);
+            return v;
+        });
+        return loaded;
+    }
+
+    /**
+     * 写库后调用：先递增版本，使正在进行的加载不再缓存旧数据，再返回需要同步更新的已缓存索引
+     */
+    private RelationIndex written(Long documentId) {
+        if (documentId == null) return null;
+        versions.merge(documentId, 1L, Long::sum);
+        return cache.get(documentId);
+    }
+
+    private static String dedupKey(Relation r) {
+        return r.getRelationLabelId() + ":" + r.getHeadEntityId() + ":" + r.getTailEntityId();
+    }
+
+    private Long documentOf(Long entityId) {
+        EntityItem entity = entityId == null ? null : entityItemMapper.selectById(entityId);
+        if (entity == null) {
+            throw new BizException("实体不存在: " + entityId);
+        }
+        return entity.getDocumentId();
     }
 }
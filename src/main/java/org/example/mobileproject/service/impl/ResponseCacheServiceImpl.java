@@ -0,0 +1,183 @@
+package org.example.mobileproject.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.event.DocumentDataChangedEvent;
+import org.example.mobileproject.event.KgGraphChangedEvent;
+import org.example.mobileproject.service.ResponseCacheService;
+import org.example.mobileproject.util.HashUtil;
+import org.example.mobileproject.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按 (资源, 文档) 缓存序列化后的 JSON 字节。每个键有一个版本号，写入提交后加 1；
+ * 加载前先记下版本，写回缓存时版本未变才生效，避免并发写入期间把旧数据放进缓存。
+ */
+@Service
+@RequiredArgsConstructor
+public class ResponseCacheServiceImpl implements ResponseCacheService {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${response-cache.max-entries:256}")
+    private int maxEntries;
+
+    @Value("${response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private LruCache<String, Entry> cache;
+
+    private static final class Entry {
+        final long version;
+        final String etag;
+        final byte[] body;      // gzip 为 true 时为压缩后的字节
+        final boolean gzip;
+
+        Entry(long version, String etag, byte[] body, boolean gzip) {
+            this.version = version;
+            this.etag = etag;
+            this.body = body;
+            this.gzip = gzip;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = new LruCache<>(maxEntries);
+    }
+
+    @Override
+    public ResponseEntity<byte[]> serve(Resource resource, Long documentId, String ifNoneMatch, String acceptEncoding,
+                                        Supplier<Object> loader) {
+        String key = resource + ":" + documentId;
+        long version = versions.getOrDefault(key, 0L);
+        Entry entry = cache.get(key);
+        String result = "hit";
+        if (entry == null || entry.version != version) {
+            entry = build(version, loader.get());
+            Entry built = entry;
+            // 加载期间有写入时版本已变化，本次结果只返回、不缓存
+            versions.compute(key, (k, v) -> {
+                if ((v == null ? 0L : v) == version) cache.put(k, built);
+                return v;
+            });
+            result = "miss";
+        }
+        if (matches(ifNoneMatch, entry.etag)) {
+            count(resource, "not_modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entry.etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        count(resource, result);
+
+        boolean clientGzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(entry.etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (entry.gzip && clientGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.body);
+        }
+        return builder.body(entry.gzip ? gunzip(entry.body) : entry.body);
+    }
+
+    @Override
+    public void invalidate(Resource resource, Long documentId) {
+        String key = resource + ":" + documentId;
+        versions.merge(key, 1L, Long::sum);
+        cache.remove(key);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGraphChanged(KgGraphChangedEvent event) {
+        if (event.getDocumentId() != null) invalidate(Resource.GRAPH, event.getDocumentId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentDataChanged(DocumentDataChangedEvent event) {
+        for (DocumentDataChangedEvent.Kind kind : event.getKinds()) {
+            switch (kind) {
+                case TOKENS:
+                    invalidate(Resource.TOKENS, event.getDocumentId());
+                    break;
+                case ENTITIES:
+                    invalidate(Resource.ENTITIES, event.getDocumentId());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private Entry build(long version, Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new BizException("响应序列化失败: " + e.getOriginalMessage());
+        }
+        String etag = "\"" + HashUtil.sha256Hex(json).substring(0, 32) + "\"";
+        if (json.length < gzipMinBytes) return new Entry(version, etag, json, false);
+        return new Entry(version, etag, gzip(json), true);
+    }
+
+    // If-None-Match 可能是逗号分隔的多个值、带 W/ 前缀（经代理压缩后）或 *
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private void count(Resource resource, String result) {
+        meterRegistry.counter("response.cache.requests", "resource", resource.name().toLowerCase(), "result", result)
+                .increment();
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
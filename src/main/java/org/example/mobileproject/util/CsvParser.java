@@ -0,0 +1,64 @@
+package org.example.mobileproject.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单行 CSV 解析：逗号分隔，支持双引号包裹与 "" 转义（不支持字段内换行）
+ */
+public class CsvParser {
+
+    public static final char BOM = '\uFEFF';
+
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cur.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
+
+    /**
+     * 去掉行首的 UTF-8 BOM
+     */
+    public static String stripBom(String line) {
+        if (line != null && !line.isEmpty() && line.charAt(0) == BOM) {
+            return line.substring(1);
+        }
+        return line;
+    }
+
+    /**
+     * 按 CSV 规则转义单个字段
+     */
+    public static String escape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -1,6 +1,5 @@
 package org.example.mobileproject.util;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.JdbcType;
@@ -8,6 +7,9 @@ import org.apache.ibatis.type.JdbcType;
 import java.sql.*;
 import java.util.Map;
 
+/**
+ * properties 等 JSON 列：读出时返回 LazyJsonMap，用到时才解析；写入未修改的 LazyJsonMap 时直接用原始文本
+ */
 public class JsonMapTypeHandler extends BaseTypeHandler<Map<String, Object>> {
 
     private static final ObjectMapper mapper = new ObjectMapper();
@@ -15,6 +17,10 @@ public class JsonMapTypeHandler extends BaseTypeHandler<Map<String, Object>> {
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i,
                                     Map<String, Object> parameter, JdbcType jdbcType) throws SQLException {
+        if (parameter instanceof LazyJsonMap) {
+            ps.setString(i, ((LazyJsonMap) parameter).toJson());
+            return;
+        }
         try {
             ps.setString(i, mapper.writeValueAsString(parameter));
         } catch (Exception e) {
@@ -38,11 +44,7 @@ public class JsonMapTypeHandler extends BaseTypeHandler<Map<String, Object>> {
     }
 
     private Map<String, Object> parse(String json) {
-        try {
-            if (json == null) return null;
-            return mapper.readValue(json, new TypeReference<Map<String, Object>>() {});
-        } catch (Exception e) {
-            throw new RuntimeException("JSON parse error", e);
-        }
+        if (json == null || json.isBlank() || json.equals("null")) return null;
+        return new LazyJsonMap(json);
     }
 }
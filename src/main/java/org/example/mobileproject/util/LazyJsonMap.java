@@ -0,0 +1,172 @@
+package org.example.mobileproject.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 延迟解析的 JSON 对象：从库里读出时只保存原始文本，第一次访问内容时才解析。
+ * 未解析或解析后未修改时，Jackson 序列化和写回数据库都直接使用原始文本，不再经过 Map。
+ * 解析过程加锁，可在多个线程间共享（如内存图谱索引中的节点）。
+ */
+@JsonSerialize(using = LazyJsonMap.Serializer.class)
+public class LazyJsonMap extends AbstractMap<String, Object> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private volatile String raw;                 // 修改后置空
+    private volatile Map<String, Object> parsed;
+
+    public LazyJsonMap(String raw) {
+        this.raw = raw;
+    }
+
+    /**
+     * 原始 JSON；解析后被修改过时重新序列化
+     */
+    public String toJson() {
+        String r = raw;
+        if (r != null) return r;
+        try {
+            return MAPPER.writeValueAsString(map());
+        } catch (IOException e) {
+            throw new IllegalStateException("JSON write error", e);
+        }
+    }
+
+    public boolean isParsed() {
+        return parsed != null;
+    }
+
+    /**
+     * 只读遍历不影响原始文本；经由迭代器删除、Entry.setValue（包括 replaceAll、values / keySet 上的修改）时置空
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Set<Entry<String, Object>> entries = map().entrySet();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Entry<String, Object>> it = entries.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        Entry<String, Object> e = it.next();
+                        return new SimpleEntry<>(e) {
+                            @Override
+                            public Object setValue(Object value) {
+                                raw = null;
+                                super.setValue(value);
+                                return e.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        raw = null;
+                        it.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return entries.contains(o);
+            }
+        };
+    }
+
+    @Override
+    public Object get(Object key) {
+        return map().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return map().size();
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        Map<String, Object> m = map();
+        raw = null;
+        return m.put(key, value);
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        Map<String, Object> m = map();
+        raw = null;
+        return m.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        map().clear();
+        raw = null;
+    }
+
+    private Map<String, Object> map() {
+        Map<String, Object> m = parsed;
+        if (m != null) return m;
+        synchronized (this) {
+            if (parsed == null) {
+                try {
+                    parsed = MAPPER.readValue(raw, MAP_TYPE);
+                } catch (IOException e) {
+                    throw new IllegalStateException("JSON parse error", e);
+                }
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * 未修改时原样输出原始 JSON
+     */
+    public static class Serializer extends JsonSerializer<LazyJsonMap> {
+        @Override
+        public void serialize(LazyJsonMap value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            String r = value.raw;
+            if (r != null) {
+                gen.writeRawValue(r);
+            } else {
+                serializers.defaultSerializeValue(value.map(), gen);
+            }
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, LazyJsonMap value) {
+            return value == null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.mobileproject.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 线程安全的固定容量 LRU 缓存
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> map;
+
+    public LruCache(int capacity) {
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * 不存在时计算并放入；计算过程不持锁，并发下可能重复计算，但结果相同
+     */
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V v = get(key);
+        if (v != null) return v;
+        v = loader.apply(key);
+        if (v != null) put(key, v);
+        return v;
+    }
+}
@@ -0,0 +1,10 @@
+-- 分析产物：CSV 关联分析结论 / 业务报告
+CREATE TABLE IF NOT EXISTS analysis_result (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    document_id BIGINT      NOT NULL,
+    kind        VARCHAR(32) NOT NULL,
+    fingerprint CHAR(64)    NULL,
+    content     LONGTEXT    NOT NULL,
+    created_at  DATETIME    NOT NULL,
+    KEY idx_analysis_result_document (document_id, kind, fingerprint)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
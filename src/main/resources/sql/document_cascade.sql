@@ -0,0 +1,7 @@
+-- 文档级联删除按 document_id 分块执行 DELETE ... LIMIT，各表需要以 document_id 开头的索引，
+-- 否则每块都会扫描全表并锁住大量无关行。已有同类索引的表跳过即可（relations 由 relations_index.sql 覆盖，
+-- analysis_result / kg_change_log / kg_node_layout 建表时已带）
+CREATE INDEX idx_document_tokens_document ON document_tokens (document_id, token_index);
+CREATE INDEX idx_entity_items_document ON entity_items (document_id, token_start);
+CREATE INDEX idx_kg_nodes_document ON kg_nodes (document_id);
+CREATE INDEX idx_kg_edges_document ON kg_edges (document_id);
@@ -0,0 +1,6 @@
+-- 文档列表分页：按 (created_at, id) 倒序做 keyset 翻页，摘要只读索引与长度列，不读正文
+ALTER TABLE documents
+    ADD COLUMN content_length INT GENERATED ALWAYS AS (CHAR_LENGTH(content)) STORED;
+CREATE INDEX idx_documents_created ON documents (created_at, id);
+
+-- 每行的实体 / 关系计数走 document_id 索引（见 document_cascade.sql 与 relations_index.sql）
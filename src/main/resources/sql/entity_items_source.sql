@@ -0,0 +1,3 @@
+-- entity_items 实体来源（执行一次）：manual 为人工标注，gazetteer 为词典预标注生成、尚未人工修改；
+-- 实体词典只统计 manual，避免自动标注的结果反过来强化词典
+ALTER TABLE entity_items ADD COLUMN source VARCHAR(16) NOT NULL DEFAULT 'manual' AFTER token_end;
@@ -0,0 +1,19 @@
+-- 图谱版本：每个文档一行，节点 / 边每次变更加 1
+CREATE TABLE IF NOT EXISTS kg_graph_versions (
+    document_id BIGINT   NOT NULL PRIMARY KEY,
+    version     BIGINT   NOT NULL,
+    updated_at  DATETIME NOT NULL
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 图谱变更日志：客户端按 since 版本增量同步
+CREATE TABLE IF NOT EXISTS kg_change_log (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    document_id BIGINT      NOT NULL,
+    version     BIGINT      NOT NULL,
+    op          VARCHAR(32) NOT NULL,
+    target_id   BIGINT      NULL,
+    payload     LONGTEXT    NULL,
+    created_at  DATETIME    NOT NULL,
+    UNIQUE KEY uk_kg_change_log_version (document_id, version),
+    KEY idx_kg_change_log_created (created_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,24 @@
+-- 跨文档全局图谱：全局节点由各文档节点经实体消解合并而来
+CREATE TABLE IF NOT EXISTS kg_global_nodes (
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    label_id     BIGINT       NOT NULL,
+    name         VARCHAR(255) NOT NULL,
+    norm_name    VARCHAR(255) NOT NULL,
+    member_count INT          NOT NULL DEFAULT 0,
+    created_at   DATETIME     NOT NULL,
+    updated_at   DATETIME     NOT NULL,
+    UNIQUE KEY uk_kg_global_nodes_label_name (label_id, norm_name),
+    KEY idx_kg_global_nodes_members (member_count)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 溯源：每个文档节点至多归属一个全局节点
+CREATE TABLE IF NOT EXISTS kg_global_node_links (
+    node_id        BIGINT      NOT NULL PRIMARY KEY,
+    global_node_id BIGINT      NOT NULL,
+    document_id    BIGINT      NOT NULL,
+    match_type     VARCHAR(16) NOT NULL,
+    score          DOUBLE      NOT NULL,
+    created_at     DATETIME    NOT NULL,
+    KEY idx_kg_global_node_links_global (global_node_id),
+    KEY idx_kg_global_node_links_document (document_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,12 @@
+-- 服务端计算的图谱布局坐标：每个节点一行；graph_version 为计算时的图谱版本（kg_graph_versions），
+-- 与当前版本一致时直接复用，否则以这些坐标为起点增量调整
+CREATE TABLE IF NOT EXISTS kg_node_layout (
+    node_id       BIGINT     NOT NULL PRIMARY KEY,
+    document_id   BIGINT     NOT NULL,
+    x             DOUBLE     NOT NULL,
+    y             DOUBLE     NOT NULL,
+    pinned        TINYINT(1) NOT NULL DEFAULT 0,   -- 用户拖拽固定的位置，重新布局时保持不动
+    graph_version BIGINT     NOT NULL,
+    updated_at    DATETIME   NOT NULL,
+    KEY idx_kg_node_layout_document (document_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
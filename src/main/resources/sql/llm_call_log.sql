@@ -0,0 +1,19 @@
+-- 大模型调用记录：耗时分段、token 用量、重试次数
+CREATE TABLE IF NOT EXISTS llm_call_log (
+    id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    document_id       BIGINT       NULL,
+    task_type         VARCHAR(64)  NOT NULL,
+    provider          VARCHAR(64)  NOT NULL,
+    model             VARCHAR(128) NOT NULL,
+    success           TINYINT(1)   NOT NULL,
+    retry_count       INT          NOT NULL DEFAULT 0,
+    queue_wait_ms     BIGINT       NULL,
+    connect_ms        BIGINT       NULL,
+    ttft_ms           BIGINT       NULL,
+    total_ms          BIGINT       NULL,
+    prompt_tokens     INT          NULL,
+    completion_tokens INT          NULL,
+    error_message     VARCHAR(512) NULL,
+    created_at        DATETIME     NOT NULL,
+    KEY idx_llm_call_log_document (document_id, task_type, model)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,6 @@
+-- relations 表的组合索引（执行一次）
+-- 以实体为中心的查询：按 (文档, 头实体) / (文档, 尾实体) 定位，标签在末位，按标签过滤与计数可直接走索引
+CREATE INDEX idx_relations_doc_head ON relations (document_id, head_entity_id, relation_label_id);
+CREATE INDEX idx_relations_doc_tail ON relations (document_id, tail_entity_id, relation_label_id);
+-- selectByDocumentAndLabel 的 (文档, 标签, 头, 尾) 精确查找
+CREATE INDEX idx_relations_doc_label_pair ON relations (document_id, relation_label_id, head_entity_id, tail_entity_id);
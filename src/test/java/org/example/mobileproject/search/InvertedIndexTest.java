@@ -0,0 +1,114 @@
+package org.example.mobileproject.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private Path dir;
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("inverted-index-test");
+        index = new InvertedIndex(dir, true, 2, 1000);
+        assertNull(index.open());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        System.gc();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path f : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                try {
+                    Files.deleteIfExists(f);
+                } catch (IOException ignored) {
+                    // 映射尚未释放
+                }
+            }
+        }
+    }
+
+    @Test
+    void phraseMustBeContiguous() throws IOException {
+        index.put(1, 0, "北京大学在海淀区");
+        index.put(2, 0, "北京的大学很多");
+        index.put(3, 0, "大学北京");
+        assertEquals(Set.of(1L), ids(search("北京大学")));
+        assertEquals(Set.of(1L), ids(search("\"北京大学\"")));
+        // 两个子句分别命中即可，不要求相邻
+        assertEquals(Set.of(1L, 2L, 3L), ids(search("北京 大学")));
+
+        // 同样的判断在磁盘段上也成立
+        index.flush();
+        assertEquals(Set.of(1L), ids(search("北京大学")));
+        assertEquals(Set.of(2L), ids(search("京的大")));
+    }
+
+    @Test
+    void singleCharMatchesAsPrefix() throws IOException {
+        index.put(1, 0, "知识图谱");
+        index.put(2, 0, "图");
+        index.put(3, 0, "实体关系");
+        assertEquals(Set.of(1L, 2L), ids(search("图")));
+        index.flush();
+        assertEquals(Set.of(1L, 2L), ids(search("图")));
+        assertEquals(Set.of(3L), ids(search("实体 系")));
+    }
+
+    @Test
+    void mergeAndReopenKeepLiveDocsOnly() throws IOException {
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 5; i++) index.put(round * 10 + i, round, "第" + round + "轮 编号 " + i);
+            index.flush();
+        }
+        assertTrue(index.segmentCount() <= 2);
+        index.remove(12);
+        index.removeGroup(3);
+        index.put(0, 0, "改写后的文档");
+        index.flush();
+        assertEquals(14, index.size());
+        assertEquals(Set.of(10L, 11L, 13L, 14L), ids(search("第1轮")));
+
+        InvertedIndex reopened = new InvertedIndex(dir, true, 2, 1000);
+        assertTrue(reopened.open().isEmpty());
+        assertEquals(14, reopened.size());
+        Set<Long> rewritten = new HashSet<>();
+        for (InvertedIndex.Hit hit : reopened.search(SearchQuery.parse("改写"), 10).hits) rewritten.add(hit.id);
+        assertEquals(Set.of(0L), rewritten);
+        assertEquals(0, reopened.search(SearchQuery.parse("第3轮"), 10).total);
+    }
+
+    @Test
+    void journalSurvivesUntilFlush() throws IOException {
+        index.put(1, 0, "已持久化");
+        index.flush();
+        index.journal(42);
+        index.put(42, 0, "尚未持久化");
+
+        InvertedIndex reopened = new InvertedIndex(dir, true, 2, 1000);
+        assertEquals(Set.of(42L), reopened.open());
+        assertEquals(1, reopened.size());
+    }
+
+    private InvertedIndex.Result search(String q) {
+        return index.search(SearchQuery.parse(q), 10);
+    }
+
+    private static Set<Long> ids(InvertedIndex.Result result) {
+        Set<Long> ids = new HashSet<>();
+        for (InvertedIndex.Hit hit : result.hits) ids.add(hit.id);
+        return ids;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.mobileproject.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingsBufferTest {
+
+    @Test
+    void roundTripsVarIntsOfEveryWidth() {
+        // 差值分别占 1 / 2 / 3 / 4 / 5 个字节
+        int[] ords = {0, 1, 200, 20_000, 3_000_000, Integer.MAX_VALUE - 1};
+        int[][] positions = {{0}, {5, 127}, {128, 16_383, 16_384}, {2_097_151, 2_097_152}, {268_435_455, 268_435_456}, {Integer.MAX_VALUE}};
+        PostingsBuffer buffer = new PostingsBuffer();
+        for (int i = 0; i < ords.length; i++) buffer.add(ords[i], positions[i], positions[i].length);
+        assertEquals(ords.length, buffer.df);
+
+        PostingsCursor cursor = new PostingsCursor(buffer.view(), buffer.df);
+        for (int i = 0; i < ords.length; i++) {
+            assertTrue(cursor.next());
+            assertEquals(ords[i], cursor.ord());
+            assertEquals(positions[i].length, cursor.tf());
+            assertArrayEquals(positions[i], Arrays.copyOf(cursor.positions(), cursor.tf()));
+        }
+        assertFalse(cursor.next());
+        assertEquals(Integer.MAX_VALUE, cursor.ord());
+    }
+
+    @Test
+    void advanceSkipsToFirstOrdNotBelowTarget() {
+        PostingsBuffer buffer = new PostingsBuffer();
+        for (int ord = 0; ord < 1000; ord += 10) buffer.add(ord, new int[]{ord}, 1);
+
+        PostingsCursor cursor = new PostingsCursor(buffer.view(), buffer.df);
+        assertTrue(cursor.advance(55));
+        assertEquals(60, cursor.ord());
+        assertEquals(60, cursor.positions()[0]);
+        assertTrue(cursor.advance(60));
+        assertEquals(60, cursor.ord());
+        assertFalse(cursor.advance(1000));
+    }
+
+    @Test
+    void resetStartsAFreshList() {
+        PostingsBuffer buffer = new PostingsBuffer();
+        buffer.add(7, new int[]{1, 2}, 2);
+        buffer.reset();
+        buffer.add(3, new int[]{4}, 1);
+
+        PostingsCursor cursor = new PostingsCursor(buffer.view(), buffer.df);
+        assertTrue(cursor.next());
+        assertEquals(3, cursor.ord());
+        assertEquals(4, cursor.positions()[0]);
+        assertFalse(cursor.next());
+    }
+}
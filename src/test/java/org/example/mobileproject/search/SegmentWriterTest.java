@@ -0,0 +1,109 @@
+package org.example.mobileproject.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentWriterTest {
+
+    private Path dir;
+    private SegmentWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("segment-writer-test");
+        writer = new SegmentWriter(dir);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        System.gc();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path f : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                try {
+                    Files.deleteIfExists(f);
+                } catch (IOException ignored) {
+                    // 映射尚未释放
+                }
+            }
+        }
+    }
+
+    @Test
+    void writtenSegmentKeepsDocsAndPostings() throws IOException {
+        MemorySegment memory = new MemorySegment();
+        memory.add(11, 1, TextAnalyzer.analyze("北京大学"));
+        memory.add(12, 1, TextAnalyzer.analyze("大学北京"));
+        writer.write(memory, "seg_0");
+
+        MappedSegment mapped = MappedSegment.open(dir, "seg_0");
+        assertEquals(2, mapped.docCount());
+        assertEquals(11L, mapped.docId(0));
+        assertEquals(12L, mapped.docId(1));
+        assertEquals(1L, mapped.group(1));
+        assertEquals(4, mapped.length(0));
+
+        PostingsCursor cursor = mapped.postings("北京");
+        assertNotNull(cursor);
+        assertTrue(cursor.next());
+        assertEquals(0, cursor.ord());
+        assertEquals(0, cursor.positions()[0]);
+        assertTrue(cursor.next());
+        assertEquals(1, cursor.ord());
+        assertEquals(2, cursor.positions()[0]);
+        assertFalse(cursor.next());
+        assertNull(mapped.postings("上海"));
+    }
+
+    @Test
+    void mergeDropsDeletedDocsAndRemapsOrds() throws IOException {
+        MemorySegment first = new MemorySegment();
+        first.add(1, 0, TextAnalyzer.analyze("abc"));
+        first.add(2, 0, TextAnalyzer.analyze("abd"));
+        first.add(3, 0, TextAnalyzer.analyze("xab"));
+        writer.write(first, "seg_0");
+        MemorySegment second = new MemorySegment();
+        second.add(4, 0, TextAnalyzer.analyze("ab ab"));
+        writer.write(second, "seg_1");
+
+        MappedSegment a = MappedSegment.open(dir, "seg_0");
+        MappedSegment b = MappedSegment.open(dir, "seg_1");
+        a.deleted.set(1);
+        int[][] remap = writer.merge(List.of(a, b), "seg_2");
+        assertArrayEquals(new int[]{0, -1, 1}, remap[0]);
+        assertArrayEquals(new int[]{2}, remap[1]);
+
+        MappedSegment merged = MappedSegment.open(dir, "seg_2");
+        assertEquals(3, merged.docCount());
+        assertEquals(1L, merged.docId(0));
+        assertEquals(3L, merged.docId(1));
+        assertEquals(4L, merged.docId(2));
+        assertNull(merged.postings("bd"));
+
+        List<Integer> ords = new ArrayList<>();
+        List<Integer> tfs = new ArrayList<>();
+        PostingsCursor cursor = merged.postings("ab");
+        while (cursor.next()) {
+            ords.add(cursor.ord());
+            tfs.add(cursor.tf());
+        }
+        assertEquals(List.of(0, 1, 2), ords);
+        assertEquals(List.of(1, 1, 2), tfs);
+        cursor = merged.postings("ab");
+        cursor.advance(1);
+        assertEquals(1, cursor.positions()[0]);
+        cursor.next();
+        assertEquals(0, cursor.positions()[0]);
+        assertEquals(3, cursor.positions()[1]);
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.mobileproject.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.mobileproject.common.AiTaskType;
+import org.example.mobileproject.common.BizException;
+import org.example.mobileproject.config.AiProperties;
+import org.example.mobileproject.entity.LlmCallLog;
+import org.example.mobileproject.entity.LlmRequest;
+import org.example.mobileproject.entity.LlmUsageSummary;
+import org.example.mobileproject.entity.ModelTarget;
+import org.example.mobileproject.service.LlmUsageService;
+import org.example.mobileproject.service.ModelRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmClientImplTest {
+
+    private static final String CHUNK = "data: {\"choices\":[{\"delta\":{\"content\":\"x\"}}]}\n\n";
+
+    private HttpServer server;
+    private volatile long lineIntervalMs;   // 服务端每隔多久发一行，0 表示发一行后不再响应
+    private AiProperties.Provider provider;
+    private volatile List<ModelTarget> candidates = List.of(new ModelTarget("local", "m"));
+    private SimpleMeterRegistry registry;
+    private LlmClientImpl client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chat", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                while (true) {
+                    out.write(CHUNK.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(lineIntervalMs > 0 ? lineIntervalMs : 10_000);
+                }
+            } catch (Exception ignored) {
+                // 客户端关闭连接
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        provider = new AiProperties.Provider();
+        provider.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/chat");
+        provider.setApiKey("test");
+        provider.setReadTimeoutMs(300);
+        provider.setTotalTimeoutMs(5000);
+        provider.setMaxConcurrency(1);
+        AiProperties properties = new AiProperties();
+        properties.getProviders().put("local", provider);
+
+        ModelRouter router = new ModelRouter() {
+            @Override
+            public List<ModelTarget> route(AiTaskType taskType) {
+                return candidates;
+            }
+
+            @Override
+            public void invalidateTemplates() {
+            }
+
+            @Override
+            public void recordSuccess(ModelTarget target, long latencyMs) {
+            }
+
+            @Override
+            public void recordFailure(ModelTarget target, long latencyMs) {
+            }
+
+            @Override
+            public Map<String, Object> stats() {
+                return Map.of();
+            }
+        };
+        LlmUsageService usage = new LlmUsageService() {
+            @Override
+            public void record(LlmCallLog log) {
+            }
+
+            @Override
+            public List<LlmUsageSummary> summaryByDocument(Long documentId) {
+                return List.of();
+            }
+        };
+        registry = new SimpleMeterRegistry();
+        client = new LlmClientImpl(properties, router, usage, registry, new ObjectMapper());
+        client.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void stalledStreamFailsAfterIdleTimeoutAndReleasesPermit() {
+        for (int i = 0; i < 2; i++) {
+            long start = System.currentTimeMillis();
+            BizException e = assertThrows(BizException.class,
+                    () -> client.chat(LlmRequest.of(AiTaskType.EXTRACTION, null, "hi")));
+            assertTrue(e.getMessage().contains("未收到数据"), e.getMessage());
+            assertTrue(System.currentTimeMillis() - start < 3000);
+        }
+    }
+
+    @Test
+    void streamThatKeepsTricklingFailsAtTotalDeadline() {
+        lineIntervalMs = 50;
+        provider.setTotalTimeoutMs(600);
+        long start = System.currentTimeMillis();
+        BizException e = assertThrows(BizException.class,
+                () -> client.chat(LlmRequest.of(AiTaskType.EXTRACTION, null, "hi")));
+        assertTrue(e.getMessage().contains("总时限"), e.getMessage());
+        assertTrue(System.currentTimeMillis() - start < 3000);
+    }
+
+    @Test
+    void retriesCountedOncePerCall() {
+        candidates = List.of(new ModelTarget("local", "a"), new ModelTarget("local", "b"));
+        assertThrows(BizException.class, () -> client.chat(LlmRequest.of(AiTaskType.EXTRACTION, null, "hi")));
+        assertEquals(1.0, registry.get("llm.call.retries").counter().count());
+    }
+}